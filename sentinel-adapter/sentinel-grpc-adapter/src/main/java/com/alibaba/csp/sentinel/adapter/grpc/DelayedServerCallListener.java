@@ -0,0 +1,103 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.grpc;
+
+import io.grpc.ServerCall;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A server call listener which buffers the events until the real listener is set,
+ * which is used when the call is delayed for queueing of rate limiting.
+ *
+ * @param <ReqT> type of the request message
+ * @since 1.8.8
+ */
+class DelayedServerCallListener<ReqT> extends ServerCall.Listener<ReqT> {
+
+    private final List<Runnable> pendingEvents = new ArrayList<>();
+    private volatile boolean cancelled = false;
+    private boolean passThrough = false;
+    private ServerCall.Listener<ReqT> realListener;
+
+    /**
+     * Set the real listener and replay the buffered events on it in order.
+     *
+     * @param listener the real listener
+     */
+    void setListener(ServerCall.Listener<ReqT> listener) {
+        this.realListener = listener;
+        List<Runnable> toRun = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                if (pendingEvents.isEmpty()) {
+                    passThrough = true;
+                    return;
+                }
+                toRun.addAll(pendingEvents);
+                pendingEvents.clear();
+            }
+            for (Runnable event : toRun) {
+                event.run();
+            }
+            toRun.clear();
+        }
+    }
+
+    /**
+     * @return whether the call has been cancelled by the client before the real listener is set
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void delayOrExecute(Runnable event) {
+        synchronized (this) {
+            if (!passThrough) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        event.run();
+    }
+
+    @Override
+    public void onMessage(final ReqT message) {
+        delayOrExecute(() -> realListener.onMessage(message));
+    }
+
+    @Override
+    public void onHalfClose() {
+        delayOrExecute(() -> realListener.onHalfClose());
+    }
+
+    @Override
+    public void onCancel() {
+        cancelled = true;
+        delayOrExecute(() -> realListener.onCancel());
+    }
+
+    @Override
+    public void onComplete() {
+        delayOrExecute(() -> realListener.onComplete());
+    }
+
+    @Override
+    public void onReady() {
+        delayOrExecute(() -> realListener.onReady());
+    }
+}
@@ -15,11 +15,14 @@
  */
 package com.alibaba.csp.sentinel.adapter.grpc;
 
+import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.AssertUtil;
 import io.grpc.ForwardingServerCall;
 import io.grpc.ForwardingServerCallListener;
 import io.grpc.Metadata;
@@ -29,6 +32,7 @@ import io.grpc.ServerInterceptor;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -42,6 +46,10 @@ import java.util.concurrent.atomic.AtomicReference;
  *      .build();
  * </pre>
  * <p>
+ * To avoid blocking the threads of the server for queueing of rate limiting, create the interceptor
+ * with an executor (see {@link #SentinelGrpcServerInterceptor(Executor)}), so that the call will be
+ * started on the executor after the queueing time elapses.
+ * <p>
  * For client interceptor, see {@link SentinelGrpcClientInterceptor}.
  *
  * @author Eric Zhao
@@ -51,48 +59,40 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
             "Flow control limit exceeded (server side)");
     private static final StatusRuntimeException STATUS_RUNTIME_EXCEPTION = new StatusRuntimeException(Status.CANCELLED);
 
+    private final Executor queueingExecutor;
+
+    public SentinelGrpcServerInterceptor() {
+        this.queueingExecutor = null;
+    }
+
+    /**
+     * Create an interceptor which won't block the calling thread for queueing of rate limiting.
+     * Instead, the call will be started on the given executor after the queueing time elapses.
+     *
+     * @param queueingExecutor the executor to start the delayed calls, typically the executor of the server
+     * @since 1.8.8
+     */
+    public SentinelGrpcServerInterceptor(Executor queueingExecutor) {
+        AssertUtil.notNull(queueingExecutor, "queueingExecutor cannot be null");
+        this.queueingExecutor = queueingExecutor;
+    }
+
     @Override
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
         String fullMethodName = call.getMethodDescriptor().getFullMethodName();
         // Remote address: serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
-        Entry entry = null;
+        AsyncEntry entry = null;
         try {
-            entry = SphU.asyncEntry(fullMethodName, EntryType.IN);
-            final AtomicReference<Entry> atomicReferenceEntry = new AtomicReference<>(entry);
-            // Allow access, forward the call.
-            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(
-                    next.startCall(
-                            new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
-                                @Override
-                                public void close(Status status, Metadata trailers) {
-                                    Entry entry = atomicReferenceEntry.get();
-                                    if (entry != null) {
-                                        // Record the exception metrics.
-                                        if (!status.isOk()) {
-                                            Tracer.traceEntry(status.asRuntimeException(), entry);
-                                        }
-                                        //entry exit when the call be closed
-                                        entry.exit();
-                                    }
-                                    super.close(status, trailers);
-                                }
-                            }, headers)) {
-                /**
-                 * If call was canceled, onCancel will be called. and the close will not be called
-                 * so the server is encouraged to abort processing to save resources by onCancel
-                 * @see ServerCall.Listener#onCancel()
-                 */
-                @Override
-                public void onCancel() {
-                    Entry entry = atomicReferenceEntry.get();
-                    if (entry != null) {
-                        Tracer.traceEntry(STATUS_RUNTIME_EXCEPTION, entry);
-                        entry.exit();
-                        atomicReferenceEntry.set(null);
-                    }
-                    super.onCancel();
+            if (queueingExecutor == null) {
+                entry = SphU.asyncEntry(fullMethodName, EntryType.IN);
+            } else {
+                entry = SphU.asyncEntryWithDeferredQueueing(fullMethodName, ResourceTypeConstants.COMMON,
+                    EntryType.IN, 1, null);
+                if (entry.getQueueingDelayNanos() > 0 || entry.hasDeferredChecks()) {
+                    return startCallAfterQueueing(entry, call, headers, next);
                 }
-            };
+            }
+            return startCall(entry, call, headers, next);
         } catch (BlockException e) {
             call.close(FLOW_CONTROL_BLOCK, new Metadata());
             return new ServerCall.Listener<ReqT>() {
@@ -106,4 +106,72 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
             throw e;
         }
     }
+
+    private <ReqT, RespT> ServerCall.Listener<ReqT> startCallAfterQueueing(AsyncEntry entry,
+                                                                          ServerCall<ReqT, RespT> call,
+                                                                          Metadata headers,
+                                                                          ServerCallHandler<ReqT, RespT> next) {
+        DelayedServerCallListener<ReqT> delayedListener = new DelayedServerCallListener<>();
+        entry.whenQueueingDone().whenCompleteAsync((done, t) -> {
+            if (t != null) {
+                // Blocked by a deferred check (e.g. the cluster flow control), exiting records it as blocked.
+                entry.exit();
+                call.close(FLOW_CONTROL_BLOCK, new Metadata());
+                return;
+            }
+            if (delayedListener.isCancelled()) {
+                // The client has gone away while queueing, so the call won't be started.
+                Tracer.traceEntry(STATUS_RUNTIME_EXCEPTION, entry);
+                entry.exit();
+                return;
+            }
+            try {
+                delayedListener.setListener(startCall(entry, call, headers, next));
+            } catch (RuntimeException e) {
+                Tracer.traceEntry(e, entry);
+                entry.exit();
+                call.close(Status.fromThrowable(e), new Metadata());
+            }
+        }, queueingExecutor);
+        return delayedListener;
+    }
+
+    private <ReqT, RespT> ServerCall.Listener<ReqT> startCall(Entry entry, ServerCall<ReqT, RespT> call,
+                                                             Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        final AtomicReference<Entry> atomicReferenceEntry = new AtomicReference<>(entry);
+        // Allow access, forward the call.
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(
+                next.startCall(
+                        new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+                            @Override
+                            public void close(Status status, Metadata trailers) {
+                                Entry entry = atomicReferenceEntry.get();
+                                if (entry != null) {
+                                    // Record the exception metrics.
+                                    if (!status.isOk()) {
+                                        Tracer.traceEntry(status.asRuntimeException(), entry);
+                                    }
+                                    //entry exit when the call be closed
+                                    entry.exit();
+                                }
+                                super.close(status, trailers);
+                            }
+                        }, headers)) {
+            /**
+             * If call was canceled, onCancel will be called. and the close will not be called
+             * so the server is encouraged to abort processing to save resources by onCancel
+             * @see ServerCall.Listener#onCancel()
+             */
+            @Override
+            public void onCancel() {
+                Entry entry = atomicReferenceEntry.get();
+                if (entry != null) {
+                    Tracer.traceEntry(STATUS_RUNTIME_EXCEPTION, entry);
+                    entry.exit();
+                    atomicReferenceEntry.set(null);
+                }
+                super.onCancel();
+            }
+        };
+    }
 }
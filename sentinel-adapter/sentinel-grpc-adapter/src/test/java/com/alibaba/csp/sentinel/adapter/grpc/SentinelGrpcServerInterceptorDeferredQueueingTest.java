@@ -0,0 +1,124 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.grpc;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for {@link SentinelGrpcServerInterceptor} with deferred queueing of rate limiting.
+ */
+public class SentinelGrpcServerInterceptorDeferredQueueingTest {
+    private final String fullMethodName = "com.alibaba.sentinel.examples.FooService/deferredHello";
+
+    private final SentinelGrpcServerInterceptor interceptor = new SentinelGrpcServerInterceptor(Runnable::run);
+
+    @SuppressWarnings("unchecked")
+    private ServerCall<String, String> mockCall() {
+        MethodDescriptor.Marshaller<String> marshaller = mock(MethodDescriptor.Marshaller.class);
+        MethodDescriptor<String, String> methodDescriptor = MethodDescriptor.<String, String>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(fullMethodName)
+            .setRequestMarshaller(marshaller)
+            .setResponseMarshaller(marshaller)
+            .build();
+        ServerCall<String, String> call = mock(ServerCall.class);
+        when(call.getMethodDescriptor()).thenReturn(methodDescriptor);
+        return call;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDelayCallWithoutBlocking() throws Exception {
+        FlowRule rule = new FlowRule(fullMethodName)
+            .setCount(5)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(2000);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        ServerCall.Listener<String> realListener = mock(ServerCall.Listener.class);
+        ServerCallHandler<String, String> next = mock(ServerCallHandler.class);
+        when(next.startCall(any(ServerCall.class), any(Metadata.class))).thenReturn(realListener);
+
+        interceptor.interceptCall(mockCall(), new Metadata(), next);
+        long start = System.currentTimeMillis();
+        ServerCall.Listener<String> delayed = interceptor.interceptCall(mockCall(), new Metadata(), next);
+        ServerCall.Listener<String> cancelled = interceptor.interceptCall(mockCall(), new Metadata(), next);
+        // The calls exceeding the rate are delayed rather than blocking the current thread.
+        assertTrue(System.currentTimeMillis() - start < 150);
+        assertTrue(delayed instanceof DelayedServerCallListener);
+        verify(next, times(1)).startCall(any(ServerCall.class), any(Metadata.class));
+
+        // Events are buffered until the call is started.
+        delayed.onMessage("hello");
+        delayed.onHalfClose();
+        verify(realListener, never()).onMessage("hello");
+        cancelled.onCancel();
+
+        verify(next, timeout(2000).times(2)).startCall(any(ServerCall.class), any(Metadata.class));
+        InOrder inOrder = inOrder(realListener);
+        inOrder.verify(realListener).onMessage("hello");
+        inOrder.verify(realListener).onHalfClose();
+        // The call cancelled by the client while queueing should never be started.
+        Thread.sleep(400);
+        verify(next, times(2)).startCall(any(ServerCall.class), any(Metadata.class));
+        assertFalse(((DelayedServerCallListener<String>)delayed).isCancelled());
+
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(fullMethodName, EntryType.IN);
+        assertNotNull(clusterNode);
+        assertEquals(3, clusterNode.totalPass());
+        assertEquals(0, clusterNode.blockRequest());
+        // Only the cancelled entry has exited.
+        assertEquals(1, clusterNode.totalException());
+    }
+
+    @Before
+    public void cleanUpBefore() {
+        FlowRuleManager.loadRules(null);
+    }
+
+    @After
+    public void cleanUpAfter() {
+        FlowRuleManager.loadRules(null);
+    }
+}
@@ -34,6 +34,7 @@ public class EntryConfig {
     private final int acquireCount;
     private final Object[] args;
     private final ContextConfig contextConfig;
+    private final boolean deferQueueing;
 
     public EntryConfig(String resourceName) {
         this(resourceName, EntryType.OUT);
@@ -66,6 +67,17 @@ public class EntryConfig {
 
     public EntryConfig(String resourceName, int resourceType, EntryType entryType, int acquireCount, Object[] args,
                        ContextConfig contextConfig) {
+        this(resourceName, resourceType, entryType, acquireCount, args, contextConfig, false);
+    }
+
+    /**
+     * @param deferQueueing whether the queueing time of traffic shaping (e.g. rate limiter mode) should be
+     *                      waited asynchronously by delaying the subscription, rather than blocking the
+     *                      subscribing thread
+     * @since 1.8.8
+     */
+    public EntryConfig(String resourceName, int resourceType, EntryType entryType, int acquireCount, Object[] args,
+                       ContextConfig contextConfig, boolean deferQueueing) {
         AssertUtil.assertNotBlank(resourceName, "resourceName cannot be blank");
         AssertUtil.notNull(entryType, "entryType cannot be null");
         AssertUtil.isTrue(acquireCount > 0, "acquireCount should be positive");
@@ -76,6 +88,7 @@ public class EntryConfig {
         this.args = args;
         // Constructed ContextConfig should be valid here. Null is allowed here.
         this.contextConfig = contextConfig;
+        this.deferQueueing = deferQueueing;
     }
 
     public String getResourceName() {
@@ -105,6 +118,13 @@ public class EntryConfig {
         return resourceType;
     }
 
+    /**
+     * @since 1.8.8
+     */
+    public boolean isDeferQueueing() {
+        return deferQueueing;
+    }
+
     @Override
     public String toString() {
         return "EntryConfig{" +
@@ -114,6 +134,7 @@ public class EntryConfig {
             ", acquireCount=" + acquireCount +
             ", args=" + Arrays.toString(args) +
             ", contextConfig=" + contextConfig +
+            ", deferQueueing=" + deferQueueing +
             '}';
     }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+/**
+ * Global config of the Reactor based web adapters (Spring WebFlux and Spring Cloud Gateway).
+ *
+ * @since 1.8.8
+ */
+public final class SentinelReactorConfig {
+
+    /**
+     * Whether the web filters wait for the queueing time of traffic shaping and the cluster checks
+     * asynchronously (see {@link EntryConfig#isDeferQueueing()}), so that the event loops won't be blocked.
+     * Enabled by default.
+     */
+    public static final String WEB_DEFER_QUEUEING_KEY = "csp.sentinel.reactor.web.defer.queueing";
+
+    private static final String FALSE_STR = "false";
+
+    public static boolean isWebDeferQueueing() {
+        return !FALSE_STR.equalsIgnoreCase(SentinelConfig.getConfig(WEB_DEFER_QUEUEING_KEY));
+    }
+
+    private SentinelReactorConfig() {}
+}
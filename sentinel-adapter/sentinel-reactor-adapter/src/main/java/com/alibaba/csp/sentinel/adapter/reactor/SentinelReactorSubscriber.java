@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -26,8 +27,11 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.function.Supplier;
 
+import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.context.Context;
 
 /**
@@ -82,6 +86,62 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
         }
     }
 
+    /**
+     * Subscribe to the source. If the queueing time is deferred, the entry is created before subscribing to
+     * the source, and the source is subscribed after the queueing time elapses (and the remote checks are done),
+     * so that the work of the source (e.g. the handler of a web request) is delayed as well, without blocking
+     * the subscribing thread.
+     *
+     * @param source the source to subscribe
+     * @since 1.8.8
+     */
+    public void subscribeTo(Publisher<? extends T> source) {
+        if (!entryConfig.isDeferQueueing()) {
+            source.subscribe(this);
+            return;
+        }
+        doWithContextOrCurrent(() -> actual.currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
+            () -> entryBeforeSubscribed(source));
+    }
+
+    private void entryBeforeSubscribed(Publisher<? extends T> source) {
+        ContextConfig sentinelContextConfig = entryConfig.getContextConfig();
+        if (sentinelContextConfig != null) {
+            // If current we're already in a context, the context config won't work.
+            ContextUtil.enter(sentinelContextConfig.getContextName(), sentinelContextConfig.getOrigin());
+        }
+        try {
+            AsyncEntry entry = SphU.asyncEntryWithDeferredQueueing(entryConfig.getResourceName(),
+                entryConfig.getResourceType(), entryConfig.getEntryType(), entryConfig.getAcquireCount(),
+                entryConfig.getArgs());
+            this.currentEntry = entry;
+            if (entry.getQueueingDelayNanos() > 0 || entry.hasDeferredChecks()) {
+                // Subscribe after the queueing time elapses (and the remote checks are done),
+                // on the parallel scheduler rather than the Sentinel scheduler thread.
+                entry.whenQueueingDone().whenComplete((done, t) -> Schedulers.parallel().schedule(() -> {
+                    if (t == null) {
+                        source.subscribe(this);
+                    } else {
+                        // Blocked by a deferred check, completing the entry records it as blocked.
+                        tryCompleteEntry();
+                        Operators.error(actual, t instanceof CompletionException && t.getCause() != null
+                            ? t.getCause() : t);
+                    }
+                }));
+            } else {
+                source.subscribe(this);
+            }
+        } catch (BlockException ex) {
+            // Mark as completed (exited) explicitly.
+            entryExited.set(true);
+            Operators.error(actual, ex);
+        } finally {
+            if (sentinelContextConfig != null) {
+                ContextUtil.exit();
+            }
+        }
+    }
+
     private void entryWhenSubscribed() {
         ContextConfig sentinelContextConfig = entryConfig.getContextConfig();
         if (sentinelContextConfig != null) {
@@ -109,6 +169,11 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     protected void hookOnSubscribe(Subscription subscription) {
+        if (currentEntry != null) {
+            // The entry has been created before subscribing to the source.
+            actual.onSubscribe(this);
+            return;
+        }
         doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
             this::entryWhenSubscribed);
     }
@@ -3,12 +3,18 @@ package com.alibaba.csp.sentinel.adapter.reactor;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -184,6 +190,41 @@ public class MonoSentinelOperatorIntegrationTest {
         FlowRuleManager.loadRules(new ArrayList<>());
     }
 
+    @Test
+    public void testRateLimiterDelaysSubscriptionWithoutBlocking() throws Exception {
+        String resourceName = createResourceName("testRateLimiterDelaysSubscriptionWithoutBlocking");
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(5)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER).setMaxQueueingTimeMs(1000)));
+        EntryConfig config = new EntryConfig(resourceName, ResourceTypeConstants.COMMON, EntryType.OUT, 1,
+            new Object[0], null, true);
+        try {
+            long start = System.currentTimeMillis();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            AtomicInteger subscribed = new AtomicInteger();
+            for (int i = 0; i < 3; i++) {
+                int value = i;
+                futures.add(Mono.fromCallable(() -> {
+                    subscribed.incrementAndGet();
+                    return value;
+                }).transform(new SentinelReactorTransformer<>(config)).toFuture());
+            }
+            // Subscribing should not block the current thread for queueing.
+            assertTrue(System.currentTimeMillis() - start < 150);
+            // The source of the queued requests isn't subscribed until the queueing time elapses.
+            assertEquals(1, subscribed.get());
+            assertEquals(0, futures.get(0).get(1, TimeUnit.SECONDS).intValue());
+            assertEquals(2, futures.get(2).get(2, TimeUnit.SECONDS).intValue());
+            // The 3rd request should be delayed for about 2 intervals (200 ms each).
+            assertTrue(System.currentTimeMillis() - start >= 300);
+
+            ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+            assertNotNull(cn);
+            assertEquals(3, cn.totalPass());
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<>());
+        }
+    }
+
     private String createResourceName(String resourceName) {
         return "reactor_test_mono_" + resourceName;
     }
@@ -25,6 +25,7 @@ import com.alibaba.csp.sentinel.adapter.gateway.sc.api.matcher.WebExchangeApiMat
 import com.alibaba.csp.sentinel.adapter.gateway.sc.callback.GatewayCallbackManager;
 import com.alibaba.csp.sentinel.adapter.reactor.ContextConfig;
 import com.alibaba.csp.sentinel.adapter.reactor.EntryConfig;
+import com.alibaba.csp.sentinel.adapter.reactor.SentinelReactorConfig;
 import com.alibaba.csp.sentinel.adapter.reactor.SentinelReactorTransformer;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -73,6 +74,8 @@ public class SentinelGatewayFilter implements GatewayFilter, GlobalFilter, Order
         Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
 
         Mono<Void> asyncResult = chain.filter(exchange);
+        // Don't block the event loop with the queueing time or the cluster checks.
+        boolean deferQueueing = SentinelReactorConfig.isWebDeferQueueing();
         if (route != null) {
             String routeId = route.getId();
             Object[] params = paramParser.parseParameterFor(routeId, exchange,
@@ -82,7 +85,7 @@ public class SentinelGatewayFilter implements GatewayFilter, GlobalFilter, Order
                 .orElse("");
             asyncResult = asyncResult.transform(
                 new SentinelReactorTransformer<>(new EntryConfig(routeId, ResourceTypeConstants.COMMON_API_GATEWAY,
-                    EntryType.IN, 1, params, new ContextConfig(contextName(routeId), origin)))
+                    EntryType.IN, 1, params, new ContextConfig(contextName(routeId), origin), deferQueueing))
             );
         }
 
@@ -92,7 +95,7 @@ public class SentinelGatewayFilter implements GatewayFilter, GlobalFilter, Order
                 r -> r.getResourceMode() == SentinelGatewayConstants.RESOURCE_MODE_CUSTOM_API_NAME);
             asyncResult = asyncResult.transform(
                 new SentinelReactorTransformer<>(new EntryConfig(apiName, ResourceTypeConstants.COMMON_API_GATEWAY,
-                    EntryType.IN, 1, params))
+                    EntryType.IN, 1, params, null, deferQueueing))
             );
         }
 
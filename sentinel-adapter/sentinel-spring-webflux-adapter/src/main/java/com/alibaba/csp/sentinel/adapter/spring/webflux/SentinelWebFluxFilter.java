@@ -21,6 +21,7 @@ import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.adapter.reactor.ContextConfig;
 import com.alibaba.csp.sentinel.adapter.reactor.EntryConfig;
+import com.alibaba.csp.sentinel.adapter.reactor.SentinelReactorConfig;
 import com.alibaba.csp.sentinel.adapter.reactor.SentinelReactorTransformer;
 import com.alibaba.csp.sentinel.adapter.spring.webflux.callback.WebFluxCallbackManager;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -57,8 +58,10 @@ public class SentinelWebFluxFilter implements WebFilter {
             .map(f -> f.apply(exchange))
             .orElse(EMPTY_ORIGIN);
 
+        // Don't block the event loop with the queueing time or the cluster checks.
         return new SentinelReactorTransformer<>(new EntryConfig(finalPath, ResourceTypeConstants.COMMON_WEB,
-            EntryType.IN, new ContextConfig(getContextName(exchange), origin)));
+            EntryType.IN, 1, new Object[0], new ContextConfig(getContextName(exchange), origin),
+            SentinelReactorConfig.isWebDeferQueueing()));
     }
 
     protected String getContextName(ServerWebExchange exchange){
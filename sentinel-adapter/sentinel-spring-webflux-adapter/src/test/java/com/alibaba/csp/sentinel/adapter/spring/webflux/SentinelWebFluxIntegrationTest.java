@@ -199,6 +199,32 @@ public class SentinelWebFluxIntegrationTest {
         WebFluxCallbackManager.resetRequestOriginParser();
     }
 
+    @Test
+    public void testWebFluxFilterDefersQueueing() throws Exception {
+        String url = "/thread";
+        FlowRule rule = new FlowRule(url)
+            .setCount(2)
+            .setGrade(RuleConstant.FLOW_GRADE_QPS)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(2000);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        this.webClient.get()
+            .uri(url)
+            .exchange()
+            .expectStatus().isOk();
+        // The request waits in queue without blocking the event loop, then continues on the parallel scheduler.
+        this.webClient.get()
+            .uri(url)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).value(StringContains.containsString("parallel"));
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(url);
+        assertNotNull(cn);
+        assertEquals(2, cn.totalPass());
+    }
+
     @Before
     public void setUp() {
         FlowRuleManager.loadRules(new ArrayList<>());
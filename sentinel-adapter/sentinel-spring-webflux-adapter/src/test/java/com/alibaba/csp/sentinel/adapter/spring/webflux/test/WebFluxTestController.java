@@ -34,6 +34,11 @@ public class WebFluxTestController {
         return "Hello!";
     }
 
+    @GetMapping("/thread")
+    public String apiThread() {
+        return Thread.currentThread().getName();
+    }
+
     @GetMapping("/flux")
     public Flux<Integer> apiFlux() {
         return Flux.range(0, 5);
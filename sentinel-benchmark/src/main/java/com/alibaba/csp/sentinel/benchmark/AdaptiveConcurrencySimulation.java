@@ -0,0 +1,165 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+/**
+ * <p>Simulation of the goodput of a resource whose latency steps up, comparing the fixed thread-count limit
+ * with the adaptive concurrency limit ({@link RuleConstant#CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY}).</p>
+ *
+ * <p>Requests arrive at a constant rate. The simulated backend serves up to {@code capacity} requests in parallel,
+ * and the latency grows proportionally with the concurrency above the capacity (processor sharing). The base
+ * latency of the backend steps up in the middle of the run, so that the fixed limit (tuned for the original
+ * latency) lets requests queue in the backend, while the adaptive limit sheds the excess. The goodput is the
+ * amount of requests per second completed within the deadline.</p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.alibaba.csp.sentinel.benchmark.AdaptiveConcurrencySimulation
+ * </pre>
+ *
+ * <p>Optional arguments: {@code arrivalRate baseLatencyMs steppedLatencyMs capacity limit deadlineMs durationSec}.</p>
+ */
+public final class AdaptiveConcurrencySimulation {
+
+    private final int arrivalRate;
+    private final int baseLatencyMs;
+    private final int steppedLatencyMs;
+    private final int capacity;
+    private final int limit;
+    private final int deadlineMs;
+    private final int durationSec;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger maxInflight = new AtomicInteger();
+    private final AtomicInteger passed = new AtomicInteger();
+    private final AtomicInteger blocked = new AtomicInteger();
+    private final AtomicInteger good = new AtomicInteger();
+    private final AtomicInteger late = new AtomicInteger();
+
+    private volatile int latencyMs;
+
+    AdaptiveConcurrencySimulation(int arrivalRate, int baseLatencyMs, int steppedLatencyMs, int capacity,
+                                  int limit, int deadlineMs, int durationSec) {
+        this.arrivalRate = arrivalRate;
+        this.baseLatencyMs = baseLatencyMs;
+        this.steppedLatencyMs = steppedLatencyMs;
+        this.capacity = capacity;
+        this.limit = limit;
+        this.deadlineMs = deadlineMs;
+        this.durationSec = durationSec;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] params = {1000, 10, 40, 20, 100, 100, 20};
+        for (int i = 0; i < Math.min(args.length, params.length); i++) {
+            params[i] = Integer.parseInt(args[i]);
+        }
+        AdaptiveConcurrencySimulation simulation = new AdaptiveConcurrencySimulation(params[0], params[1],
+            params[2], params[3], params[4], params[5], params[6]);
+        long fixedGoodput = simulation.run(RuleConstant.CONTROL_BEHAVIOR_DEFAULT);
+        long adaptiveGoodput = simulation.run(RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY);
+        System.out.printf(Locale.ROOT, "%nTotal goodput: fixed = %d, adaptive = %d%n", fixedGoodput,
+            adaptiveGoodput);
+        System.exit(0);
+    }
+
+    /**
+     * @return total goodput of the run
+     */
+    long run(int controlBehavior) throws InterruptedException {
+        String resource = "adaptive-concurrency-simulation-" + controlBehavior;
+        FlowRule rule = new FlowRule(resource)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setControlBehavior(controlBehavior)
+            .setCount(limit);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        System.out.printf(Locale.ROOT, "%n%s limit: arrival rate %d/s, latency %d ms -> %d ms at %ds, "
+                + "capacity %d, limit %d, deadline %d ms%n",
+            controlBehavior == RuleConstant.CONTROL_BEHAVIOR_DEFAULT ? "Fixed" : "Adaptive", arrivalRate,
+            baseLatencyMs, steppedLatencyMs, durationSec / 2, capacity, limit, deadlineMs);
+        System.out.println("sec   passed  blocked  goodput     late  max inflight");
+
+        latencyMs = baseLatencyMs;
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / arrivalRate;
+        scheduler.scheduleAtFixedRate(() -> sendRequest(scheduler, resource), 0, intervalNanos,
+            TimeUnit.NANOSECONDS);
+
+        long totalGoodput = 0;
+        for (int second = 1; second <= durationSec; second++) {
+            if (second == durationSec / 2 + 1) {
+                latencyMs = steppedLatencyMs;
+            }
+            TimeUnit.SECONDS.sleep(1);
+            int goodput = good.getAndSet(0);
+            totalGoodput += goodput;
+            System.out.printf(Locale.ROOT, "%3d  %7d  %7d  %7d  %7d  %12d%n", second, passed.getAndSet(0),
+                blocked.getAndSet(0), goodput, late.getAndSet(0), maxInflight.getAndSet(inflight.get()));
+        }
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        // Let the requests in flight complete.
+        TimeUnit.MILLISECONDS.sleep(deadlineMs * 10L);
+        inflight.set(0);
+        maxInflight.set(0);
+        passed.set(0);
+        blocked.set(0);
+        good.set(0);
+        late.set(0);
+        return totalGoodput;
+    }
+
+    private void sendRequest(ScheduledExecutorService scheduler, String resource) {
+        final AsyncEntry entry;
+        try {
+            entry = SphU.asyncEntry(resource, EntryType.IN);
+        } catch (BlockException e) {
+            blocked.incrementAndGet();
+            return;
+        }
+        passed.incrementAndGet();
+        long start = System.nanoTime();
+        int concurrency = inflight.incrementAndGet();
+        maxInflight.accumulateAndGet(concurrency, Math::max);
+        // Processor sharing: the latency grows when the concurrency exceeds the capacity.
+        long serviceMs = (long) latencyMs * Math.max(concurrency, capacity) / capacity;
+        scheduler.schedule(() -> {
+            inflight.decrementAndGet();
+            entry.exit();
+            long costMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (costMs <= deadlineMs) {
+                good.incrementAndGet();
+            } else {
+                late.incrementAndGet();
+            }
+        }, serviceMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Runs the benchmark suite and writes machine-readable JSON results for regression tracking.
+ * It accepts the same arguments as the JMH command line, e.g.:</p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.alibaba.csp.sentinel.benchmark.BenchmarkRunner "SlotBenchmark|FlowRuleBenchmark"
+ * </pre>
+ *
+ * <p>Unless specified in the arguments, the following defaults are applied:</p>
+ * <ul>
+ *     <li>results are written in JSON ({@code -rf json}) to {@code sentinel-benchmark-yyyyMMddHHmmss.json}</li>
+ *     <li>the GC profiler ({@code -prof gc}) is enabled, so the allocation rate of each benchmark is reported</li>
+ * </ul>
+ */
+public final class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result("sentinel-benchmark-" + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date()) + ".json");
+        }
+        if (commandLineOptions.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        new Runner(builder.build()).run();
+    }
+
+    private BenchmarkRunner() {}
+}
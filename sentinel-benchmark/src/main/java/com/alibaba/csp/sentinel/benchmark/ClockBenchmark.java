@@ -0,0 +1,86 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.Clock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the cost of reading time from different {@link Clock}s under contention.
+ * The {@code adaptive} clock is the default clock of {@link TimeUtil}, which switches to its tick thread
+ * after a few seconds of high read rate, so the warmup should be long enough to cover it.
+ */
+@Fork(1)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ClockBenchmark {
+
+    @Param({"adaptive", "system", "nano", "tick"})
+    private String type;
+
+    private Clock clock;
+
+    @Setup
+    public void prepare() {
+        if ("adaptive".equals(type)) {
+            clock = new Clock() {
+                @Override
+                public long currentTimeMillis() {
+                    return TimeUtil.instance().getTime();
+                }
+            };
+        } else {
+            clock = SpiLoader.of(Clock.class).loadInstance(type);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long testRead1Thread() {
+        return clock.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long testRead8Threads() {
+        return clock.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long testRead32Threads() {
+        return clock.currentTimeMillis();
+    }
+}
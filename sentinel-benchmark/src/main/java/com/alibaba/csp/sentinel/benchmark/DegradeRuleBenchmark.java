@@ -0,0 +1,112 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for circuit breakers. As circuit breakers record the result of requests on exit,
+ * the whole entry and exit path is measured (via {@link SphU}). The thresholds are never reached,
+ * so the circuit breaker stays closed.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DegradeRuleBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-degrade";
+
+    @Param({"none", "slowRequestRatio", "exceptionRatio", "exceptionCount"})
+    private String strategy;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        DegradeRule rule = new DegradeRule(RESOURCE_NAME).setTimeWindow(10).setMinRequestAmount(5);
+        switch (strategy) {
+            case "none":
+                return;
+            case "slowRequestRatio":
+                rule.setGrade(RuleConstant.DEGRADE_GRADE_RT).setCount(1000).setSlowRatioThreshold(1.0);
+                break;
+            case "exceptionRatio":
+                rule.setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO).setCount(1.0);
+                break;
+            case "exceptionCount":
+                rule.setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT).setCount(Integer.MAX_VALUE);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DegradeRuleManager.loadRules(new ArrayList<>());
+    }
+
+    private void doEntry() {
+        Entry e = null;
+        try {
+            e = SphU.entry(RESOURCE_NAME);
+        } catch (BlockException ex) {
+            // Should not happen as the thresholds are never reached.
+        } finally {
+            if (e != null) {
+                e.exit();
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryAndExit() {
+        doEntry();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testEntryAndExit8Threads() {
+        doEntry();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the allocation of entering and exiting a resource in the default context,
+ * comparing the resource name API with the pre-resolved {@link ResourceHandle} API.
+ * Run it with the GC profiler (e.g. {@code -prof gc}) to see the allocation rate (B/op).
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class EntryAllocationBenchmark {
+
+    private static final String RESOURCE_NAME = "entry-allocation-benchmark";
+
+    private ResourceHandle handle;
+
+    @Setup
+    public void prepare() {
+        handle = SphU.resolve(RESOURCE_NAME);
+    }
+
+    @Benchmark
+    public void testEntryByName() throws BlockException {
+        Entry e = SphU.entry(RESOURCE_NAME);
+        e.exit();
+    }
+
+    @Benchmark
+    public void testEntryByHandle() throws BlockException {
+        Entry e = SphU.entry(handle);
+        e.exit();
+    }
+}
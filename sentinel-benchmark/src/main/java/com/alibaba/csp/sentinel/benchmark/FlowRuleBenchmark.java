@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmark for {@link FlowSlot} with different traffic shaping controllers. The rules have
+ * large thresholds, so requests are never blocked (or queued) and only the cost of checking is measured.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class FlowRuleBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-flow";
+
+    @Param({"default", "warmUp", "rateLimiter", "warmUpRateLimiter", "thread"})
+    private String behavior;
+
+    @Param({"1", "10"})
+    private int ruleCount;
+
+    private final FlowSlot slot = new FlowSlot();
+    private ResourceWrapper resource;
+    private DefaultNode node;
+    private Context context;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        resource = new StringResourceWrapper(RESOURCE_NAME, EntryType.IN);
+        node = new DefaultNode(resource, new ClusterNode(RESOURCE_NAME));
+        List<FlowRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(newRule());
+        }
+        FlowRuleManager.loadRules(rules);
+        context = ContextUtil.enter("benchmark-flow-context");
+    }
+
+    private FlowRule newRule() {
+        FlowRule rule = new FlowRule(RESOURCE_NAME).setCount(1e9);
+        switch (behavior) {
+            case "default":
+                break;
+            case "warmUp":
+                rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP).setWarmUpPeriodSec(10);
+                break;
+            case "rateLimiter":
+                rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER).setMaxQueueingTimeMs(500);
+                break;
+            case "warmUpRateLimiter":
+                rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER)
+                    .setWarmUpPeriodSec(10).setMaxQueueingTimeMs(500);
+                break;
+            case "thread":
+                rule.setGrade(RuleConstant.FLOW_GRADE_THREAD);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown behavior: " + behavior);
+        }
+        return rule;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContextUtil.exit();
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testCheckFlow() throws Throwable {
+        slot.entry(context, resource, node, 1, false);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testCheckFlow8Threads() throws Throwable {
+        slot.entry(context, resource, node, 1, false);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for bucket rotation of {@link com.alibaba.csp.sentinel.slots.statistic.base.LeapArray}
+ * under contention. Each bucket only covers 1 ms, so all threads keep crossing bucket boundaries
+ * on a single shared sliding window (like a hot resource).
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LeapArrayRotationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean lockFree;
+
+    private BucketLeapArray leapArray;
+
+    @Setup
+    public void prepare() {
+        // 2 buckets of 1 ms, so almost every read hits a deprecated bucket at the boundary.
+        leapArray = new BucketLeapArray(2, 2, lockFree);
+    }
+
+    private long addPass() {
+        WindowWrap<MetricBucket> window = leapArray.currentWindow(TimeUtil.currentTimeMillis());
+        window.value().addPass(1);
+        return window.windowStart();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long testRotation1Thread() {
+        return addPass();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public long testRotation2Threads() {
+        return addPass();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long testRotation4Threads() {
+        return addPass();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long testRotation8Threads() {
+        return addPass();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long testRotation16Threads() {
+        return addPass();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long testRotation32Threads() {
+        return addPass();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long testRotation64Threads() {
+        return addPass();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.StripedMetricBucket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@code LongAdder}-based {@link MetricBucket} with {@link StripedMetricBucket}.
+ * Run {@code testNewBucket} with {@code -prof gc} to get the heap footprint (B/op) of a single bucket.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MetricBucketBenchmark {
+
+    /**
+     * "adder" for the default bucket, otherwise the stripe count of the striped bucket
+     * (with suffix "u" for unpadded stripes).
+     */
+    @Param({"adder", "1u", "4u", "4", "8"})
+    private String type;
+
+    private MetricBucket bucket;
+
+    @Setup
+    public void prepare() {
+        bucket = newBucket();
+    }
+
+    private MetricBucket newBucket() {
+        if ("adder".equals(type)) {
+            return new MetricBucket();
+        }
+        if (type.endsWith("u")) {
+            return new StripedMetricBucket(Integer.parseInt(type.substring(0, type.length() - 1)), false);
+        }
+        return new StripedMetricBucket(Integer.parseInt(type));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MetricBucket testNewBucket() {
+        return newBucket();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testAdd1Thread() {
+        bucket.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testAdd8Threads() {
+        bucket.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void testAdd32Threads() {
+        bucket.addPass(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long testRead1Thread() {
+        return bucket.pass() + bucket.block();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long testMixed8Threads() {
+        bucket.addPass(1);
+        return bucket.pass();
+    }
+}
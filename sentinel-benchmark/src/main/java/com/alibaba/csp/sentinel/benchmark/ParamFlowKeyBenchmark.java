@@ -0,0 +1,163 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowKey;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-invocation cost of parameter flow control with a {@code long} user ID as the parameter,
+ * either boxed into a new argument array for each invocation ({@code boxed}) or passed as a reused
+ * {@link ParamFlowKey} in a reused argument array ({@code key}). The QPS check and the thread count
+ * bookkeeping of the statistic callbacks are both exercised. Run with {@code -prof gc} to compare the
+ * allocation rate.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ParamFlowKeyBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-param-flow-key";
+    private static final int SAMPLE_COUNT = 1 << 20;
+    private static final int KEY_COUNT = 10_000;
+
+    @Param({"map", "sharded"})
+    private String store;
+
+    @Param({"boxed", "key"})
+    private String argument;
+
+    private final ParamFlowSlot slot = new ParamFlowSlot();
+    private ResourceWrapper resource;
+    private DefaultNode node;
+    private Context context;
+    private ParameterMetric metric;
+    private long[] userIds;
+    private Object[][] keyArgs;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        SentinelConfig.setConfig(ParameterMetric.SHARDED_TOKEN_STORE, String.valueOf("sharded".equals(store)));
+        String resourceName = RESOURCE_NAME + "-" + store + "-" + argument;
+        resource = new StringResourceWrapper(resourceName, EntryType.IN);
+        node = new DefaultNode(resource, new ClusterNode(resourceName));
+
+        int[] ranks = ParamTokenStoreBenchmark.zipfRanks(KEY_COUNT, 1.0, SAMPLE_COUNT, new Random(1));
+        userIds = new long[SAMPLE_COUNT];
+        keyArgs = new Object[SAMPLE_COUNT][];
+        Object[][] argsOfKey = new Object[KEY_COUNT][];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            argsOfKey[i] = new Object[] {ParamFlowKey.of(1_000_000L + i)};
+        }
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            userIds[i] = 1_000_000L + ranks[i];
+            keyArgs[i] = argsOfKey[ranks[i]];
+        }
+
+        ParamFlowRule qpsRule = new ParamFlowRule(resourceName).setParamIdx(0).setCount(100_000);
+        ParamFlowRule threadRule = new ParamFlowRule(resourceName).setParamIdx(0).setCount(100_000)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD);
+        ParamFlowRuleManager.loadRules(Arrays.asList(qpsRule, threadRule));
+        context = ContextUtil.enter("benchmark-param-flow-key-context");
+        try {
+            // Initialize the metric of the resource.
+            slot.entry(context, resource, node, 1, false, keyArgs[0]);
+        } catch (Throwable ignore) {
+            // Blocked.
+        }
+        metric = ParameterMetricStorage.getParamMetricForResource(resourceName);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContextUtil.exit();
+        ParamFlowRuleManager.loadRules(new ArrayList<ParamFlowRule>());
+        SentinelConfig.removeConfig(ParameterMetric.SHARDED_TOKEN_STORE);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(SAMPLE_COUNT);
+
+        int next() {
+            next = (next + 1) & (SAMPLE_COUNT - 1);
+            return next;
+        }
+    }
+
+    private void entryAndExit(Cursor cursor) {
+        int i = cursor.next();
+        Object[] args = "key".equals(argument) ? keyArgs[i] : new Object[] {userIds[i]};
+        try {
+            slot.entry(context, resource, node, 1, false, args);
+        } catch (Throwable ignore) {
+            // Blocked.
+            return;
+        }
+        // What the statistic callbacks do for a passed request.
+        metric.addThreadCount(args);
+        metric.decreaseThreadCount(args);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryAndExit(Cursor cursor) {
+        entryAndExit(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testEntryAndExit8Threads(Cursor cursor) {
+        entryAndExit(cursor);
+    }
+}
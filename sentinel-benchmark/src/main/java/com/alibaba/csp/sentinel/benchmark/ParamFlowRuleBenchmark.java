@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowItem;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmark for {@link ParamFlowSlot} with different amounts of distinct parameter values
+ * (hot keys), where each invocation picks a random key. The rule has a large threshold,
+ * so requests are never blocked.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ParamFlowRuleBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-param-flow";
+
+    @Param({"1", "100", "10000"})
+    private int keyCount;
+
+    /**
+     * Amount of parameter exception items (specific thresholds for some of the keys).
+     */
+    @Param({"0", "100"})
+    private int itemCount;
+
+    private final ParamFlowSlot slot = new ParamFlowSlot();
+    private ResourceWrapper resource;
+    private DefaultNode node;
+    private Context context;
+    private Object[][] args;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        resource = new StringResourceWrapper(RESOURCE_NAME, EntryType.IN);
+        node = new DefaultNode(resource, new ClusterNode(RESOURCE_NAME));
+        args = new Object[keyCount][];
+        for (int i = 0; i < keyCount; i++) {
+            args[i] = new Object[] {"key-" + i};
+        }
+        List<ParamFlowItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(ParamFlowItem.newItem("key-" + i, 1_000_000_000));
+        }
+        ParamFlowRule rule = new ParamFlowRule(RESOURCE_NAME).setParamIdx(0).setCount(1e9)
+            .setParamFlowItemList(items);
+        ParamFlowRuleManager.loadRules(Collections.singletonList(rule));
+        context = ContextUtil.enter("benchmark-param-flow-context");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContextUtil.exit();
+        ParamFlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    private void checkRandomKey() throws Throwable {
+        slot.entry(context, resource, node, 1, false, args[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testCheckParamFlow() throws Throwable {
+        checkRandomKey();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testCheckParamFlow8Threads() throws Throwable {
+        checkRandomKey();
+    }
+}
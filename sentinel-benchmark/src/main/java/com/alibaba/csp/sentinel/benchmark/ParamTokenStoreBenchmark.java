@@ -0,0 +1,174 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the token buckets of {@link ParameterMetric} kept in the map of {@code AtomicReference}s
+ * ({@code map}) with the sharded primitive store ({@code sharded}, see
+ * {@link ParameterMetric#SHARDED_TOKEN_STORE}), with the parameter values drawn from a Zipfian
+ * distribution over up to 100k distinct values. The threshold is reached by the hottest values,
+ * so that both passed and blocked requests are measured. Run with {@code -prof gc} to compare
+ * the allocation rate.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ParamTokenStoreBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-param-token-store";
+    private static final int SAMPLE_COUNT = 1 << 20;
+
+    @Param({"map", "sharded"})
+    private String store;
+
+    @Param({"1000", "100000"})
+    private int keyCount;
+
+    /**
+     * Exponent of the Zipfian distribution, the larger the more skewed.
+     */
+    @Param({"0.8", "1.2"})
+    private double skew;
+
+    private final ParamFlowSlot slot = new ParamFlowSlot();
+    private ResourceWrapper resource;
+    private DefaultNode node;
+    private Context context;
+    private Object[][] samples;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        SentinelConfig.setConfig(ParameterMetric.SHARDED_TOKEN_STORE, String.valueOf("sharded".equals(store)));
+        String resourceName = RESOURCE_NAME + "-" + store;
+        resource = new StringResourceWrapper(resourceName, EntryType.IN);
+        node = new DefaultNode(resource, new ClusterNode(resourceName));
+
+        Object[][] args = new Object[keyCount][];
+        for (int i = 0; i < keyCount; i++) {
+            args[i] = new Object[] {"user-" + i};
+        }
+        int[] ranks = zipfRanks(keyCount, skew, SAMPLE_COUNT, new Random(1));
+        samples = new Object[SAMPLE_COUNT][];
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            samples[i] = args[ranks[i]];
+        }
+
+        ParamFlowRule rule = new ParamFlowRule(resourceName).setParamIdx(0).setCount(100_000);
+        ParamFlowRuleManager.loadRules(Collections.singletonList(rule));
+        context = ContextUtil.enter("benchmark-param-token-store-context");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContextUtil.exit();
+        ParamFlowRuleManager.loadRules(new ArrayList<ParamFlowRule>());
+        SentinelConfig.removeConfig(ParameterMetric.SHARDED_TOKEN_STORE);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = ThreadLocalRandom.current().nextInt(SAMPLE_COUNT);
+
+        int next() {
+            next = (next + 1) & (SAMPLE_COUNT - 1);
+            return next;
+        }
+    }
+
+    private void checkNextKey(Cursor cursor) {
+        try {
+            slot.entry(context, resource, node, 1, false, samples[cursor.next()]);
+        } catch (Throwable ignore) {
+            // Blocked.
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testCheckParamFlow(Cursor cursor) {
+        checkNextKey(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testCheckParamFlow8Threads(Cursor cursor) {
+        checkNextKey(cursor);
+    }
+
+    /**
+     * Draw ranks in [0, n) from a Zipfian distribution, where rank k has a weight of 1 / (k + 1)^skew.
+     */
+    static int[] zipfRanks(int n, double skew, int count, Random random) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        int[] ranks = new int[count];
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble() * sum;
+            int lo = 0, hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] < u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            ranks[i] = lo;
+        }
+        return ranks;
+    }
+}
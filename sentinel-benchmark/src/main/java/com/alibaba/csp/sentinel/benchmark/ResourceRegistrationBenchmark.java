@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup benchmark which registers lots of distinct resources (e.g. URL resources or RPC methods)
+ * in a fresh JVM, so that the cost of creating slot chains, default nodes and cluster nodes can be measured.
+ * With multiple threads, all threads share the resource list, so the work is split among them.
+ * <p>
+ * Note that resources beyond {@link com.alibaba.csp.sentinel.Constants#MAX_SLOT_CHAIN_SIZE} will not
+ * create a slot chain, so larger amounts mainly measure the lookup of exceeded resources.
+ * </p>
+ */
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ResourceRegistrationBenchmark {
+
+    @Param({"1000", "6000", "10000", "100000"})
+    private int resourceCount;
+
+    private String[] resources;
+    private AtomicInteger cursor;
+
+    @Setup
+    public void prepare() {
+        resources = new String[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            resources[i] = "GET:/api/v1/resource/" + i;
+        }
+        cursor = new AtomicInteger();
+    }
+
+    private int registerAll() {
+        int registered = 0;
+        int i;
+        while ((i = cursor.getAndIncrement()) < resourceCount) {
+            Entry e = null;
+            try {
+                e = SphU.entry(resources[i]);
+                registered++;
+            } catch (BlockException ex) {
+                // Should not happen as there are no rules.
+            } finally {
+                if (e != null) {
+                    e.exit();
+                }
+            }
+        }
+        return registered;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int testRegister1Thread() {
+        return registerAll();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int testRegister8Threads() {
+        return registerAll();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int testRegister32Threads() {
+        return registerAll();
+    }
+}
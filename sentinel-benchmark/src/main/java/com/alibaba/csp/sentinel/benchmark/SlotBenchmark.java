@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthoritySlot;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowSlot;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmark for the checking path of a single rule slot, which invokes {@code entry} of the slot
+ * directly (without the rest of the slot chain). Each slot has one rule with a large threshold,
+ * so requests are never blocked and only the cost of checking is measured. The node is shared
+ * among threads, so the multi-thread run shows the contention on it.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SlotBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-slot";
+    private static final String ORIGIN = "benchmark-app";
+    private static final double LARGE_COUNT = 1e9;
+
+    @Param({"flow", "degrade", "authority", "system", "paramFlow"})
+    private String slotType;
+
+    private AbstractLinkedProcessorSlot<DefaultNode> slot;
+    private ResourceWrapper resource;
+    private DefaultNode node;
+    private Context context;
+    private Object[] args;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        resource = new StringResourceWrapper(RESOURCE_NAME, EntryType.IN);
+        node = new DefaultNode(resource, new ClusterNode(RESOURCE_NAME));
+        args = new Object[] {"hot-key"};
+        switch (slotType) {
+            case "flow":
+                FlowRuleManager.loadRules(Collections.singletonList(
+                    new FlowRule(RESOURCE_NAME).setCount(LARGE_COUNT)));
+                slot = new FlowSlot();
+                break;
+            case "degrade":
+                DegradeRuleManager.loadRules(Collections.singletonList(new DegradeRule(RESOURCE_NAME)
+                    .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO).setCount(0.5).setTimeWindow(10)));
+                slot = new DegradeSlot();
+                break;
+            case "authority":
+                AuthorityRule authorityRule = new AuthorityRule().setStrategy(RuleConstant.AUTHORITY_WHITE);
+                authorityRule.setResource(RESOURCE_NAME);
+                authorityRule.setLimitApp("app-a,app-b," + ORIGIN);
+                AuthorityRuleManager.loadRules(Collections.singletonList(authorityRule));
+                slot = new AuthoritySlot();
+                break;
+            case "system":
+                SystemRule systemRule = new SystemRule();
+                systemRule.setQps(LARGE_COUNT);
+                systemRule.setHighestCpuUsage(1.0);
+                SystemRuleManager.loadRules(Collections.singletonList(systemRule));
+                slot = new SystemSlot();
+                break;
+            case "paramFlow":
+                ParamFlowRuleManager.loadRules(Collections.singletonList(
+                    new ParamFlowRule(RESOURCE_NAME).setParamIdx(0).setCount(LARGE_COUNT)));
+                slot = new ParamFlowSlot();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown slot type: " + slotType);
+        }
+        context = ContextUtil.enter("benchmark-slot-context", ORIGIN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContextUtil.exit();
+        FlowRuleManager.loadRules(new ArrayList<>());
+        DegradeRuleManager.loadRules(new ArrayList<>());
+        AuthorityRuleManager.loadRules(new ArrayList<>());
+        SystemRuleManager.loadRules(new ArrayList<>());
+        ParamFlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testSlotEntry() throws Throwable {
+        slot.entry(context, resource, node, 1, false, args);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testSlotEntry8Threads() throws Throwable {
+        slot.entry(context, resource, node, 1, false, args);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the whole slot chain (entry and exit) with realistic rule mixes, running
+ * in the context of an inbound request with an origin, as web and RPC adapters do:
+ * <ul>
+ *     <li>{@code none}: no rules</li>
+ *     <li>{@code flow}: a QPS flow rule</li>
+ *     <li>{@code flowDegrade}: a QPS flow rule and a slow request ratio circuit breaker</li>
+ *     <li>{@code full}: a warm-up flow rule, a circuit breaker, an authority rule,
+ *     a system rule and a hot parameter rule over 1000 keys</li>
+ * </ul>
+ * The thresholds are never reached, so requests are never blocked. The runs with different amounts
+ * of threads show how the chain scales.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SlotChainBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-chain";
+    private static final String CONTEXT_NAME = "benchmark-chain-context";
+    private static final String ORIGIN = "benchmark-app";
+    private static final int KEY_COUNT = 1000;
+
+    @Param({"none", "flow", "flowDegrade", "full"})
+    private String scenario;
+
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "key-" + i;
+        }
+        switch (scenario) {
+            case "none":
+                break;
+            case "flow":
+                loadFlowRule(RuleConstant.CONTROL_BEHAVIOR_DEFAULT);
+                break;
+            case "flowDegrade":
+                loadFlowRule(RuleConstant.CONTROL_BEHAVIOR_DEFAULT);
+                loadDegradeRule();
+                break;
+            case "full":
+                loadFlowRule(RuleConstant.CONTROL_BEHAVIOR_WARM_UP);
+                loadDegradeRule();
+                loadAuthorityRule();
+                loadSystemRule();
+                ParamFlowRuleManager.loadRules(Collections.singletonList(
+                    new ParamFlowRule(RESOURCE_NAME).setParamIdx(0).setCount(1e9)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    private static void loadFlowRule(int controlBehavior) {
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(RESOURCE_NAME).setCount(1e9)
+            .setControlBehavior(controlBehavior).setWarmUpPeriodSec(10)));
+    }
+
+    private static void loadDegradeRule() {
+        DegradeRuleManager.loadRules(Collections.singletonList(new DegradeRule(RESOURCE_NAME)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT).setCount(1000).setSlowRatioThreshold(1.0).setTimeWindow(10)));
+    }
+
+    private static void loadAuthorityRule() {
+        AuthorityRule rule = new AuthorityRule().setStrategy(RuleConstant.AUTHORITY_BLACK);
+        rule.setResource(RESOURCE_NAME);
+        rule.setLimitApp("blocked-app-a,blocked-app-b");
+        AuthorityRuleManager.loadRules(Collections.singletonList(rule));
+    }
+
+    private static void loadSystemRule() {
+        SystemRule rule = new SystemRule();
+        rule.setQps(1e9);
+        rule.setHighestCpuUsage(1.0);
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<>());
+        DegradeRuleManager.loadRules(new ArrayList<>());
+        AuthorityRuleManager.loadRules(new ArrayList<>());
+        SystemRuleManager.loadRules(new ArrayList<>());
+        ParamFlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    private void doEntry() {
+        String key = keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+        ContextUtil.enter(CONTEXT_NAME, ORIGIN);
+        Entry e = null;
+        try {
+            e = SphU.entry(RESOURCE_NAME, EntryType.IN, 1, key);
+        } catch (BlockException ex) {
+            // Should not happen as the thresholds are never reached.
+        } finally {
+            if (e != null) {
+                e.exit(1, key);
+            }
+            ContextUtil.exit();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testChain1Thread() {
+        doEntry();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void testChain4Threads() {
+        doEntry();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testChain8Threads() {
+        doEntry();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void testChain16Threads() {
+        doEntry();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.block.flow.tokenbucket.LockFreeTokenBucket;
+import com.alibaba.csp.sentinel.slots.block.flow.tokenbucket.StrictTokenBucket;
+import com.alibaba.csp.sentinel.slots.block.flow.tokenbucket.TokenBucket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link StrictTokenBucket} (monitor-based) with {@link LockFreeTokenBucket} (single CAS)
+ * on a bucket shared by all threads. With a small rate most requests are rejected once the tokens run out,
+ * while with a large rate almost every request consumes a token.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TokenBucketBenchmark {
+
+    @Param({"strict", "lockFree"})
+    private String type;
+
+    @Param({"1000", "1000000000"})
+    private long tokensPerSecond;
+
+    private TokenBucket bucket;
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        if ("strict".equals(type)) {
+            bucket = new StrictTokenBucket(tokensPerSecond, tokensPerSecond, true, 1000);
+        } else {
+            bucket = new LockFreeTokenBucket(tokensPerSecond, tokensPerSecond, true, 1000);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testConsume1Thread() {
+        return bucket.tryConsume(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean testConsume4Threads() {
+        return bucket.tryConsume(1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean testConsume8Threads() {
+        return bucket.tryConsume(1);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean testConsume16Threads() {
+        return bucket.tryConsume(1);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean testConsume32Threads() {
+        return bucket.tryConsume(1);
+    }
+}
@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.cluster.client;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -182,6 +183,84 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    @Override
+    public TokenResult requestTokenLease(Long flowId, int leaseCount) {
+        if (notValidRequest(flowId, leaseCount)) {
+            return badRequest();
+        }
+        FlowRequestData data = new FlowRequestData().setCount(leaseCount)
+            .setFlowId(flowId);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE, data);
+        try {
+            TokenResult result = sendTokenRequest(request);
+            logForResult(result);
+            return result;
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+    }
+
+    @Override
+    public TokenResult releaseTokenLease(Long flowId, int releaseCount) {
+        if (notValidRequest(flowId, releaseCount)) {
+            return badRequest();
+        }
+        FlowRequestData data = new FlowRequestData().setCount(releaseCount)
+            .setFlowId(flowId);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE_RELEASE,
+            data);
+        try {
+            TokenResult result = sendTokenRequest(request);
+            logForResult(result);
+            return result;
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> requestTokenLeaseAsync(Long flowId, int leaseCount) {
+        if (notValidRequest(flowId, leaseCount)) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        FlowRequestData data = new FlowRequestData().setCount(leaseCount)
+            .setFlowId(flowId);
+        return sendTokenRequestAsync(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE, data));
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> releaseTokenLeaseAsync(Long flowId, int releaseCount) {
+        if (notValidRequest(flowId, releaseCount)) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        FlowRequestData data = new FlowRequestData().setCount(releaseCount)
+            .setFlowId(flowId);
+        return sendTokenRequestAsync(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE_RELEASE, data));
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> requestTokenAsync(Long flowId, int acquireCount, boolean prioritized) {
+        if (notValidRequest(flowId, acquireCount)) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setPriority(prioritized);
+        return sendTokenRequestAsync(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data));
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> requestParamTokenAsync(Long flowId, int acquireCount,
+                                                                 Collection<Object> params) {
+        if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        ParamFlowRequestData data = new ParamFlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setParams(params);
+        return sendTokenRequestAsync(new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data));
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         return null;
@@ -209,7 +288,36 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
                 "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
             return clientFail();
         }
-        ClusterResponse response = transportClient.sendRequest(request);
+        return toTokenResult(transportClient.sendRequest(request));
+    }
+
+    private CompletableFuture<TokenResult> sendTokenRequestAsync(ClusterRequest request) {
+        ClusterTransportClient client = this.transportClient;
+        if (client == null) {
+            RecordLog.warn(
+                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+            return CompletableFuture.completedFuture(clientFail());
+        }
+        CompletableFuture<ClusterResponse> future;
+        try {
+            future = client.sendRequestAsync(request);
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return CompletableFuture.completedFuture(clientFail());
+        }
+        return future.handle((response, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                ClusterClientStatLogUtil.log(cause.getMessage());
+                return clientFail();
+            }
+            TokenResult result = toTokenResult(response);
+            logForResult(result);
+            return result;
+        });
+    }
+
+    private TokenResult toTokenResult(ClusterResponse response) {
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
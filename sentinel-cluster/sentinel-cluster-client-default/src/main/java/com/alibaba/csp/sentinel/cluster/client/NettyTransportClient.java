@@ -15,10 +15,12 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
-import java.util.AbstractMap.SimpleEntry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -28,7 +30,7 @@ import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientHandler;
-import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPromiseHolder;
+import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPendingRequests;
 import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.request.Request;
@@ -44,16 +46,20 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.ChannelPromise;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.util.AttributeKey;
 import io.netty.util.concurrent.GenericFutureListener;
 
 /**
- * Netty transport client implementation for Sentinel cluster transport.
+ * <p>Netty transport client implementation for Sentinel cluster transport.</p>
+ *
+ * <p>Requests are pipelined: many requests could be in flight on the connection, correlated with
+ * their responses by the request ID, and the flushes of concurrent requests are consolidated.</p>
  *
  * @author Eric Zhao
  * @since 1.4.0
@@ -97,9 +103,16 @@ public class NettyTransportClient implements ClusterTransportClient {
             .handler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 public void initChannel(SocketChannel ch) throws Exception {
-                    clientHandler = new TokenClientHandler(currentState, disconnectCallback);
+                    // Each connection has its own pending requests, so that a stale connection going inactive
+                    // won't fail the requests of the new one.
+                    TokenClientPendingRequests pendingRequests = new TokenClientPendingRequests();
+                    ch.attr(PENDING_REQUESTS_KEY).set(pendingRequests);
+                    clientHandler = new TokenClientHandler(currentState, disconnectCallback, pendingRequests);
 
                     ChannelPipeline pipeline = ch.pipeline();
+                    // Consolidate the flushes of the requests written at the same time.
+                    pipeline.addLast(new FlushConsolidationHandler(
+                        FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true));
                     pipeline.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
                     pipeline.addLast(new NettyResponseDecoder());
                     pipeline.addLast(new LengthFieldPrepender(2));
@@ -206,66 +219,64 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     @Override
     public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
+        try {
+            // The pending request is failed by the timer when it times out, and the bound here is
+            // only a backstop in case the timer falls behind.
+            return sendRequestAsync(request).get(
+                ClusterClientConfigManager.getRequestTimeout() + SYNC_REQUEST_TIMEOUT_MARGIN_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            throw cause instanceof Exception ? (Exception) cause : ex;
+        } catch (TimeoutException ex) {
+            throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        CompletableFuture<ClusterResponse> failed = new CompletableFuture<>();
         if (!isReady()) {
-            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
+            failed.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return failed;
         }
         if (!validRequest(request)) {
-            throw new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST);
+            failed.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST));
+            return failed;
         }
-        int xid = getCurrentId();
-        try {
-            request.setId(xid);
-
-            channel.writeAndFlush(request);
-
-            ChannelPromise promise = channel.newPromise();
-            TokenClientPromiseHolder.putPromise(xid, promise);
-
-            if (!promise.await(ClusterClientConfigManager.getRequestTimeout())) {
-                throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
-            }
+        Channel channel = this.channel;
+        final TokenClientPendingRequests pendingRequests = channel == null ? null
+            : channel.attr(PENDING_REQUESTS_KEY).get();
+        if (pendingRequests == null) {
+            failed.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return failed;
+        }
+        final int xid = getCurrentId();
+        request.setId(xid);
 
-            SimpleEntry<ChannelPromise, ClusterResponse> entry = TokenClientPromiseHolder.getEntry(xid);
-            if (entry == null || entry.getValue() == null) {
-                // Should not go through here.
-                throw new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS);
+        // Register before writing, as the response may come before the write listener is notified.
+        CompletableFuture<ClusterResponse> future = pendingRequests.register(xid,
+            ClusterClientConfigManager.getRequestTimeout());
+        channel.writeAndFlush(request).addListener(new GenericFutureListener<ChannelFuture>() {
+            @Override
+            public void operationComplete(ChannelFuture f) {
+                if (!f.isSuccess()) {
+                    pendingRequests.fail(xid, f.cause() != null ? f.cause()
+                        : new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS));
+                }
             }
-            return entry.getValue();
-        } finally {
-            TokenClientPromiseHolder.remove(xid);
-        }
+        });
+        return future;
     }
 
     private int getCurrentId() {
-        int pre, next;
-        do {
-            pre = idGenerator.get();
-            next = pre >= MAX_ID ? MIN_ID : pre + 1;
-        } while (!idGenerator.compareAndSet(pre, next));
-        return next;
+        // Wrap around in [MIN_ID, MAX_ID] without a CAS loop.
+        return (int) ((idGenerator.getAndIncrement() & 0x7fffffffL) % MAX_ID) + MIN_ID;
     }
 
-    /*public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
-        // Uncomment this when min target JDK is 1.8.
-        if (!validRequest(request)) {
-            return CompletableFuture.failedFuture(new IllegalArgumentException("Bad request"));
-        }
-        int xid = getCurrentId();
-        request.setId(xid);
+    private static final AttributeKey<TokenClientPendingRequests> PENDING_REQUESTS_KEY = AttributeKey.valueOf(
+        "sentinelTokenClientPendingRequests");
 
-        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
-        channel.writeAndFlush(request)
-            .addListener(f -> {
-                if (f.isSuccess()) {
-                    future.complete(someResult);
-                } else if (f.cause() != null) {
-                    future.completeExceptionally(f.cause());
-                } else {
-                    future.cancel(false);
-                }
-            });
-        return future;
-    }*/
+    private static final long SYNC_REQUEST_TIMEOUT_MARGIN_MS = 100;
 
     private static final int MIN_ID = 1;
     private static final int MAX_ID = 999_999_999;
@@ -19,7 +19,9 @@ import java.net.InetSocketAddress;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
 import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
@@ -38,10 +40,23 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
 
     private final AtomicInteger currentState;
     private final Runnable disconnectCallback;
+    private final TokenClientPendingRequests pendingRequests;
 
     public TokenClientHandler(AtomicInteger currentState, Runnable disconnectCallback) {
+        this(currentState, disconnectCallback, null);
+    }
+
+    /**
+     * @param currentState       state of the client
+     * @param disconnectCallback callback when the connection is closed
+     * @param pendingRequests    requests of the connection waiting for the responses
+     * @since 1.8.8
+     */
+    public TokenClientHandler(AtomicInteger currentState, Runnable disconnectCallback,
+                              TokenClientPendingRequests pendingRequests) {
         this.currentState = currentState;
         this.disconnectCallback = disconnectCallback;
+        this.pendingRequests = pendingRequests;
     }
 
     @Override
@@ -61,7 +76,9 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
                 return;
             }
 
-            TokenClientPromiseHolder.completePromise(response.getId(), response);
+            if (pendingRequests == null || !pendingRequests.complete(response.getId(), response)) {
+                TokenClientPromiseHolder.completePromise(response.getId(), response);
+            }
         }
     }
 
@@ -91,6 +108,10 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         RecordLog.info("[TokenClientHandler] Client handler inactive, remote address: {}", getRemoteAddress(ctx));
+        if (pendingRequests != null) {
+            // The responses won't come anymore.
+            pendingRequests.failAll(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+        }
     }
 
     @Override
@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
+import com.alibaba.csp.sentinel.concurrent.HashedWheelTimer;
+
+/**
+ * <p>Requests of a connection which are waiting for the responses, correlated by the request ID.</p>
+ *
+ * <p>Unlike {@link TokenClientPromiseHolder}, the requests are kept per connection, and are completed
+ * asynchronously, so that many requests could be in flight on one connection without blocking
+ * any thread. The timeouts are scheduled on the shared {@link DelayScheduler}.</p>
+ *
+ * @since 1.8.8
+ */
+public class TokenClientPendingRequests {
+
+    private final Map<Integer, CompletableFuture<ClusterResponse>> pendingMap = new ConcurrentHashMap<>();
+
+    /**
+     * Register a request before it is sent.
+     *
+     * @param xid       ID of the request
+     * @param timeoutMs time to wait for the response
+     * @return future of the response, which completes exceptionally on timeout
+     */
+    public CompletableFuture<ClusterResponse> register(final int xid, long timeoutMs) {
+        final CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+        pendingMap.put(xid, future);
+        final HashedWheelTimer.Timeout timeout = DelayScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (pendingMap.remove(xid, future)) {
+                    future.completeExceptionally(
+                        new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT));
+                }
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        future.whenComplete((r, ex) -> timeout.cancel());
+        return future;
+    }
+
+    /**
+     * Complete the request with its response.
+     *
+     * @param xid      ID of the request
+     * @param response the response
+     * @return true if the request is waiting for the response, otherwise false (e.g. timed out)
+     */
+    public boolean complete(int xid, ClusterResponse response) {
+        CompletableFuture<ClusterResponse> future = pendingMap.remove(xid);
+        return future != null && future.complete(response);
+    }
+
+    /**
+     * Fail the request, e.g. if it could not be sent.
+     *
+     * @param xid   ID of the request
+     * @param cause the error
+     */
+    public void fail(int xid, Throwable cause) {
+        CompletableFuture<ClusterResponse> future = pendingMap.remove(xid);
+        if (future != null) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Fail all requests, e.g. when the connection is closed.
+     *
+     * @param cause the error
+     */
+    public void failAll(Throwable cause) {
+        for (Integer xid : pendingMap.keySet()) {
+            fail(xid, cause);
+        }
+    }
+
+    public int size() {
+        return pendingMap.size();
+    }
+}
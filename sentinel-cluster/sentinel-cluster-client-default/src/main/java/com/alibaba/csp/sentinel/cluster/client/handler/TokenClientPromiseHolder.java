@@ -26,7 +26,9 @@ import io.netty.channel.ChannelPromise;
 /**
  * @author Eric Zhao
  * @since 1.4.0
+ * @deprecated the requests are kept per connection in {@link TokenClientPendingRequests} since 1.8.8
  */
+@Deprecated
 public final class TokenClientPromiseHolder {
 
     private static final Map<Integer, SimpleEntry<ChannelPromise, ClusterResponse>> PROMISE_MAP = new ConcurrentHashMap<>();
@@ -0,0 +1,87 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenClientPendingRequestsTest {
+
+    @Test
+    public void testCompleteOutOfOrder() throws Exception {
+        TokenClientPendingRequests pendingRequests = new TokenClientPendingRequests();
+        int n = 100;
+        List<CompletableFuture<ClusterResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            futures.add(pendingRequests.register(i, 10000));
+        }
+        Assert.assertEquals(n, pendingRequests.size());
+
+        for (int i = n - 1; i >= 0; i--) {
+            Assert.assertTrue(pendingRequests.complete(i, response(i)));
+        }
+        Assert.assertEquals(0, pendingRequests.size());
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, futures.get(i).get(1, TimeUnit.SECONDS).getId());
+        }
+        // Duplicate or unknown responses are ignored.
+        Assert.assertFalse(pendingRequests.complete(0, response(0)));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        TokenClientPendingRequests pendingRequests = new TokenClientPendingRequests();
+        CompletableFuture<ClusterResponse> future = pendingRequests.register(1, 20);
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            Assert.fail("should time out");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof SentinelClusterException);
+            Assert.assertEquals(ClusterErrorMessages.REQUEST_TIME_OUT, ex.getCause().getMessage());
+        }
+        Assert.assertEquals(0, pendingRequests.size());
+        // The late response is dropped.
+        Assert.assertFalse(pendingRequests.complete(1, response(1)));
+    }
+
+    @Test
+    public void testFailAll() throws Exception {
+        TokenClientPendingRequests pendingRequests = new TokenClientPendingRequests();
+        CompletableFuture<ClusterResponse> f1 = pendingRequests.register(1, 10000);
+        CompletableFuture<ClusterResponse> f2 = pendingRequests.register(2, 10000);
+
+        pendingRequests.failAll(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+
+        Assert.assertEquals(0, pendingRequests.size());
+        Assert.assertTrue(f1.isCompletedExceptionally());
+        Assert.assertTrue(f2.isCompletedExceptionally());
+    }
+
+    private ClusterResponse<Object> response(int id) {
+        return new ClusterResponse<>(id, ClusterConstants.MSG_TYPE_FLOW, 0, null);
+    }
+}
@@ -26,6 +26,18 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PARAM_FLOW = 2;
     public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 3;
     public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 4;
+    /**
+     * Lease of the flow tokens, which shares the data format with {@link #MSG_TYPE_FLOW}.
+     *
+     * @since 1.8.8
+     */
+    public static final int MSG_TYPE_FLOW_LEASE = 5;
+    /**
+     * Release of the unused tokens of an expired lease, which shares the data format with {@link #MSG_TYPE_FLOW}.
+     *
+     * @since 1.8.8
+     */
+    public static final int MSG_TYPE_FLOW_LEASE_RELEASE = 6;
 
 
     public static final int RESPONSE_STATUS_BAD = -1;
@@ -26,6 +26,7 @@ import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Flow checker for cluster flow rules.
@@ -111,6 +112,80 @@ final class ClusterFlowChecker {
         }
     }
 
+    /**
+     * Lease tokens to a client for the lease interval of the rule. The client gets its share of the remaining
+     * tokens, in proportion to its requested rate to the recent rate of all requests (both passed and blocked),
+     * so that the clients with more traffic get more tokens when the threshold is exceeded.
+     *
+     * @param rule       valid cluster flow rule with lease enabled
+     * @param leaseCount count of the tokens which the client requests for the lease interval
+     * @return the result with the count of the leased tokens as the remaining count,
+     * and the valid time of the lease as the waiting time
+     * @since 1.8.8
+     */
+    static TokenResult acquireClusterTokenLease(/*@Valid*/ FlowRule rule, int leaseCount) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        int leaseIntervalMs = rule.getClusterConfig().getLeaseIntervalMs();
+        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        double remaining = globalThreshold - latestQps;
+
+        double requestedQps = leaseCount * 1000.0d / leaseIntervalMs;
+        double demandQps = Math.max(latestQps + metric.getAvg(ClusterFlowEvent.BLOCK), requestedQps);
+        // Fair share of the threshold in the lease interval, at least one token to avoid starvation.
+        double share = Math.max(1, globalThreshold * requestedQps / demandQps * leaseIntervalMs / 1000.0d);
+        int granted = (int) Math.min(leaseCount, Math.min(share, remaining));
+
+        if (granted > 0) {
+            metric.add(ClusterFlowEvent.PASS, granted);
+            metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+            if (granted < leaseCount) {
+                // Record the rest as blocked, so that the demand of the client is kept.
+                metric.add(ClusterFlowEvent.BLOCK, leaseCount - granted);
+            }
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining(granted)
+                .setWaitInMs(leaseIntervalMs);
+        }
+        metric.add(ClusterFlowEvent.BLOCK, leaseCount);
+        metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+        ClusterServerStatLogUtil.log("flow|block|" + id, leaseCount);
+        ClusterServerStatLogUtil.log("flow|block_request|" + id, 1);
+        return new TokenResult(TokenResultStatus.BLOCKED)
+            .setRemaining(0)
+            .setWaitInMs(leaseIntervalMs);
+    }
+
+    /**
+     * Return the unused tokens of an expired lease. The client returns them when the lease expires,
+     * so they are removed from the bucket where the lease was granted about one lease interval ago.
+     * If that bucket has been deprecated, there is nothing to correct.
+     *
+     * @param rule         valid cluster flow rule with lease enabled
+     * @param releaseCount count of the unused tokens
+     * @return the result of the release
+     * @since 1.8.8
+     */
+    static TokenResult releaseClusterTokenLease(/*@Valid*/ FlowRule rule, int releaseCount) {
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(rule.getClusterConfig().getFlowId());
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+        long grantTime = TimeUtil.currentTimeMillis() - rule.getClusterConfig().getLeaseIntervalMs();
+        metric.add(ClusterFlowEvent.PASS, -releaseCount, grantTime);
+        return new TokenResult(TokenResultStatus.OK);
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
@@ -63,6 +63,40 @@ public class DefaultTokenService implements TokenService {
         return ClusterParamFlowChecker.acquireClusterToken(rule, acquireCount, params);
     }
 
+    @Override
+    public TokenResult requestTokenLease(Long ruleId, int leaseCount) {
+        if (notValidRequest(ruleId, leaseCount)) {
+            return badRequest();
+        }
+        // The rule should be valid.
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        if (rule.getClusterConfig().getLeaseIntervalMs() <= 0) {
+            // The lease is not enabled for the rule.
+            return badRequest();
+        }
+
+        return ClusterFlowChecker.acquireClusterTokenLease(rule, leaseCount);
+    }
+
+    @Override
+    public TokenResult releaseTokenLease(Long ruleId, int releaseCount) {
+        if (notValidRequest(ruleId, releaseCount)) {
+            return badRequest();
+        }
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        if (rule.getClusterConfig().getLeaseIntervalMs() <= 0) {
+            return badRequest();
+        }
+
+        return ClusterFlowChecker.releaseClusterTokenLease(rule, releaseCount);
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         if (notValidRequest(clientAddress, ruleId, acquireCount)) {
@@ -19,6 +19,7 @@ import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
@@ -40,6 +41,21 @@ public class ClusterMetric {
         metric.currentWindow().value().add(event, count);
     }
 
+    /**
+     * Add the count to the bucket of given time. If the bucket has been deprecated, the count is discarded.
+     *
+     * @param event      event to add
+     * @param count      count to add
+     * @param timeMillis time of the bucket in milliseconds
+     * @since 1.8.8
+     */
+    public void add(ClusterFlowEvent event, long count, long timeMillis) {
+        WindowWrap<ClusterMetricBucket> bucket = metric.currentWindow(timeMillis);
+        if (bucket != null) {
+            bucket.value().add(event, count);
+        }
+    }
+
     public long getCurrentCount(ClusterFlowEvent event) {
         return metric.currentWindow().value().get(event);
     }
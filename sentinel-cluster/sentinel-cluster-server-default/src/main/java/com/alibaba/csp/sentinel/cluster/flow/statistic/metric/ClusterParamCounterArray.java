@@ -0,0 +1,276 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowKey;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Sliding window counters of parameter values for the cluster token server, kept in primitive arrays
+ * that are allocated once and cleared in place when a bucket rotates.</p>
+ *
+ * <p>The values are indexed by their 64-bit hash (see {@link ParamFlowKey#hashOf(Object)}) and partitioned
+ * into independent shards by the hash, each of which has its own ring of buckets. A bucket is an open
+ * addressing table updated with CAS only, so the Netty worker threads never share a lock: they contend
+ * only when counting the same value, and rotating the bucket of a shard doesn't stall the other shards.</p>
+ *
+ * <p>When the probed slots of a bucket are all taken, the slot with the smallest count is taken over by the
+ * new value, which inherits the count so that it's overestimated rather than missed. Like the eviction of
+ * the LRU map, the count of the evicted value in the bucket is lost.</p>
+ *
+ * @since 1.8.8
+ */
+public class ClusterParamCounterArray {
+
+    public static final int DEFAULT_SHARD_COUNT = ceilingPowerOfTwo(
+        Math.min(64, Runtime.getRuntime().availableProcessors() * 2));
+
+    private static final long EMPTY = 0L;
+    private static final long RESETTING = -1L;
+    private static final int PROBE_LIMIT = 16;
+    private static final int MIN_SHARD_CAPACITY = 16;
+
+    private final int windowLengthInMs;
+    private final int sampleCount;
+    private final int intervalInMs;
+    private final int shardShift;
+    private final Bucket[][] shards;
+
+    public ClusterParamCounterArray(int sampleCount, int intervalInMs, int maxCapacity) {
+        this(sampleCount, intervalInMs, maxCapacity, DEFAULT_SHARD_COUNT);
+    }
+
+    /**
+     * @param sampleCount  count of the buckets in the sliding window
+     * @param intervalInMs length of the sliding window
+     * @param maxCapacity  count of the distinct values expected in a bucket
+     * @param shardCount   count of the shards, rounded up to a power of two
+     */
+    public ClusterParamCounterArray(int sampleCount, int intervalInMs, int maxCapacity, int shardCount) {
+        AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
+        AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        AssertUtil.isTrue(maxCapacity > 0, "maxCapacity should be positive");
+        AssertUtil.isTrue(shardCount > 0, "shardCount should be positive");
+        this.windowLengthInMs = intervalInMs / sampleCount;
+        this.sampleCount = sampleCount;
+        this.intervalInMs = intervalInMs;
+
+        int shards = ceilingPowerOfTwo(shardCount);
+        // Keep the load factor of the buckets under 0.5.
+        int capacity = Math.max(MIN_SHARD_CAPACITY, ceilingPowerOfTwo((maxCapacity * 2 + shards - 1) / shards));
+        this.shardShift = 64 - Integer.numberOfTrailingZeros(shards);
+        this.shards = new Bucket[shards][];
+        for (int i = 0; i < shards; i++) {
+            Bucket[] buckets = new Bucket[sampleCount];
+            for (int j = 0; j < sampleCount; j++) {
+                buckets[j] = new Bucket(capacity);
+            }
+            this.shards[i] = buckets;
+        }
+    }
+
+    /**
+     * Add the count of a value to the current bucket.
+     *
+     * @param hash  hash of the value
+     * @param value the value, kept for {@link #getCounts(long)}
+     * @param count count to add
+     * @param now   current time in milliseconds
+     */
+    public void add(long hash, Object value, long count, long now) {
+        Bucket bucket = currentBucket(shardOf(hash), now);
+        if (bucket != null) {
+            bucket.add(hash, value, count);
+        }
+    }
+
+    /**
+     * @param hash hash of the value
+     * @param now  current time in milliseconds
+     * @return sum of the counts of the value in the sliding window
+     */
+    public long getSum(long hash, long now) {
+        long sum = 0;
+        for (Bucket bucket : shardOf(hash)) {
+            if (isValid(bucket, now)) {
+                sum += bucket.get(hash);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @param now current time in milliseconds
+     * @return sums of all values in the sliding window
+     */
+    public Map<Object, Long> getCounts(long now) {
+        Map<Long, Object> values = new HashMap<>();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Bucket[] shard : shards) {
+            for (Bucket bucket : shard) {
+                if (!isValid(bucket, now)) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.keys.length(); i++) {
+                    long key = bucket.keys.get(i);
+                    Object value = bucket.values.get(i);
+                    if (key == EMPTY || value == null) {
+                        continue;
+                    }
+                    Long count = counts.get(key);
+                    counts.put(key, (count == null ? 0 : count) + bucket.counts.get(i));
+                    values.put(key, value);
+                }
+            }
+        }
+
+        Map<Object, Long> result = new HashMap<>(counts.size());
+        for (Map.Entry<Long, Long> e : counts.entrySet()) {
+            result.put(values.get(e.getKey()), e.getValue());
+        }
+        return result;
+    }
+
+    public double getIntervalInSecond() {
+        return intervalInMs / 1000.0;
+    }
+
+    int getShardCount() {
+        return shards.length;
+    }
+
+    int getBucketCapacity() {
+        return shards[0][0].keys.length();
+    }
+
+    private Bucket[] shardOf(long hash) {
+        // The high bits pick the shard and the low bits the slot in the bucket.
+        return shardShift == 64 ? shards[0] : shards[(int) (hash >>> shardShift)];
+    }
+
+    private boolean isValid(Bucket bucket, long now) {
+        long windowStart = bucket.windowStart.get();
+        // Buckets that are unused or being reset have a negative window start.
+        return windowStart >= 0 && windowStart <= now && now - windowStart < intervalInMs;
+    }
+
+    private Bucket currentBucket(Bucket[] shard, long now) {
+        long windowStart = now - now % windowLengthInMs;
+        Bucket bucket = shard[(int) ((now / windowLengthInMs) % sampleCount)];
+        while (true) {
+            long old = bucket.windowStart.get();
+            if (old == windowStart) {
+                return bucket;
+            } else if (old == RESETTING) {
+                // Another thread is clearing the bucket, which takes a short while.
+                Thread.yield();
+            } else if (old > windowStart) {
+                // The clock has gone backwards, just drop the count like the leap array.
+                return null;
+            } else if (bucket.windowStart.compareAndSet(old, RESETTING)) {
+                bucket.clear();
+                bucket.windowStart.set(windowStart);
+                return bucket;
+            }
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static final class Bucket {
+
+        final AtomicLong windowStart = new AtomicLong(Long.MIN_VALUE);
+        final AtomicLongArray keys;
+        final AtomicLongArray counts;
+        final AtomicReferenceArray<Object> values;
+
+        Bucket(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.counts = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+
+        long get(long hash) {
+            int mask = keys.length() - 1;
+            int start = (int) hash & mask;
+            for (int p = 0; p < PROBE_LIMIT; p++) {
+                int i = (start + p) & mask;
+                long key = keys.get(i);
+                if (key == hash) {
+                    return counts.get(i);
+                } else if (key == EMPTY) {
+                    return 0;
+                }
+            }
+            return 0;
+        }
+
+        void add(long hash, Object value, long count) {
+            int mask = keys.length() - 1;
+            int start = (int) hash & mask;
+            while (true) {
+                int minIndex = -1;
+                long minKey = EMPTY;
+                long minCount = Long.MAX_VALUE;
+                for (int p = 0; p < PROBE_LIMIT; p++) {
+                    int i = (start + p) & mask;
+                    long key = keys.get(i);
+                    if (key == EMPTY) {
+                        if (keys.compareAndSet(i, EMPTY, hash)) {
+                            values.set(i, value);
+                            counts.addAndGet(i, count);
+                            return;
+                        }
+                        key = keys.get(i);
+                    }
+                    if (key == hash) {
+                        counts.addAndGet(i, count);
+                        return;
+                    }
+                    long c = counts.get(i);
+                    if (c < minCount) {
+                        minIndex = i;
+                        minKey = key;
+                        minCount = c;
+                    }
+                }
+                // The probed slots are all taken, take over the one with the smallest count.
+                if (keys.compareAndSet(minIndex, minKey, hash)) {
+                    values.set(minIndex, value);
+                    counts.addAndGet(minIndex, count);
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < keys.length(); i++) {
+                keys.set(i, EMPTY);
+                counts.set(i, 0);
+                values.set(i, null);
+            }
+        }
+    }
+}
@@ -25,8 +25,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowKey;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * @author Eric Zhao
@@ -36,23 +39,52 @@ public class ClusterParamMetric {
 
     public static final int DEFAULT_CLUSTER_MAX_CAPACITY = 4000;
 
+    /**
+     * Whether to keep the statistics in the sharded primitive {@link ClusterParamCounterArray} rather than
+     * the LRU maps, false by default.
+     *
+     * @since 1.8.8
+     */
+    public static final String SHARDED_METRIC = "csp.sentinel.cluster.server.param.sharded.metric";
+
     private final ClusterParameterLeapArray<LongAdder> metric;
+    private final ClusterParamCounterArray counterArray;
 
     public ClusterParamMetric(int sampleCount, int intervalInMs) {
         this(sampleCount, intervalInMs, DEFAULT_CLUSTER_MAX_CAPACITY);
     }
 
     public ClusterParamMetric(int sampleCount, int intervalInMs, int maxCapacity) {
+        this(sampleCount, intervalInMs, maxCapacity, Boolean.parseBoolean(SentinelConfig.getConfig(SHARDED_METRIC)));
+    }
+
+    /**
+     * @param sampleCount  count of the buckets in the sliding window
+     * @param intervalInMs length of the sliding window
+     * @param maxCapacity  count of the distinct values kept in a bucket
+     * @param sharded      whether to keep the statistics in the sharded primitive counter array
+     * @since 1.8.8
+     */
+    public ClusterParamMetric(int sampleCount, int intervalInMs, int maxCapacity, boolean sharded) {
         AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
         AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
-        this.metric = new ClusterParameterLeapArray<>(sampleCount, intervalInMs, maxCapacity);
+        if (sharded) {
+            this.metric = null;
+            this.counterArray = new ClusterParamCounterArray(sampleCount, intervalInMs, maxCapacity);
+        } else {
+            this.metric = new ClusterParameterLeapArray<>(sampleCount, intervalInMs, maxCapacity);
+            this.counterArray = null;
+        }
     }
 
     public long getSum(Object value) {
         if (value == null) {
             return 0;
         }
+        if (counterArray != null) {
+            return counterArray.getSum(ParamFlowKey.hashOf(value), TimeUtil.currentTimeMillis());
+        }
 
         metric.currentWindow();
         long sum = 0;
@@ -73,6 +105,10 @@ public class ClusterParamMetric {
         if (value == null) {
             return;
         }
+        if (counterArray != null) {
+            counterArray.add(ParamFlowKey.hashOf(value), value, count, TimeUtil.currentTimeMillis());
+            return;
+        }
         CacheMap<Object, LongAdder> data = metric.currentWindow().value();
         LongAdder newCounter = new LongAdder();
         LongAdder currentCounter = data.putIfAbsent(value, newCounter);
@@ -84,11 +120,18 @@ public class ClusterParamMetric {
     }
 
     public double getAvg(Object value) {
-        return getSum(value) / metric.getIntervalInSecond();
+        return getSum(value) / getIntervalInSecond();
+    }
+
+    private double getIntervalInSecond() {
+        return counterArray != null ? counterArray.getIntervalInSecond() : metric.getIntervalInSecond();
     }
 
     public Map<Object, Double> getTopValues(int number) {
         AssertUtil.isTrue(number > 0, "number must be positive");
+        if (counterArray != null) {
+            return getTopValues(counterArray.getCounts(TimeUtil.currentTimeMillis()), number);
+        }
         metric.currentWindow();
         List<CacheMap<Object, LongAdder>> buckets = metric.values();
 
@@ -106,7 +149,10 @@ public class ClusterParamMetric {
                 result.put(o, count);
             }
         }
+        return getTopValues(result, number);
+    }
 
+    private Map<Object, Double> getTopValues(Map<Object, Long> result, int number) {
         // After merge, get the top set one.
         Set<Entry<Object, Long>> set = result.entrySet();
         List<Entry<Object, Long>> list = new ArrayList<>(set);
@@ -126,7 +172,7 @@ public class ClusterParamMetric {
             if (x.getValue() == 0) {
                 break;
             }
-            doubleResult.put(x.getKey(), ((double) x.getValue()) / metric.getIntervalInSecond());
+            doubleResult.put(x.getKey(), ((double) x.getValue()) / getIntervalInSecond());
         }
 
         return doubleResult;
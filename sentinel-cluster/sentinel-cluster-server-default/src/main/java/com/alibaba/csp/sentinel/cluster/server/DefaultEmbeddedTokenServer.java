@@ -59,6 +59,22 @@ public class DefaultEmbeddedTokenServer implements EmbeddedClusterTokenServer {
         return new TokenResult(TokenResultStatus.FAIL);
     }
 
+    @Override
+    public TokenResult requestTokenLease(Long ruleId, int leaseCount) {
+        if (tokenService != null) {
+            return tokenService.requestTokenLease(ruleId, leaseCount);
+        }
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult releaseTokenLease(Long ruleId, int releaseCount) {
+        if (tokenService != null) {
+            return tokenService.releaseTokenLease(ruleId, releaseCount);
+        }
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         return null;
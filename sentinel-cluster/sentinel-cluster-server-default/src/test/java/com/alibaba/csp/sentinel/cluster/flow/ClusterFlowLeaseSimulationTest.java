@@ -0,0 +1,350 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.server.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleChecker;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * Simulation of many token clients leasing the tokens of one cluster flow rule from the token server in-process.
+ * The requests are checked by {@link FlowRuleChecker}, so the requests going to the token server directly while
+ * a lease is being renewed, and the unused tokens returned when a lease expires, are counted as well.
+ */
+public class ClusterFlowLeaseSimulationTest extends AbstractTimeBasedTest {
+
+    private static final String NAMESPACE = "lease-simulation";
+    private static final double THRESHOLD = 1000;
+    private static final int SECONDS = 12;
+    private static final int WARM_UP_SECONDS = 2;
+
+    @Test
+    public void testLeaseWithinThreshold() {
+        // Total demand is below the threshold, so every client gets all it needs.
+        Result result = simulate(1001L, 100, new double[] {50, 100, 200, 400});
+        for (int i = 0; i < result.passQps.length; i++) {
+            assertEquals(result.demandQps[i], result.passQps[i], result.demandQps[i] * 0.05);
+        }
+        // About one lease for each client in each lease interval, while the request renewing the lease
+        // goes to the token server directly.
+        assertTrue(result.leaseQps <= 4 * 10 * 1.2);
+        assertTrue(result.fallbackQps <= result.leaseQps);
+        // The tokens left in the leases are returned.
+        assertTrue(result.releaseQps > 0);
+        assertTrue(result.rpcQps() < result.totalDemandQps() / 5);
+    }
+
+    @Test
+    public void testLeaseExceedingThresholdIsSharedByDemand() {
+        Result result = simulate(1002L, 100, new double[] {100, 200, 400, 800});
+        assertEquals(THRESHOLD, result.totalPassQps(), THRESHOLD * 0.1);
+        // The share of the clients is in proportion to their demands.
+        for (int i = 1; i < result.passQps.length; i++) {
+            double ratio = result.passQps[i] / result.passQps[i - 1];
+            assertEquals(2, ratio, 0.5);
+        }
+        assertTrue(result.rpcQps() < result.totalDemandQps() / 10);
+    }
+
+    @Test
+    public void testLongerLeaseTradesAccuracyForLessRequests() {
+        double[] demands = new double[] {100, 200, 400, 800};
+        Result shortLease = simulate(1003L, 50, demands);
+        Result longLease = simulate(1004L, 500, demands);
+
+        assertTrue(longLease.rpcQps() < shortLease.rpcQps() / 5);
+        // Degrades gracefully: the total still stays around the threshold.
+        assertEquals(THRESHOLD, shortLease.totalPassQps(), THRESHOLD * 0.1);
+        assertEquals(THRESHOLD, longLease.totalPassQps(), THRESHOLD * 0.25);
+    }
+
+    @Test
+    public void testReleaseUnusedTokensOfLease() {
+        long flowId = 1005L;
+        FlowRule rule = new FlowRule("lease-release-" + flowId)
+            .setCount(THRESHOLD)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+                .setLeaseIntervalMs(100));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+        rule = ClusterFlowRuleManager.getFlowRuleById(flowId);
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 1_000_000);
+            TokenResult result = ClusterFlowChecker.acquireClusterTokenLease(rule, 50);
+            assertEquals(50, result.getRemaining());
+            assertEquals(50, metric.getSum(ClusterFlowEvent.PASS));
+
+            // The unused tokens are returned when the lease expires, and removed from the bucket of the lease.
+            sleep(mocked, 100);
+            ClusterFlowChecker.releaseClusterTokenLease(rule, 30);
+            assertEquals(20, metric.getSum(ClusterFlowEvent.PASS));
+            assertEquals(0, metric.getCurrentCount(ClusterFlowEvent.PASS));
+        } finally {
+            ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+        }
+    }
+
+    private Result simulate(long flowId, int leaseIntervalMs, double[] demandQps) {
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(newRule(flowId, leaseIntervalMs)));
+
+        int clients = demandQps.length;
+        InProcessTokenClient[] tokenClients = new InProcessTokenClient[clients];
+        FlowRule[] rules = new FlowRule[clients];
+        DefaultNode[] nodes = new DefaultNode[clients];
+        double[] pending = new double[clients];
+        long[] passed = new long[clients];
+        for (int i = 0; i < clients; i++) {
+            tokenClients[i] = new InProcessTokenClient();
+            // Each client has its own copy of the rule and so its own lease.
+            rules[i] = FlowRuleUtil.buildFlowRuleMap(Collections.singletonList(newRule(flowId, leaseIntervalMs)),
+                null, false).values().iterator().next().get(0);
+            String resourceName = rules[i].getResource();
+            nodes[i] = new DefaultNode(new StringResourceWrapper(resourceName, EntryType.IN),
+                new ClusterNode(resourceName));
+        }
+        FlowRuleChecker checker = new FlowRuleChecker();
+        AtomicReference<ClusterTokenClient> currentClient = new AtomicReference<>();
+        PriorityQueue<ScheduledTask> scheduledTasks = new PriorityQueue<>();
+
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil();
+             MockedStatic<ClusterStateManager> mockedState = mockStatic(ClusterStateManager.class);
+             MockedStatic<TokenClientProvider> mockedProvider = mockStatic(TokenClientProvider.class);
+             MockedStatic<DelayScheduler> mockedScheduler = mockStatic(DelayScheduler.class, CALLS_REAL_METHODS)) {
+            mockedState.when(ClusterStateManager::isClient).thenReturn(true);
+            mockedProvider.when(TokenClientProvider::getClient).thenAnswer(i -> currentClient.get());
+            // The releases of expired leases are scheduled in simulated time.
+            mockedScheduler.when(() -> DelayScheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class)))
+                .thenAnswer(i -> {
+                    long delayMs = i.<TimeUnit>getArgument(2).toMillis(i.<Long>getArgument(1));
+                    scheduledTasks.add(new ScheduledTask(TimeUtil.currentTimeMillis() + delayMs,
+                        i.<Runnable>getArgument(0), currentClient.get()));
+                    return null;
+                });
+
+            long start = 1_000_000;
+            long measureStart = start + WARM_UP_SECONDS * 1000;
+            for (long now = start; now < start + SECONDS * 1000; now++) {
+                setCurrentMillis(mocked, now);
+                if (now == measureStart) {
+                    for (InProcessTokenClient client : tokenClients) {
+                        client.resetCounts();
+                    }
+                }
+                while (!scheduledTasks.isEmpty() && scheduledTasks.peek().time <= now) {
+                    ScheduledTask task = scheduledTasks.poll();
+                    currentClient.set(task.client);
+                    task.task.run();
+                }
+                for (int i = 0; i < clients; i++) {
+                    currentClient.set(tokenClients[i]);
+                    pending[i] += demandQps[i] / 1000;
+                    for (; pending[i] >= 1; pending[i]--) {
+                        // The demand of the lease is the recent QPS of the node, both passed and blocked.
+                        if (checker.canPassCheck(rules[i], null, nodes[i], 1)) {
+                            nodes[i].addPassRequest(1);
+                            if (now >= measureStart) {
+                                passed[i]++;
+                            }
+                        } else {
+                            nodes[i].increaseBlockQps(1);
+                        }
+                    }
+                }
+            }
+        } finally {
+            ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+        }
+
+        int measuredSeconds = SECONDS - WARM_UP_SECONDS;
+        Result result = new Result(demandQps);
+        for (int i = 0; i < clients; i++) {
+            result.passQps[i] = (double) passed[i] / measuredSeconds;
+            result.leaseQps += (double) tokenClients[i].leaseCount / measuredSeconds;
+            result.fallbackQps += (double) tokenClients[i].tokenCount / measuredSeconds;
+            result.releaseQps += (double) tokenClients[i].releaseCount / measuredSeconds;
+        }
+        return result;
+    }
+
+    private static FlowRule newRule(long flowId, int leaseIntervalMs) {
+        return new FlowRule("lease-simulation-" + flowId)
+            .setCount(THRESHOLD)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+                .setLeaseIntervalMs(leaseIntervalMs));
+    }
+
+    /**
+     * Token client which calls the token service in the same thread, counting the requests.
+     */
+    private static class InProcessTokenClient implements ClusterTokenClient {
+
+        private final TokenService service = new DefaultTokenService();
+
+        private long tokenCount;
+        private long leaseCount;
+        private long releaseCount;
+
+        void resetCounts() {
+            this.tokenCount = 0;
+            this.leaseCount = 0;
+            this.releaseCount = 0;
+        }
+
+        @Override
+        public TokenResult requestToken(Long ruleId, int acquireCount, boolean prioritized) {
+            tokenCount++;
+            return service.requestToken(ruleId, acquireCount, prioritized);
+        }
+
+        @Override
+        public TokenResult requestTokenLease(Long ruleId, int leaseCount) {
+            this.leaseCount++;
+            return service.requestTokenLease(ruleId, leaseCount);
+        }
+
+        @Override
+        public TokenResult releaseTokenLease(Long ruleId, int releaseCount) {
+            this.releaseCount++;
+            return service.releaseTokenLease(ruleId, releaseCount);
+        }
+
+        @Override
+        public TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void releaseConcurrentToken(Long tokenId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TokenServerDescriptor currentServer() {
+            return null;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public int getState() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+        private final long time;
+        private final Runnable task;
+        private final ClusterTokenClient client;
+
+        ScheduledTask(long time, Runnable task, ClusterTokenClient client) {
+            this.time = time;
+            this.task = task;
+            this.client = client;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask o) {
+            return Long.compare(time, o.time);
+        }
+    }
+
+    private static class Result {
+        private final double[] demandQps;
+        private final double[] passQps;
+        private double leaseQps;
+        private double fallbackQps;
+        private double releaseQps;
+
+        Result(double[] demandQps) {
+            this.demandQps = demandQps;
+            this.passQps = new double[demandQps.length];
+        }
+
+        double rpcQps() {
+            return leaseQps + fallbackQps + releaseQps;
+        }
+
+        double totalPassQps() {
+            double sum = 0;
+            for (double qps : passQps) {
+                sum += qps;
+            }
+            return sum;
+        }
+
+        double totalDemandQps() {
+            double sum = 0;
+            for (double qps : demandQps) {
+                sum += qps;
+            }
+            return sum;
+        }
+    }
+}
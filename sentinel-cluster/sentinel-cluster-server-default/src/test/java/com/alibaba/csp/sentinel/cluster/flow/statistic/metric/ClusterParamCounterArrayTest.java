@@ -0,0 +1,110 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClusterParamCounterArrayTest {
+
+    @Test
+    public void testShardCapacity() {
+        ClusterParamCounterArray array = new ClusterParamCounterArray(10, 1000, 4000, 6);
+        Assert.assertEquals(8, array.getShardCount());
+        Assert.assertEquals(1024, array.getBucketCapacity());
+
+        array = new ClusterParamCounterArray(10, 1000, 1, 64);
+        Assert.assertEquals(16, array.getBucketCapacity());
+    }
+
+    @Test
+    public void testRotateInPlace() {
+        ClusterParamCounterArray array = new ClusterParamCounterArray(2, 1000, 100, 4);
+        long now = 10_000;
+        array.add(11L, "a", 3, now);
+        array.add(12L, "b", 5, now + 500);
+        Assert.assertEquals(3, array.getSum(11L, now + 500));
+        Assert.assertEquals(5, array.getSum(12L, now + 500));
+
+        // The bucket of "a" is reused for the new window.
+        array.add(13L, "c", 7, now + 1000);
+        Assert.assertEquals(0, array.getSum(11L, now + 1000));
+        Assert.assertEquals(5, array.getSum(12L, now + 1000));
+        Assert.assertEquals(7, array.getSum(13L, now + 1000));
+
+        Map<Object, Long> counts = array.getCounts(now + 1000);
+        Assert.assertEquals(2, counts.size());
+        Assert.assertEquals(Long.valueOf(5), counts.get("b"));
+        Assert.assertEquals(Long.valueOf(7), counts.get("c"));
+
+        // Stale counts of a clock going backwards are dropped.
+        array.add(11L, "a", 1, now);
+        Assert.assertEquals(0, array.getSum(11L, now + 1000));
+    }
+
+    @Test
+    public void testTakeOverSmallestCountWhenFull() {
+        ClusterParamCounterArray array = new ClusterParamCounterArray(1, 1000, 8, 1);
+        int capacity = array.getBucketCapacity();
+        long now = 10_000;
+        for (long key = 1; key <= capacity; key++) {
+            array.add(key, key, key * 10, now);
+        }
+        array.add(capacity + 1, capacity + 1, 1, now);
+
+        Assert.assertEquals(11, array.getSum(capacity + 1, now));
+        Assert.assertEquals(0, array.getSum(1L, now));
+        Assert.assertEquals(20, array.getSum(2L, now));
+        Assert.assertEquals(capacity, array.getCounts(now).size());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final ClusterParamCounterArray array = new ClusterParamCounterArray(1, 60_000, 1000, 4);
+        final long now = 10_000;
+        final int threadCount = 8;
+        final int keyCount = 100;
+        final int rounds = 1000;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int r = 0; r < rounds; r++) {
+                        for (long key = 1; key <= keyCount; key++) {
+                            array.add(key * 0x9E3779B97F4A7C15L, key, 1, now);
+                        }
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        for (long key = 1; key <= keyCount; key++) {
+            Assert.assertEquals(threadCount * rounds, array.getSum(key * 0x9E3779B97F4A7C15L, now));
+        }
+        Assert.assertEquals(keyCount, array.getCounts(now).size());
+    }
+}
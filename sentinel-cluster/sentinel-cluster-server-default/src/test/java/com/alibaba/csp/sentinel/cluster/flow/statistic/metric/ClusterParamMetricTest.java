@@ -28,10 +28,43 @@ public class ClusterParamMetricTest extends AbstractTimeBasedTest {
 
     @Test
     public void testClusterParamMetric() {
+        verifyClusterParamMetric(false);
+    }
+
+    @Test
+    public void testShardedClusterParamMetric() {
+        verifyClusterParamMetric(true);
+    }
+
+    @Test
+    public void testShardedClusterParamMetricSlidingWindow() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 100_000);
+            ClusterParamMetric metric = new ClusterParamMetric(5, 25, 100, true);
+            metric.addValue("e1", 1);
+            sleep(mocked, 5);
+            metric.addValue("e1", 2);
+            metric.addValue(7L, 4);
+            Assert.assertEquals(3, metric.getSum("e1"));
+            Assert.assertEquals(4, metric.getSum(7L));
+
+            sleep(mocked, 20);
+            Assert.assertEquals(2, metric.getSum("e1"));
+            metric.addValue("e1", 8);
+            Assert.assertEquals(10, metric.getSum("e1"));
+
+            sleep(mocked, 25);
+            Assert.assertEquals(0, metric.getSum("e1"));
+            Assert.assertEquals(0, metric.getSum(7L));
+            Assert.assertTrue(metric.getTopValues(5).isEmpty());
+        }
+    }
+
+    private void verifyClusterParamMetric(boolean sharded) {
         try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
             setCurrentMillis(mocked, System.currentTimeMillis());
             Map<Object, Double> topMap = new HashMap<Object, Double>();
-            ClusterParamMetric metric = new ClusterParamMetric(5, 25, 100);
+            ClusterParamMetric metric = new ClusterParamMetric(5, 25, 100, sharded);
             metric.addValue("e1", -1);
             metric.addValue("e1", -2);
             metric.addValue("e2", 100);
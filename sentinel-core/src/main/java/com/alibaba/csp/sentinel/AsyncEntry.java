@@ -15,11 +15,21 @@
  */
 package com.alibaba.csp.sentinel;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.NullContext;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
  * The entry for asynchronous resources.
@@ -29,8 +39,21 @@ import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
  */
 public class AsyncEntry extends CtEntry {
 
+    /**
+     * Executor where the results of the deferred checks are handled, so that neither the I/O thread of
+     * the cluster client nor the delay scheduler runs the rule checks.
+     */
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ExecutorService DEFERRED_CHECK_EXECUTOR = Executors.newSingleThreadExecutor(
+        new NamedThreadFactory("sentinel-deferred-check-task", true));
+
     private Context asyncContext;
 
+    private boolean queueingDeferred;
+    private volatile long queueingDelayNanos;
+    private CompletableFuture<BlockException> deferredChecks;
+    private volatile BlockException deferredBlockError;
+
     AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
         super(resourceWrapper, chain, context);
     }
@@ -69,6 +92,131 @@ public class AsyncEntry extends CtEntry {
         return asyncContext;
     }
 
+    /**
+     * Whether the queueing time of traffic shaping (e.g. rate limiter mode) is deferred to the caller,
+     * rather than blocking the thread which creates the entry.
+     *
+     * @return true if the queueing time is deferred to the caller
+     * @since 1.8.8
+     */
+    public boolean isQueueingDeferred() {
+        return queueingDeferred;
+    }
+
+    void setQueueingDeferred(boolean queueingDeferred) {
+        this.queueingDeferred = queueingDeferred;
+    }
+
+    /**
+     * Get the time which the caller should wait before processing the request, if the queueing time
+     * is deferred to the caller.
+     *
+     * @return the queueing delay in nanoseconds, 0 if the request could be processed immediately
+     * @since 1.8.8
+     */
+    public long getQueueingDelayNanos() {
+        return queueingDelayNanos;
+    }
+
+    /**
+     * Record the queueing delay of a rule. As the request should wait for all rules,
+     * the max delay is kept.
+     *
+     * @param delayNanos the queueing delay in nanoseconds
+     * @since 1.8.8
+     */
+    public void addQueueingDelay(long delayNanos) {
+        if (delayNanos > queueingDelayNanos) {
+            this.queueingDelayNanos = delayNanos;
+        }
+    }
+
+    /**
+     * Record a check whose result is not known yet when the entry is created, e.g. a cluster token
+     * requested asynchronously. The check completes with the exception if the request should be blocked,
+     * or with null if passed.
+     *
+     * @param check the pending check
+     * @since 1.8.8
+     */
+    public void addDeferredCheck(CompletionStage<? extends BlockException> check) {
+        CompletableFuture<BlockException> next = check.<BlockException>thenApply(e -> {
+            if (e != null && deferredBlockError == null) {
+                this.deferredBlockError = e;
+            }
+            return e;
+        }).toCompletableFuture();
+        if (deferredChecks == null) {
+            this.deferredChecks = next;
+        } else {
+            // The first block in order is carried.
+            this.deferredChecks = deferredChecks.thenCombine(next, (a, b) -> a != null ? a : b);
+        }
+    }
+
+    /**
+     * Record a check which is decided by the result of a pending request. The check function is run on
+     * a shared executor rather than the thread completing the request, and it should neither block nor
+     * access the context of the entry, which is bound to the thread creating the entry.
+     *
+     * @param pending the pending request
+     * @param check   the function which returns the exception if the request should be blocked, or null if
+     *                passed, given the result or the failure of the pending request
+     * @param <T>     type of the result
+     * @since 1.8.8
+     */
+    public <T> void addDeferredCheck(CompletionStage<T> pending,
+                                     BiFunction<? super T, Throwable, ? extends BlockException> check) {
+        addDeferredCheck(pending.handleAsync(check, DEFERRED_CHECK_EXECUTOR));
+    }
+
+    /**
+     * Get the exception of the deferred check which has blocked the request after the entry was created.
+     * Exiting such entry sets it as the block error of the entry, and records the request as blocked
+     * (the pass counted when the entry was created is kept).
+     *
+     * @return the exception, or null if no deferred check has blocked the request (yet)
+     * @since 1.8.8
+     */
+    public BlockException getDeferredBlockError() {
+        return deferredBlockError;
+    }
+
+    /**
+     * @return whether there are checks to wait for, see {@link #whenQueueingDone()}
+     * @since 1.8.8
+     */
+    public boolean hasDeferredChecks() {
+        return deferredChecks != null;
+    }
+
+    /**
+     * Get a stage which completes with this entry when the deferred checks have passed and then the
+     * queueing delay has elapsed, without blocking the calling thread. If any deferred check blocks
+     * the request, the stage completes exceptionally with the {@link BlockException}, and the caller
+     * should exit the entry, which records the request as blocked.
+     *
+     * <p>Note that the stage completes on a shared thread: the thread of the delay scheduler after the
+     * queueing delay, or the executor of the deferred checks if there is no delay. So further processing
+     * of the request should be handed over to the caller's own executor. If there is neither delay nor
+     * deferred check, the returned stage has already completed.</p>
+     *
+     * @return the stage which completes after the queueing delay
+     * @since 1.8.8
+     */
+    public CompletionStage<AsyncEntry> whenQueueingDone() {
+        if (deferredChecks == null) {
+            return DelayScheduler.completeAfter(this, queueingDelayNanos);
+        }
+        return deferredChecks.thenCompose(blockException -> {
+            if (blockException != null) {
+                throw new CompletionException(blockException);
+            }
+            // The delay may be added by the deferred checks, so it's read after they complete.
+            return DelayScheduler.completeAfter(this, queueingDelayNanos);
+        });
+    }
+
     /**
      * The async context should not be initialized until the node for current resource has been set to current entry.
      */
@@ -41,6 +41,15 @@ class CtEntry extends Entry {
     protected Context context;
     protected LinkedList<BiConsumer<Context, Entry>> exitHandlers;
 
+    /**
+     * Whether the entry is taken from the thread-local pool and could be recycled when exited.
+     */
+    private boolean recyclable = false;
+    /**
+     * Generation of the entry pool when the entry is recycled, see {@link EntryPool}.
+     */
+    private long recycledAt;
+
     CtEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
         this(resourceWrapper, chain, context, 1, OBJECTS0);
     }
@@ -53,6 +62,41 @@ class CtEntry extends Entry {
         setUpEntryFor(context);
     }
 
+    /**
+     * Get an entry from the entry pool of current thread, or create a new one if the pool is empty.
+     * The entry will be recycled to the pool as soon as it's exited normally, so it must not be
+     * accessed after exit. A recycled entry is not reused within the next few invocations of the thread,
+     * so that a duplicate exit shortly after is still a no-op rather than exiting another invocation.
+     *
+     * @since 1.8.8
+     */
+    static CtEntry obtain(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context, int count,
+                          Object[] args) {
+        CtEntry entry = EntryPool.POOL.get().poll();
+        if (entry == null) {
+            entry = new CtEntry(resourceWrapper, chain, context, count, args);
+        } else {
+            entry.reinit(resourceWrapper, count, args);
+            entry.chain = chain;
+            entry.context = context;
+            entry.setUpEntryFor(context);
+        }
+        entry.recyclable = true;
+        return entry;
+    }
+
+    private void recycle() {
+        this.recyclable = false;
+        this.parent = null;
+        this.child = null;
+        this.chain = null;
+        this.exitHandlers = null;
+        this.args = OBJECTS0;
+        EntryPool pool = EntryPool.POOL.get();
+        this.recycledAt = pool.generation;
+        pool.offer(this);
+    }
+
     private void setUpEntryFor(Context context) {
         // The entry should not be associated to NullContext.
         if (context instanceof NullContext) {
@@ -100,8 +144,10 @@ class CtEntry extends Entry {
                 // Clean previous call stack.
                 CtEntry e = (CtEntry) context.getCurEntry();
                 while (e != null) {
+                    // The parent should be kept before exit, as the exited entry may be recycled.
+                    CtEntry p = (CtEntry) e.parent;
                     e.exit(count, args);
-                    e = (CtEntry) e.parent;
+                    e = p;
                 }
                 String errorMessage = String.format("The order of entry exit can't be paired with the order of entry"
                         + ", current entry in context: <%s>, but expected: <%s>", curEntryNameInContext,
@@ -128,6 +174,9 @@ class CtEntry extends Entry {
                 }
                 // Clean the reference of context in current entry to avoid duplicate exit.
                 clearEntryContext();
+                if (recyclable) {
+                    recycle();
+                }
             }
         }
     }
@@ -146,6 +195,7 @@ class CtEntry extends Entry {
 
     @Override
     protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        Entry parent = this.parent;
         exitForContext(context, count, args);
 
         return parent;
@@ -155,4 +205,51 @@ class CtEntry extends Entry {
     public Node getLastNode() {
         return parent == null ? null : parent.getCurNode();
     }
-}
\ No newline at end of file
+
+    /**
+     * A small thread-local pool of exited entries. Entries are reused in FIFO order, and only after the
+     * pool has handed out {@link #QUARANTINE_GENERATIONS} entries since they were recycled.
+     */
+    private static final class EntryPool {
+
+        private static final int MAX_SIZE = 16;
+        private static final int QUARANTINE_GENERATIONS = 8;
+
+        static final ThreadLocal<EntryPool> POOL = new ThreadLocal<EntryPool>() {
+            @Override
+            protected EntryPool initialValue() {
+                return new EntryPool();
+            }
+        };
+
+        private final CtEntry[] entries = new CtEntry[MAX_SIZE];
+        private int head = 0;
+        private int size = 0;
+        /**
+         * Amount of entries handed out by the pool (including newly created ones).
+         */
+        private long generation = 0;
+
+        CtEntry poll() {
+            generation++;
+            if (size == 0) {
+                return null;
+            }
+            CtEntry entry = entries[head];
+            if (generation - entry.recycledAt <= QUARANTINE_GENERATIONS) {
+                return null;
+            }
+            entries[head] = null;
+            head = (head + 1) % MAX_SIZE;
+            size--;
+            return entry;
+        }
+
+        void offer(CtEntry entry) {
+            if (size < MAX_SIZE) {
+                entries[(head + size) % MAX_SIZE] = entry;
+                size++;
+            }
+        }
+    }
+}
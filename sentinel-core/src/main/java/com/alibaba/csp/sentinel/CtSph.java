@@ -16,8 +16,8 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.context.Context;
@@ -47,9 +47,12 @@ public class CtSph implements Sph {
     /**
      * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
      * {@link ProcessorSlotChain}, no matter in which {@link Context}.
+     *
+     * The map is read without lock on every entry. New slot chains are put under {@code LOCK},
+     * so creating a resource costs O(1) instead of copying the whole map.
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+    private static final Map<ResourceWrapper, ProcessorSlotChain> chainMap
+        = new ConcurrentHashMap<ResourceWrapper, ProcessorSlotChain>();
 
     private static final Object LOCK = new Object();
 
@@ -63,6 +66,12 @@ public class CtSph implements Sph {
 
     private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
                                                       Object... args) throws BlockException {
+        return asyncEntryWithPriorityInternal(resourceWrapper, count, prioritized, false, args);
+    }
+
+    private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
+                                                      boolean deferQueueing, Object... args)
+        throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -87,6 +96,7 @@ public class CtSph implements Sph {
         }
 
         AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context, count, args);
+        asyncEntry.setQueueingDeferred(deferQueueing);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
             // Initiate the async context only when the entry successfully passed the slot chain.
@@ -156,6 +166,48 @@ public class CtSph implements Sph {
         return e;
     }
 
+    private Entry entryWithHandle(ResourceHandle handle, int count) throws BlockException {
+        ResourceWrapper resourceWrapper = handle.getResourceWrapper();
+        Context context = ContextUtil.getContext();
+        if (context instanceof NullContext) {
+            // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
+            // so here init the entry only. No rule checking will be done.
+            return new CtEntry(resourceWrapper, null, context);
+        }
+
+        if (context == null) {
+            // Using default context, which is reused by the current thread.
+            context = InternalContextUtil.internalEnterReusableDefault();
+        }
+
+        // Global switch is close, no rule checking will do.
+        if (!Constants.ON) {
+            return new CtEntry(resourceWrapper, null, context);
+        }
+
+        ProcessorSlot<Object> chain = handle.getChain();
+        if (chain == null) {
+            chain = lookProcessChain(resourceWrapper);
+            if (chain == null) {
+                // Amount of resources exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE}.
+                return new CtEntry(resourceWrapper, null, context);
+            }
+            handle.setChain(chain);
+        }
+
+        Entry e = CtEntry.obtain(resourceWrapper, chain, context, count, OBJECTS0);
+        try {
+            chain.entry(context, resourceWrapper, null, count, false, OBJECTS0);
+        } catch (BlockException e1) {
+            e.exit(count, OBJECTS0);
+            throw e1;
+        } catch (Throwable e1) {
+            // This should not happen, unless there are errors existing in Sentinel internal.
+            RecordLog.info("Sentinel unexpected exception", e1);
+        }
+        return e;
+    }
+
     /**
      * Do all {@link Rule}s checking about the resource.
      *
@@ -194,6 +246,10 @@ public class CtSph implements Sph {
     ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
         ProcessorSlotChain chain = chainMap.get(resourceWrapper);
         if (chain == null) {
+            // Entry size limit, checked before locking so that exceeded resources won't contend on the lock.
+            if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                return null;
+            }
             synchronized (LOCK) {
                 chain = chainMap.get(resourceWrapper);
                 if (chain == null) {
@@ -203,11 +259,7 @@ public class CtSph implements Sph {
                     }
 
                     chain = SlotChainProvider.newSlotChain();
-                    Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(
-                        chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
+                    chainMap.put(resourceWrapper, chain);
                 }
             }
         }
@@ -253,6 +305,10 @@ public class CtSph implements Sph {
         static Context internalEnter(String name, String origin) {
             return trueEnter(name, origin);
         }
+
+        static Context internalEnterReusableDefault() {
+            return trueEnterReusableDefault();
+        }
     }
 
     @Override
@@ -315,6 +371,11 @@ public class CtSph implements Sph {
         return entry(resource, count, args);
     }
 
+    @Override
+    public Entry entry(ResourceHandle handle, int count) throws BlockException {
+        return entryWithHandle(handle, count);
+    }
+
     @Override
     public AsyncEntry asyncEntry(String name, EntryType type, int count, Object... args) throws BlockException {
         StringResourceWrapper resource = new StringResourceWrapper(name, type);
@@ -353,4 +414,12 @@ public class CtSph implements Sph {
         StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
         return asyncEntryWithPriorityInternal(resource, count, prioritized, args);
     }
+
+    @Override
+    public AsyncEntry asyncEntryWithType(String name, int resourceType, EntryType entryType, int count,
+                                         boolean prioritized, boolean deferQueueing, Object[] args)
+        throws BlockException {
+        StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
+        return asyncEntryWithPriorityInternal(resource, count, prioritized, deferQueueing, args);
+    }
 }
@@ -55,7 +55,7 @@ public abstract class Entry implements AutoCloseable {
 
     protected static final Object[] OBJECTS0 = new Object[0];
 
-    private final long createTimestamp;
+    private long createTimestamp;
     private long completeTimestamp;
 
     private Node curNode;
@@ -67,11 +67,14 @@ public abstract class Entry implements AutoCloseable {
     private Throwable error;
     private BlockException blockError;
 
-    protected final ResourceWrapper resourceWrapper;
+    /**
+     * Not final as pooled entries are re-initialized for new invocations, see {@link #reinit}.
+     */
+    protected ResourceWrapper resourceWrapper;
 
-    protected final int count;
+    protected int count;
 
-    protected final Object[] args;
+    protected Object[] args;
 
     public Entry(ResourceWrapper resourceWrapper) {
         this(resourceWrapper, 1, OBJECTS0);
@@ -84,6 +87,23 @@ public abstract class Entry implements AutoCloseable {
         this.args = args;
     }
 
+    /**
+     * Re-initialize the entry for a new invocation, so that it can be reused without allocation.
+     *
+     * @since 1.8.8
+     */
+    void reinit(ResourceWrapper resourceWrapper, int count, Object[] args) {
+        this.resourceWrapper = resourceWrapper;
+        this.createTimestamp = TimeUtil.currentTimeMillis();
+        this.completeTimestamp = 0;
+        this.count = count;
+        this.args = args;
+        this.curNode = null;
+        this.originNode = null;
+        this.error = null;
+        this.blockError = null;
+    }
+
     public ResourceWrapper getResourceWrapper() {
         return resourceWrapper;
     }
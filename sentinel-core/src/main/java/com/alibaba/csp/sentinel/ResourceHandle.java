@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleSnapshot;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+/**
+ * <p>A pre-resolved resource, obtained via {@link SphU#resolve(String)}. The handle holds the
+ * resource wrapper and the slot chain of the resource, so entering the resource with
+ * {@link SphU#entry(ResourceHandle)} won't create the resource wrapper or look up the slot chain map
+ * for each invocation.</p>
+ *
+ * <p>Slots of the chain are created per resource, and they keep direct references to the nodes
+ * and a snapshot of the rules of the resource (see {@link RuleSnapshot}), so no map will be looked up
+ * in the slot chain either. When rules are updated, the version stamp of rules changes and
+ * the snapshots are taken again on next invocation.</p>
+ *
+ * <p>Handles are thread-safe and are expected to be created once and cached by the caller.</p>
+ *
+ * @since 1.8.8
+ */
+public final class ResourceHandle {
+
+    private final StringResourceWrapper resourceWrapper;
+
+    private volatile ProcessorSlot<Object> chain;
+    private volatile ClusterNode clusterNode;
+
+    ResourceHandle(StringResourceWrapper resourceWrapper) {
+        this.resourceWrapper = resourceWrapper;
+    }
+
+    public String getName() {
+        return resourceWrapper.getName();
+    }
+
+    public ResourceWrapper getResourceWrapper() {
+        return resourceWrapper;
+    }
+
+    /**
+     * Get the {@link ClusterNode} of the resource, which holds total statistics of the resource.
+     *
+     * @return the cluster node, or null if the resource has not been entered yet
+     */
+    public ClusterNode getClusterNode() {
+        ClusterNode node = clusterNode;
+        if (node == null) {
+            node = ClusterBuilderSlot.getClusterNode(resourceWrapper.getName(), resourceWrapper.getEntryType());
+            clusterNode = node;
+        }
+        return node;
+    }
+
+    ProcessorSlot<Object> getChain() {
+        return chain;
+    }
+
+    void setChain(ProcessorSlot<Object> chain) {
+        this.chain = chain;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceHandle{" +
+            "resource=" + resourceWrapper.getName() +
+            ", entryType=" + resourceWrapper.getEntryType() +
+            '}';
+    }
+}
@@ -193,4 +193,18 @@ public interface Sph extends SphResourceTypeSupport {
      */
     Entry entryWithPriority(String name, EntryType trafficType, int batchCount, boolean prioritized, Object... args)
         throws BlockException;
+
+    /**
+     * Record statistics and perform rule checking for the pre-resolved resource.
+     *
+     * <p>The returned entry may be recycled for later invocations in current thread after it's exited,
+     * so it must not be accessed after {@link Entry#exit()}.</p>
+     *
+     * @param handle the pre-resolved resource handle, see {@link SphU#resolve(String)}
+     * @param count  tokens required
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.8
+     */
+    Entry entry(ResourceHandle handle, int count) throws BlockException;
 }
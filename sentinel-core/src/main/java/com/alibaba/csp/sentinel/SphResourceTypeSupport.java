@@ -74,4 +74,30 @@ public interface SphResourceTypeSupport {
     AsyncEntry asyncEntryWithType(String name, int resourceType, EntryType trafficType, int batchCount,
                                   boolean prioritized,
                                   Object[] args) throws BlockException;
+
+    /**
+     * Record statistics and perform rule checking for the given resource that indicates an async invocation.
+     * If {@code deferQueueing} is true, traffic shaping rules that queue requests (e.g. rate limiter mode)
+     * won't block the calling thread. Instead, the queueing time is recorded in the returned entry
+     * (see {@link AsyncEntry#getQueueingDelayNanos()}), and the caller should delay the request by itself.
+     * The default implementation ignores {@code deferQueueing} and queues in the calling thread.
+     *
+     * @param name          the unique name for the protected resource
+     * @param resourceType  classification of the resource (e.g. Web or RPC)
+     * @param trafficType   the traffic type (inbound, outbound or internal). This is used
+     *                      to mark whether it can be blocked when the system is unstable,
+     *                      only inbound traffic could be blocked by {@link SystemRule}
+     * @param batchCount    the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param prioritized   whether the entry is prioritized
+     * @param deferQueueing whether the queueing time should be deferred to the caller
+     * @param args          args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.8
+     */
+    default AsyncEntry asyncEntryWithType(String name, int resourceType, EntryType trafficType, int batchCount,
+                                          boolean prioritized, boolean deferQueueing, Object[] args)
+        throws BlockException {
+        return asyncEntryWithType(name, resourceType, trafficType, batchCount, prioritized, args);
+    }
 }
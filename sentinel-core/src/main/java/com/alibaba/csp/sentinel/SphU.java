@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
 
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
@@ -365,4 +366,97 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
     }
+
+    /**
+     * <p>Record statistics and perform rule checking for the given resource that indicates an async invocation,
+     * without blocking the calling thread for queueing of traffic shaping (e.g. rate limiter mode).</p>
+     *
+     * <p>If the request should be queued, the queueing time is recorded in the returned entry, and the caller
+     * should delay processing the request for {@link AsyncEntry#getQueueingDelayNanos()} by itself
+     * (e.g. via {@link AsyncEntry#whenQueueingDone()}). This is suitable for event-loop based frameworks,
+     * where blocking the thread should be avoided.</p>
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @param batchCount   the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args         args for parameter flow control or customized slots
+     * @return the {@link AsyncEntry} of this invocation
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.8
+     */
+    public static AsyncEntry asyncEntryWithDeferredQueueing(String name, int resourceType, EntryType trafficType,
+                                                            int batchCount, Object[] args) throws BlockException {
+        return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, true, args);
+    }
+
+    /**
+     * Resolve the resource of given name, so that the returned handle could be cached by the caller
+     * (e.g. at route registration) and used to enter the resource with {@link #entry(ResourceHandle)}.
+     *
+     * @param name the unique name of the protected resource
+     * @return the resource handle
+     * @since 1.8.8
+     */
+    public static ResourceHandle resolve(String name) {
+        return resolve(name, ResourceTypeConstants.COMMON, EntryType.OUT);
+    }
+
+    /**
+     * Resolve the resource of given name and traffic type.
+     *
+     * @param name        the unique name of the protected resource
+     * @param trafficType the traffic type (inbound, outbound or internal)
+     * @return the resource handle
+     * @since 1.8.8
+     */
+    public static ResourceHandle resolve(String name, EntryType trafficType) {
+        return resolve(name, ResourceTypeConstants.COMMON, trafficType);
+    }
+
+    /**
+     * Resolve the resource of given name, resource type and traffic type.
+     *
+     * @param name         the unique name of the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal)
+     * @return the resource handle
+     * @since 1.8.8
+     */
+    public static ResourceHandle resolve(String name, int resourceType, EntryType trafficType) {
+        return new ResourceHandle(new StringResourceWrapper(name, trafficType, resourceType));
+    }
+
+    /**
+     * <p>Record statistics and perform rule checking for the pre-resolved resource.
+     * The resource wrapper and slot chain are cached in the handle, the entry is pooled per thread
+     * and the default context is reused, so no object will be created in common cases.</p>
+     *
+     * <p>Note that the returned entry may be recycled after it's exited, so it must not be accessed
+     * after {@link Entry#exit()}. A duplicate exit within the next few invocations of the thread is ignored,
+     * but a stale entry exited later may complete another invocation.</p>
+     *
+     * @param handle the resource handle obtained from {@link #resolve(String)}
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.8
+     */
+    public static Entry entry(ResourceHandle handle) throws BlockException {
+        return Env.sph.entry(handle, 1);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the pre-resolved resource.
+     *
+     * @param handle     the resource handle obtained from {@link #resolve(String)}
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.8
+     */
+    public static Entry entry(ResourceHandle handle, int batchCount) throws BlockException {
+        return Env.sph.entry(handle, batchCount);
+    }
 }
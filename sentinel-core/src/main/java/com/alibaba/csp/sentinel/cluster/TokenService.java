@@ -45,6 +45,33 @@ public interface TokenService {
      */
     TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params);
 
+    /**
+     * Request a lease of tokens from remote token server, which is valid for the lease interval of the rule.
+     * The count of the granted tokens is carried by {@link TokenResult#getRemaining()}, and the valid time
+     * of the lease (in milliseconds) is carried by {@link TokenResult#getWaitInMs()}.
+     *
+     * @param ruleId     the unique rule ID
+     * @param leaseCount token count to lease
+     * @return result of the lease request, {@link TokenResultStatus#FAIL} if leases are not supported
+     * @since 1.8.8
+     */
+    default TokenResult requestTokenLease(Long ruleId, int leaseCount) {
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    /**
+     * Return the unused tokens of an expired lease to remote token server, so that they are not counted
+     * as passed.
+     *
+     * @param ruleId       the unique rule ID
+     * @param releaseCount count of the unused tokens
+     * @return result of the release request, {@link TokenResultStatus#FAIL} if leases are not supported
+     * @since 1.8.8
+     */
+    default TokenResult releaseTokenLease(Long ruleId, int releaseCount) {
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
     /**
      * Request acquire concurrent tokens from remote token server.
      *
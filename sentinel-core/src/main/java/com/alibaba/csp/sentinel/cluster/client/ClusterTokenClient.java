@@ -15,6 +15,10 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.TokenService;
 
@@ -53,4 +57,62 @@ public interface ClusterTokenClient extends TokenService {
      * @return state of the cluster token client
      */
     int getState();
+
+    /**
+     * Request tokens from remote token server without blocking the calling thread. Implementations
+     * which support pipelining could have many requests in flight on one connection.
+     * The default implementation requests synchronously.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount token count to acquire
+     * @param prioritized whether the request is prioritized
+     * @return future of the token result, which never completes exceptionally
+     * @since 1.8.8
+     */
+    default CompletableFuture<TokenResult> requestTokenAsync(Long ruleId, int acquireCount, boolean prioritized) {
+        return CompletableFuture.completedFuture(requestToken(ruleId, acquireCount, prioritized));
+    }
+
+    /**
+     * Request tokens for a specific parameter from remote token server without blocking the calling thread.
+     * The default implementation requests synchronously.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount token count to acquire
+     * @param params parameter list
+     * @return future of the token result, which never completes exceptionally
+     * @since 1.8.8
+     */
+    default CompletableFuture<TokenResult> requestParamTokenAsync(Long ruleId, int acquireCount,
+                                                                  Collection<Object> params) {
+        return CompletableFuture.completedFuture(requestParamToken(ruleId, acquireCount, params));
+    }
+
+    /**
+     * Request a lease of tokens from remote token server without blocking the calling thread.
+     * The default implementation requests synchronously.
+     *
+     * @param ruleId the unique rule ID
+     * @param leaseCount token count to lease
+     * @return future of the lease result, which never completes exceptionally
+     * @see #requestTokenLease(Long, int)
+     * @since 1.8.8
+     */
+    default CompletableFuture<TokenResult> requestTokenLeaseAsync(Long ruleId, int leaseCount) {
+        return CompletableFuture.completedFuture(requestTokenLease(ruleId, leaseCount));
+    }
+
+    /**
+     * Return the unused tokens of an expired lease without blocking the calling thread.
+     * The default implementation releases synchronously.
+     *
+     * @param ruleId the unique rule ID
+     * @param releaseCount count of the unused tokens
+     * @return future of the release result, which never completes exceptionally
+     * @see #releaseTokenLease(Long, int)
+     * @since 1.8.8
+     */
+    default CompletableFuture<TokenResult> releaseTokenLeaseAsync(Long ruleId, int releaseCount) {
+        return CompletableFuture.completedFuture(releaseTokenLease(ruleId, releaseCount));
+    }
 }
\ No newline at end of file
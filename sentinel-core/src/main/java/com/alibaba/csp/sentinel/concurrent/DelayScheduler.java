@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Scheduler for delayed tasks of Sentinel, e.g. the permits of requests queueing for traffic shaping.</p>
+ *
+ * <p>The scheduler is backed by a {@link HashedWheelTimer} with 1 ms ticks, so a single thread could serve
+ * tens of thousands of waiting requests, and scheduling or cancelling a task is O(1). All tasks run on
+ * the worker thread of the wheel, so they should be short, and should hand further work (e.g. processing
+ * the request) over to other executors.</p>
+ *
+ * @since 1.8.8
+ */
+public final class DelayScheduler {
+
+    private static final long TICK_MS = 1;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer("sentinel-delay-scheduler",
+        TICK_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+
+    /**
+     * Schedule the task to run after given delay.
+     *
+     * @param task  the task to run
+     * @param delay the delay
+     * @param unit  time unit of the delay
+     * @return the handle of the scheduled task, which could be used to cancel the task
+     */
+    public static HashedWheelTimer.Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return TIMER.newTimeout(task, delay, unit);
+    }
+
+    /**
+     * Get a stage which completes with given value after given delay. If the delay is not positive,
+     * the returned stage has already completed.
+     *
+     * @param value      the value to complete with
+     * @param delayNanos the delay in nanoseconds
+     * @param <T>        type of the value
+     * @return the stage which completes after the delay
+     */
+    public static <T> CompletionStage<T> completeAfter(T value, long delayNanos) {
+        if (delayNanos <= 0) {
+            return CompletableFuture.completedFuture(value);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        schedule(() -> future.complete(value), delayNanos, TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    /**
+     * <p>Block the current thread for given time. The thread is parked without timeout, and resumed by
+     * the wheel when the time elapses, so that the waiting threads don't need a timer each. Delays shorter
+     * than a tick are waited by the thread itself as the wheel could not be more precise.</p>
+     *
+     * <p>If the thread is interrupted while waiting, this method returns early with the interrupt status set.</p>
+     *
+     * @param delayNanos the time to wait in nanoseconds
+     * @return true if the time has elapsed, or false if the thread is interrupted
+     */
+    public static boolean sleep(long delayNanos) {
+        if (delayNanos <= 0) {
+            return true;
+        }
+        final Thread thread = Thread.currentThread();
+        if (delayNanos < TIMER.getTickNanos()) {
+            LockSupport.parkNanos(delayNanos);
+            return !thread.isInterrupted();
+        }
+        Waiter waiter = new Waiter(thread);
+        HashedWheelTimer.Timeout timeout = schedule(waiter, delayNanos, TimeUnit.NANOSECONDS);
+        while (!waiter.resumed) {
+            LockSupport.park(waiter);
+            if (thread.isInterrupted()) {
+                timeout.cancel();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return amount of the delayed tasks which have not run yet
+     */
+    public static long pendingTasks() {
+        return TIMER.pendingTimeouts();
+    }
+
+    private static final class Waiter implements Runnable {
+
+        private final Thread thread;
+        private volatile boolean resumed = false;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void run() {
+            resumed = true;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private DelayScheduler() {}
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A hashed wheel timer, which runs delayed tasks on a single worker thread. Adding and cancelling
+ * a timeout are O(1), so a single thread could serve lots of pending timeouts (e.g. requests queueing
+ * for rate limiting). The timer is not precise: a task runs on the first tick after its deadline,
+ * so the precision is bounded by the tick duration.</p>
+ *
+ * <p>The timeouts are hashed into the buckets of the wheel by their deadline tick. Timeouts which are
+ * more than one round away stay in the bucket, and their remaining rounds are decreased every time
+ * the worker passes the bucket. New and cancelled timeouts are handed over to the worker via lock-free
+ * queues, so only the worker thread touches the buckets.</p>
+ *
+ * <p>The worker thread is started lazily when the first timeout is added, and parks without ticking
+ * while there are no pending timeouts.</p>
+ *
+ * @since 1.8.8
+ */
+public class HashedWheelTimer {
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+
+    private final long tickNanos;
+    private final long startTime;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Thread worker;
+
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+    private final AtomicLong pendingTimeouts = new AtomicLong(0);
+    private final Queue<WheelTimeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean idle = false;
+
+    /**
+     * @param name          name of the worker thread
+     * @param tickDuration  duration between two ticks
+     * @param unit          time unit of the tick duration
+     * @param ticksPerWheel amount of buckets of the wheel, which will be normalized to a power of 2
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        AssertUtil.notEmpty(name, "name cannot be empty");
+        AssertUtil.isTrue(tickDuration > 0, "tickDuration should be positive");
+        AssertUtil.isTrue(ticksPerWheel > 0 && ticksPerWheel <= (1 << 30), "ticksPerWheel should be in (0, 2^30]");
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.worker = new NamedThreadFactory(name, true).newThread(new Worker());
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Schedule the task to run once after given delay.
+     *
+     * @param task  the task to run, which should be short as it runs on the worker thread
+     * @param delay the delay
+     * @param unit  time unit of the delay
+     * @return the handle of the timeout, which could be used to cancel the task
+     * @throws IllegalStateException if the timer has been stopped
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        AssertUtil.notNull(task, "task cannot be null");
+        start();
+        long deadline = System.nanoTime() + Math.max(unit.toNanos(delay), 0) - startTime;
+        WheelTimeout timeout = new WheelTimeout(this, task, deadline);
+        pendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    private void start() {
+        int current = state.get();
+        if (current == STATE_STARTED) {
+            return;
+        }
+        if (current == STATE_INIT && state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+            worker.start();
+            return;
+        }
+        if (state.get() == STATE_STOPPED) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+    }
+
+    /**
+     * Stop the timer. Pending timeouts will never run.
+     */
+    public void stop() {
+        if (state.getAndSet(STATE_STOPPED) == STATE_STARTED) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * @return amount of timeouts which have neither run nor been cancelled
+     */
+    public long pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public interface Timeout {
+
+        /**
+         * Cancel the task if it has not run yet.
+         *
+         * @return true if the task is cancelled, false if it has run or has been cancelled before
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private final class Worker implements Runnable {
+
+        private long tick = 0;
+
+        @Override
+        public void run() {
+            tick = currentTick();
+            while (state.get() == STATE_STARTED) {
+                if (pendingTimeouts.get() == 0 && newTimeouts.isEmpty()) {
+                    parkWhileIdle();
+                    continue;
+                }
+                if (!waitForNextTick()) {
+                    continue;
+                }
+                removeCancelledTimeouts();
+                transferNewTimeouts();
+                wheel[(int) (tick & mask)].expireTimeouts();
+                tick++;
+            }
+        }
+
+        private void parkWhileIdle() {
+            idle = true;
+            // Re-check after publishing the idle flag, so that a timeout added concurrently won't be missed.
+            if (pendingTimeouts.get() == 0 && newTimeouts.isEmpty()) {
+                LockSupport.park(this);
+            }
+            idle = false;
+            removeCancelledTimeouts();
+            // All buckets are empty while idle, so the wheel could be moved to the current tick directly.
+            tick = Math.max(tick, currentTick());
+        }
+
+        private long currentTick() {
+            return (System.nanoTime() - startTime) / tickNanos;
+        }
+
+        /**
+         * @return true if the current tick has ended, or false if the timer has been stopped
+         */
+        private boolean waitForNextTick() {
+            long deadline = tickNanos * (tick + 1);
+            for (;;) {
+                long sleepNanos = deadline - (System.nanoTime() - startTime);
+                if (sleepNanos <= 0) {
+                    return true;
+                }
+                LockSupport.parkNanos(this, sleepNanos);
+                if (state.get() != STATE_STARTED) {
+                    return false;
+                }
+            }
+        }
+
+        private void transferNewTimeouts() {
+            // Limit the amount of transferred timeouts in one tick, so that the worker won't be stuck here.
+            for (int i = 0; i < 100000; i++) {
+                WheelTimeout timeout = newTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                long calculated = timeout.deadline / tickNanos;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                // Timeouts in the past are put into the current bucket.
+                long ticks = Math.max(calculated, tick);
+                wheel[(int) (ticks & mask)].add(timeout);
+            }
+        }
+
+        private void removeCancelledTimeouts() {
+            for (;;) {
+                WheelTimeout timeout = cancelledTimeouts.poll();
+                if (timeout == null) {
+                    return;
+                }
+                if (timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+            }
+        }
+    }
+
+    private static final class WheelTimeout implements Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        // The fields below are only accessed by the worker thread.
+        long remainingRounds;
+        Bucket bucket;
+        WheelTimeout prev;
+        WheelTimeout next;
+
+        WheelTimeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                RecordLog.warn("[HashedWheelTimer] Unexpected error when running the task", ex);
+            }
+        }
+    }
+
+    /**
+     * A doubly-linked list of timeouts, which is only accessed by the worker thread.
+     */
+    private static final class Bucket {
+
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts() {
+            WheelTimeout timeout = head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    // The deadline must have been reached, as the timeout is put into the bucket by its deadline tick.
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(WheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            WheelTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
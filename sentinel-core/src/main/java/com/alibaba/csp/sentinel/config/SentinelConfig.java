@@ -61,6 +61,27 @@ public final class SentinelConfig {
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
     public static final String METRIC_FLUSH_INTERVAL = "csp.sentinel.metric.flush.interval";
+    public static final String STATISTIC_LOCK_FREE_ROTATION = "csp.sentinel.statistic.rotation.lockfree";
+    public static final String STATISTIC_BUCKET_TYPE = "csp.sentinel.statistic.bucket.type";
+    public static final String STATISTIC_BUCKET_STRIPES = "csp.sentinel.statistic.bucket.stripes";
+    public static final String STATISTIC_BUCKET_STRIPE_PADDING = "csp.sentinel.statistic.bucket.stripe.padding";
+
+    public static final String STATISTIC_METRIC_TYPE = "csp.sentinel.statistic.metric.type";
+    public static final String STATISTIC_SLAB_CAPACITY_MB = "csp.sentinel.statistic.slab.capacity.mb";
+    public static final String STATISTIC_BATCH_SIZE = "csp.sentinel.statistic.batch.size";
+    public static final String CLOCK_TYPE = "csp.sentinel.clock.type";
+    public static final String STATISTIC_LONG_INTERVAL_ENABLED = "csp.sentinel.statistic.long.interval.enabled";
+    public static final String STATISTIC_RT_HISTOGRAM_ENABLED = "csp.sentinel.statistic.rt.histogram.enabled";
+    public static final String SYSTEM_STATUS_SAMPLE_INTERVAL_MS = "csp.sentinel.system.status.sample.interval.ms";
+    public static final String SYSTEM_CGROUP_ROOT = "csp.sentinel.system.cgroup.root";
+    public static final String SYSTEM_STATUS_SMOOTHING_WINDOW_MS = "csp.sentinel.system.status.smoothing.window.ms";
+    public static final String SYSTEM_STATUS_HYSTERESIS_RATIO = "csp.sentinel.system.status.hysteresis.ratio";
+
+    public static final String STATISTIC_BUCKET_TYPE_ADDER = "adder";
+    public static final String STATISTIC_BUCKET_TYPE_STRIPED = "striped";
+    public static final String STATISTIC_METRIC_TYPE_ARRAY = "array";
+    public static final String STATISTIC_METRIC_TYPE_SLAB = "slab";
+    public static final String CLOCK_TYPE_ADAPTIVE = "adaptive";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -68,6 +89,16 @@ public final class SentinelConfig {
     public static final int DEFAULT_COLD_FACTOR = 3;
     public static final int DEFAULT_STATISTIC_MAX_RT = 5000;
     public static final long DEFAULT_METRIC_FLUSH_INTERVAL = 1L;
+    public static final boolean DEFAULT_STATISTIC_LOCK_FREE_ROTATION = false;
+    public static final int DEFAULT_STATISTIC_BUCKET_STRIPES = 4;
+    public static final int MAX_STATISTIC_BUCKET_STRIPES = 64;
+    public static final int DEFAULT_STATISTIC_SLAB_CAPACITY_MB = 64;
+    public static final int MAX_STATISTIC_BATCH_SIZE = 1024;
+    public static final long DEFAULT_SYSTEM_STATUS_SAMPLE_INTERVAL_MS = 1000;
+    public static final long MIN_SYSTEM_STATUS_SAMPLE_INTERVAL_MS = 50;
+    public static final String DEFAULT_SYSTEM_CGROUP_ROOT = "/sys/fs/cgroup";
+    public static final long DEFAULT_SYSTEM_STATUS_SMOOTHING_WINDOW_MS = 0;
+    public static final double DEFAULT_SYSTEM_STATUS_HYSTERESIS_RATIO = 0;
 
     static {
         try {
@@ -259,6 +290,268 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * <p>Whether the sliding window buckets should be rotated without the update lock.</p>
+     *
+     * @return true if lock-free bucket rotation is enabled, otherwise false
+     * @since 1.8.8
+     */
+    public static boolean statisticLockFreeRotation() {
+        String v = props.get(STATISTIC_LOCK_FREE_ROTATION);
+        if (StringUtil.isBlank(v)) {
+            return DEFAULT_STATISTIC_LOCK_FREE_ROTATION;
+        }
+        return Boolean.parseBoolean(v.trim());
+    }
+
+    /**
+     * <p>Get the type of the statistic metric bucket, which could be {@code adder} or {@code striped}.</p>
+     *
+     * @return the statistic bucket type, {@code adder} by default
+     * @since 1.8.8
+     */
+    public static String statisticBucketType() {
+        String v = props.get(STATISTIC_BUCKET_TYPE);
+        if (STATISTIC_BUCKET_TYPE_STRIPED.equalsIgnoreCase(StringUtil.trim(v))) {
+            return STATISTIC_BUCKET_TYPE_STRIPED;
+        }
+        return STATISTIC_BUCKET_TYPE_ADDER;
+    }
+
+    /**
+     * <p>Get the stripe count of the striped statistic bucket. The value will be rounded up
+     * to a power of two. By default it's the available processor count (at most 4), so that the buckets of
+     * every resource don't take much more memory than the {@code LongAdder}-based ones.
+     * A single stripe is used if the stripes are not padded (see {@link #statisticBucketStripePadding()}).</p>
+     *
+     * @return the stripe count of the striped statistic bucket
+     * @since 1.8.8
+     */
+    public static int statisticBucketStripes() {
+        String v = props.get(STATISTIC_BUCKET_STRIPES);
+        int stripes = Math.min(Runtime.getRuntime().availableProcessors(), DEFAULT_STATISTIC_BUCKET_STRIPES);
+        try {
+            if (StringUtil.isNotBlank(v)) {
+                stripes = Integer.parseInt(v.trim());
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid statisticBucketStripes value: {}, using the default value instead",
+                v, throwable);
+        }
+        if (stripes <= 1) {
+            return 1;
+        }
+        return Math.min(Integer.highestOneBit(stripes - 1) << 1, MAX_STATISTIC_BUCKET_STRIPES);
+    }
+
+    /**
+     * <p>Whether the stripes of the striped statistic bucket are padded to separate cache lines, which takes
+     * 128 bytes per stripe. Enabled by default, as unpadded stripes would share cache lines. If disabled,
+     * the bucket has a single compact stripe.</p>
+     *
+     * @return whether the stripes are padded
+     * @since 1.8.8
+     */
+    public static boolean statisticBucketStripePadding() {
+        String v = props.get(STATISTIC_BUCKET_STRIPE_PADDING);
+        if (StringUtil.isBlank(v)) {
+            return true;
+        }
+        return Boolean.parseBoolean(v.trim());
+    }
+
+    /**
+     * <p>Get the type of the sliding window metric of statistic nodes, which could be {@code array}
+     * (object-based {@code LeapArray}) or {@code slab} (buckets in a shared primitive slab).</p>
+     *
+     * @return the statistic metric type, {@code array} by default
+     * @since 1.8.8
+     */
+    public static String statisticMetricType() {
+        String v = props.get(STATISTIC_METRIC_TYPE);
+        if (STATISTIC_METRIC_TYPE_SLAB.equalsIgnoreCase(StringUtil.trim(v))) {
+            return STATISTIC_METRIC_TYPE_SLAB;
+        }
+        return STATISTIC_METRIC_TYPE_ARRAY;
+    }
+
+    /**
+     * <p>Get the capacity (in MB) of the shared statistic metric slab. The regions of the slab are never
+     * reclaimed, so it should hold the metrics of all statistic nodes.</p>
+     *
+     * @return the capacity of the statistic metric slab in MB
+     * @since 1.8.8
+     */
+    public static int statisticSlabCapacityMb() {
+        String v = props.get(STATISTIC_SLAB_CAPACITY_MB);
+        try {
+            if (StringUtil.isBlank(v)) {
+                return DEFAULT_STATISTIC_SLAB_CAPACITY_MB;
+            }
+            int capacity = Integer.parseInt(v.trim());
+            if (capacity > 0) {
+                return capacity;
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid statisticSlabCapacityMb value: {}, using the default value instead",
+                v, throwable);
+        }
+        return DEFAULT_STATISTIC_SLAB_CAPACITY_MB;
+    }
+
+    /**
+     * <p>Get the amount of events that {@code StatisticSlot} accumulates in thread-local buffers
+     * before flushing them to the statistic nodes. 0 (by default) or 1 means recording each event directly.</p>
+     *
+     * @return the statistic batch size, at most {@link #MAX_STATISTIC_BATCH_SIZE}
+     * @since 1.8.8
+     */
+    public static int statisticBatchSize() {
+        String v = props.get(STATISTIC_BATCH_SIZE);
+        try {
+            if (StringUtil.isBlank(v)) {
+                return 0;
+            }
+            int size = Integer.parseInt(v.trim());
+            if (size >= 0) {
+                return Math.min(size, MAX_STATISTIC_BATCH_SIZE);
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid statisticBatchSize value: {}, using the default value instead",
+                v, throwable);
+        }
+        return 0;
+    }
+
+    /**
+     * <p>Get the type of the clock, which is {@code adaptive} or the SPI alias of a
+     * {@link com.alibaba.csp.sentinel.util.clock.Clock} (e.g. {@code system}, {@code nano} or {@code tick}).</p>
+     *
+     * @return the clock type, {@code adaptive} by default
+     * @since 1.8.8
+     */
+    public static String clockType() {
+        String v = StringUtil.trim(props.get(CLOCK_TYPE));
+        if (StringUtil.isBlank(v)) {
+            return CLOCK_TYPE_ADAPTIVE;
+        }
+        return v;
+    }
+
+    /**
+     * <p>Whether statistic nodes should record hour-level and day-level statistics. It costs
+     * extra buckets for each node, so it's disabled by default.</p>
+     *
+     * @return true if long interval statistics are enabled, otherwise false
+     * @since 1.8.8
+     */
+    public static boolean statisticLongIntervalEnabled() {
+        return Boolean.parseBoolean(StringUtil.trim(props.get(STATISTIC_LONG_INTERVAL_ENABLED)));
+    }
+
+    /**
+     * <p>Whether statistic nodes should record the response time histogram of each bucket, so that
+     * percentiles of response time are available. It costs extra buckets for each node, so it's disabled
+     * by default.</p>
+     *
+     * @return true if response time histograms are enabled, otherwise false
+     * @since 1.8.8
+     */
+    public static boolean statisticRtHistogramEnabled() {
+        return Boolean.parseBoolean(StringUtil.trim(props.get(STATISTIC_RT_HISTOGRAM_ENABLED)));
+    }
+
+    /**
+     * <p>Get the interval (in milliseconds) to sample the system status (load, CPU usage and cgroup status)
+     * for {@code SystemRule}s, which could be shorter than a second.</p>
+     *
+     * @return the sample interval, at least {@link #MIN_SYSTEM_STATUS_SAMPLE_INTERVAL_MS}
+     * @since 1.8.8
+     */
+    public static long systemStatusSampleIntervalMs() {
+        String v = props.get(SYSTEM_STATUS_SAMPLE_INTERVAL_MS);
+        try {
+            if (StringUtil.isBlank(v)) {
+                return DEFAULT_SYSTEM_STATUS_SAMPLE_INTERVAL_MS;
+            }
+            long interval = Long.parseLong(v.trim());
+            if (interval > 0) {
+                return Math.max(interval, MIN_SYSTEM_STATUS_SAMPLE_INTERVAL_MS);
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid systemStatusSampleIntervalMs value: {}, using the default value "
+                + "instead", v, throwable);
+        }
+        return DEFAULT_SYSTEM_STATUS_SAMPLE_INTERVAL_MS;
+    }
+
+    /**
+     * <p>Get the directory where the cgroup file system of the process is mounted, which is
+     * {@code /sys/fs/cgroup} in most containers.</p>
+     *
+     * @return the cgroup root directory
+     * @since 1.8.8
+     */
+    public static String systemCgroupRoot() {
+        String v = props.get(SYSTEM_CGROUP_ROOT);
+        if (StringUtil.isBlank(v)) {
+            return DEFAULT_SYSTEM_CGROUP_ROOT;
+        }
+        return v.trim();
+    }
+
+    /**
+     * <p>Get the time window (in milliseconds) of the exponentially weighted moving average applied to
+     * the sampled load, CPU usage and RT of the system for {@code SystemRule}s. A sample is weighted by
+     * {@code 1 - exp(-interval / window)}, so that a step in the signal is mostly reflected after one window.</p>
+     * <p>Works with a short {@link #systemStatusSampleIntervalMs()} (e.g. 100 ms) to react to bursts quickly
+     * without being disturbed by a single spike. 0 (by default) means the raw samples are used.</p>
+     *
+     * @return the smoothing window, or 0 if disabled
+     * @since 1.8.8
+     */
+    public static long systemStatusSmoothingWindowMs() {
+        String v = props.get(SYSTEM_STATUS_SMOOTHING_WINDOW_MS);
+        try {
+            if (StringUtil.isBlank(v)) {
+                return DEFAULT_SYSTEM_STATUS_SMOOTHING_WINDOW_MS;
+            }
+            long window = Long.parseLong(v.trim());
+            if (window >= 0) {
+                return window;
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid systemStatusSmoothingWindowMs value: {}, using the default value "
+                + "instead", v, throwable);
+        }
+        return DEFAULT_SYSTEM_STATUS_SMOOTHING_WINDOW_MS;
+    }
+
+    /**
+     * <p>Get the hysteresis ratio of the system status checks of {@code SystemRule}s. Once the load, CPU usage,
+     * RT or cgroup status exceeds its threshold, it's regarded as exceeded until it drops below
+     * {@code threshold * (1 - ratio)}, which avoids flapping when the signal hovers around the threshold.</p>
+     *
+     * @return the hysteresis ratio in [0, 1), 0 (by default) means no hysteresis
+     * @since 1.8.8
+     */
+    public static double systemStatusHysteresisRatio() {
+        String v = props.get(SYSTEM_STATUS_HYSTERESIS_RATIO);
+        try {
+            if (StringUtil.isBlank(v)) {
+                return DEFAULT_SYSTEM_STATUS_HYSTERESIS_RATIO;
+            }
+            double ratio = Double.parseDouble(v.trim());
+            if (ratio >= 0 && ratio < 1) {
+                return ratio;
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid systemStatusHysteresisRatio value: {}, using the default value "
+                + "instead", v, throwable);
+        }
+        return DEFAULT_SYSTEM_STATUS_HYSTERESIS_RATIO;
+    }
+
     /**
      * Function for resolving project name. The order is elaborated below:
      *
@@ -49,6 +49,11 @@ public class ContextUtil {
      */
     private static ThreadLocal<Context> contextHolder = new ThreadLocal<>();
 
+    /**
+     * Default context of each thread which could be reused once it's exited, see {@link #trueEnterReusableDefault()}.
+     */
+    private static final ThreadLocal<Context> reusableDefaultContextHolder = new ThreadLocal<>();
+
     /**
      * Holds all {@link EntranceNode}. Each {@link EntranceNode} is associated with a distinct context name.
      */
@@ -158,6 +163,33 @@ public class ContextUtil {
         return context;
     }
 
+    /**
+     * <p>Enter the default context of current thread. Unlike {@link #trueEnter(String, String)}, the context
+     * object is cached per thread and reused after it's exited, so no context will be created
+     * for each invocation.</p>
+     *
+     * <p>Note that the context should not be held by others after it's exited.</p>
+     *
+     * @return the invocation context of the current thread
+     * @since 1.8.8
+     */
+    protected static Context trueEnterReusableDefault() {
+        Context context = contextHolder.get();
+        if (context != null) {
+            return context;
+        }
+        DefaultNode node = contextNameNodeMap.get(Constants.CONTEXT_DEFAULT_NAME);
+        context = reusableDefaultContextHolder.get();
+        if (context == null || context.getEntranceNode() != node || context.getCurEntry() != null) {
+            context = new Context(node, Constants.CONTEXT_DEFAULT_NAME);
+            reusableDefaultContextHolder.set(context);
+        } else {
+            context.setOrigin("");
+        }
+        contextHolder.set(context);
+        return context;
+    }
+
     private static boolean shouldWarn = true;
 
     private static void setNullContext() {
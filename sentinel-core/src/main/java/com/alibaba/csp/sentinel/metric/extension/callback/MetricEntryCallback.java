@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.metric.extension.callback;
 
+import java.util.List;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.metric.extension.AdvancedMetricExtension;
 import com.alibaba.csp.sentinel.metric.extension.MetricExtension;
@@ -35,7 +37,10 @@ public class MetricEntryCallback implements ProcessorSlotEntryCallback<DefaultNo
     @Override
     public void onPass(Context context, ResourceWrapper rw, DefaultNode param, int count, Object... args)
         throws Exception {
-        for (MetricExtension m : MetricExtensionProvider.getMetricExtensions()) {
+        // Indexed loop, so that no iterator will be created for each invocation.
+        List<MetricExtension> extensions = MetricExtensionProvider.getMetricExtensions();
+        for (int i = 0; i < extensions.size(); i++) {
+            MetricExtension m = extensions.get(i);
             if (m instanceof AdvancedMetricExtension) {
                 ((AdvancedMetricExtension) m).onPass(rw, count, args);
             } else {
@@ -48,7 +53,10 @@ public class MetricEntryCallback implements ProcessorSlotEntryCallback<DefaultNo
     @Override
     public void onBlocked(BlockException ex, Context context, ResourceWrapper resourceWrapper, DefaultNode param,
                           int count, Object... args) {
-        for (MetricExtension m : MetricExtensionProvider.getMetricExtensions()) {
+        // Indexed loop, so that no iterator will be created for each invocation.
+        List<MetricExtension> extensions = MetricExtensionProvider.getMetricExtensions();
+        for (int i = 0; i < extensions.size(); i++) {
+            MetricExtension m = extensions.get(i);
             if (m instanceof AdvancedMetricExtension) {
                 ((AdvancedMetricExtension) m).onBlocked(resourceWrapper, count, context.getOrigin(), ex, args);
             } else {
@@ -142,6 +142,18 @@ public class DefaultNode extends StatisticNode {
         this.clusterNode.addPassRequest(count);
     }
 
+    @Override
+    public void addPassRequest(int count, long timeMillis) {
+        super.addPassRequest(count, timeMillis);
+        this.clusterNode.addPassRequest(count, timeMillis);
+    }
+
+    @Override
+    public void addRtAndSuccess(long rt, int successCount, long timeMillis) {
+        super.addRtAndSuccess(rt, successCount, timeMillis);
+        this.clusterNode.addRtAndSuccess(rt, successCount, timeMillis);
+    }
+
     public void printDefaultNode() {
         visitTree(0, this);
     }
@@ -20,6 +20,7 @@ import java.util.Map;
 
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.metric.DebugSupport;
 import com.alibaba.csp.sentinel.util.function.Predicate;
 
@@ -124,6 +125,19 @@ public interface Node extends OccupySupport, DebugSupport {
      */
     double minRt();
 
+    /**
+     * Get the response time at given percentile per second.
+     * Response time histograms are recorded only if
+     * {@link com.alibaba.csp.sentinel.config.SentinelConfig#STATISTIC_RT_HISTOGRAM_ENABLED} is enabled.
+     *
+     * @param percentile the percentile in (0, 100], e.g. 99 for p99
+     * @return response time at the percentile, or 0 if histograms are disabled or there is no request
+     * @since 1.8.8
+     */
+    default double rtPercentile(double percentile) {
+        return 0;
+    }
+
     /**
      * Get current active thread count.
      *
@@ -141,6 +155,32 @@ public interface Node extends OccupySupport, DebugSupport {
      */
     double previousPassQps();
 
+    /**
+     * Get the count of given event in the last hour.
+     * Long interval statistics are recorded only if
+     * {@link com.alibaba.csp.sentinel.config.SentinelConfig#STATISTIC_LONG_INTERVAL_ENABLED} is enabled.
+     *
+     * @param event the metric event
+     * @return count of the event in the last hour, or 0 if long interval statistics are disabled
+     * @since 1.8.8
+     */
+    default long countInLastHour(MetricEvent event) {
+        return 0;
+    }
+
+    /**
+     * Get the count of given event in the last day.
+     * Long interval statistics are recorded only if
+     * {@link com.alibaba.csp.sentinel.config.SentinelConfig#STATISTIC_LONG_INTERVAL_ENABLED} is enabled.
+     *
+     * @param event the metric event
+     * @return count of the event in the last day, or 0 if long interval statistics are disabled
+     * @since 1.8.8
+     */
+    default long countInLastDay(MetricEvent event) {
+        return 0;
+    }
+
     /**
      * Fetch all valid metric nodes of resources.
      *
@@ -172,6 +212,30 @@ public interface Node extends OccupySupport, DebugSupport {
      */
     void addRtAndSuccess(long rt, int success);
 
+    /**
+     * Add pass count to the statistics of given time, which may be slightly behind current time
+     * (e.g. counts buffered by {@code StatisticBatch}).
+     *
+     * @param count      count to add pass
+     * @param timeMillis time when the requests passed
+     * @since 1.8.8
+     */
+    default void addPassRequest(int count, long timeMillis) {
+        addPassRequest(count);
+    }
+
+    /**
+     * Add rt and success count to the statistics of given time, see {@link #addPassRequest(int, long)}.
+     *
+     * @param rt         response time
+     * @param success    success count to add
+     * @param timeMillis time when the requests completed
+     * @since 1.8.8
+     */
+    default void addRtAndSuccess(long rt, int success, long timeMillis) {
+        addRtAndSuccess(rt, success);
+    }
+
     /**
      * Increase the block count.
      *
@@ -20,9 +20,15 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.LongIntervalMetric;
 import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.MetricFactory;
+import com.alibaba.csp.sentinel.slots.statistic.metric.RtHistogramMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.SlabMetric;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.Predicate;
 
@@ -32,11 +38,15 @@ import com.alibaba.csp.sentinel.util.function.Predicate;
  * <li>metrics in second level ({@code rollingCounterInSecond})</li>
  * <li>metrics in minute level ({@code rollingCounterInMinute})</li>
  * <li>thread count</li>
+ * <li>optional hour and day level metrics ({@code longIntervalCounter}), see {@link LongIntervalMetric}</li>
+ * <li>optional response time histograms ({@code rtHistogram}), see {@link RtHistogramMetric}</li>
  * </ol>
  *
  * <p>
  * Sentinel use sliding window to record and count the resource statistics in real-time.
  * The sliding window infrastructure behind the {@link ArrayMetric} is {@code LeapArray}.
+ * If {@code csp.sentinel.statistic.metric.type} is {@code slab}, the buckets are kept in a shared
+ * primitive slab by {@link com.alibaba.csp.sentinel.slots.statistic.metric.SlabMetric} instead.
  * </p>
  *
  * <p>
@@ -93,14 +103,28 @@ public class StatisticNode implements Node {
      * Holds statistics of the recent {@code INTERVAL} milliseconds. The {@code INTERVAL} is divided into time spans
      * by given {@code sampleCount}.
      */
-    private transient volatile Metric rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT,
-        IntervalProperty.INTERVAL);
+    private transient volatile Metric rollingCounterInSecond = MetricFactory.newMetric(
+        SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL, true);
 
     /**
      * Holds statistics of the recent 60 seconds. The windowLengthInMs is deliberately set to 1000 milliseconds,
      * meaning each bucket per second, in this way we can get accurate statistics of each second.
      */
-    private transient Metric rollingCounterInMinute = new ArrayMetric(60, 60 * 1000, false);
+    private transient Metric rollingCounterInMinute = MetricFactory.newMetric(60, 60 * 1000, false);
+
+    /**
+     * Holds statistics of the recent hour and day, only if
+     * {@link SentinelConfig#STATISTIC_LONG_INTERVAL_ENABLED} is enabled.
+     */
+    private transient final LongIntervalMetric longIntervalCounter = SentinelConfig.statisticLongIntervalEnabled()
+        ? new LongIntervalMetric() : null;
+
+    /**
+     * Holds response time histograms of the recent {@code INTERVAL} milliseconds and the recent 60 seconds, only if
+     * {@link SentinelConfig#STATISTIC_RT_HISTOGRAM_ENABLED} is enabled.
+     */
+    private transient final RtHistogramMetric rtHistogram = SentinelConfig.statisticRtHistogramEnabled()
+        ? new RtHistogramMetric() : null;
 
     /**
      * The counter for thread count.
@@ -123,6 +147,9 @@ public class StatisticNode implements Node {
         // Iterate metrics of all resources, filter valid metrics (not-empty and up-to-date).
         for (MetricNode node : nodesOfEverySecond) {
             if (isNodeInTime(node, currentTime) && isValidMetricNode(node)) {
+                if (rtHistogram != null) {
+                    rtHistogram.fillPercentiles(node);
+                }
                 metrics.put(node.getTimestamp(), node);
                 newLastFetchTime = Math.max(newLastFetchTime, node.getTimestamp());
             }
@@ -134,7 +161,13 @@ public class StatisticNode implements Node {
 
     @Override
     public List<MetricNode> rawMetricsInMin(Predicate<Long> timePredicate) {
-        return rollingCounterInMinute.detailsOnCondition(timePredicate);
+        List<MetricNode> nodes = rollingCounterInMinute.detailsOnCondition(timePredicate);
+        if (rtHistogram != null) {
+            for (MetricNode node : nodes) {
+                rtHistogram.fillPercentiles(node);
+            }
+        }
+        return nodes;
     }
 
     private boolean isNodeInTime(MetricNode node, long currentTime) {
@@ -148,7 +181,17 @@ public class StatisticNode implements Node {
 
     @Override
     public void reset() {
-        rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+        Metric current = rollingCounterInSecond;
+        if (current instanceof SlabMetric) {
+            // The slab region is never reclaimed, so it's cleared in place rather than taking a new one.
+            ((SlabMetric)current).clear();
+        } else {
+            rollingCounterInSecond = MetricFactory.newMetric(SampleCountProperty.SAMPLE_COUNT,
+                IntervalProperty.INTERVAL, true);
+        }
+        if (rtHistogram != null) {
+            rtHistogram.resetSecondWindow();
+        }
     }
 
     @Override
@@ -237,6 +280,11 @@ public class StatisticNode implements Node {
         return rollingCounterInSecond.minRt();
     }
 
+    @Override
+    public double rtPercentile(double percentile) {
+        return rtHistogram == null ? 0 : rtHistogram.valueAtPercentile(percentile);
+    }
+
     @Override
     public int curThreadNum() {
         return (int)curThreadNum.sum();
@@ -246,6 +294,9 @@ public class StatisticNode implements Node {
     public void addPassRequest(int count) {
         rollingCounterInSecond.addPass(count);
         rollingCounterInMinute.addPass(count);
+        if (longIntervalCounter != null) {
+            longIntervalCounter.add(MetricEvent.PASS, count);
+        }
     }
 
     @Override
@@ -255,18 +306,64 @@ public class StatisticNode implements Node {
 
         rollingCounterInMinute.addSuccess(successCount);
         rollingCounterInMinute.addRT(rt);
+        if (rtHistogram != null) {
+            rtHistogram.record(rt);
+        }
+        if (longIntervalCounter != null) {
+            longIntervalCounter.addRtAndSuccess(rt, successCount);
+        }
+    }
+
+    @Override
+    public void addPassRequest(int count, long timeMillis) {
+        rollingCounterInSecond.addPass(count, timeMillis);
+        rollingCounterInMinute.addPass(count, timeMillis);
+        if (longIntervalCounter != null) {
+            longIntervalCounter.add(MetricEvent.PASS, count);
+        }
+    }
+
+    @Override
+    public void addRtAndSuccess(long rt, int successCount, long timeMillis) {
+        rollingCounterInSecond.addSuccess(successCount, timeMillis);
+        rollingCounterInSecond.addRT(rt, timeMillis);
+
+        rollingCounterInMinute.addSuccess(successCount, timeMillis);
+        rollingCounterInMinute.addRT(rt, timeMillis);
+        if (rtHistogram != null) {
+            rtHistogram.record(rt);
+        }
+        if (longIntervalCounter != null) {
+            longIntervalCounter.addRtAndSuccess(rt, successCount);
+        }
     }
 
     @Override
     public void increaseBlockQps(int count) {
         rollingCounterInSecond.addBlock(count);
         rollingCounterInMinute.addBlock(count);
+        if (longIntervalCounter != null) {
+            longIntervalCounter.add(MetricEvent.BLOCK, count);
+        }
     }
 
     @Override
     public void increaseExceptionQps(int count) {
         rollingCounterInSecond.addException(count);
         rollingCounterInMinute.addException(count);
+        if (longIntervalCounter != null) {
+            longIntervalCounter.add(MetricEvent.EXCEPTION, count);
+        }
+    }
+
+    @Override
+    public long countInLastHour(MetricEvent event) {
+        return longIntervalCounter == null ? 0 : longIntervalCounter.sum(LongIntervalMetric.HOUR_LEVEL, event);
+    }
+
+    @Override
+    public long countInLastDay(MetricEvent event) {
+        return longIntervalCounter == null ? 0 : longIntervalCounter.sum(LongIntervalMetric.DAY_LEVEL, event);
     }
 
     @Override
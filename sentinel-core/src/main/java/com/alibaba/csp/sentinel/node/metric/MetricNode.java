@@ -50,6 +50,16 @@ public class MetricNode {
      */
     private int concurrency;
 
+    /**
+     * Percentiles of response time, only if the response time histogram is enabled
+     * (see {@link com.alibaba.csp.sentinel.config.SentinelConfig#STATISTIC_RT_HISTOGRAM_ENABLED}).
+     *
+     * @since 1.8.8
+     */
+    private long rtP50;
+    private long rtP95;
+    private long rtP99;
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -132,6 +142,53 @@ public class MetricNode {
         return this;
     }
 
+    public long getRtP50() {
+        return rtP50;
+    }
+
+    public MetricNode setRtP50(long rtP50) {
+        this.rtP50 = rtP50;
+        return this;
+    }
+
+    public long getRtP95() {
+        return rtP95;
+    }
+
+    public MetricNode setRtP95(long rtP95) {
+        this.rtP95 = rtP95;
+        return this;
+    }
+
+    public long getRtP99() {
+        return rtP99;
+    }
+
+    public MetricNode setRtP99(long rtP99) {
+        this.rtP99 = rtP99;
+        return this;
+    }
+
+    private boolean hasRtPercentiles() {
+        return rtP50 > 0 || rtP95 > 0 || rtP99 > 0;
+    }
+
+    private void appendRtPercentiles(StringBuilder sb) {
+        if (hasRtPercentiles()) {
+            sb.append("|").append(rtP50);
+            sb.append("|").append(rtP95);
+            sb.append("|").append(rtP99);
+        }
+    }
+
+    private static void parseRtPercentiles(MetricNode node, String[] strs, int offset) {
+        if (strs.length >= offset + 3) {
+            node.setRtP50(Long.parseLong(strs[offset]));
+            node.setRtP95(Long.parseLong(strs[offset + 1]));
+            node.setRtP99(Long.parseLong(strs[offset + 2]));
+        }
+    }
+
     @Override
     public String toString() {
         return "MetricNode{" +
@@ -145,6 +202,9 @@ public class MetricNode {
             ", rt=" + rt +
             ", concurrency=" + concurrency +
             ", occupiedPassQps=" + occupiedPassQps +
+            ", rtP50=" + rtP50 +
+            ", rtP95=" + rtP95 +
+            ", rtP99=" + rtP99 +
             '}';
     }
 
@@ -152,8 +212,9 @@ public class MetricNode {
      * To formatting string. All "|" in {@link #resource} will be replaced with
      * "_", format is: <br/>
      * <code>
-     * timestamp|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps
-     * </code>
+     * timestamp|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps|concurrency|classification
+     * </code><br/>
+     * followed by {@code |rtP50|rtP95|rtP99} if percentiles of response time are present.
      *
      * @return string format of this.
      */
@@ -170,6 +231,7 @@ public class MetricNode {
         sb.append(occupiedPassQps).append("|");
         sb.append(concurrency).append("|");
         sb.append(classification);
+        appendRtPercentiles(sb);
         return sb.toString();
     }
 
@@ -195,9 +257,10 @@ public class MetricNode {
         if (strs.length >= 9) {
             node.setConcurrency(Integer.parseInt(strs[8]));
         }
-        if (strs.length == 10) {
+        if (strs.length >= 10) {
             node.setClassification(Integer.parseInt(strs[9]));
         }
+        parseRtPercentiles(node, strs, 10);
         return node;
     }
 
@@ -205,8 +268,9 @@ public class MetricNode {
      * To formatting string. All "|" in {@link MetricNode#resource} will be
      * replaced with "_", format is: <br/>
      * <code>
-     * timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps\n
-     * </code>
+     * timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps|concurrency|classification\n
+     * </code><br/>
+     * with {@code |rtP50|rtP95|rtP99} before the line break if percentiles of response time are present.
      *
      * @return string format of this.
      */
@@ -226,6 +290,7 @@ public class MetricNode {
         sb.append(getOccupiedPassQps()).append("|");
         sb.append(concurrency).append("|");
         sb.append(classification);
+        appendRtPercentiles(sb);
         sb.append('\n');
         return sb.toString();
     }
@@ -253,9 +318,10 @@ public class MetricNode {
         if (strs.length >= 10) {
             node.setConcurrency(Integer.parseInt(strs[9]));
         }
-        if (strs.length == 11) {
+        if (strs.length >= 11) {
             node.setClassification(Integer.parseInt(strs[10]));
         }
+        parseRtPercentiles(node, strs, 11);
         return node;
     }
 
@@ -35,6 +35,12 @@ public final class RuleConstant {
      * Degrade by biz exception count in the last 60 seconds.
      */
     public static final int DEGRADE_GRADE_EXCEPTION_COUNT = 2;
+    /**
+     * Degrade by the response time at given percentile (e.g. p99) in the statistic interval.
+     *
+     * @since 1.8.8
+     */
+    public static final int DEGRADE_GRADE_RT_PERCENTILE = 3;
 
     public static final int DEGRADE_DEFAULT_SLOW_REQUEST_AMOUNT = 5;
     public static final int DEGRADE_DEFAULT_MIN_REQUEST_AMOUNT = 5;
@@ -50,6 +56,12 @@ public final class RuleConstant {
     public static final int CONTROL_BEHAVIOR_WARM_UP = 1;
     public static final int CONTROL_BEHAVIOR_RATE_LIMITER = 2;
     public static final int CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER = 3;
+    /**
+     * Adaptive concurrency limiting, which only works with {@link #FLOW_GRADE_THREAD}.
+     *
+     * @since 1.8.8
+     */
+    public static final int CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY = 4;
 
     public static final int DEFAULT_BLOCK_STRATEGY = 0;
     public static final int TRY_AGAIN_BLOCK_STRATEGY = 1;
@@ -19,6 +19,7 @@ import com.alibaba.csp.sentinel.util.function.Function;
 import com.alibaba.csp.sentinel.util.function.Predicate;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 /**
@@ -28,6 +29,11 @@ import java.util.regex.Pattern;
  */
 public class RuleManager<R> {
 
+    /**
+     * Global version stamp of rules, increased whenever rules of any rule manager are updated.
+     */
+    private static final AtomicLong VERSION = new AtomicLong();
+
     private Map<String, List<R>> originalRules = new HashMap<>();
     private Map<Pattern, List<R>> regexRules = new HashMap<>();
     private Map<String, List<R>> regexCacheRules = new HashMap<>();
@@ -77,6 +83,19 @@ public class RuleManager<R> {
         }
         // rebuild regex cache rules
         setRules(regexRules, simpleRules);
+        // invalidate rule snapshots cached by slots
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Get the global version stamp of rules. Rule snapshots (see {@link RuleSnapshot}) taken
+     * with an older version are outdated.
+     *
+     * @return current version of rules
+     * @since 1.8.8
+     */
+    public static long currentVersion() {
+        return VERSION.get();
     }
 
     /**
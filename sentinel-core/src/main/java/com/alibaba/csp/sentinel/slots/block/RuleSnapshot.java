@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Immutable snapshot of the rules of a resource, stamped with the version of rules
+ * (see {@link RuleManager#currentVersion()}) when it's taken.</p>
+ *
+ * <p>Slots are created per resource, so they could cache the snapshot and reuse it until
+ * rules are updated, which avoids looking up rule maps for each invocation.</p>
+ *
+ * @param <R> type of the rule
+ * @since 1.8.8
+ */
+public final class RuleSnapshot<R> {
+
+    private final String resource;
+    private final long version;
+    private final List<R> rules;
+
+    public RuleSnapshot(String resource, long version, List<R> rules) {
+        this.resource = resource;
+        this.version = version;
+        // Most resources have no rules, so the snapshots share the empty list.
+        this.rules = rules == null || rules.isEmpty() ? Collections.<R>emptyList() : rules;
+    }
+
+    /**
+     * Check whether the snapshot is taken for given resource and is up-to-date.
+     *
+     * @param resource the resource name
+     * @param version  current version of rules
+     * @return true if the snapshot could be used, otherwise false
+     */
+    public boolean isValidFor(String resource, long version) {
+        return this.version == version && (this.resource == resource || this.resource.equals(resource));
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<R> getRules() {
+        return rules;
+    }
+}
@@ -23,6 +23,8 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleManager;
+import com.alibaba.csp.sentinel.slots.block.RuleSnapshot;
 import com.alibaba.csp.sentinel.spi.Spi;
 
 /**
@@ -46,9 +48,24 @@ public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         fireExit(context, resourceWrapper, count, args);
     }
 
+    /**
+     * Authority rules of the resource, reused until rules are updated.
+     */
+    private volatile RuleSnapshot<AuthorityRule> ruleSnapshot;
+
+    private List<AuthorityRule> getRules(String resource) {
+        long version = RuleManager.currentVersion();
+        RuleSnapshot<AuthorityRule> snapshot = ruleSnapshot;
+        if (snapshot == null || !snapshot.isValidFor(resource, version)) {
+            snapshot = new RuleSnapshot<>(resource, version, AuthorityRuleManager.getRules(resource));
+            ruleSnapshot = snapshot;
+        }
+        return snapshot.getRules();
+    }
+
     void checkBlackWhiteAuthority(ResourceWrapper resource, Context context) throws AuthorityException {
 
-        List<AuthorityRule> rules = AuthorityRuleManager.getRules(resource.getName());
+        List<AuthorityRule> rules = getRules(resource.getName());
         if (rules == null) {
             return;
         }
@@ -54,7 +54,7 @@ public class DegradeRule extends AbstractRule {
     }
 
     /**
-     * Circuit breaking strategy (0: average RT, 1: exception ratio, 2: exception count).
+     * Circuit breaking strategy (0: average RT, 1: exception ratio, 2: exception count, 3: RT percentile).
      */
     private int grade = RuleConstant.DEGRADE_GRADE_RT;
 
@@ -64,6 +64,7 @@ public class DegradeRule extends AbstractRule {
      *     <li>In average RT mode, it means the maximum response time(RT) in milliseconds.</li>
      *     <li>In exception ratio mode, it means exception ratio which between 0.0 and 1.0.</li>
      *     <li>In exception count mode, it means exception count</li>
+     *     <li>In RT percentile mode, it means the maximum response time in milliseconds at the percentile.</li>
      * <ul/>
      */
     private double count;
@@ -95,6 +96,13 @@ public class DegradeRule extends AbstractRule {
      */
     private int statIntervalMs = 1000;
 
+    /**
+     * The percentile of response time in RT percentile mode, which is in (0, 100], e.g. 99 for p99.
+     *
+     * @since 1.8.8
+     */
+    private double rtPercentile = 99.0d;
+
     public int getGrade() {
         return grade;
     }
@@ -149,6 +157,15 @@ public class DegradeRule extends AbstractRule {
         return this;
     }
 
+    public double getRtPercentile() {
+        return rtPercentile;
+    }
+
+    public DegradeRule setRtPercentile(double rtPercentile) {
+        this.rtPercentile = rtPercentile;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -160,13 +177,14 @@ public class DegradeRule extends AbstractRule {
             grade == rule.grade &&
             minRequestAmount == rule.minRequestAmount &&
             Double.compare(rule.slowRatioThreshold, slowRatioThreshold) == 0 &&
-            statIntervalMs == rule.statIntervalMs;
+            statIntervalMs == rule.statIntervalMs &&
+            Double.compare(rule.rtPercentile, rtPercentile) == 0;
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), count, timeWindow, grade, minRequestAmount,
-            slowRatioThreshold, statIntervalMs);
+            slowRatioThreshold, statIntervalMs, rtPercentile);
     }
 
     @Override
@@ -180,6 +198,7 @@ public class DegradeRule extends AbstractRule {
             ", minRequestAmount=" + minRequestAmount +
             ", slowRatioThreshold=" + slowRatioThreshold +
             ", statIntervalMs=" + statIntervalMs +
+            ", rtPercentile=" + rtPercentile +
             '}';
     }
 }
@@ -31,6 +31,7 @@ import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleManager;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.ExceptionCircuitBreaker;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.PercentileResponseTimeCircuitBreaker;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.ResponseTimeCircuitBreaker;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -169,6 +170,8 @@ public final class DegradeRuleManager {
             case RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO:
             case RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT:
                 return new ExceptionCircuitBreaker(rule);
+            case RuleConstant.DEGRADE_GRADE_RT_PERCENTILE:
+                return new PercentileResponseTimeCircuitBreaker(rule);
             default:
                 return null;
         }
@@ -193,6 +196,8 @@ public final class DegradeRuleManager {
                 return rule.getCount() <= 1;
             case RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT:
                 return true;
+            case RuleConstant.DEGRADE_GRADE_RT_PERCENTILE:
+                return rule.getRtPercentile() > 0 && rule.getRtPercentile() <= 100;
             default:
                 return false;
         }
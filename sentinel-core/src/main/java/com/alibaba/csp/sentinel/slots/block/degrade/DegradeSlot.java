@@ -25,6 +25,8 @@ import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleManager;
+import com.alibaba.csp.sentinel.slots.block.RuleSnapshot;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
 import com.alibaba.csp.sentinel.spi.Spi;
 
@@ -45,8 +47,23 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
     }
 
+    /**
+     * Circuit breakers of the resource, reused until rules are updated.
+     */
+    private volatile RuleSnapshot<CircuitBreaker> circuitBreakerSnapshot;
+
+    private List<CircuitBreaker> getCircuitBreakers(String resource) {
+        long version = RuleManager.currentVersion();
+        RuleSnapshot<CircuitBreaker> snapshot = circuitBreakerSnapshot;
+        if (snapshot == null || !snapshot.isValidFor(resource, version)) {
+            snapshot = new RuleSnapshot<>(resource, version, DegradeRuleManager.getCircuitBreakers(resource));
+            circuitBreakerSnapshot = snapshot;
+        }
+        return snapshot.getRules();
+    }
+
     void performChecking(Context context, ResourceWrapper r) throws BlockException {
-        List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(r.getName());
+        List<CircuitBreaker> circuitBreakers = getCircuitBreakers(r.getName());
         if (circuitBreakers == null || circuitBreakers.isEmpty()) {
             return;
         }
@@ -64,7 +81,7 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             fireExit(context, r, count, args);
             return;
         }
-        List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(r.getName());
+        List<CircuitBreaker> circuitBreakers = getCircuitBreakers(r.getName());
         if (circuitBreakers == null || circuitBreakers.isEmpty()) {
             fireExit(context, r, count, args);
             return;
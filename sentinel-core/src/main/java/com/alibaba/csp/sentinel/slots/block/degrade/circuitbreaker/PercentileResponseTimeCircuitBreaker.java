@@ -0,0 +1,112 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.statistic.metric.RtHistogramLeapArray;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Circuit breaker which opens when the response time at given percentile (e.g. p99) in the statistic
+ * interval exceeds the threshold. The response times are recorded in a histogram
+ * (see {@link com.alibaba.csp.sentinel.slots.statistic.data.RtHistogram}), so the percentile is approximate,
+ * with a relative error of at most 12.5% (rounded up).</p>
+ *
+ * <p>Calculating the percentile walks through all buckets of the histogram, so it's not done on every
+ * completion: the percentile is checked when the count of requests in the interval reaches the min request
+ * amount, and then once every min request amount of completions (at most {@value #MAX_CHECK_INTERVAL}).</p>
+ *
+ * @since 1.8.8
+ */
+public class PercentileResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
+
+    static final int MAX_CHECK_INTERVAL = 16;
+
+    private final long maxAllowedRt;
+    private final double percentile;
+    private final int minRequestAmount;
+    private final int checkInterval;
+
+    private final RtHistogramLeapArray slidingHistogram;
+
+    public PercentileResponseTimeCircuitBreaker(DegradeRule rule) {
+        this(rule, new RtHistogramLeapArray(1, rule.getStatIntervalMs(),
+            Math.max(SentinelConfig.statisticMaxRt(), Math.round(rule.getCount()) + 1)));
+    }
+
+    PercentileResponseTimeCircuitBreaker(DegradeRule rule, RtHistogramLeapArray stat) {
+        super(rule);
+        AssertUtil.isTrue(rule.getGrade() == RuleConstant.DEGRADE_GRADE_RT_PERCENTILE,
+            "rule metric type should be RT percentile");
+        AssertUtil.notNull(stat, "stat cannot be null");
+        this.maxAllowedRt = Math.round(rule.getCount());
+        this.percentile = rule.getRtPercentile();
+        this.minRequestAmount = rule.getMinRequestAmount();
+        this.checkInterval = Math.max(1, Math.min(minRequestAmount, MAX_CHECK_INTERVAL));
+        this.slidingHistogram = stat;
+    }
+
+    @Override
+    public void resetStat() {
+        // Reset current bucket (bucket count = 1).
+        slidingHistogram.currentWindow().value().reset();
+    }
+
+    @Override
+    public void onRequestComplete(Context context) {
+        Entry entry = context.getCurEntry();
+        if (entry == null) {
+            return;
+        }
+        long completeTime = entry.getCompleteTimestamp();
+        if (completeTime <= 0) {
+            completeTime = TimeUtil.currentTimeMillis();
+        }
+        long rt = completeTime - entry.getCreateTimestamp();
+        long count = slidingHistogram.record(rt);
+
+        handleStateChangeWhenThresholdExceeded(rt, count);
+    }
+
+    private void handleStateChangeWhenThresholdExceeded(long rt, long count) {
+        if (currentState.get() == State.OPEN) {
+            return;
+        }
+
+        if (currentState.get() == State.HALF_OPEN) {
+            // In detecting request
+            if (rt > maxAllowedRt) {
+                fromHalfOpenToOpen(rt);
+            } else {
+                fromHalfOpenToClose();
+            }
+            return;
+        }
+
+        if (count < minRequestAmount || (count - minRequestAmount) % checkInterval != 0) {
+            return;
+        }
+        long percentileRt = slidingHistogram.valueAtPercentile(percentile);
+        if (percentileRt > maxAllowedRt) {
+            transformToOpen(percentileRt);
+        }
+    }
+}
@@ -73,6 +73,16 @@ public class ClusterFlowConfig {
      */
     private long clientOfflineTime = 2000;
 
+    /**
+     * Length of the token lease (in milliseconds), 0 for no lease (by default).
+     * If set, the token client requests a batch of tokens valid for the lease time from the token server,
+     * and serves the requests locally from the batch, rather than requesting the server for every request.
+     * The longer the lease, the less requests to the server but the less accurate the global threshold.
+     *
+     * @since 1.8.8
+     */
+    private int leaseIntervalMs = 0;
+
     public long getResourceTimeout() {
         return resourceTimeout;
     }
@@ -105,6 +115,15 @@ public class ClusterFlowConfig {
         this.clientOfflineTime = clientOfflineTime;
     }
 
+    public int getLeaseIntervalMs() {
+        return leaseIntervalMs;
+    }
+
+    public ClusterFlowConfig setLeaseIntervalMs(int leaseIntervalMs) {
+        this.leaseIntervalMs = leaseIntervalMs;
+        return this;
+    }
+
     public Long getFlowId() {
         return flowId;
     }
@@ -197,6 +216,9 @@ public class ClusterFlowConfig {
         if (acquireRefuseStrategy != that.acquireRefuseStrategy) {
             return false;
         }
+        if (leaseIntervalMs != that.leaseIntervalMs) {
+            return false;
+        }
         return Objects.equals(flowId, that.flowId);
     }
 
@@ -212,6 +234,7 @@ public class ClusterFlowConfig {
         result = (int) (31 * result + clientOfflineTime);
         result = 31 * result + resourceTimeoutStrategy;
         result = 31 * result + acquireRefuseStrategy;
+        result = 31 * result + leaseIntervalMs;
         return result;
     }
 
@@ -228,6 +251,7 @@ public class ClusterFlowConfig {
                 ", resourceTimeoutStrategy=" + resourceTimeoutStrategy +
                 ", acquireRefuseStrategy=" + acquireRefuseStrategy +
                 ", clientOfflineTime=" + clientOfflineTime +
+                ", leaseIntervalMs=" + leaseIntervalMs +
                 '}';
     }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+
+/**
+ * <p>Token lease of a cluster flow rule in the token client.</p>
+ *
+ * <p>The client requests a batch of tokens valid for a short time (the lease interval of the rule)
+ * from the token server, and then serves the requests locally from the batch until the tokens run out
+ * or the lease expires. Only one thread renews the lease at a time, the other threads don't wait for it.
+ * If the server refuses the lease, or grants only a part of it which has run out, the requests are blocked
+ * locally until the lease expires. The tokens left when the lease expires are returned to the server,
+ * so that they are not counted as passed.</p>
+ *
+ * @since 1.8.8
+ */
+public final class ClusterTokenLease {
+
+    /**
+     * The tokens are acquired from the lease.
+     */
+    public static final int ACQUIRED = 0;
+    /**
+     * The lease has been refused by the token server, so the request should be blocked.
+     */
+    public static final int REFUSED = 1;
+    /**
+     * The lease has expired or run out, so it should be renewed.
+     */
+    public static final int EXPIRED = 2;
+    /**
+     * The lease is not available (e.g. not supported by the token server), so the request
+     * should request the token server directly.
+     */
+    public static final int UNAVAILABLE = 3;
+
+    private static final Slice EMPTY = new Slice(UNAVAILABLE, 0, 0, EXPIRED);
+
+    private final AtomicBoolean renewing = new AtomicBoolean(false);
+    private volatile Slice current = EMPTY;
+
+    /**
+     * Try to acquire tokens from the lease.
+     *
+     * @param acquireCount count of tokens to acquire
+     * @param currentTime  current time in milliseconds
+     * @return {@link #ACQUIRED}, {@link #REFUSED}, {@link #EXPIRED} or {@link #UNAVAILABLE}
+     */
+    public int tryAcquire(int acquireCount, long currentTime) {
+        Slice slice = current;
+        if (currentTime >= slice.expireTime) {
+            return EXPIRED;
+        }
+        if (slice.state != ACQUIRED) {
+            return slice.state;
+        }
+        AtomicInteger remaining = slice.remaining;
+        while (true) {
+            int r = remaining.get();
+            if (r < acquireCount) {
+                return slice.runOutState;
+            }
+            if (remaining.compareAndSet(r, r - acquireCount)) {
+                return ACQUIRED;
+            }
+        }
+    }
+
+    /**
+     * Try to take the right to renew the lease. It must be followed by {@link #endRenew()}.
+     *
+     * @return true if succeeded, or false if another thread is renewing the lease
+     */
+    public boolean tryStartRenew() {
+        return renewing.compareAndSet(false, true);
+    }
+
+    public void endRenew() {
+        renewing.set(false);
+    }
+
+    /**
+     * Renew the lease with the result of the lease request. If only a part of the requested tokens is granted,
+     * the requests will be refused rather than renewing the lease after the tokens run out, until the lease
+     * expires.
+     *
+     * @param result          result of the lease request
+     * @param leaseCount      count of the tokens requested for the lease
+     * @param currentTime     current time in milliseconds
+     * @param leaseIntervalMs lease interval of the rule in milliseconds
+     * @return {@link #ACQUIRED} if tokens are granted, {@link #REFUSED} or {@link #UNAVAILABLE}
+     */
+    public int renew(TokenResult result, int leaseCount, long currentTime, int leaseIntervalMs) {
+        long expireTime = currentTime + (result.getWaitInMs() > 0 ? result.getWaitInMs() : leaseIntervalMs);
+        switch (result.getStatus()) {
+            case TokenResultStatus.OK:
+                int granted = result.getRemaining();
+                int runOutState = granted < leaseCount ? REFUSED : EXPIRED;
+                this.current = new Slice(ACQUIRED, granted, expireTime, runOutState);
+                return ACQUIRED;
+            case TokenResultStatus.BLOCKED:
+                this.current = new Slice(REFUSED, 0, expireTime, REFUSED);
+                return REFUSED;
+            default:
+                // The lease is not supported or failed, don't retry within the lease interval.
+                this.current = new Slice(UNAVAILABLE, 0, currentTime + leaseIntervalMs, UNAVAILABLE);
+                return UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Take the unused tokens of current lease if it expires no later than given time, so that they could be
+     * returned to the token server. The tokens are taken only once, and can't be acquired any more.
+     *
+     * @param expireTime the latest expire time of the lease in milliseconds, e.g. {@link #getExpireTime()}
+     *                   when the lease is going to expire, or {@link Long#MAX_VALUE} when it's being renewed
+     * @return count of the unused tokens, 0 if the lease expires later or has no tokens left
+     */
+    public int takeUnusedTokens(long expireTime) {
+        Slice slice = current;
+        if (slice.expireTime > expireTime || slice.state != ACQUIRED) {
+            return 0;
+        }
+        return slice.remaining.getAndSet(0);
+    }
+
+    /**
+     * @return the time when current lease expires, in milliseconds
+     */
+    public long getExpireTime() {
+        return current.expireTime;
+    }
+
+    /**
+     * Count of the tokens to request for a lease, which covers the recent demand in the lease interval.
+     *
+     * @param demandQps       recent QPS of the requests (both passed and blocked)
+     * @param leaseIntervalMs lease interval in milliseconds
+     * @param acquireCount    count of the tokens acquired by current request
+     * @return count of the tokens to request
+     */
+    public static int leaseCountFor(double demandQps, int leaseIntervalMs, int acquireCount) {
+        double count = Math.ceil(demandQps * leaseIntervalMs / 1000.0d);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(acquireCount, count));
+    }
+
+    private static final class Slice {
+        private final int state;
+        private final AtomicInteger remaining;
+        private final long expireTime;
+        private final int runOutState;
+
+        Slice(int state, int remaining, long expireTime, int runOutState) {
+            this.state = state;
+            this.remaining = new AtomicInteger(remaining);
+            this.expireTime = expireTime;
+            this.runOutState = runOutState;
+        }
+    }
+}
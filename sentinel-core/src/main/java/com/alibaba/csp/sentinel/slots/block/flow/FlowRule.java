@@ -72,7 +72,8 @@ public class FlowRule extends AbstractRule {
 
     /**
      * Rate limiter control behavior.
-     * 0. default(reject directly), 1. warm up, 2. rate limiter, 3. warm up + rate limiter
+     * 0. default(reject directly), 1. warm up, 2. rate limiter, 3. warm up + rate limiter,
+     * 4. adaptive concurrency (thread count grade only, with the count as the max limit)
      */
     private int controlBehavior = RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
 
@@ -94,6 +95,11 @@ public class FlowRule extends AbstractRule {
      */
     private TrafficShapingController controller;
 
+    /**
+     * The token lease of the cluster client, present if the lease is enabled in cluster mode.
+     */
+    private ClusterTokenLease clusterLease;
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -121,6 +127,15 @@ public class FlowRule extends AbstractRule {
         return controller;
     }
 
+    FlowRule setClusterLease(ClusterTokenLease clusterLease) {
+        this.clusterLease = clusterLease;
+        return this;
+    }
+
+    ClusterTokenLease getClusterLease() {
+        return clusterLease;
+    }
+
     public int getWarmUpPeriodSec() {
         return warmUpPeriodSec;
     }
@@ -16,13 +16,19 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServerProvider;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
 import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
@@ -30,8 +36,10 @@ import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.Function;
 
 /**
@@ -56,6 +64,74 @@ public class FlowRuleChecker {
         }
     }
 
+    /**
+     * Check the flow rules of a resource with the compiled plan. Each node is selected only once for
+     * the rules in the same group, and the metrics of the node are read only once for the rules using
+     * the default controller. Rules are checked in their original order.
+     *
+     * @param plan compiled plan of the rules of the resource
+     * @throws BlockException if any rule is not passed, the first one in order is carried
+     * @since 1.8.8
+     */
+    public void checkFlow(FlowRulePlan plan, Context context, DefaultNode node, int count, boolean prioritized)
+        throws BlockException {
+        if (plan == null || plan.isEmpty()) {
+            return;
+        }
+        SelectedNodes selectedNodes = SelectedNodes.acquire(plan.groupCount());
+        try {
+            for (int i = 0; i < plan.size(); i++) {
+                FlowRule rule = plan.ruleAt(i);
+                int group = plan.groupOf(i);
+                boolean pass;
+                if (group == FlowRulePlan.NO_GROUP) {
+                    pass = canPassCheck(rule, context, node, count, prioritized);
+                } else {
+                    if (!selectedNodes.isSelected(group)) {
+                        selectedNodes.select(group, selectNodeByRequesterAndStrategy(rule, context, node));
+                    }
+                    pass = passGroupedLocalCheck(rule, plan.usesDefaultController(i), context, selectedNodes,
+                        group, count, prioritized);
+                }
+                if (!pass) {
+                    throw new FlowException(rule.getLimitApp(), rule);
+                }
+            }
+        } finally {
+            selectedNodes.release();
+        }
+    }
+
+    /**
+     * Whether the flow rules could be checked with the compiled {@link FlowRulePlan}. The plan path doesn't call
+     * {@link #canPassCheck(FlowRule, Context, DefaultNode, int, boolean)} for rules in node groups, so subclasses
+     * are checked rule by rule via {@link #checkFlow(Function, ResourceWrapper, Context, DefaultNode, int, boolean)}
+     * unless they override this method.
+     *
+     * @return whether {@link #checkFlow(FlowRulePlan, Context, DefaultNode, int, boolean)} could be used
+     * @since 1.8.8
+     */
+    protected boolean supportsRulePlan() {
+        return getClass() == FlowRuleChecker.class;
+    }
+
+    private static boolean passGroupedLocalCheck(FlowRule rule, boolean usesDefaultController, Context context,
+                                                 SelectedNodes selectedNodes, int group, int acquireCount,
+                                                 boolean prioritized) {
+        Node selectedNode = selectedNodes.nodeOf(group);
+        if (selectedNode == null) {
+            return true;
+        }
+        if (usesDefaultController) {
+            DefaultController controller = (DefaultController) rule.getRater();
+            if (controller.isWithinThreshold(selectedNodes.usedTokens(group, controller.getGrade()), acquireCount)) {
+                return true;
+            }
+        }
+        // Exceeding the threshold (or other controllers) is left to the controller, which may occupy or queue.
+        return passLocalCheck(rule, selectedNode, acquireCount, prioritized, getQueueingDeferredEntry(context));
+    }
+
     public boolean canPassCheck(/*@NonNull*/ FlowRule rule, Context context, DefaultNode node,
                                                     int acquireCount) {
         return canPassCheck(rule, context, node, acquireCount, false);
@@ -77,12 +153,47 @@ public class FlowRuleChecker {
 
     private static boolean passLocalCheck(FlowRule rule, Context context, DefaultNode node, int acquireCount,
                                           boolean prioritized) {
+        return passLocalCheck(rule, context, node, acquireCount, prioritized, getQueueingDeferredEntry(context));
+    }
+
+    private static boolean passLocalCheck(FlowRule rule, Context context, DefaultNode node, int acquireCount,
+                                          boolean prioritized, AsyncEntry deferredEntry) {
         Node selectedNode = selectNodeByRequesterAndStrategy(rule, context, node);
         if (selectedNode == null) {
             return true;
         }
+        return passLocalCheck(rule, selectedNode, acquireCount, prioritized, deferredEntry);
+    }
+
+    private static boolean passLocalCheck(FlowRule rule, /*@NonNull*/ Node selectedNode, int acquireCount,
+                                          boolean prioritized, AsyncEntry deferredEntry) {
+        if (deferredEntry == null) {
+            return rule.getRater().canPass(selectedNode, acquireCount, prioritized);
+        }
+        try {
+            long waitNanos = rule.getRater().tryReserve(selectedNode, acquireCount, prioritized);
+            if (waitNanos < 0) {
+                return false;
+            }
+            deferredEntry.addQueueingDelay(waitNanos);
+            return true;
+        } catch (PriorityWaitException ex) {
+            deferredEntry.addQueueingDelay(TimeUnit.MILLISECONDS.toNanos(ex.getWaitInMs()));
+            throw ex;
+        }
+    }
 
-        return rule.getRater().canPass(selectedNode, acquireCount, prioritized);
+    /**
+     * Get the entry being checked if its queueing time should be deferred to the caller.
+     *
+     * @return the entry, or null if the queueing should block the current thread
+     */
+    private static AsyncEntry getQueueingDeferredEntry(Context context) {
+        Entry curEntry = context == null ? null : context.getCurEntry();
+        if (curEntry instanceof AsyncEntry && ((AsyncEntry) curEntry).isQueueingDeferred()) {
+            return (AsyncEntry) curEntry;
+        }
+        return null;
     }
 
     static Node selectReferenceNode(FlowRule rule, Context context, DefaultNode node) {
@@ -146,27 +257,157 @@ public class FlowRuleChecker {
 
     private static boolean passClusterCheck(FlowRule rule, Context context, DefaultNode node, int acquireCount,
                                             boolean prioritized) {
+        AsyncEntry deferredEntry = getQueueingDeferredEntry(context);
         try {
             TokenService clusterService = pickClusterService();
             if (clusterService == null) {
-                return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
+                return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized, deferredEntry);
+            }
+            ClusterTokenLease lease = rule.getClusterLease();
+            if (lease != null && !prioritized && clusterService instanceof ClusterTokenClient) {
+                int leaseStatus = acquireFromLease((ClusterTokenClient) clusterService, lease, rule, node,
+                    acquireCount);
+                if (leaseStatus == ClusterTokenLease.ACQUIRED) {
+                    return true;
+                }
+                if (leaseStatus == ClusterTokenLease.REFUSED) {
+                    return false;
+                }
+                // Or else request the token server directly.
+            }
+            if (deferredEntry != null && clusterService instanceof ClusterTokenClient) {
+                // Don't wait for the remote server, the caller will wait for the result with the entry.
+                deferClusterCheck((ClusterTokenClient) clusterService, deferredEntry, rule, context, node,
+                    acquireCount, prioritized);
+                return true;
             }
             long flowId = rule.getClusterConfig().getFlowId();
             TokenResult result = clusterService.requestToken(flowId, acquireCount, prioritized);
-            return applyTokenResult(result, rule, context, node, acquireCount, prioritized);
+            return applyTokenResult(result, rule, context, node, acquireCount, prioritized, deferredEntry);
             // If client is absent, then fallback to local mode.
         } catch (Throwable ex) {
             RecordLog.warn("[FlowRuleChecker] Request cluster token unexpected failed", ex);
         }
         // Fallback to local flow control when token client or server for this rule is not available.
         // If fallback is not enabled, then directly pass.
-        return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
+        return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized, deferredEntry);
+    }
+
+    private static int acquireFromLease(ClusterTokenClient client, ClusterTokenLease lease, FlowRule rule,
+                                        DefaultNode node, int acquireCount) {
+        long currentTime = TimeUtil.currentTimeMillis();
+        int status = lease.tryAcquire(acquireCount, currentTime);
+        if (status != ClusterTokenLease.EXPIRED || !lease.tryStartRenew()) {
+            // If another thread is renewing the lease, this request won't wait for it.
+            return status;
+        }
+        final long flowId = rule.getClusterConfig().getFlowId();
+        final int leaseIntervalMs = rule.getClusterConfig().getLeaseIntervalMs();
+        // The tokens left in the lease being replaced (e.g. fewer than acquired) are returned.
+        releaseUnusedTokens(client, lease, flowId, Long.MAX_VALUE);
+
+        // Lease the tokens for the recent demand of this client in the lease interval.
+        Node demandNode = node == null ? null : node.getClusterNode();
+        double demandQps = demandNode == null ? 0 : demandNode.totalQps();
+        final int leaseCount = ClusterTokenLease.leaseCountFor(demandQps, leaseIntervalMs, acquireCount);
+        CompletableFuture<TokenResult> future = null;
+        try {
+            future = client.requestTokenLeaseAsync(flowId, leaseCount);
+        } finally {
+            if (future == null) {
+                lease.endRenew();
+            }
+        }
+        // The lease is renewed in the background. Until it arrives, the requests go to the token server directly.
+        future.whenComplete((result, ex) -> {
+            try {
+                if (result == null) {
+                    return;
+                }
+                long now = TimeUtil.currentTimeMillis();
+                if (lease.renew(result, leaseCount, now, leaseIntervalMs) == ClusterTokenLease.ACQUIRED) {
+                    // Return the tokens left when the lease expires.
+                    final long expireTime = lease.getExpireTime();
+                    DelayScheduler.schedule(() -> releaseUnusedTokens(client, lease, flowId, expireTime),
+                        expireTime - now, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                lease.endRenew();
+            }
+        });
+        return ClusterTokenLease.UNAVAILABLE;
+    }
+
+    private static void releaseUnusedTokens(ClusterTokenClient client, ClusterTokenLease lease, long flowId,
+                                            long expireTime) {
+        int unused = lease.takeUnusedTokens(expireTime);
+        if (unused > 0) {
+            client.releaseTokenLeaseAsync(flowId, unused);
+        }
+    }
+
+    private static void deferClusterCheck(ClusterTokenClient client, AsyncEntry deferredEntry, FlowRule rule,
+                                          Context context, DefaultNode node, int acquireCount,
+                                          boolean prioritized) {
+        long flowId = rule.getClusterConfig().getFlowId();
+        // The context is bound to current thread, so the node for local fallback is selected in advance.
+        final Node fallbackNode = rule.getClusterConfig().isFallbackToLocalWhenFail()
+            ? selectNodeByRequesterAndStrategy(rule, context, node) : null;
+        deferredEntry.addDeferredCheck(client.requestTokenAsync(flowId, acquireCount, prioritized),
+            (result, ex) -> {
+                boolean pass;
+                try {
+                    if (ex != null || result == null) {
+                        RecordLog.warn("[FlowRuleChecker] Request cluster token unexpected failed", ex);
+                        pass = fallbackToLocalOrPass(rule, fallbackNode, acquireCount, prioritized, deferredEntry);
+                    } else {
+                        pass = applyDeferredTokenResult(result, rule, fallbackNode, acquireCount, prioritized,
+                            deferredEntry);
+                    }
+                } catch (PriorityWaitException e) {
+                    // The waiting time has been added to the entry.
+                    pass = true;
+                }
+                return pass ? null : new FlowException(rule.getLimitApp(), rule);
+            });
+    }
+
+    private static boolean applyDeferredTokenResult(/*@NonNull*/ TokenResult result, FlowRule rule,
+                                                    Node fallbackNode, int acquireCount, boolean prioritized,
+                                                    /*@NonNull*/ AsyncEntry deferredEntry) {
+        switch (result.getStatus()) {
+            case TokenResultStatus.OK:
+                return true;
+            case TokenResultStatus.SHOULD_WAIT:
+                deferredEntry.addQueueingDelay(TimeUnit.MILLISECONDS.toNanos(result.getWaitInMs()));
+                return true;
+            case TokenResultStatus.NO_RULE_EXISTS:
+            case TokenResultStatus.BAD_REQUEST:
+            case TokenResultStatus.FAIL:
+            case TokenResultStatus.TOO_MANY_REQUEST:
+                return fallbackToLocalOrPass(rule, fallbackNode, acquireCount, prioritized, deferredEntry);
+            case TokenResultStatus.BLOCKED:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Fallback with the node selected in advance, which is null if there is no node to check
+     * or the fallback is not enabled.
+     */
+    private static boolean fallbackToLocalOrPass(FlowRule rule, Node selectedNode, int acquireCount,
+                                                 boolean prioritized, AsyncEntry deferredEntry) {
+        if (selectedNode == null) {
+            return true;
+        }
+        return passLocalCheck(rule, selectedNode, acquireCount, prioritized, deferredEntry);
     }
 
     private static boolean fallbackToLocalOrPass(FlowRule rule, Context context, DefaultNode node, int acquireCount,
-                                                 boolean prioritized) {
+                                                 boolean prioritized, AsyncEntry deferredEntry) {
         if (rule.getClusterConfig().isFallbackToLocalWhenFail()) {
-            return passLocalCheck(rule, context, node, acquireCount, prioritized);
+            return passLocalCheck(rule, context, node, acquireCount, prioritized, deferredEntry);
         } else {
             // The rule won't be activated, just pass.
             return true;
@@ -185,26 +426,104 @@ public class FlowRuleChecker {
 
     private static boolean applyTokenResult(/*@NonNull*/ TokenResult result, FlowRule rule, Context context,
                                                          DefaultNode node,
-                                                         int acquireCount, boolean prioritized) {
+                                                         int acquireCount, boolean prioritized,
+                                                         AsyncEntry deferredEntry) {
         switch (result.getStatus()) {
             case TokenResultStatus.OK:
                 return true;
             case TokenResultStatus.SHOULD_WAIT:
-                // Wait for next tick.
-                try {
-                    Thread.sleep(result.getWaitInMs());
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+                if (deferredEntry != null) {
+                    deferredEntry.addQueueingDelay(TimeUnit.MILLISECONDS.toNanos(result.getWaitInMs()));
+                    return true;
                 }
+                // Wait for next tick.
+                DelayScheduler.sleep(TimeUnit.MILLISECONDS.toNanos(result.getWaitInMs()));
                 return true;
             case TokenResultStatus.NO_RULE_EXISTS:
             case TokenResultStatus.BAD_REQUEST:
             case TokenResultStatus.FAIL:
             case TokenResultStatus.TOO_MANY_REQUEST:
-                return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
+                return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized, deferredEntry);
             case TokenResultStatus.BLOCKED:
             default:
                 return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Per-thread buffer of the nodes selected for each rule group during a plan check, with their metrics
+     * read lazily at most once.
+     */
+    private static final class SelectedNodes {
+
+        private static final ThreadLocal<SelectedNodes> LOCAL = new ThreadLocal<SelectedNodes>() {
+            @Override
+            protected SelectedNodes initialValue() {
+                return new SelectedNodes();
+            }
+        };
+
+        private Node[] nodes = new Node[4];
+        private boolean[] selected = new boolean[4];
+        private int[] usedQps = new int[4];
+        private int[] usedThreads = new int[4];
+        private boolean inUse;
+
+        static SelectedNodes acquire(int groupCount) {
+            SelectedNodes buffer = LOCAL.get();
+            if (buffer.inUse) {
+                // Nested check in the same thread, which is unusual.
+                buffer = new SelectedNodes();
+            }
+            buffer.reset(groupCount);
+            buffer.inUse = true;
+            return buffer;
+        }
+
+        void release() {
+            inUse = false;
+        }
+
+        private void reset(int groupCount) {
+            if (groupCount > nodes.length) {
+                nodes = new Node[groupCount];
+                selected = new boolean[groupCount];
+                usedQps = new int[groupCount];
+                usedThreads = new int[groupCount];
+                return;
+            }
+            for (int i = 0; i < groupCount; i++) {
+                nodes[i] = null;
+                selected[i] = false;
+            }
+        }
+
+        boolean isSelected(int group) {
+            return selected[group];
+        }
+
+        void select(int group, Node node) {
+            nodes[group] = node;
+            selected[group] = true;
+            usedQps[group] = -1;
+            usedThreads[group] = -1;
+        }
+
+        Node nodeOf(int group) {
+            return nodes[group];
+        }
+
+        int usedTokens(int group, int grade) {
+            if (grade == RuleConstant.FLOW_GRADE_THREAD) {
+                if (usedThreads[group] < 0) {
+                    usedThreads[group] = nodes[group].curThreadNum();
+                }
+                return usedThreads[group];
+            }
+            if (usedQps[group] < 0) {
+                usedQps[group] = (int) nodes[group].passQps();
+            }
+            return usedQps[group];
+        }
+    }
+}
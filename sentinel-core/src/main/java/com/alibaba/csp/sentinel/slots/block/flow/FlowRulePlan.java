@@ -0,0 +1,153 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.slots.block.RuleSnapshot;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
+
+/**
+ * <p>Evaluation plan of the flow rules of a resource, which is compiled once when rules are updated.</p>
+ *
+ * <p>Rules which select the same node for a request (i.e. with the same limit app, strategy and reference
+ * resource) are put into the same group, so that the node is selected only once per entry, and the current
+ * QPS or thread count of the node is read only once for all rules of the group using the default
+ * (reject immediately) controller. Rules are still checked in their original order, so the rule which
+ * blocks the request is deterministic.</p>
+ *
+ * @since 1.8.8
+ */
+public final class FlowRulePlan {
+
+    /**
+     * Group index of rules which should be checked on their own (e.g. rules in cluster mode).
+     */
+    static final int NO_GROUP = -1;
+
+    private static final FlowRulePlan EMPTY = new FlowRulePlan(null, new FlowRule[0], new int[0], new boolean[0], 0);
+
+    private final RuleSnapshot<FlowRule> snapshot;
+    private final FlowRule[] rules;
+    private final int[] groups;
+    private final boolean[] defaultControllers;
+    private final int groupCount;
+
+    private FlowRulePlan(RuleSnapshot<FlowRule> snapshot, FlowRule[] rules, int[] groups,
+                         boolean[] defaultControllers, int groupCount) {
+        this.snapshot = snapshot;
+        this.rules = rules;
+        this.groups = groups;
+        this.defaultControllers = defaultControllers;
+        this.groupCount = groupCount;
+    }
+
+    /**
+     * Compile the plan for the rules of given snapshot.
+     *
+     * @param snapshot snapshot of the flow rules of a resource
+     * @return the compiled plan
+     */
+    public static FlowRulePlan compile(RuleSnapshot<FlowRule> snapshot) {
+        List<FlowRule> ruleList = snapshot == null ? null : snapshot.getRules();
+        if (ruleList == null || ruleList.isEmpty()) {
+            return snapshot == null ? EMPTY : new FlowRulePlan(snapshot, EMPTY.rules, EMPTY.groups,
+                EMPTY.defaultControllers, 0);
+        }
+        List<FlowRule> effectiveRules = new ArrayList<>(ruleList.size());
+        for (FlowRule rule : ruleList) {
+            // Rules without limit app always pass.
+            if (rule.getLimitApp() != null) {
+                effectiveRules.add(rule);
+            }
+        }
+        int size = effectiveRules.size();
+        FlowRule[] rules = new FlowRule[size];
+        int[] groups = new int[size];
+        boolean[] defaultControllers = new boolean[size];
+        Map<List<Object>, Integer> groupIndexes = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            FlowRule rule = effectiveRules.get(i);
+            rules[i] = rule;
+            if (rule.isClusterMode()) {
+                groups[i] = NO_GROUP;
+                continue;
+            }
+            List<Object> key = groupKey(rule);
+            Integer group = groupIndexes.get(key);
+            if (group == null) {
+                group = groupIndexes.size();
+                groupIndexes.put(key, group);
+            }
+            groups[i] = group;
+            defaultControllers[i] = rule.getRater() instanceof DefaultController;
+        }
+        return new FlowRulePlan(snapshot, rules, groups, defaultControllers, groupIndexes.size());
+    }
+
+    private static List<Object> groupKey(FlowRule rule) {
+        List<Object> key = new ArrayList<>(3);
+        Collections.addAll(key, rule.getLimitApp(), rule.getStrategy(), rule.getRefResource());
+        return key;
+    }
+
+    /**
+     * Check whether the plan is compiled for given resource and is up-to-date.
+     *
+     * @see RuleSnapshot#isValidFor(String, long)
+     */
+    public boolean isValidFor(String resource, long version) {
+        return snapshot != null && snapshot.isValidFor(resource, version);
+    }
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    public List<FlowRule> getRules() {
+        return snapshot == null ? Collections.<FlowRule>emptyList() : snapshot.getRules();
+    }
+
+    int size() {
+        return rules.length;
+    }
+
+    FlowRule ruleAt(int index) {
+        return rules[index];
+    }
+
+    /**
+     * @return index of the group (i.e. the selected node) of the rule, or {@link #NO_GROUP}
+     */
+    int groupOf(int index) {
+        return groups[index];
+    }
+
+    /**
+     * @return whether the rule uses {@link DefaultController}, whose threshold could be checked with shared metrics
+     */
+    boolean usesDefaultController(int index) {
+        return defaultControllers[index];
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+}
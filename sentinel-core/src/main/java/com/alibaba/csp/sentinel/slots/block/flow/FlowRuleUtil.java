@@ -19,6 +19,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.ThrottlingController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
@@ -102,6 +103,7 @@ public final class FlowRuleUtil {
             }
             TrafficShapingController rater = generateRater(rule);
             rule.setRater(rater);
+            rule.setClusterLease(generateClusterLease(rule));
 
             K key = groupFunction.apply(rule);
             if (key == null) {
@@ -145,10 +147,20 @@ public final class FlowRuleUtil {
                 default:
                     // Default mode or unknown mode: default traffic shaping controller (fast-reject).
             }
+        } else if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY) {
+            return new AdaptiveConcurrencyController(rule.getCount());
         }
         return new DefaultController(rule.getCount(), rule.getGrade());
     }
 
+    private static ClusterTokenLease generateClusterLease(/*@Valid*/ FlowRule rule) {
+        if (rule.isClusterMode() && rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getClusterConfig().getLeaseIntervalMs() > 0) {
+            return new ClusterTokenLease();
+        }
+        return null;
+    }
+
     /**
      * Check whether provided ID can be a valid cluster flow ID.
      *
@@ -178,6 +190,10 @@ public final class FlowRuleUtil {
             // Check strategy and control (shaping) behavior.
             return checkClusterField(rule) && checkStrategyField(rule) && checkControlBehaviorField(rule);
         } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD) {
+            if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY) {
+                // The limit is adjusted locally, so it does not work in cluster mode.
+                return !rule.isClusterMode() && rule.getCount() >= 1;
+            }
             return checkClusterConcurrentField(rule);
         } else {
             return false;
@@ -222,6 +238,9 @@ public final class FlowRuleUtil {
         if (!isWindowConfigValid(clusterConfig.getSampleCount(), clusterConfig.getWindowIntervalMs())) {
             return false;
         }
+        if (clusterConfig.getLeaseIntervalMs() < 0) {
+            return false;
+        }
         switch (clusterConfig.getStrategy()) {
             case ClusterRuleConstant.FLOW_CLUSTER_STRATEGY_NORMAL:
                 return true;
@@ -259,6 +278,9 @@ public final class FlowRuleUtil {
                 return rule.getMaxQueueingTimeMs() > 0;
             case RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER:
                 return rule.getWarmUpPeriodSec() > 0 && rule.getMaxQueueingTimeMs() > 0;
+            case RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY:
+                // Only works with the thread grade.
+                return false;
             default:
                 return true;
         }
@@ -21,6 +21,8 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleManager;
+import com.alibaba.csp.sentinel.slots.block.RuleSnapshot;
 import com.alibaba.csp.sentinel.spi.Spi;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.function.Function;
@@ -131,6 +133,13 @@ import java.util.Collection;
  * at the same time, the system using this strategy will handle requests and its
  * fixed rate until all the requests have been processed or time out.
  * </p>
+ *
+ * <li>Adaptive concurrency ({@code RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY})</li>
+ * <p>
+ * Works with the thread count grade. The concurrency limit is adjusted from the observed response time,
+ * between 1 and the {@code count} of the rule, so that it needn't be retuned when the latency shifts.
+ * See {@code AdaptiveConcurrencyController}.
+ * </p>
  * </ol>
  *
  * @author jialiang.linjl
@@ -166,7 +175,12 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
     void checkFlow(ResourceWrapper resource, Context context, DefaultNode node, int count, boolean prioritized)
         throws BlockException {
-        checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
+        if (checker.supportsRulePlan()) {
+            checker.checkFlow(getRulePlan(resource.getName()), context, node, count, prioritized);
+        } else {
+            // Customized checkers are checked rule by rule, so that their overrides take effect.
+            checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
+        }
     }
 
     @Override
@@ -180,4 +194,20 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             return FlowRuleManager.getFlowRules(resource);
         }
     };
+
+    /**
+     * Compiled plan of the flow rules of the resource, reused until rules are updated.
+     */
+    private volatile FlowRulePlan rulePlan;
+
+    private FlowRulePlan getRulePlan(String resource) {
+        long version = RuleManager.currentVersion();
+        FlowRulePlan plan = rulePlan;
+        if (plan == null || !plan.isValidFor(resource, version)) {
+            plan = FlowRulePlan.compile(
+                new RuleSnapshot<>(resource, version, FlowRuleManager.getFlowRules(resource)));
+            rulePlan = plan;
+        }
+        return plan;
+    }
 }
@@ -15,6 +15,11 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
 import com.alibaba.csp.sentinel.node.Node;
 
 /**
@@ -42,4 +47,48 @@ public interface TrafficShapingController {
      * @return true if the resource entry can pass; false if it should be blocked
      */
     boolean canPass(Node node, int acquireCount);
+
+    /**
+     * <p>Check whether given resource entry can pass with provided count, without blocking the calling
+     * thread for queueing. Instead, the time to wait is returned, and the caller should delay the request
+     * for that time by itself (e.g. via a timer).</p>
+     *
+     * <p>The default implementation never queues, so it never returns a positive value.</p>
+     *
+     * @param node resource node
+     * @param acquireCount count to acquire
+     * @param prioritized whether the request is prioritized
+     * @return time to wait in nanoseconds before the entry passes (0 for passing immediately),
+     * or a negative value if it should be blocked
+     * @throws PriorityWaitException if the prioritized request occupied a token of the next window,
+     * and should pass after {@link PriorityWaitException#getWaitInMs()}
+     * @since 1.8.8
+     */
+    default long tryReserve(Node node, int acquireCount, boolean prioritized) {
+        return canPass(node, acquireCount, prioritized) ? 0 : -1;
+    }
+
+    /**
+     * Check whether given resource entry can pass with provided count, without blocking the calling thread.
+     * The returned stage completes with {@code true} when the entry can pass (after queueing if needed),
+     * or completes with {@code false} immediately if it should be blocked.
+     *
+     * @param node resource node
+     * @param acquireCount count to acquire
+     * @param prioritized whether the request is prioritized
+     * @return the stage of the checking result
+     * @since 1.8.8
+     */
+    default CompletionStage<Boolean> canPassAsync(Node node, int acquireCount, boolean prioritized) {
+        long waitNanos;
+        try {
+            waitNanos = tryReserve(node, acquireCount, prioritized);
+        } catch (PriorityWaitException ex) {
+            waitNanos = TimeUnit.MILLISECONDS.toNanos(ex.getWaitInMs());
+        }
+        if (waitNanos < 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return DelayScheduler.completeAfter(true, waitNanos);
+    }
 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Traffic shaping controller which limits the concurrency (in-flight requests) of the resource with a limit
+ * adjusted by the observed response time, so that the threshold doesn't need to be retuned whenever the latency
+ * of the resource (or its downstream) shifts.</p>
+ *
+ * <p>The limit is adjusted with the gradient algorithm. In each update interval, the average RT of the last second
+ * (short RT) is compared with the no-load RT, and</p>
+ * <pre>
+ * gradient = max(0.5, min(1.0, 1.5 * noLoadRt / shortRt))
+ * newLimit = limit * gradient + sqrt(limit)
+ * </pre>
+ * <p>so the limit shrinks when requests start queueing (RT increases), and grows slowly while RT is steady.
+ * The new limit is smoothed, and kept in range {@code [1, maxLimit]}. The limit won't change while less than half
+ * of it is used, as the RT of a lightly loaded resource says nothing about its capacity.</p>
+ *
+ * <p>The no-load RT is the minimum short RT of the recent samples (5s by default). When the limit is saturated,
+ * or the short RT drifts away from the no-load RT, the samples may include the queueing time, so the limit is
+ * halved for a while (probing) to measure the RT without queueing, at most once in the sample window. This way
+ * a persistent latency shift becomes the new baseline, but the queueing never does. A healthy resource is never
+ * probed, as its samples are free of queueing already.</p>
+ *
+ * <p>The limit is kept for each node checked by the rule, as the RT and concurrency of the nodes (e.g. the
+ * resource from different origins) differ. The limit starts from {@code maxLimit} (i.e. the count of the flow
+ * rule), so the controller behaves like the fixed thread-count limit until the RT rises. At most
+ * {@value #MAX_NODE_AMOUNT} nodes are tracked by a controller, and any other node is checked against
+ * {@code maxLimit} without adapting.</p>
+ *
+ * @since 1.8.8
+ */
+public class AdaptiveConcurrencyController implements TrafficShapingController {
+
+    private static final long DEFAULT_UPDATE_INTERVAL_MS = 500;
+    private static final double MIN_LIMIT = 1;
+
+    /**
+     * Tolerated ratio of short RT to no-load RT, before the limit shrinks.
+     */
+    private static final double RT_TOLERANCE = 1.5d;
+    private static final double MIN_GRADIENT = 0.5d;
+    private static final double LIMIT_SMOOTHING = 0.5d;
+
+    /**
+     * Amount of samples to find the no-load RT from, which is also the min interval (in updates) between probes.
+     */
+    static final int SAMPLE_WINDOW = 10;
+    /**
+     * Amount of updates a probe lasts, which should cover the window of the short RT (1s).
+     */
+    static final int PROBE_UPDATES = 2;
+    /**
+     * Max amount of nodes to keep a limit for. The nodes live as long as their resources, origins or contexts,
+     * so the limits are bounded rather than evicted.
+     */
+    static final int MAX_NODE_AMOUNT = 2000;
+
+    private final double maxLimit;
+    private final long updateIntervalMs;
+    private final int maxNodeAmount;
+
+    private final ConcurrentMap<Node, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    private final AtomicBoolean nodeAmountExceededLogged = new AtomicBoolean(false);
+
+    public AdaptiveConcurrencyController(double maxLimit) {
+        this(maxLimit, DEFAULT_UPDATE_INTERVAL_MS);
+    }
+
+    /**
+     * @param maxLimit         the max concurrency limit, which is also the initial limit
+     * @param updateIntervalMs interval to adjust the limit
+     */
+    public AdaptiveConcurrencyController(double maxLimit, long updateIntervalMs) {
+        this(maxLimit, updateIntervalMs, MAX_NODE_AMOUNT);
+    }
+
+    AdaptiveConcurrencyController(double maxLimit, long updateIntervalMs, int maxNodeAmount) {
+        AssertUtil.isTrue(maxLimit >= MIN_LIMIT, "maxLimit should be >= 1");
+        AssertUtil.isTrue(updateIntervalMs > 0, "updateIntervalMs should be positive");
+        this.maxLimit = maxLimit;
+        this.updateIntervalMs = updateIntervalMs;
+        this.maxNodeAmount = maxNodeAmount;
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        return canPass(node, acquireCount, false);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        if (node == null) {
+            return true;
+        }
+        AdaptiveLimit adaptiveLimit = getAdaptiveLimit(node);
+        int inflight = node.curThreadNum();
+        if (adaptiveLimit == null) {
+            return inflight + acquireCount <= maxLimit;
+        }
+        adaptiveLimit.tryUpdateLimit(node, inflight);
+        return inflight + acquireCount <= adaptiveLimit.getLimit();
+    }
+
+    /**
+     * @return the adaptive limit of the node, or null if too many nodes are tracked already
+     */
+    AdaptiveLimit getAdaptiveLimit(Node node) {
+        AdaptiveLimit adaptiveLimit = limits.get(node);
+        if (adaptiveLimit == null) {
+            if (limits.size() >= maxNodeAmount) {
+                if (nodeAmountExceededLogged.compareAndSet(false, true)) {
+                    RecordLog.warn("[AdaptiveConcurrencyController] Amount of nodes exceeds {}, "
+                        + "other nodes are checked against the max limit without adapting", maxNodeAmount);
+                }
+                return null;
+            }
+            adaptiveLimit = new AdaptiveLimit(maxLimit, updateIntervalMs);
+            AdaptiveLimit old = limits.putIfAbsent(node, adaptiveLimit);
+            if (old != null) {
+                adaptiveLimit = old;
+            }
+        }
+        return adaptiveLimit;
+    }
+
+    /**
+     * @param node the node checked by the rule
+     * @return current concurrency limit of the node, which is halved while probing the no-load RT
+     */
+    public int getLimit(Node node) {
+        AdaptiveLimit adaptiveLimit = limits.get(node);
+        return adaptiveLimit == null ? (int) maxLimit : adaptiveLimit.getLimit();
+    }
+
+    /**
+     * @param node the node checked by the rule
+     * @return the no-load RT of the node, or 0 if there is no sample yet
+     */
+    public double getNoLoadRt(Node node) {
+        AdaptiveLimit adaptiveLimit = limits.get(node);
+        return adaptiveLimit == null ? 0 : adaptiveLimit.getNoLoadRt();
+    }
+
+    public double getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * The adaptive limit of a single node.
+     */
+    static class AdaptiveLimit {
+
+        private final double maxLimit;
+        private final long updateIntervalMs;
+
+        private final AtomicLong nextUpdateTime = new AtomicLong(0);
+
+        // The fields below are only written by the updating thread.
+        private final double[] rtSamples = new double[SAMPLE_WINDOW];
+        private int sampleIndex = 0;
+        private int updatesSinceProbe = 0;
+        private int probeUpdatesLeft = 0;
+        private volatile double limit;
+        private volatile double noLoadRt;
+        private volatile boolean probing;
+
+        AdaptiveLimit(double maxLimit, long updateIntervalMs) {
+            this.maxLimit = maxLimit;
+            this.updateIntervalMs = updateIntervalMs;
+            this.limit = maxLimit;
+        }
+
+        private void tryUpdateLimit(Node node, int inflight) {
+            long now = TimeUtil.currentTimeMillis();
+            long next = nextUpdateTime.get();
+            // Only one thread updates the limit in each interval.
+            if (now < next || !nextUpdateTime.compareAndSet(next, now + updateIntervalMs)) {
+                return;
+            }
+            updateLimit(node.avgRt(), inflight);
+        }
+
+        /**
+         * Adjust the limit with a new sample, which should only be called by one thread at a time.
+         *
+         * @param shortRt  average RT of the latest requests
+         * @param inflight current concurrency
+         */
+        void updateLimit(double shortRt, int inflight) {
+            if (shortRt <= 0) {
+                // No request completed recently.
+                return;
+            }
+            double lastNoLoadRt = noLoadRt;
+            rtSamples[sampleIndex] = shortRt;
+            sampleIndex = (sampleIndex + 1) % SAMPLE_WINDOW;
+            double minRt = shortRt;
+            for (double sample : rtSamples) {
+                if (sample > 0 && sample < minRt) {
+                    minRt = sample;
+                }
+            }
+            noLoadRt = minRt;
+            updatesSinceProbe++;
+
+            if (probeUpdatesLeft > 0) {
+                // The latest sample of the probe may still include the requests admitted before the probe,
+                // while the sample right after the probe covers the probing period.
+                probing = --probeUpdatesLeft > 0;
+                return;
+            }
+
+            double currentLimit = limit;
+            boolean saturated = inflight >= (int) currentLimit;
+            boolean drifted = lastNoLoadRt > 0 && shortRt > RT_TOLERANCE * lastNoLoadRt;
+            if ((saturated || drifted) && updatesSinceProbe >= SAMPLE_WINDOW) {
+                updatesSinceProbe = 0;
+                probeUpdatesLeft = PROBE_UPDATES;
+                probing = true;
+                return;
+            }
+
+            if (inflight < currentLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0d, RT_TOLERANCE * minRt / shortRt));
+            double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+            newLimit = currentLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING;
+            limit = Math.max(MIN_LIMIT, Math.min(maxLimit, newLimit));
+        }
+
+        int getLimit() {
+            double currentLimit = limit;
+            return (int) Math.max(MIN_LIMIT, probing ? currentLimit / 2 : currentLimit);
+        }
+
+        double getNoLoadRt() {
+            return noLoadRt;
+        }
+
+        boolean isProbing() {
+            return probing;
+        }
+    }
+}
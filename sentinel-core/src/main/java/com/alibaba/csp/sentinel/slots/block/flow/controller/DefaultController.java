@@ -15,6 +15,9 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.node.OccupyTimeoutProperty;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
@@ -47,6 +50,43 @@ public class DefaultController implements TrafficShapingController {
 
     @Override
     public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        return checkPass(node, acquireCount, prioritized, true);
+    }
+
+    /**
+     * Same as {@link #canPass(Node, int, boolean)}, but the prioritized request which occupied a token
+     * of the next window won't sleep before {@link PriorityWaitException} is thrown.
+     *
+     * @since 1.8.8
+     */
+    @Override
+    public long tryReserve(Node node, int acquireCount, boolean prioritized) {
+        return checkPass(node, acquireCount, prioritized, false) ? 0 : -1;
+    }
+
+    /**
+     * Check whether the request is within the threshold with the tokens already used on the node, which are
+     * read by the caller in advance (e.g. shared by several rules on the same node). If not, the request should
+     * be checked by {@link #canPass(Node, int, boolean)}, which may still pass it by occupying future tokens.
+     *
+     * @param usedTokens   current QPS or thread count (according to the grade) of the node
+     * @param acquireCount count of tokens to acquire
+     * @return true if the request is within the threshold
+     * @since 1.8.8
+     */
+    public boolean isWithinThreshold(int usedTokens, int acquireCount) {
+        return usedTokens + acquireCount <= count;
+    }
+
+    /**
+     * @return grade of the rule, see {@link RuleConstant#FLOW_GRADE_QPS} and {@link RuleConstant#FLOW_GRADE_THREAD}
+     * @since 1.8.8
+     */
+    public int getGrade() {
+        return grade;
+    }
+
+    private boolean checkPass(Node node, int acquireCount, boolean prioritized, boolean waitForOccupied) {
         int curCount = avgUsedTokens(node);
         if (curCount + acquireCount > count) {
             if (prioritized && grade == RuleConstant.FLOW_GRADE_QPS) {
@@ -57,7 +97,9 @@ public class DefaultController implements TrafficShapingController {
                 if (waitInMs < OccupyTimeoutProperty.getOccupyTimeout()) {
                     node.addWaitingRequest(currentTime + waitInMs, acquireCount);
                     node.addOccupiedPass(acquireCount);
-                    sleep(waitInMs);
+                    if (waitForOccupied) {
+                        DelayScheduler.sleep(TimeUnit.MILLISECONDS.toNanos(waitInMs));
+                    }
 
                     // PriorityWaitException indicates that the request will pass after waiting for {@link @waitInMs}.
                     throw new PriorityWaitException(waitInMs);
@@ -74,12 +116,4 @@ public class DefaultController implements TrafficShapingController {
         }
         return grade == RuleConstant.FLOW_GRADE_THREAD ? node.curThreadNum() : (int)(node.passQps());
     }
-
-    private void sleep(long timeMillis) {
-        try {
-            Thread.sleep(timeMillis);
-        } catch (InterruptedException e) {
-            // Ignore.
-        }
-    }
 }
@@ -17,8 +17,8 @@ package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.LockSupport;
 
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
 import com.alibaba.csp.sentinel.util.AssertUtil;
@@ -67,7 +67,7 @@ public class ThrottlingController implements TrafficShapingController {
         return canPass(node, acquireCount, false);
     }
 
-    private boolean checkPassUsingNanoSeconds(int acquireCount, double maxCountPerStat) {
+    private long reserveUsingNanoSeconds(int acquireCount, double maxCountPerStat) {
         final long maxQueueingTimeNs = maxQueueingTimeMs * MS_TO_NS_OFFSET;
         long currentTime = System.nanoTime();
         // Calculate the interval between every two requests.
@@ -79,30 +79,27 @@ public class ThrottlingController implements TrafficShapingController {
         if (expectedTime <= currentTime) {
             // Contention may exist here, but it's okay.
             latestPassedTime.set(currentTime);
-            return true;
+            return 0;
         } else {
             final long curNanos = System.nanoTime();
             // Calculate the time to wait.
             long waitTime = costTimeNs + latestPassedTime.get() - curNanos;
             if (waitTime > maxQueueingTimeNs) {
-                return false;
+                return -1;
             }
 
             long oldTime = latestPassedTime.addAndGet(costTimeNs);
             waitTime = oldTime - curNanos;
             if (waitTime > maxQueueingTimeNs) {
                 latestPassedTime.addAndGet(-costTimeNs);
-                return false;
+                return -1;
             }
             // in race condition waitTime may <= 0
-            if (waitTime > 0) {
-                sleepNanos(waitTime);
-            }
-            return true;
+            return Math.max(waitTime, 0);
         }
     }
 
-    private boolean checkPassUsingCachedMs(int acquireCount, double maxCountPerStat) {
+    private long reserveUsingCachedMs(int acquireCount, double maxCountPerStat) {
         long currentTime = TimeUtil.currentTimeMillis();
         // Calculate the interval between every two requests.
         long costTime = Math.round(1.0d * statDurationMs * acquireCount / maxCountPerStat);
@@ -113,55 +110,59 @@ public class ThrottlingController implements TrafficShapingController {
         if (expectedTime <= currentTime) {
             // Contention may exist here, but it's okay.
             latestPassedTime.set(currentTime);
-            return true;
+            return 0;
         } else {
             // Calculate the time to wait.
             long waitTime = costTime + latestPassedTime.get() - TimeUtil.currentTimeMillis();
             if (waitTime > maxQueueingTimeMs) {
-                return false;
+                return -1;
             }
 
             long oldTime = latestPassedTime.addAndGet(costTime);
             waitTime = oldTime - TimeUtil.currentTimeMillis();
             if (waitTime > maxQueueingTimeMs) {
                 latestPassedTime.addAndGet(-costTime);
-                return false;
+                return -1;
             }
             // in race condition waitTime may <= 0
-            if (waitTime > 0) {
-                sleepMs(waitTime);
-            }
-            return true;
+            return waitTime > 0 ? TimeUnit.MILLISECONDS.toNanos(waitTime) : 0;
         }
     }
 
     @Override
     public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        long waitTime = tryReserve(node, acquireCount, prioritized);
+        if (waitTime < 0) {
+            return false;
+        }
+        // The waiting thread is resumed by the shared delay scheduler rather than sleeping on its own.
+        DelayScheduler.sleep(waitTime);
+        return true;
+    }
+
+    /**
+     * Reserve the pass time of the request without sleeping, so that the caller could wait
+     * for the queueing time asynchronously.
+     *
+     * @return time to wait in nanoseconds, or -1 if the queueing time exceeds the max queueing time
+     * @since 1.8.8
+     */
+    @Override
+    public long tryReserve(Node node, int acquireCount, boolean prioritized) {
         // Pass when acquire count is less or equal than 0.
         if (acquireCount <= 0) {
-            return true;
+            return 0;
         }
         // Reject when count is less or equal than 0.
         // Otherwise, the costTime will be max of long and waitTime will overflow in some cases.
         if (count <= 0) {
-            return false;
+            return -1;
         }
         if (useNanoSeconds) {
-            return checkPassUsingNanoSeconds(acquireCount, this.count);
+            return reserveUsingNanoSeconds(acquireCount, this.count);
         } else {
-            return checkPassUsingCachedMs(acquireCount, this.count);
-        }
-    }
-
-    private void sleepMs(long ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
+            return reserveUsingCachedMs(acquireCount, this.count);
         }
     }
 
-    private void sleepNanos(long ns) {
-        LockSupport.parkNanos(ns);
-    }
-
 }
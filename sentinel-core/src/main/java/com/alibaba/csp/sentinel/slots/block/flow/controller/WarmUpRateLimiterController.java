@@ -15,8 +15,10 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.alibaba.csp.sentinel.concurrent.DelayScheduler;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -41,6 +43,22 @@ public class WarmUpRateLimiterController extends WarmUpController {
 
     @Override
     public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        long waitTime = tryReserve(node, acquireCount, prioritized);
+        if (waitTime < 0) {
+            return false;
+        }
+        return DelayScheduler.sleep(waitTime);
+    }
+
+    /**
+     * Reserve the pass time of the request without sleeping, so that the caller could wait
+     * for the queueing time asynchronously.
+     *
+     * @return time to wait in nanoseconds, or -1 if the queueing time exceeds the timeout
+     * @since 1.8.8
+     */
+    @Override
+    public long tryReserve(Node node, int acquireCount, boolean prioritized) {
         long previousQps = (long) node.previousPassQps();
         syncToken(previousQps);
 
@@ -62,27 +80,20 @@ public class WarmUpRateLimiterController extends WarmUpController {
 
         if (expectedTime <= currentTime) {
             latestPassedTime.set(currentTime);
-            return true;
+            return 0;
         } else {
             long waitTime = costTime + latestPassedTime.get() - currentTime;
             if (waitTime > timeoutInMs) {
-                return false;
+                return -1;
             } else {
                 long oldTime = latestPassedTime.addAndGet(costTime);
-                try {
-                    waitTime = oldTime - TimeUtil.currentTimeMillis();
-                    if (waitTime > timeoutInMs) {
-                        latestPassedTime.addAndGet(-costTime);
-                        return false;
-                    }
-                    if (waitTime > 0) {
-                        Thread.sleep(waitTime);
-                    }
-                    return true;
-                } catch (InterruptedException e) {
+                waitTime = oldTime - TimeUtil.currentTimeMillis();
+                if (waitTime > timeoutInMs) {
+                    latestPassedTime.addAndGet(-costTime);
+                    return -1;
                 }
+                return waitTime > 0 ? TimeUnit.MILLISECONDS.toNanos(waitTime) : 0;
             }
         }
-        return false;
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2023 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.tokenbucket;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>A lock-free token bucket with the same strict semantics as {@link StrictTokenBucket}: tokens are never
+ * consumed more than produced, even under contention.</p>
+ *
+ * <p>The token count and the next unit to produce tokens are packed into a single long, so refilling and
+ * consuming is done by one CAS instead of synchronizing on monitors. The low bits of the state hold the
+ * token count (just enough bits for {@code maxTokenNum}), and the high bits hold the index of the next unit
+ * (counted from the start time). The unit index is compared with wrap-around arithmetic, so that the
+ * bucket keeps working as long as it's not idle for more than 2^32 units.</p>
+ *
+ * @since 1.8.8
+ */
+public class LockFreeTokenBucket implements TokenBucket {
+
+    /**
+     * Number of tokens produced per unit of time
+     */
+    private final long unitProduceNum;
+
+    /**
+     * Maximum number of tokens stored in the bucket
+     */
+    private final long maxTokenNum;
+
+    private final long intervalInMs;
+    private final long startTime;
+
+    private final int tokenBits;
+    private final long tokenMask;
+
+    /**
+     * Packed state: (next unit to produce tokens) &lt;&lt; tokenBits | (number of tokens left in the bucket)
+     */
+    private final AtomicLong state;
+
+    public LockFreeTokenBucket(long unitProduceNum, long maxTokenNum, long intervalInMs) {
+        this(unitProduceNum, maxTokenNum, false, intervalInMs);
+    }
+
+    public LockFreeTokenBucket(long unitProduceNum, long maxTokenNum, boolean fullStart, long intervalInMs) {
+        AssertUtil.isTrue(unitProduceNum > 0 && intervalInMs > 0 && unitProduceNum < Long.MAX_VALUE,
+            "Illegal unitProduceNum or intervalInSeconds");
+        AssertUtil.isTrue(maxTokenNum > 0 && maxTokenNum <= Integer.MAX_VALUE, "Illegal maxTokenNum");
+        this.unitProduceNum = unitProduceNum;
+        this.maxTokenNum = maxTokenNum;
+        this.intervalInMs = intervalInMs;
+        this.startTime = TimeUtil.currentTimeMillis();
+        this.tokenBits = Long.SIZE - Long.numberOfLeadingZeros(maxTokenNum);
+        this.tokenMask = (1L << tokenBits) - 1;
+        // The token will be filled when the first request arrives (including the initial token) if not full start.
+        this.state = new AtomicLong(pack(0, fullStart ? maxTokenNum : 0));
+    }
+
+    @Override
+    public boolean tryConsume(long tokenNum) {
+        if (tokenNum <= 0) {
+            return true;
+        }
+        if (tokenNum > maxTokenNum) {
+            return false;
+        }
+        long currentUnit = unitOf(TimeUtil.currentTimeMillis());
+        for (;;) {
+            long current = state.get();
+            long refreshed = refresh(current, currentUnit);
+            long tokens = refreshed & tokenMask;
+            if (tokenNum > tokens) {
+                // Publish the produced tokens anyway, so that other threads don't need to calculate them again.
+                if (refreshed == current || state.compareAndSet(current, refreshed)) {
+                    return false;
+                }
+                continue;
+            }
+            if (state.compareAndSet(current, refreshed - tokenNum)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void refreshCurrentTokenNum(long currentTimestamp) {
+        long currentUnit = unitOf(currentTimestamp);
+        for (;;) {
+            long current = state.get();
+            long refreshed = refresh(current, currentUnit);
+            if (refreshed == current || state.compareAndSet(current, refreshed)) {
+                return;
+            }
+        }
+    }
+
+    public long refreshTokenAndGetCurrentTokenNum() {
+        refreshCurrentTokenNum(TimeUtil.currentTimeMillis());
+        return getCurrentTokenNum();
+    }
+
+    public long getCurrentTokenNum() {
+        return state.get() & tokenMask;
+    }
+
+    private long refresh(long current, long currentUnit) {
+        long nextUnit = current >>> tokenBits;
+        // Difference of the unit indexes within the bits of the state, sign-extended.
+        long elapsedUnits = ((currentUnit - nextUnit) << tokenBits) >> tokenBits;
+        if (elapsedUnits < 0) {
+            return current;
+        }
+        long units = elapsedUnits + 1;
+        long tokens = current & tokenMask;
+        if (units > maxTokenNum / unitProduceNum) {
+            tokens = maxTokenNum;
+        } else {
+            tokens = Math.min(maxTokenNum, tokens + units * unitProduceNum);
+        }
+        return pack(currentUnit + 1, tokens);
+    }
+
+    private long unitOf(long timestamp) {
+        return Math.floorDiv(timestamp - startTime, intervalInMs);
+    }
+
+    private long pack(long nextUnit, long tokens) {
+        return (nextUnit << tokenBits) | tokens;
+    }
+}
@@ -15,8 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slots.clusterbuilder;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
@@ -63,11 +63,11 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * </p>
      * <p>
      * The longer the application runs, the more stable this mapping will
-     * become. so we don't concurrent map but a lock. as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the time.
+     * become. Lookups never lock, while new cluster nodes are put under a lock
+     * in O(1), so registering lots of resources at startup won't copy the map.
      * </p>
      */
-    private static volatile Map<ResourceWrapper, ClusterNode> clusterNodeMap = new HashMap<>();
+    private static final Map<ResourceWrapper, ClusterNode> clusterNodeMap = new ConcurrentHashMap<>();
 
     private static final Object lock = new Object();
 
@@ -81,12 +81,9 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
             synchronized (lock) {
                 if (clusterNode == null) {
                     // Create the cluster node.
-                    clusterNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
-                    HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
-                    newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
-
-                    clusterNodeMap = newMap;
+                    ClusterNode newNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
+                    clusterNodeMap.put(node.getId(), newNode);
+                    clusterNode = newNode;
                 }
             }
         }
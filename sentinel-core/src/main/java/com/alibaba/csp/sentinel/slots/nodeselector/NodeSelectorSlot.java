@@ -25,8 +25,8 @@ import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.spi.Spi;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * </p>
@@ -130,7 +130,13 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
     /**
      * {@link DefaultNode}s of the same resource in different context.
      */
-    private volatile Map<String, DefaultNode> map = new HashMap<String, DefaultNode>(10);
+    private final Map<String, DefaultNode> map = new ConcurrentHashMap<String, DefaultNode>(10);
+
+    /**
+     * {@link DefaultNode} of the first context which entered the resource. Most resources are
+     * entered in a single context, so the node could be got without looking up the map.
+     */
+    private volatile ContextNode firstContextNode;
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, boolean prioritized, Object... args)
@@ -153,22 +159,24 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
          * The answer is all {@link DefaultNode}s with same resource name share one
          * {@link ClusterNode}. See {@link ClusterBuilderSlot} for detail.
          */
-        DefaultNode node = map.get(context.getName());
+        ContextNode first = firstContextNode;
+        DefaultNode node = first != null && first.contextName.equals(context.getName())
+            ? first.node : map.get(context.getName());
         if (node == null) {
             synchronized (this) {
                 node = map.get(context.getName());
                 if (node == null) {
                     node = new DefaultNode(resourceWrapper, null);
-                    HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size());
-                    cacheMap.putAll(map);
-                    cacheMap.put(context.getName(), node);
-                    map = cacheMap;
+                    map.put(context.getName(), node);
                     // Build invocation tree
                     ((DefaultNode) context.getLastNode()).addChild(node);
                 }
 
             }
         }
+        if (first == null) {
+            firstContextNode = new ContextNode(context.getName(), node);
+        }
 
         context.setCurNode(node);
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
@@ -178,4 +186,14 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
     }
+
+    private static final class ContextNode {
+        private final String contextName;
+        private final DefaultNode node;
+
+        ContextNode(String contextName, DefaultNode node) {
+            this.contextName = contextName;
+            this.node = node;
+        }
+    }
 }
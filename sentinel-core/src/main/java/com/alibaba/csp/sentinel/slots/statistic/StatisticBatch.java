@@ -0,0 +1,219 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.IntervalProperty;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.SampleCountProperty;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Thread-local buffer of statistics, which is used by {@link StatisticSlot} when
+ * {@link SentinelConfig#STATISTIC_BATCH_SIZE} is set. Pass counts, success counts and response time
+ * of each thread are accumulated locally and flushed to the nodes in batches, so that hot resources won't
+ * make all cores contend on the same counters for every invocation.</p>
+ *
+ * <p>A batch is flushed when it contains {@code batchSize} events, or when the first event of a new
+ * sliding window bucket is recorded. Buffered counts are always added to the bucket they were recorded in
+ * (see {@link Node#addPassRequest(int, long)}), rather than the current one. Batches of idle threads are
+ * flushed by a background task every half bucket, so the nodes may lag behind at most {@code batchSize}
+ * events per thread (or one bucket for idle threads), and flow checking will see a slightly stale view
+ * within this bound. Thread counts, block counts and exception counts are always recorded directly.</p>
+ *
+ * <p>The RT of a batch is recorded as the min RT plus the sum of the other RTs, which keeps the total RT,
+ * min RT and average RT exact, but not the individual samples. So RT should not be batched when the
+ * RT histogram is enabled.</p>
+ *
+ * @since 1.8.8
+ */
+public final class StatisticBatch {
+
+    /**
+     * Max amount of distinct nodes in a batch, which covers the default node, the origin node
+     * and the global inbound node of a few nested resources.
+     */
+    private static final int MAX_NODES = 8;
+
+    private static final Queue<StatisticBatch> BATCHES = new ConcurrentLinkedQueue<>();
+
+    private static final ThreadLocal<StatisticBatch> LOCAL_BATCH = new ThreadLocal<StatisticBatch>() {
+        @Override
+        protected StatisticBatch initialValue() {
+            StatisticBatch batch = new StatisticBatch(Thread.currentThread());
+            BATCHES.offer(batch);
+            return batch;
+        }
+    };
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService IDLE_FLUSHER = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("sentinel-statistic-batch-flush-task", true));
+
+    static {
+        long period = Math.max(windowLength() / 2, 1);
+        IDLE_FLUSHER.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flushIdleBatches();
+                } catch (Throwable e) {
+                    RecordLog.warn("[StatisticBatch] Failed to flush idle statistic batches", e);
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private final Thread owner;
+
+    private final Node[] nodes = new Node[MAX_NODES];
+    private final long[] passCounts = new long[MAX_NODES];
+    private final long[] successCounts = new long[MAX_NODES];
+    private final long[] rtSums = new long[MAX_NODES];
+    private final long[] rtCounts = new long[MAX_NODES];
+    private final long[] minRts = new long[MAX_NODES];
+
+    private int size = 0;
+    private int events = 0;
+    private long windowStart = -1;
+    /**
+     * Whether any event is recorded since last check of the idle flush task.
+     */
+    private boolean touched = false;
+
+    static void addPass(Node node, int count, int batchSize) {
+        StatisticBatch batch = LOCAL_BATCH.get();
+        // The lock is only contended by the idle flush task, which rarely happens.
+        synchronized (batch) {
+            int i = batch.slotOf(node);
+            batch.passCounts[i] += count;
+            batch.recorded(batchSize);
+        }
+    }
+
+    static void addRtAndSuccess(Node node, long rt, int successCount, int batchSize) {
+        StatisticBatch batch = LOCAL_BATCH.get();
+        synchronized (batch) {
+            int i = batch.slotOf(node);
+            batch.successCounts[i] += successCount;
+            batch.rtSums[i] += rt;
+            if (batch.rtCounts[i]++ == 0 || rt < batch.minRts[i]) {
+                batch.minRts[i] = rt;
+            }
+            batch.recorded(batchSize);
+        }
+    }
+
+    /**
+     * Flush the statistics buffered by current thread to the nodes.
+     */
+    public static void flush() {
+        StatisticBatch batch = LOCAL_BATCH.get();
+        synchronized (batch) {
+            batch.flushAll();
+        }
+    }
+
+    /**
+     * Flush the batches which have no event since last run, and drop the batches of terminated threads.
+     */
+    static void flushIdleBatches() {
+        for (Iterator<StatisticBatch> it = BATCHES.iterator(); it.hasNext(); ) {
+            StatisticBatch batch = it.next();
+            boolean alive = batch.owner.isAlive();
+            synchronized (batch) {
+                if (batch.touched && alive) {
+                    batch.touched = false;
+                } else {
+                    batch.flushAll();
+                }
+            }
+            if (!alive) {
+                it.remove();
+            }
+        }
+    }
+
+    private static long windowLength() {
+        return Math.max(IntervalProperty.INTERVAL / SampleCountProperty.SAMPLE_COUNT, 1);
+    }
+
+    private int slotOf(Node node) {
+        long now = TimeUtil.currentTimeMillis();
+        long currentWindowStart = now - now % windowLength();
+        if (currentWindowStart != windowStart) {
+            // Counts of the previous bucket should not be kept till the end of the current one.
+            flushAll();
+            windowStart = currentWindowStart;
+        }
+        touched = true;
+        for (int i = 0; i < size; i++) {
+            if (nodes[i] == node) {
+                return i;
+            }
+        }
+        if (size == MAX_NODES) {
+            flushAll();
+        }
+        nodes[size] = node;
+        return size++;
+    }
+
+    private void recorded(int batchSize) {
+        if (++events >= batchSize) {
+            flushAll();
+        }
+    }
+
+    private void flushAll() {
+        // All buffered events are recorded in the window starting at {@code windowStart}.
+        long time = windowStart;
+        for (int i = 0; i < size; i++) {
+            Node node = nodes[i];
+            if (passCounts[i] > 0) {
+                node.addPassRequest((int)passCounts[i], time);
+            }
+            if (rtCounts[i] > 0) {
+                // Record the min RT separately, so that the min RT of the bucket is kept exact.
+                // The rest (sum of the other RTs) is never less than the min RT.
+                node.addRtAndSuccess(minRts[i], (int)successCounts[i], time);
+                if (rtCounts[i] > 1) {
+                    node.addRtAndSuccess(rtSums[i] - minRts[i], 0, time);
+                }
+            }
+            nodes[i] = null;
+            passCounts[i] = 0;
+            successCounts[i] = 0;
+            rtSums[i] = 0;
+            rtCounts[i] = 0;
+        }
+        size = 0;
+        events = 0;
+    }
+
+    private StatisticBatch(Thread owner) {
+        this.owner = owner;
+    }
+}
@@ -15,7 +15,7 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic;
 
-import java.util.Collection;
+import java.util.List;
 
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotEntryCallback;
@@ -23,8 +23,11 @@ import com.alibaba.csp.sentinel.slotchain.ProcessorSlotExitCallback;
 import com.alibaba.csp.sentinel.slots.block.flow.PriorityWaitException;
 import com.alibaba.csp.sentinel.spi.Spi;
 import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
@@ -51,6 +54,16 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 @Spi(order = Constants.ORDER_STATISTIC_SLOT)
 public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
+    /**
+     * Pass and success statistics are recorded in thread-local batches of this size
+     * if it's greater than 1, see {@link StatisticBatch}.
+     */
+    private final int batchSize = SentinelConfig.statisticBatchSize();
+    /**
+     * RT is not batched when the RT histogram is enabled, which needs every single sample.
+     */
+    private final boolean batchRt = batchSize > 1 && !SentinelConfig.statisticRtHistogramEnabled();
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
@@ -60,23 +73,24 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
             // Request passed, add thread count and pass count.
             node.increaseThreadNum();
-            node.addPassRequest(count);
+            addPassRequest(node, count);
 
             if (context.getCurEntry().getOriginNode() != null) {
                 // Add count for origin node.
                 context.getCurEntry().getOriginNode().increaseThreadNum();
-                context.getCurEntry().getOriginNode().addPassRequest(count);
+                addPassRequest(context.getCurEntry().getOriginNode(), count);
             }
 
             if (resourceWrapper.getEntryType() == EntryType.IN) {
                 // Add count for global inbound entry node for global statistics.
                 Constants.ENTRY_NODE.increaseThreadNum();
-                Constants.ENTRY_NODE.addPassRequest(count);
+                addPassRequest(Constants.ENTRY_NODE, count);
             }
 
             // Handle pass event with registered entry callback handlers.
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onPass(context, resourceWrapper, node, count, args);
+            List<ProcessorSlotEntryCallback<DefaultNode>> entryCallbacks = StatisticSlotCallbackRegistry.entryCallbackList();
+            for (int i = 0; i < entryCallbacks.size(); i++) {
+                entryCallbacks.get(i).onPass(context, resourceWrapper, node, count, args);
             }
         } catch (PriorityWaitException ex) {
             node.increaseThreadNum();
@@ -90,8 +104,9 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
                 Constants.ENTRY_NODE.increaseThreadNum();
             }
             // Handle pass event with registered entry callback handlers.
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onPass(context, resourceWrapper, node, count, args);
+            List<ProcessorSlotEntryCallback<DefaultNode>> entryCallbacks = StatisticSlotCallbackRegistry.entryCallbackList();
+            for (int i = 0; i < entryCallbacks.size(); i++) {
+                entryCallbacks.get(i).onPass(context, resourceWrapper, node, count, args);
             }
         } catch (BlockException e) {
             // Blocked, set block exception to current entry.
@@ -109,8 +124,9 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             }
 
             // Handle block event with registered entry callback handlers.
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onBlocked(e, context, resourceWrapper, node, count, args);
+            List<ProcessorSlotEntryCallback<DefaultNode>> entryCallbacks = StatisticSlotCallbackRegistry.entryCallbackList();
+            for (int i = 0; i < entryCallbacks.size(); i++) {
+                entryCallbacks.get(i).onBlocked(e, context, resourceWrapper, node, count, args);
             }
 
             throw e;
@@ -126,7 +142,22 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         Node node = context.getCurNode();
 
-        if (context.getCurEntry().getBlockError() == null) {
+        if (isBlockedAfterEntry(context.getCurEntry())) {
+            // Blocked by a deferred check, which is handled as blocked by the exit callbacks and the
+            // following slots (e.g. the circuit breakers won't take it as a completed request).
+            BlockException e = ((AsyncEntry) context.getCurEntry()).getDeferredBlockError();
+            context.getCurEntry().setBlockError(e);
+            recordBlockedAfterEntryFor(node, count);
+            recordBlockedAfterEntryFor(context.getCurEntry().getOriginNode(), count);
+            if (resourceWrapper.getEntryType() == EntryType.IN) {
+                recordBlockedAfterEntryFor(Constants.ENTRY_NODE, count);
+            }
+
+            List<ProcessorSlotEntryCallback<DefaultNode>> entryCallbacks = StatisticSlotCallbackRegistry.entryCallbackList();
+            for (int i = 0; i < entryCallbacks.size(); i++) {
+                entryCallbacks.get(i).onBlocked(e, context, resourceWrapper, (DefaultNode) node, count, args);
+            }
+        } else if (context.getCurEntry().getBlockError() == null) {
             // Calculate response time (use completeStatTime as the time of completion).
             long completeStatTime = TimeUtil.currentTimeMillis();
             context.getCurEntry().setCompleteTimestamp(completeStatTime);
@@ -143,20 +174,50 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         }
 
         // Handle exit event with registered exit callback handlers.
-        Collection<ProcessorSlotExitCallback> exitCallbacks = StatisticSlotCallbackRegistry.getExitCallbacks();
-        for (ProcessorSlotExitCallback handler : exitCallbacks) {
-            handler.onExit(context, resourceWrapper, count, args);
+        List<ProcessorSlotExitCallback> exitCallbacks = StatisticSlotCallbackRegistry.exitCallbackList();
+        for (int i = 0; i < exitCallbacks.size(); i++) {
+            exitCallbacks.get(i).onExit(context, resourceWrapper, count, args);
         }
 
         // fix bug https://github.com/alibaba/Sentinel/issues/2374
         fireExit(context, resourceWrapper, count, args);
     }
 
+    /**
+     * Whether the request has been blocked by a deferred check after its entry was created.
+     */
+    private static boolean isBlockedAfterEntry(Entry entry) {
+        return entry instanceof AsyncEntry && entry.getBlockError() == null
+            && ((AsyncEntry) entry).getDeferredBlockError() != null;
+    }
+
+    private static void recordBlockedAfterEntryFor(Node node, int count) {
+        if (node == null) {
+            return;
+        }
+        // The pass counted when the entry was created is kept, as it may be in a past bucket
+        // (or a pending batch), and taking it back from the current bucket would skew the metrics.
+        node.increaseBlockQps(count);
+        node.decreaseThreadNum();
+    }
+
+    private void addPassRequest(Node node, int count) {
+        if (batchSize > 1) {
+            StatisticBatch.addPass(node, count, batchSize);
+        } else {
+            node.addPassRequest(count);
+        }
+    }
+
     private void recordCompleteFor(Node node, int batchCount, long rt, Throwable error) {
         if (node == null) {
             return;
         }
-        node.addRtAndSuccess(rt, batchCount);
+        if (batchRt) {
+            StatisticBatch.addRtAndSuccess(node, rt, batchCount, batchSize);
+        } else {
+            node.addRtAndSuccess(rt, batchCount);
+        }
         node.decreaseThreadNum();
 
         if (error != null && !(error instanceof BlockException)) {
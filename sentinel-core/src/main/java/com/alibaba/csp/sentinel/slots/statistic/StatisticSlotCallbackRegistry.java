@@ -15,7 +15,10 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -43,42 +46,78 @@ public final class StatisticSlotCallbackRegistry {
     private static final Map<String, ProcessorSlotExitCallback> exitCallbackMap
         = new ConcurrentHashMap<String, ProcessorSlotExitCallback>();
 
-    public static void clearEntryCallback() {
+    /**
+     * Snapshots of the callbacks, rebuilt on each modification, so that iterating them
+     * in {@link StatisticSlot} won't create iterators of the maps.
+     */
+    private static volatile List<ProcessorSlotEntryCallback<DefaultNode>> entryCallbacks = Collections.emptyList();
+    private static volatile List<ProcessorSlotExitCallback> exitCallbacks = Collections.emptyList();
+
+    public static synchronized void clearEntryCallback() {
         entryCallbackMap.clear();
+        entryCallbacks = Collections.emptyList();
     }
 
-    public static void clearExitCallback() {
+    public static synchronized void clearExitCallback() {
         exitCallbackMap.clear();
+        exitCallbacks = Collections.emptyList();
     }
 
-    public static void addEntryCallback(String key, ProcessorSlotEntryCallback<DefaultNode> callback) {
+    public static synchronized void addEntryCallback(String key, ProcessorSlotEntryCallback<DefaultNode> callback) {
         entryCallbackMap.put(key, callback);
+        entryCallbacks = snapshot(entryCallbackMap);
     }
 
-    public static void addExitCallback(String key, ProcessorSlotExitCallback callback) {
+    public static synchronized void addExitCallback(String key, ProcessorSlotExitCallback callback) {
         exitCallbackMap.put(key, callback);
+        exitCallbacks = snapshot(exitCallbackMap);
     }
 
-    public static ProcessorSlotEntryCallback<DefaultNode> removeEntryCallback(String key) {
+    public static synchronized ProcessorSlotEntryCallback<DefaultNode> removeEntryCallback(String key) {
         if (key == null) {
             return null;
         }
-        return entryCallbackMap.remove(key);
+        ProcessorSlotEntryCallback<DefaultNode> callback = entryCallbackMap.remove(key);
+        entryCallbacks = snapshot(entryCallbackMap);
+        return callback;
     }
 
-    public static ProcessorSlotExitCallback removeExitCallback(String key) {
+    public static synchronized ProcessorSlotExitCallback removeExitCallback(String key) {
         if (key == null) {
             return null;
         }
-        return exitCallbackMap.remove(key);
+        ProcessorSlotExitCallback callback = exitCallbackMap.remove(key);
+        exitCallbacks = snapshot(exitCallbackMap);
+        return callback;
     }
 
     public static Collection<ProcessorSlotEntryCallback<DefaultNode>> getEntryCallbacks() {
-        return entryCallbackMap.values();
+        return entryCallbacks;
     }
 
     public static Collection<ProcessorSlotExitCallback> getExitCallbacks() {
-        return exitCallbackMap.values();
+        return exitCallbacks;
+    }
+
+    /**
+     * @return snapshot of the entry callbacks, which could be iterated by index
+     */
+    static List<ProcessorSlotEntryCallback<DefaultNode>> entryCallbackList() {
+        return entryCallbacks;
+    }
+
+    /**
+     * @return snapshot of the exit callbacks, which could be iterated by index
+     */
+    static List<ProcessorSlotExitCallback> exitCallbackList() {
+        return exitCallbacks;
+    }
+
+    private static <T> List<T> snapshot(Map<String, T> callbackMap) {
+        if (callbackMap.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<T>(callbackMap.values()));
     }
 
     private StatisticSlotCallbackRegistry() {}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Multi-resolution sliding windows, where each level is a {@link LeapArray} with coarser buckets
+ * than the previous level (e.g. 60 one-minute buckets for the last hour, then 24 one-hour buckets
+ * for the last day). Data is only written to the finest level. Once a bucket of a level is finished,
+ * it's rolled (merged) into the bucket of the next level, so the coarser levels hold long intervals
+ * without keeping fine buckets for the whole interval.</p>
+ *
+ * <p>A finished bucket is rolled into the next level by the first writer of the next bucket. Until then
+ * it's the "pending" bucket of its level, which is still counted when reading the coarser levels.
+ * Writes that race with the rolling of their bucket may be missing from the coarser levels.</p>
+ *
+ * @param <T> type of the bucket
+ * @since 1.8.8
+ */
+public abstract class CascadingWindow<T> {
+
+    private final LeapArray<T>[] levels;
+
+    /**
+     * Window start of the latest written bucket of each level (except the last one)
+     * which has not been rolled into the next level.
+     */
+    private final AtomicLong[] pendingStarts;
+
+    /**
+     * @param sampleCounts  bucket count of each level, from the finest level to the coarsest one
+     * @param intervalsInMs time span of each level in milliseconds, the bucket length of each level
+     *                      should be a multiple of the bucket length of the previous level
+     */
+    @SuppressWarnings("unchecked")
+    protected CascadingWindow(int[] sampleCounts, int[] intervalsInMs) {
+        AssertUtil.isTrue(sampleCounts.length > 0 && sampleCounts.length == intervalsInMs.length,
+            "levels of sample counts and intervals should match");
+        this.levels = new LeapArray[sampleCounts.length];
+        this.pendingStarts = new AtomicLong[sampleCounts.length - 1];
+        for (int i = 0; i < sampleCounts.length; i++) {
+            levels[i] = new LevelLeapArray(sampleCounts[i], intervalsInMs[i]);
+            if (i > 0) {
+                AssertUtil.isTrue(levels[i].windowLengthInMs % levels[i - 1].windowLengthInMs == 0,
+                    "bucket length of a level should be a multiple of the previous one");
+            }
+            if (i < pendingStarts.length) {
+                pendingStarts[i] = new AtomicLong(-1);
+            }
+        }
+    }
+
+    /**
+     * Create a new empty bucket.
+     *
+     * @param timeMillis start time of the bucket
+     * @return the new bucket
+     */
+    protected abstract T newEmptyBucket(long timeMillis);
+
+    /**
+     * Reset the data of the bucket.
+     *
+     * @param bucket the bucket to reset
+     */
+    protected abstract void resetBucket(T bucket);
+
+    /**
+     * Merge a finished bucket into a bucket of the next level.
+     *
+     * @param from the finished bucket
+     * @param to   the bucket of the next level
+     */
+    protected abstract void merge(T from, T to);
+
+    /**
+     * Get the bucket of the finest level at given time for writing.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return the bucket of the finest level
+     */
+    public T currentBucket(long timeMillis) {
+        rollIfNeeded(0, timeMillis);
+        return levels[0].currentWindow(timeMillis).value();
+    }
+
+    private void rollIfNeeded(int level, long timeMillis) {
+        if (level >= pendingStarts.length) {
+            return;
+        }
+        LeapArray<T> array = levels[level];
+        long windowStart = timeMillis - timeMillis % array.windowLengthInMs;
+        AtomicLong pending = pendingStarts[level];
+        long oldStart = pending.get();
+        if (oldStart >= windowStart || !pending.compareAndSet(oldStart, windowStart)) {
+            return;
+        }
+        if (oldStart < 0) {
+            return;
+        }
+        T finished = array.getWindowValue(oldStart);
+        if (finished != null) {
+            rollIfNeeded(level + 1, oldStart);
+            merge(finished, levels[level + 1].currentWindow(oldStart).value());
+        }
+    }
+
+    /**
+     * Get all valid buckets covering the interval of given level, including pending buckets
+     * of finer levels which have not been rolled into this level yet.
+     *
+     * @param level      the level index
+     * @param timeMillis current timestamp in milliseconds
+     * @return valid buckets of the level
+     */
+    public List<T> values(int level, long timeMillis) {
+        LeapArray<T> array = levels[level];
+        List<T> result = new ArrayList<>(array.values(timeMillis));
+        for (int i = 0; i < level; i++) {
+            long start = pendingStarts[i].get();
+            if (start < 0 || timeMillis - start >= array.intervalInMs) {
+                continue;
+            }
+            T pending = levels[i].getWindowValue(start);
+            if (pending != null) {
+                result.add(pending);
+            }
+        }
+        return result;
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public int getIntervalInMs(int level) {
+        return levels[level].getIntervalInMs();
+    }
+
+    private final class LevelLeapArray extends LeapArray<T> {
+
+        LevelLeapArray(int sampleCount, int intervalInMs) {
+            super(sampleCount, intervalInMs);
+        }
+
+        @Override
+        public T newEmptyBucket(long timeMillis) {
+            return CascadingWindow.this.newEmptyBucket(timeMillis);
+        }
+
+        @Override
+        protected WindowWrap<T> resetWindowTo(WindowWrap<T> windowWrap, long startTime) {
+            windowWrap.resetTo(startTime);
+            resetBucket(windowWrap.value());
+            return windowWrap;
+        }
+    }
+}
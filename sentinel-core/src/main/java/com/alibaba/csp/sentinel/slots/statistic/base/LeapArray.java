@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -52,6 +53,11 @@ public abstract class LeapArray<T> {
      */
     private final ReentrantLock updateLock = new ReentrantLock();
 
+    /**
+     * Whether deprecated buckets are replaced via CAS instead of being reset under the update lock.
+     */
+    private final boolean lockFreeRotation;
+
     /**
      * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
      *
@@ -59,6 +65,18 @@ public abstract class LeapArray<T> {
      * @param intervalInMs the total time interval of this {@link LeapArray} in milliseconds
      */
     public LeapArray(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, SentinelConfig.statisticLockFreeRotation());
+    }
+
+    /**
+     * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
+     *
+     * @param sampleCount      bucket count of the sliding window
+     * @param intervalInMs     the total time interval of this {@link LeapArray} in milliseconds
+     * @param lockFreeRotation whether deprecated buckets should be rotated without the update lock
+     * @since 1.8.8
+     */
+    public LeapArray(int sampleCount, int intervalInMs, boolean lockFreeRotation) {
         AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
         AssertUtil.isTrue(intervalInMs > 0, "total time interval of the sliding window should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
@@ -67,6 +85,7 @@ public abstract class LeapArray<T> {
         this.intervalInMs = intervalInMs;
         this.intervalInSecond = intervalInMs / 1000.0;
         this.sampleCount = sampleCount;
+        this.lockFreeRotation = lockFreeRotation;
 
         this.array = new AtomicReferenceArray<>(sampleCount);
     }
@@ -91,6 +110,10 @@ public abstract class LeapArray<T> {
     /**
      * Reset given bucket to provided start time and reset the value.
      *
+     * <p>In lock-free rotation mode, the given bucket is a new one which is not visible to other threads yet,
+     * and it may be discarded if another thread rotates the bucket first. So the implementation should only
+     * update the given bucket, without other side effects.</p>
+     *
      * @param startTime  the start time of the bucket in milliseconds
      * @param windowWrap current bucket
      * @return new clean bucket at given start time
@@ -148,7 +171,7 @@ public abstract class LeapArray<T> {
                 if (array.compareAndSet(idx, null, window)) {
                     // Successfully updated, return the created bucket.
                     return window;
-                } else {
+                } else if (!lockFreeRotation) {
                     // Contention failed, the thread will yield its time slice to wait for bucket available.
                     Thread.yield();
                 }
@@ -182,8 +205,21 @@ public abstract class LeapArray<T> {
                  *
                  * The update lock is conditional (tiny scope) and will take effect only when
                  * bucket is deprecated, so in most cases it won't lead to performance loss.
+                 *
+                 * In lock-free rotation mode the deprecated bucket is never reset in place. Instead, a
+                 * clean bucket is created, reset by {@link #resetWindowTo} (so that the extra logic of
+                 * subclasses still applies) before it is published, and swapped in via a CAS operation
+                 * on the circular array, so exactly one thread wins the rotation while others simply
+                 * re-read the winner's bucket.
                  */
-                if (updateLock.tryLock()) {
+                if (lockFreeRotation) {
+                    WindowWrap<T> window = resetWindowTo(
+                        new WindowWrap<T>(windowLengthInMs, old.windowStart(), newEmptyBucket(timeMillis)), windowStart);
+                    if (array.compareAndSet(idx, old, window)) {
+                        return window;
+                    }
+                    // Contention failed, the bucket has been rotated by another thread, so just re-read it.
+                } else if (updateLock.tryLock()) {
                     try {
                         // Successfully get the update lock, now we reset the bucket.
                         return resetWindowTo(old, windowStart);
@@ -380,6 +416,16 @@ public abstract class LeapArray<T> {
         return sampleCount;
     }
 
+    /**
+     * Check whether deprecated buckets are rotated without the update lock.
+     *
+     * @return true if lock-free rotation is enabled, otherwise false
+     * @since 1.8.8
+     */
+    public boolean isLockFreeRotation() {
+        return lockFreeRotation;
+    }
+
     /**
      * Get total interval length of the sliding window in milliseconds.
      *
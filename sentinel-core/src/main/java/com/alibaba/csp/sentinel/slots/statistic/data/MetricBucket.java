@@ -32,20 +32,34 @@ public class MetricBucket {
     private volatile long minRt;
 
     public MetricBucket() {
-        MetricEvent[] events = MetricEvent.values();
-        this.counters = new LongAdder[events.length];
-        for (MetricEvent event : events) {
-            counters[event.ordinal()] = new LongAdder();
+        this(true);
+    }
+
+    /**
+     * Constructor for sub-classes that keep the event counters in their own storage.
+     * Sub-classes should override {@link #get(MetricEvent)}, {@link #add(MetricEvent, long)}
+     * and {@link #reset()}.
+     *
+     * @since 1.8.8
+     */
+    protected MetricBucket(boolean withAdders) {
+        if (withAdders) {
+            MetricEvent[] events = MetricEvent.values();
+            this.counters = new LongAdder[events.length];
+            for (MetricEvent event : events) {
+                counters[event.ordinal()] = new LongAdder();
+            }
+        } else {
+            this.counters = null;
         }
         initMinRt();
     }
 
     public MetricBucket reset(MetricBucket bucket) {
+        reset();
         for (MetricEvent event : MetricEvent.values()) {
-            counters[event.ordinal()].reset();
-            counters[event.ordinal()].add(bucket.get(event));
+            add(event, bucket.get(event));
         }
-        initMinRt();
         return this;
     }
 
@@ -59,8 +73,10 @@ public class MetricBucket {
      * @return new metric bucket in initial state
      */
     public MetricBucket reset() {
-        for (MetricEvent event : MetricEvent.values()) {
-            counters[event.ordinal()].reset();
+        if (counters != null) {
+            for (MetricEvent event : MetricEvent.values()) {
+                counters[event.ordinal()].reset();
+            }
         }
         initMinRt();
         return this;
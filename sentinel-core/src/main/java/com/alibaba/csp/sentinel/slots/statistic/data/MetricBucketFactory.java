@@ -0,0 +1,55 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * Creates the {@link MetricBucket} implementation selected by {@link SentinelConfig#STATISTIC_BUCKET_TYPE}.
+ * The bucket type is resolved only once, so all sliding windows share the same implementation.
+ *
+ * @since 1.8.8
+ */
+public final class MetricBucketFactory {
+
+    private static final boolean STRIPED = SentinelConfig.STATISTIC_BUCKET_TYPE_STRIPED.equals(
+        SentinelConfig.statisticBucketType());
+    private static final boolean STRIPE_PADDING = SentinelConfig.statisticBucketStripePadding();
+    private static final int STRIPES = StripedMetricBucket.stripeCountFor(SentinelConfig.statisticBucketStripes(),
+        STRIPE_PADDING);
+
+    static {
+        if (STRIPED) {
+            RecordLog.info("[MetricBucketFactory] Using striped metric bucket, stripes: {}, padded: {}", STRIPES,
+                STRIPE_PADDING);
+        }
+    }
+
+    /**
+     * Create a new empty metric bucket.
+     *
+     * @return a new empty metric bucket
+     */
+    public static MetricBucket newBucket() {
+        if (STRIPED) {
+            return new StripedMetricBucket(STRIPES, STRIPE_PADDING);
+        }
+        return new MetricBucket();
+    }
+
+    private MetricBucketFactory() {}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A compact and mergeable histogram of response time (in milliseconds), with log-linear buckets
+ * in the style of HdrHistogram: values below {@code 16} have their own buckets, and every power-of-two
+ * range above is split into {@code 8} linear buckets, so the relative error is at most 12.5%. Values
+ * above the highest trackable value are recorded as the highest value.</p>
+ *
+ * <p>The bucket layout only depends on the value, so histograms could be merged bucket by bucket.
+ * With the default max RT (5000 ms), a histogram costs 82 counters.</p>
+ *
+ * @since 1.8.8
+ */
+public class RtHistogram {
+
+    private static final int LINEAR_BITS = 4;
+    private static final int LINEAR_COUNT = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+
+    /**
+     * @param highestTrackableValue the highest value to track, e.g. {@code SentinelConfig.statisticMaxRt()}
+     */
+    public RtHistogram(long highestTrackableValue) {
+        AssertUtil.isTrue(highestTrackableValue > 0, "highestTrackableValue should be positive");
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketIndex(highestTrackableValue) + 1);
+    }
+
+    /**
+     * Get the index of the bucket which the value falls into.
+     *
+     * @param value a non-negative value
+     * @return index of the bucket
+     */
+    public static int bucketIndex(long value) {
+        if (value < LINEAR_COUNT) {
+            return (int) Math.max(value, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return LINEAR_COUNT + (exponent - LINEAR_BITS) * SUB_BUCKET_COUNT
+            + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * Get the highest value which falls into the bucket.
+     *
+     * @param index index of the bucket
+     * @return the highest value of the bucket
+     */
+    public static long highestValueOf(int index) {
+        if (index < LINEAR_COUNT) {
+            return index;
+        }
+        int offset = index - LINEAR_COUNT;
+        int shift = offset / SUB_BUCKET_COUNT + LINEAR_BITS - SUB_BUCKET_BITS;
+        long lowest = (long) (SUB_BUCKET_COUNT + offset % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Get the value at given percentile of the merged counts (see {@link #mergeTo(long[])}).
+     *
+     * @param counts     counts of each bucket
+     * @param percentile the percentile in (0, 100]
+     * @return the highest value of the bucket where the percentile falls, or 0 if there is no value
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        double p = Math.min(Math.max(percentile, 0), 100);
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(counts.length - 1);
+    }
+
+    /**
+     * Record a response time.
+     *
+     * @param rt the response time in milliseconds
+     * @return the total count of values recorded including this one
+     */
+    public long record(long rt) {
+        counts.incrementAndGet(bucketIndex(Math.min(rt, highestTrackableValue)));
+        return totalCount.incrementAndGet();
+    }
+
+    /**
+     * Add the counts of this histogram to the target array bucket by bucket.
+     *
+     * @param target the target counts, whose length should be at least {@link #bucketCount()}
+     */
+    public void mergeTo(long[] target) {
+        int length = Math.min(target.length, counts.length());
+        for (int i = 0; i < length; i++) {
+            target[i] += counts.get(i);
+        }
+    }
+
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        mergeTo(snapshot);
+        return valueAtPercentile(snapshot, percentile);
+    }
+
+    public long totalCount() {
+        return totalCount.get();
+    }
+
+    public int bucketCount() {
+        return counts.length();
+    }
+
+    public RtHistogram reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        return this;
+    }
+}
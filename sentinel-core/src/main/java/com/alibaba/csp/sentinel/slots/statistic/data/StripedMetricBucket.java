@@ -0,0 +1,139 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A {@link MetricBucket} that packs all event counters into one contiguous primitive array
+ * instead of allocating a {@link java.util.concurrent.atomic.LongAdder} per {@link MetricEvent}.</p>
+ * <p>
+ * The array is split into {@code stripeCount} stripes, each of which holds one counter per event. Writers
+ * pick a stripe by a per-thread index assigned in turn (rather than by thread id, which may collide for
+ * the threads of a pool), while readers sum the counter of all stripes.
+ * </p>
+ * <p>
+ * By default each stripe is padded to 128 bytes (1 KB for 8 stripes), so that writers on different stripes
+ * never share a cache line. Unpadded stripes are packed next to each other and would false-share, so they are
+ * only meant for a single stripe, which takes about as much memory as the {@code LongAdder}s of an
+ * uncontended {@link MetricBucket}.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public class StripedMetricBucket extends MetricBucket {
+
+    /**
+     * 16 longs (128 bytes) per padded stripe, which covers all events and the adjacent-line prefetch.
+     */
+    static final int PADDED_STRIPE_STRIDE = 16;
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    private static final AtomicInteger NEXT_STRIPE_INDEX = new AtomicInteger();
+    private static final ThreadLocal<StripeIndex> STRIPE_INDEX = new ThreadLocal<StripeIndex>() {
+        @Override
+        protected StripeIndex initialValue() {
+            return new StripeIndex(NEXT_STRIPE_INDEX.getAndIncrement() & Integer.MAX_VALUE);
+        }
+    };
+
+    private final AtomicLongArray cells;
+    private final int stripeMask;
+    private final int stride;
+
+    /**
+     * @param stripeCount count of the padded stripes, which should be a power of two
+     */
+    public StripedMetricBucket(int stripeCount) {
+        this(stripeCount, true);
+    }
+
+    /**
+     * @param stripeCount count of the stripes, which should be a power of two
+     * @param padded      whether each stripe is padded to 128 bytes
+     */
+    public StripedMetricBucket(int stripeCount, boolean padded) {
+        super(false);
+        AssertUtil.isTrue(stripeCount > 0 && (stripeCount & (stripeCount - 1)) == 0,
+            "stripeCount should be a positive power of two");
+        AssertUtil.isTrue(EVENTS.length <= PADDED_STRIPE_STRIDE, "too many metric events for a single stripe");
+        this.stripeMask = stripeCount - 1;
+        this.stride = padded ? PADDED_STRIPE_STRIDE : EVENTS.length;
+        this.cells = new AtomicLongArray(stripeCount * stride);
+    }
+
+    private int stripeOffset() {
+        return (STRIPE_INDEX.get().value & stripeMask) * stride;
+    }
+
+    @Override
+    public MetricBucket reset() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+        return super.reset();
+    }
+
+    @Override
+    public long get(MetricEvent event) {
+        long sum = 0;
+        for (int i = event.ordinal(); i < cells.length(); i += stride) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    @Override
+    public MetricBucket add(MetricEvent event, long n) {
+        cells.getAndAdd(stripeOffset() + event.ordinal(), n);
+        return this;
+    }
+
+    public int getStripeCount() {
+        return stripeMask + 1;
+    }
+
+    public boolean isPadded() {
+        return stride == PADDED_STRIPE_STRIDE;
+    }
+
+    /**
+     * Get the stripe count of the buckets, as unpadded stripes are not worth having more than one.
+     *
+     * @param stripeCount the configured stripe count
+     * @param padded      whether the stripes are padded
+     * @return the stripe count to use
+     */
+    static int stripeCountFor(int stripeCount, boolean padded) {
+        return padded ? stripeCount : 1;
+    }
+
+    /**
+     * Holds the stripe index of a thread, so that it's not unboxed on every write.
+     */
+    private static final class StripeIndex {
+        private final int value;
+
+        StripeIndex(int value) {
+            this.value = value;
+        }
+    }
+}
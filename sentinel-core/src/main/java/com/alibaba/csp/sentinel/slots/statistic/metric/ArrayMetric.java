@@ -251,6 +251,30 @@ public class ArrayMetric implements Metric {
         wrap.value().addRT(rt);
     }
 
+    @Override
+    public void addSuccess(int count, long timeMillis) {
+        WindowWrap<MetricBucket> wrap = data.currentWindow(timeMillis);
+        if (wrap != null) {
+            wrap.value().addSuccess(count);
+        }
+    }
+
+    @Override
+    public void addPass(int count, long timeMillis) {
+        WindowWrap<MetricBucket> wrap = data.currentWindow(timeMillis);
+        if (wrap != null) {
+            wrap.value().addPass(count);
+        }
+    }
+
+    @Override
+    public void addRT(long rt, long timeMillis) {
+        WindowWrap<MetricBucket> wrap = data.currentWindow(timeMillis);
+        if (wrap != null) {
+            wrap.value().addRT(rt);
+        }
+    }
+
     @Override
     public void debug() {
         data.debug(System.currentTimeMillis());
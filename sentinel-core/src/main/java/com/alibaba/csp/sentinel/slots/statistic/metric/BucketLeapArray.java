@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.statistic.metric;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucketFactory;
 
 /**
  * The fundamental data structure for metric statistics in a time span.
@@ -32,9 +33,13 @@ public class BucketLeapArray extends LeapArray<MetricBucket> {
         super(sampleCount, intervalInMs);
     }
 
+    public BucketLeapArray(int sampleCount, int intervalInMs, boolean lockFreeRotation) {
+        super(sampleCount, intervalInMs, lockFreeRotation);
+    }
+
     @Override
     public MetricBucket newEmptyBucket(long time) {
-        return new MetricBucket();
+        return MetricBucketFactory.newBucket();
     }
 
     @Override
@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.CascadingWindow;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucketFactory;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Long interval statistics of a node: the last hour in one-minute buckets, and the last day
+ * in one-hour buckets rolled from the minute buckets. It costs 84 buckets, rather than 1,440
+ * one-minute buckets for a whole day.</p>
+ *
+ * <p>Note that the min RT is not kept, as it can't be merged from the finer buckets.</p>
+ *
+ * @since 1.8.8
+ */
+public class LongIntervalMetric extends CascadingWindow<MetricBucket> {
+
+    public static final int HOUR_LEVEL = 0;
+    public static final int DAY_LEVEL = 1;
+
+    private static final int MINUTE_IN_MS = 60 * 1000;
+    private static final int HOUR_IN_MS = 60 * MINUTE_IN_MS;
+    private static final int DAY_IN_MS = 24 * HOUR_IN_MS;
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    public LongIntervalMetric() {
+        super(new int[] {60, 24}, new int[] {HOUR_IN_MS, DAY_IN_MS});
+    }
+
+    @Override
+    protected MetricBucket newEmptyBucket(long timeMillis) {
+        return MetricBucketFactory.newBucket();
+    }
+
+    @Override
+    protected void resetBucket(MetricBucket bucket) {
+        bucket.reset();
+    }
+
+    @Override
+    protected void merge(MetricBucket from, MetricBucket to) {
+        for (MetricEvent event : EVENTS) {
+            long value = from.get(event);
+            if (value != 0) {
+                to.add(event, value);
+            }
+        }
+    }
+
+    public void add(MetricEvent event, long count) {
+        currentBucket(TimeUtil.currentTimeMillis()).add(event, count);
+    }
+
+    public void addRtAndSuccess(long rt, int success) {
+        MetricBucket bucket = currentBucket(TimeUtil.currentTimeMillis());
+        bucket.add(MetricEvent.SUCCESS, success);
+        bucket.add(MetricEvent.RT, rt);
+    }
+
+    /**
+     * Get the total count of given event in the interval of the level.
+     *
+     * @param level {@link #HOUR_LEVEL} or {@link #DAY_LEVEL}
+     * @param event the metric event
+     * @return total count of the event
+     */
+    public long sum(int level, MetricEvent event) {
+        long sum = 0;
+        for (MetricBucket bucket : values(level, TimeUtil.currentTimeMillis())) {
+            sum += bucket.get(event);
+        }
+        return sum;
+    }
+}
@@ -136,6 +136,40 @@ public interface Metric extends DebugSupport {
      */
     void addRT(long rt);
 
+    /**
+     * Add current pass count to the bucket of given time, which may be slightly behind current time
+     * (e.g. buffered counts of a bucket which has just ended). Counts of a deprecated bucket are ignored.
+     *
+     * @param n          count to add
+     * @param timeMillis time of the bucket
+     * @since 1.8.8
+     */
+    default void addPass(int n, long timeMillis) {
+        addPass(n);
+    }
+
+    /**
+     * Add current completed count to the bucket of given time, see {@link #addPass(int, long)}.
+     *
+     * @param n          count to add
+     * @param timeMillis time of the bucket
+     * @since 1.8.8
+     */
+    default void addSuccess(int n, long timeMillis) {
+        addSuccess(n);
+    }
+
+    /**
+     * Add given RT to the total RT of the bucket of given time, see {@link #addPass(int, long)}.
+     *
+     * @param rt         RT
+     * @param timeMillis time of the bucket
+     * @since 1.8.8
+     */
+    default void addRT(long rt, long timeMillis) {
+        addRT(rt);
+    }
+
     /**
      * Get the sliding window length in seconds.
      *
@@ -0,0 +1,67 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * Creates the sliding window {@link Metric} of statistic nodes according to
+ * {@link SentinelConfig#STATISTIC_METRIC_TYPE}. When the slab metric is enabled but the slab
+ * is exhausted, it falls back to {@link ArrayMetric}.
+ *
+ * @since 1.8.8
+ */
+public final class MetricFactory {
+
+    private static final AtomicBoolean SLAB_EXHAUSTED_LOGGED = new AtomicBoolean(false);
+
+    private static final class SlabHolder {
+        private static final MetricSlab SLAB = new MetricSlab(
+            (int)Math.min(SentinelConfig.statisticSlabCapacityMb() * 1024L * 1024 / 8, Integer.MAX_VALUE - 8));
+
+        static {
+            RecordLog.info("[MetricFactory] Statistic metric slab initialized, capacity: {} MB",
+                SentinelConfig.statisticSlabCapacityMb());
+        }
+    }
+
+    /**
+     * Create a new sliding window metric.
+     *
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs the total time interval of the sliding window in milliseconds
+     * @param enableOccupy whether the metric supports occupying future buckets
+     * @return the new metric
+     */
+    public static Metric newMetric(int sampleCount, int intervalInMs, boolean enableOccupy) {
+        if (SentinelConfig.STATISTIC_METRIC_TYPE_SLAB.equals(SentinelConfig.statisticMetricType())) {
+            SlabMetric metric = SlabMetric.create(SlabHolder.SLAB, sampleCount, intervalInMs, enableOccupy);
+            if (metric != null) {
+                return metric;
+            }
+            if (SLAB_EXHAUSTED_LOGGED.compareAndSet(false, true)) {
+                RecordLog.warn("[MetricFactory] Statistic metric slab is exhausted, falling back to ArrayMetric. "
+                    + "Please consider increasing " + SentinelConfig.STATISTIC_SLAB_CAPACITY_MB);
+            }
+        }
+        return new ArrayMetric(sampleCount, intervalInMs, enableOccupy);
+    }
+
+    private MetricFactory() {}
+}
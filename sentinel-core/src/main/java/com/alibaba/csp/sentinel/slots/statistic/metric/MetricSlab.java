@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A fixed-size slab of {@code long} values which holds the sliding window buckets of many
+ * {@link SlabMetric}s. The slab is allocated once, so the amount of statistic nodes does not
+ * affect the object graph that the GC has to trace, and bucket rotation never allocates.</p>
+ *
+ * <p>Each metric reserves a contiguous region of the slab. Regions are never reclaimed: statistic nodes
+ * are kept as long as their resources (and origins), and there is no point where no thread could still
+ * write to the metric of a node. So the capacity should cover all the nodes; once it's exhausted, new
+ * metrics fall back to {@link ArrayMetric} (see {@link MetricFactory}).</p>
+ *
+ * @since 1.8.8
+ */
+public final class MetricSlab {
+
+    private final AtomicLongArray data;
+
+    /**
+     * Offset of the first never-used slot, guarded by {@code this}.
+     */
+    private int next = 0;
+
+    /**
+     * @param capacity total amount of {@code long} slots of the slab
+     */
+    public MetricSlab(int capacity) {
+        AssertUtil.isTrue(capacity > 0, "slab capacity should be positive");
+        this.data = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Reserve a region of given size.
+     *
+     * @param size amount of {@code long} slots
+     * @return offset of the region, or -1 if the slab is exhausted
+     */
+    synchronized int allocate(int size) {
+        if (size > data.length() - next) {
+            return -1;
+        }
+        int offset = next;
+        next += size;
+        return offset;
+    }
+
+    long get(int i) {
+        return data.get(i);
+    }
+
+    void set(int i, long value) {
+        data.set(i, value);
+    }
+
+    void add(int i, long delta) {
+        data.getAndAdd(i, delta);
+    }
+
+    boolean compareAndSet(int i, long expect, long update) {
+        return data.compareAndSet(i, expect, update);
+    }
+
+    public int capacity() {
+        return data.length();
+    }
+
+    /**
+     * @return amount of {@code long} slots that have been handed out
+     */
+    public synchronized int used() {
+        return next;
+    }
+}
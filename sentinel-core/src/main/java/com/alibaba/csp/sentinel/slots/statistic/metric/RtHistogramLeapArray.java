@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.RtHistogram;
+
+/**
+ * Sliding window of {@link RtHistogram}s, whose percentiles are calculated by merging the valid buckets.
+ *
+ * @since 1.8.8
+ */
+public class RtHistogramLeapArray extends LeapArray<RtHistogram> {
+
+    private final long highestTrackableValue;
+
+    public RtHistogramLeapArray(int sampleCount, int intervalInMs, long highestTrackableValue) {
+        super(sampleCount, intervalInMs);
+        this.highestTrackableValue = highestTrackableValue;
+    }
+
+    @Override
+    public RtHistogram newEmptyBucket(long timeMillis) {
+        return new RtHistogram(highestTrackableValue);
+    }
+
+    @Override
+    protected WindowWrap<RtHistogram> resetWindowTo(WindowWrap<RtHistogram> w, long startTime) {
+        w.resetTo(startTime);
+        w.value().reset();
+        return w;
+    }
+
+    /**
+     * Record a response time in current bucket.
+     *
+     * @param rt the response time in milliseconds
+     * @return the count of values recorded in current bucket including this one
+     */
+    public long record(long rt) {
+        return currentWindow().value().record(rt);
+    }
+
+    /**
+     * Get the value at given percentile of all valid buckets.
+     *
+     * @param percentile the percentile in (0, 100]
+     * @return the value at the percentile, or 0 if there is no value
+     */
+    public long valueAtPercentile(double percentile) {
+        return RtHistogram.valueAtPercentile(mergedCounts(values()), percentile);
+    }
+
+    /**
+     * Get the total count of values recorded in all valid buckets.
+     */
+    public long totalCount() {
+        long total = 0;
+        for (RtHistogram histogram : values()) {
+            total += histogram.totalCount();
+        }
+        return total;
+    }
+
+    private long[] mergedCounts(List<RtHistogram> histograms) {
+        long[] counts = new long[RtHistogram.bucketIndex(highestTrackableValue) + 1];
+        for (RtHistogram histogram : histograms) {
+            histogram.mergeTo(counts);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.IntervalProperty;
+import com.alibaba.csp.sentinel.node.SampleCountProperty;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.data.RtHistogram;
+
+/**
+ * <p>Response time histograms of a node, in the same windows as the statistics of the node: the recent
+ * {@link IntervalProperty#INTERVAL} milliseconds, and the recent 60 seconds in one-second buckets.</p>
+ *
+ * @since 1.8.8
+ */
+public class RtHistogramMetric {
+
+    public static final double P50 = 50;
+    public static final double P95 = 95;
+    public static final double P99 = 99;
+
+    private volatile RtHistogramLeapArray secondWindow;
+    private final RtHistogramLeapArray minuteWindow;
+
+    public RtHistogramMetric() {
+        this.secondWindow = newSecondWindow();
+        this.minuteWindow = new RtHistogramLeapArray(60, 60 * 1000, SentinelConfig.statisticMaxRt());
+    }
+
+    private static RtHistogramLeapArray newSecondWindow() {
+        return new RtHistogramLeapArray(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL,
+            SentinelConfig.statisticMaxRt());
+    }
+
+    /**
+     * Re-create the second-level window with current {@link SampleCountProperty#SAMPLE_COUNT}
+     * and {@link IntervalProperty#INTERVAL}.
+     */
+    public void resetSecondWindow() {
+        this.secondWindow = newSecondWindow();
+    }
+
+    public void record(long rt) {
+        secondWindow.record(rt);
+        minuteWindow.record(rt);
+    }
+
+    /**
+     * Get the response time at given percentile in the recent {@link IntervalProperty#INTERVAL} milliseconds.
+     *
+     * @param percentile the percentile in (0, 100]
+     * @return the response time at the percentile, or 0 if there is no request
+     */
+    public long valueAtPercentile(double percentile) {
+        return secondWindow.valueAtPercentile(percentile);
+    }
+
+    /**
+     * Fill the percentiles of response time of the one-second bucket which the metric node belongs to.
+     *
+     * @param node the metric node of a one-second bucket
+     */
+    public void fillPercentiles(MetricNode node) {
+        RtHistogram histogram = minuteWindow.getWindowValue(node.getTimestamp());
+        if (histogram == null) {
+            return;
+        }
+        long[] counts = new long[histogram.bucketCount()];
+        histogram.mergeTo(counts);
+        node.setRtP50(RtHistogram.valueAtPercentile(counts, P50));
+        node.setRtP95(RtHistogram.valueAtPercentile(counts, P95));
+        node.setRtP99(RtHistogram.valueAtPercentile(counts, P99));
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>A {@link Metric} which keeps all of its sliding window buckets in a region of a shared {@link MetricSlab}
+ * instead of {@code WindowWrap} and {@link MetricBucket} objects.</p>
+ *
+ * <p>Each bucket takes {@link #BUCKET_SIZE} slots: the window start, one counter per {@link MetricEvent}
+ * and the min RT. If occupy is enabled, the region also holds the same amount of "future" buckets for
+ * the borrowed (waiting) requests, in the same way as
+ * {@link com.alibaba.csp.sentinel.slots.statistic.metric.occupy.OccupiableBucketLeapArray}.</p>
+ *
+ * <p>A deprecated bucket is rotated in place: the thread which wins the CAS on the window start
+ * clears the bucket while other threads wait for it, so rotation never allocates.</p>
+ *
+ * @since 1.8.8
+ */
+public class SlabMetric implements Metric {
+
+    private static final int WINDOW_START = 0;
+    private static final int EVENT_BASE = 1;
+    private static final int MIN_RT = EVENT_BASE + MetricEvent.values().length;
+
+    static final int BUCKET_SIZE = MIN_RT + 1;
+
+    /**
+     * Window start of a bucket which has never been used.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+    /**
+     * Window start of a bucket which is being reset by another thread.
+     */
+    private static final long RESETTING = -1L;
+
+    private final MetricSlab slab;
+    private final int offset;
+
+    private final int sampleCount;
+    private final int intervalInMs;
+    private final int windowLengthInMs;
+    private final double intervalInSecond;
+    private final boolean enableOccupy;
+
+    /**
+     * Get the amount of slab slots that a metric of given layout takes.
+     *
+     * @param sampleCount  bucket count of the sliding window
+     * @param enableOccupy whether the metric keeps future buckets for occupy
+     * @return the region size in slots
+     */
+    public static int regionSize(int sampleCount, boolean enableOccupy) {
+        return sampleCount * BUCKET_SIZE * (enableOccupy ? 2 : 1);
+    }
+
+    /**
+     * Create a new metric in given slab.
+     *
+     * @return the new metric, or null if the slab is exhausted
+     */
+    public static SlabMetric create(MetricSlab slab, int sampleCount, int intervalInMs, boolean enableOccupy) {
+        AssertUtil.notNull(slab, "slab cannot be null");
+        AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
+        AssertUtil.isTrue(intervalInMs > 0, "total time interval of the sliding window should be positive");
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        int offset = slab.allocate(regionSize(sampleCount, enableOccupy));
+        if (offset < 0) {
+            return null;
+        }
+        return new SlabMetric(slab, offset, sampleCount, intervalInMs, enableOccupy);
+    }
+
+    private SlabMetric(MetricSlab slab, int offset, int sampleCount, int intervalInMs, boolean enableOccupy) {
+        this.slab = slab;
+        this.offset = offset;
+        this.sampleCount = sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.windowLengthInMs = intervalInMs / sampleCount;
+        this.intervalInSecond = intervalInMs / 1000.0;
+        this.enableOccupy = enableOccupy;
+        clear();
+    }
+
+    /**
+     * Reset all buckets of this metric.
+     */
+    public void clear() {
+        int bucketAmount = enableOccupy ? sampleCount * 2 : sampleCount;
+        for (int i = 0; i < bucketAmount; i++) {
+            int base = offset + i * BUCKET_SIZE;
+            for (int j = 1; j < BUCKET_SIZE; j++) {
+                slab.set(base + j, 0);
+            }
+            slab.set(base + MIN_RT, SentinelConfig.statisticMaxRt());
+            slab.set(base + WINDOW_START, EMPTY);
+        }
+    }
+
+    private int calculateTimeIdx(long timeMillis) {
+        return (int)((timeMillis / windowLengthInMs) % sampleCount);
+    }
+
+    private int bucketBase(int idx) {
+        return offset + idx * BUCKET_SIZE;
+    }
+
+    private int futureBucketBase(int idx) {
+        return offset + (sampleCount + idx) * BUCKET_SIZE;
+    }
+
+    /**
+     * Get the bucket at provided timestamp, rotating it if deprecated.
+     *
+     * @return base slot of the bucket, or -1 if the provided time is already behind the bucket
+     */
+    private int currentBucket(long timeMillis, boolean future) {
+        if (timeMillis < 0) {
+            return -1;
+        }
+        int idx = calculateTimeIdx(timeMillis);
+        long windowStart = timeMillis - timeMillis % windowLengthInMs;
+        int base = future ? futureBucketBase(idx) : bucketBase(idx);
+        while (true) {
+            long start = slab.get(base + WINDOW_START);
+            if (start == windowStart) {
+                return base;
+            } else if (start == RESETTING) {
+                // Another thread is resetting the bucket, which only takes a few writes.
+                Thread.yield();
+            } else if (start > windowStart) {
+                // Should not go through here, as the provided time is already behind.
+                return -1;
+            } else if (slab.compareAndSet(base + WINDOW_START, start, RESETTING)) {
+                for (int i = EVENT_BASE; i < MIN_RT; i++) {
+                    slab.set(base + i, 0);
+                }
+                slab.set(base + MIN_RT, SentinelConfig.statisticMaxRt());
+                if (enableOccupy && !future) {
+                    // Requests borrowed from the future are counted as passed once the window arrives.
+                    int futureBase = futureBucketBase(idx);
+                    if (slab.get(futureBase + WINDOW_START) == windowStart) {
+                        slab.set(base + EVENT_BASE + MetricEvent.PASS.ordinal(),
+                            slab.get(futureBase + EVENT_BASE + MetricEvent.PASS.ordinal()));
+                    }
+                }
+                slab.set(base + WINDOW_START, windowStart);
+                return base;
+            }
+        }
+    }
+
+    private boolean isValid(long start, long timeMillis) {
+        return start >= 0 && timeMillis - start <= intervalInMs;
+    }
+
+    private void add(MetricEvent event, long n) {
+        add(event, n, TimeUtil.currentTimeMillis());
+    }
+
+    private void add(MetricEvent event, long n, long timeMillis) {
+        int base = currentBucket(timeMillis, false);
+        if (base >= 0) {
+            slab.add(base + EVENT_BASE + event.ordinal(), n);
+        }
+    }
+
+    private long get(int base, MetricEvent event) {
+        return slab.get(base + EVENT_BASE + event.ordinal());
+    }
+
+    /**
+     * Get total sum for provided event of all valid buckets.
+     *
+     * @param event event to calculate
+     * @return total sum for event
+     */
+    public long getSum(MetricEvent event) {
+        long now = TimeUtil.currentTimeMillis();
+        long sum = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            int base = bucketBase(i);
+            if (isValid(slab.get(base + WINDOW_START), now)) {
+                sum += get(base, event);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long success() {
+        return getSum(MetricEvent.SUCCESS);
+    }
+
+    @Override
+    public long maxSuccess() {
+        long now = TimeUtil.currentTimeMillis();
+        long success = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            int base = bucketBase(i);
+            if (isValid(slab.get(base + WINDOW_START), now)) {
+                success = Math.max(success, get(base, MetricEvent.SUCCESS));
+            }
+        }
+        return Math.max(success, 1);
+    }
+
+    @Override
+    public long exception() {
+        return getSum(MetricEvent.EXCEPTION);
+    }
+
+    @Override
+    public long block() {
+        return getSum(MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long pass() {
+        return getSum(MetricEvent.PASS);
+    }
+
+    @Override
+    public long rt() {
+        return getSum(MetricEvent.RT);
+    }
+
+    @Override
+    public long minRt() {
+        long now = TimeUtil.currentTimeMillis();
+        long rt = SentinelConfig.statisticMaxRt();
+        for (int i = 0; i < sampleCount; i++) {
+            int base = bucketBase(i);
+            if (isValid(slab.get(base + WINDOW_START), now)) {
+                rt = Math.min(rt, slab.get(base + MIN_RT));
+            }
+        }
+        return Math.max(1, rt);
+    }
+
+    @Override
+    public List<MetricNode> details() {
+        return detailsOnCondition(null);
+    }
+
+    @Override
+    public List<MetricNode> detailsOnCondition(Predicate<Long> timePredicate) {
+        long now = TimeUtil.currentTimeMillis();
+        List<MetricNode> details = new ArrayList<>();
+        for (int i = 0; i < sampleCount; i++) {
+            int base = bucketBase(i);
+            long start = slab.get(base + WINDOW_START);
+            if (!isValid(start, now)) {
+                continue;
+            }
+            if (timePredicate != null && !timePredicate.test(start)) {
+                continue;
+            }
+            MetricNode node = new MetricNode();
+            node.setBlockQps(get(base, MetricEvent.BLOCK));
+            node.setExceptionQps(get(base, MetricEvent.EXCEPTION));
+            node.setPassQps(get(base, MetricEvent.PASS));
+            long successQps = get(base, MetricEvent.SUCCESS);
+            node.setSuccessQps(successQps);
+            long rt = get(base, MetricEvent.RT);
+            node.setRt(successQps != 0 ? rt / successQps : rt);
+            node.setTimestamp(start);
+            node.setOccupiedPassQps(get(base, MetricEvent.OCCUPIED_PASS));
+            details.add(node);
+        }
+        return details;
+    }
+
+    @Override
+    public MetricBucket[] windows() {
+        long now = TimeUtil.currentTimeMillis();
+        List<MetricBucket> buckets = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            int base = bucketBase(i);
+            if (!isValid(slab.get(base + WINDOW_START), now)) {
+                continue;
+            }
+            MetricBucket bucket = new MetricBucket();
+            for (MetricEvent event : MetricEvent.values()) {
+                if (event != MetricEvent.RT) {
+                    bucket.add(event, get(base, event));
+                }
+            }
+            // Record the min RT first, then complement the RT sum.
+            long minRt = slab.get(base + MIN_RT);
+            bucket.addRT(minRt);
+            bucket.add(MetricEvent.RT, get(base, MetricEvent.RT) - minRt);
+            buckets.add(bucket);
+        }
+        return buckets.toArray(new MetricBucket[0]);
+    }
+
+    @Override
+    public void addException(int n) {
+        add(MetricEvent.EXCEPTION, n);
+    }
+
+    @Override
+    public void addBlock(int n) {
+        add(MetricEvent.BLOCK, n);
+    }
+
+    @Override
+    public void addSuccess(int n) {
+        add(MetricEvent.SUCCESS, n);
+    }
+
+    @Override
+    public void addPass(int n) {
+        add(MetricEvent.PASS, n);
+    }
+
+    @Override
+    public void addSuccess(int n, long timeMillis) {
+        add(MetricEvent.SUCCESS, n, timeMillis);
+    }
+
+    @Override
+    public void addPass(int n, long timeMillis) {
+        add(MetricEvent.PASS, n, timeMillis);
+    }
+
+    @Override
+    public void addRT(long rt) {
+        addRT(rt, TimeUtil.currentTimeMillis());
+    }
+
+    @Override
+    public void addRT(long rt, long timeMillis) {
+        int base = currentBucket(timeMillis, false);
+        if (base < 0) {
+            return;
+        }
+        slab.add(base + EVENT_BASE + MetricEvent.RT.ordinal(), rt);
+        // Not thread-safe, but it's okay.
+        if (rt < slab.get(base + MIN_RT)) {
+            slab.set(base + MIN_RT, rt);
+        }
+    }
+
+    @Override
+    public double getWindowIntervalInSec() {
+        return intervalInSecond;
+    }
+
+    @Override
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public long getWindowPass(long timeMillis) {
+        if (timeMillis < 0) {
+            return 0L;
+        }
+        int base = bucketBase(calculateTimeIdx(timeMillis));
+        long start = slab.get(base + WINDOW_START);
+        if (start < 0 || timeMillis < start || timeMillis >= start + windowLengthInMs) {
+            return 0L;
+        }
+        return get(base, MetricEvent.PASS);
+    }
+
+    @Override
+    public void addOccupiedPass(int acquireCount) {
+        add(MetricEvent.OCCUPIED_PASS, acquireCount);
+    }
+
+    @Override
+    public void addWaiting(long futureTime, int acquireCount) {
+        if (!enableOccupy) {
+            throw new UnsupportedOperationException();
+        }
+        int base = currentBucket(futureTime, true);
+        if (base >= 0) {
+            slab.add(base + EVENT_BASE + MetricEvent.PASS.ordinal(), acquireCount);
+        }
+    }
+
+    @Override
+    public long waiting() {
+        if (!enableOccupy) {
+            return 0;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        long waiting = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            int base = futureBucketBase(i);
+            // Only the buckets in the future are counted.
+            if (slab.get(base + WINDOW_START) > now) {
+                waiting += get(base, MetricEvent.PASS);
+            }
+        }
+        return waiting;
+    }
+
+    @Override
+    public long occupiedPass() {
+        return getSum(MetricEvent.OCCUPIED_PASS);
+    }
+
+    @Override
+    public long previousWindowBlock() {
+        int base = previousBucket();
+        return base < 0 ? 0 : get(base, MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long previousWindowPass() {
+        int base = previousBucket();
+        return base < 0 ? 0 : get(base, MetricEvent.PASS);
+    }
+
+    private int previousBucket() {
+        long now = TimeUtil.currentTimeMillis();
+        long timeMillis = now - windowLengthInMs;
+        if (timeMillis < 0) {
+            return -1;
+        }
+        int base = bucketBase(calculateTimeIdx(timeMillis));
+        long start = slab.get(base + WINDOW_START);
+        if (!isValid(start, now) || start + windowLengthInMs < timeMillis) {
+            return -1;
+        }
+        return base;
+    }
+
+    @Override
+    public void debug() {
+        long now = TimeUtil.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Thread_").append(Thread.currentThread().getId()).append("_");
+        for (int i = 0; i < sampleCount; i++) {
+            int base = bucketBase(i);
+            long start = slab.get(base + WINDOW_START);
+            if (isValid(start, now)) {
+                sb.append(start).append(":").append("p: ").append(get(base, MetricEvent.PASS))
+                    .append(", b: ").append(get(base, MetricEvent.BLOCK))
+                    .append(", w: ").append(get(base, MetricEvent.OCCUPIED_PASS));
+            }
+        }
+        System.out.println(sb.toString());
+    }
+}
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.statistic.metric.occupy;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucketFactory;
 
 /**
  * A kind of {@code BucketLeapArray} that only reserves for future buckets.
@@ -34,7 +35,7 @@ public class FutureBucketLeapArray extends LeapArray<MetricBucket> {
 
     @Override
     public MetricBucket newEmptyBucket(long time) {
-        return new MetricBucket();
+        return MetricBucketFactory.newBucket();
     }
 
     @Override
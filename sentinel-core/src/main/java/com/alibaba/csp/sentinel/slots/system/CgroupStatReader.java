@@ -0,0 +1,331 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Reader of the cgroup statistics of the process, which supports both cgroup v1 and v2. The cgroup of
+ * the process is resolved from {@code /proc/self/cgroup} under the mount point of the cgroup file system.
+ * If the resolved directory doesn't exist, e.g. in a container without cgroup namespace whose own cgroup is
+ * mounted as the root, the files are read from the mount point.</p>
+ *
+ * <p>For cgroup v2, {@code cpu.stat}, {@code cpu.max}, {@code memory.current}, {@code memory.max} and
+ * {@code memory.pressure} (PSI) are read. For cgroup v1, the equivalents in the {@code cpu}, {@code cpuacct}
+ * and {@code memory} controllers are read, where memory PSI is only available if enabled by the kernel.
+ * The values which are not available are {@code -1}.</p>
+ *
+ * @since 1.8.8
+ */
+public final class CgroupStatReader {
+
+    /**
+     * Memory limit of cgroup v1 is a huge number (close to {@code Long.MAX_VALUE}) if unlimited.
+     */
+    private static final long V1_UNLIMITED_MEMORY_THRESHOLD = 1L << 62;
+
+    private static final String PROC_SELF_CGROUP = "/proc/self/cgroup";
+
+    private final boolean v2;
+    private final File cpuDir;
+    private final File cpuacctDir;
+    private final File memoryDir;
+
+    private CgroupStatReader(boolean v2, File cpuDir, File cpuacctDir, File memoryDir) {
+        this.v2 = v2;
+        this.cpuDir = cpuDir;
+        this.cpuacctDir = cpuacctDir;
+        this.memoryDir = memoryDir;
+    }
+
+    /**
+     * Create a reader of the cgroup of current process, in the cgroup file system mounted at given directory.
+     *
+     * @param root the mount point of the cgroup file system, e.g. {@code /sys/fs/cgroup}
+     * @return the reader, or null if no cgroup file system is found
+     */
+    public static CgroupStatReader create(String root) {
+        return create(root, new File(PROC_SELF_CGROUP));
+    }
+
+    /**
+     * Create a reader of the cgroup given by the membership file.
+     *
+     * @param root           the mount point of the cgroup file system
+     * @param procCgroupFile the cgroup membership of the process, i.e. {@code /proc/self/cgroup}
+     * @return the reader, or null if no cgroup file system is found
+     */
+    static CgroupStatReader create(String root, File procCgroupFile) {
+        if (root == null) {
+            return null;
+        }
+        File rootDir = new File(root);
+        List<String> membership = readLines(procCgroupFile);
+        if (new File(rootDir, "cgroup.controllers").isFile()) {
+            File dir = resolve(rootDir, findCgroupPath(membership, null));
+            return new CgroupStatReader(true, dir, dir, dir);
+        }
+        File cpuDir = new File(rootDir, "cpu");
+        File cpuacctDir = new File(rootDir, "cpuacct");
+        File memoryDir = new File(rootDir, "memory");
+        if (cpuDir.isDirectory() || cpuacctDir.isDirectory() || memoryDir.isDirectory()) {
+            return new CgroupStatReader(false, resolve(cpuDir, findCgroupPath(membership, "cpu")),
+                resolve(cpuacctDir, findCgroupPath(membership, "cpuacct")),
+                resolve(memoryDir, findCgroupPath(membership, "memory")));
+        }
+        return null;
+    }
+
+    /**
+     * Find the cgroup path of the process from the lines of {@code /proc/self/cgroup}, whose format is
+     * {@code hierarchy-ID:controller-list:cgroup-path}, e.g. {@code 0::/app.slice} for cgroup v2,
+     * or {@code 4:cpu,cpuacct:/app.slice} for cgroup v1.
+     *
+     * @param lines      lines of the membership file
+     * @param controller the controller of cgroup v1, or null for the unified hierarchy of cgroup v2
+     * @return the path relative to the mount point of the hierarchy, or null if not found
+     */
+    static String findCgroupPath(List<String> lines, String controller) {
+        for (String line : lines) {
+            String[] parts = line.trim().split(":", 3);
+            if (parts.length != 3) {
+                continue;
+            }
+            if (controller == null) {
+                if ("0".equals(parts[0]) && parts[1].isEmpty()) {
+                    return parts[2];
+                }
+                continue;
+            }
+            for (String c : parts[1].split(",")) {
+                if (controller.equals(c)) {
+                    return parts[2];
+                }
+            }
+        }
+        return null;
+    }
+
+    private static File resolve(File mountDir, String path) {
+        if (path == null || path.isEmpty() || "/".equals(path)) {
+            return mountDir;
+        }
+        File dir = new File(mountDir, path);
+        return dir.isDirectory() ? dir : mountDir;
+    }
+
+    public boolean isV2() {
+        return v2;
+    }
+
+    /**
+     * Read current statistics of the cgroup. Files which are missing or malformed are ignored.
+     *
+     * @return current statistics
+     */
+    public CgroupStat read() {
+        CgroupStat stat = new CgroupStat();
+        if (v2) {
+            readV2(stat);
+        } else {
+            readV1(stat);
+        }
+        stat.memoryStallMicros = readPressureTotal(new File(memoryDir, "memory.pressure"));
+        return stat;
+    }
+
+    private void readV2(CgroupStat stat) {
+        List<String> cpuStat = readLines(new File(cpuDir, "cpu.stat"));
+        long usageMicros = findValue(cpuStat, "usage_usec");
+        stat.cpuUsageNanos = usageMicros < 0 ? -1 : usageMicros * 1000;
+        stat.nrPeriods = findValue(cpuStat, "nr_periods");
+        stat.nrThrottled = findValue(cpuStat, "nr_throttled");
+
+        // Format: "$MAX $PERIOD", where $MAX could be "max".
+        String cpuMax = readFirstLine(new File(cpuDir, "cpu.max"));
+        if (cpuMax != null) {
+            String[] parts = cpuMax.split("\\s+");
+            if (parts.length == 2 && !"max".equals(parts[0])) {
+                stat.cpuLimitCores = toCores(parseLong(parts[0]), parseLong(parts[1]));
+            }
+        }
+
+        stat.memoryUsageBytes = parseLong(readFirstLine(new File(memoryDir, "memory.current")));
+        String memoryMax = readFirstLine(new File(memoryDir, "memory.max"));
+        stat.memoryLimitBytes = "max".equals(memoryMax) ? -1 : parseLong(memoryMax);
+    }
+
+    private void readV1(CgroupStat stat) {
+        stat.cpuUsageNanos = parseLong(readFirstLine(new File(cpuacctDir, "cpuacct.usage")));
+        List<String> cpuStat = readLines(new File(cpuDir, "cpu.stat"));
+        stat.nrPeriods = findValue(cpuStat, "nr_periods");
+        stat.nrThrottled = findValue(cpuStat, "nr_throttled");
+        // The quota is -1 if unlimited.
+        stat.cpuLimitCores = toCores(parseLong(readFirstLine(new File(cpuDir, "cpu.cfs_quota_us"))),
+            parseLong(readFirstLine(new File(cpuDir, "cpu.cfs_period_us"))));
+
+        stat.memoryUsageBytes = parseLong(readFirstLine(new File(memoryDir, "memory.usage_in_bytes")));
+        long limit = parseLong(readFirstLine(new File(memoryDir, "memory.limit_in_bytes")));
+        stat.memoryLimitBytes = limit >= V1_UNLIMITED_MEMORY_THRESHOLD ? -1 : limit;
+    }
+
+    private static double toCores(long quota, long period) {
+        if (quota <= 0 || period <= 0) {
+            return -1;
+        }
+        return (double) quota / period;
+    }
+
+    /**
+     * Read the total stall time (in microseconds) of "some" tasks from a PSI file, whose format is:
+     * <pre>
+     * some avg10=0.00 avg60=0.00 avg300=0.00 total=0
+     * full avg10=0.00 avg60=0.00 avg300=0.00 total=0
+     * </pre>
+     */
+    static long readPressureTotal(File file) {
+        for (String line : readLines(file)) {
+            if (!line.startsWith("some ")) {
+                continue;
+            }
+            for (String field : line.split("\\s+")) {
+                if (field.startsWith("total=")) {
+                    return parseLong(field.substring("total=".length()));
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the value of the key from lines of "key value" pairs (e.g. {@code cpu.stat}).
+     */
+    private static long findValue(List<String> lines, String key) {
+        for (String line : lines) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 2 && key.equals(parts[0])) {
+                return parseLong(parts[1]);
+            }
+        }
+        return -1;
+    }
+
+    private static String readFirstLine(File file) {
+        List<String> lines = readLines(file);
+        return lines.isEmpty() ? null : lines.get(0).trim();
+    }
+
+    private static List<String> readLines(File file) {
+        if (!file.isFile()) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Statistics of a cgroup at a moment. Most of the values are cumulative, so the rates should be
+     * calculated with two snapshots.
+     */
+    public static final class CgroupStat {
+
+        private long cpuUsageNanos = -1;
+        private long nrPeriods = -1;
+        private long nrThrottled = -1;
+        private double cpuLimitCores = -1;
+        private long memoryUsageBytes = -1;
+        private long memoryLimitBytes = -1;
+        private long memoryStallMicros = -1;
+
+        /**
+         * @return total CPU time consumed by the cgroup in nanoseconds
+         */
+        public long getCpuUsageNanos() {
+            return cpuUsageNanos;
+        }
+
+        /**
+         * @return amount of CFS enforcement periods which have elapsed
+         */
+        public long getNrPeriods() {
+            return nrPeriods;
+        }
+
+        /**
+         * @return amount of CFS enforcement periods in which the cgroup has been throttled
+         */
+        public long getNrThrottled() {
+            return nrThrottled;
+        }
+
+        /**
+         * @return the CPU quota in cores (quota / period), or -1 if unlimited
+         */
+        public double getCpuLimitCores() {
+            return cpuLimitCores;
+        }
+
+        public long getMemoryUsageBytes() {
+            return memoryUsageBytes;
+        }
+
+        /**
+         * @return the memory limit in bytes, or -1 if unlimited
+         */
+        public long getMemoryLimitBytes() {
+            return memoryLimitBytes;
+        }
+
+        /**
+         * @return total time (in microseconds) in which some tasks of the cgroup stalled on memory (PSI)
+         */
+        public long getMemoryStallMicros() {
+            return memoryStallMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "CgroupStat{" +
+                "cpuUsageNanos=" + cpuUsageNanos +
+                ", nrPeriods=" + nrPeriods +
+                ", nrThrottled=" + nrThrottled +
+                ", cpuLimitCores=" + cpuLimitCores +
+                ", memoryUsageBytes=" + memoryUsageBytes +
+                ", memoryLimitBytes=" + memoryLimitBytes +
+                ", memoryStallMicros=" + memoryStallMicros +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+/**
+ * <p>Checks whether a signal exceeds its threshold with hysteresis: once the signal exceeds the threshold,
+ * it's regarded as exceeded until it drops below {@code threshold * (1 - ratio)}.</p>
+ *
+ * @since 1.8.8
+ */
+final class HysteresisTrigger {
+
+    private final double ratio;
+
+    private volatile boolean triggered;
+
+    /**
+     * @param ratio hysteresis ratio in [0, 1), 0 means the plain {@code value > threshold} check
+     */
+    HysteresisTrigger(double ratio) {
+        this.ratio = ratio;
+    }
+
+    boolean exceeds(double value, double threshold) {
+        boolean wasTriggered = triggered;
+        boolean exceeded = wasTriggered ? value > threshold * (1 - ratio) : value > threshold;
+        if (exceeded != wasTriggered) {
+            triggered = exceeded;
+        }
+        return exceeded;
+    }
+
+    boolean isTriggered() {
+        return triggered;
+    }
+
+    void reset() {
+        triggered = false;
+    }
+}
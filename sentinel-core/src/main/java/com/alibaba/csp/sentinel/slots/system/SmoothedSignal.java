@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+/**
+ * <p>Exponentially weighted moving average of a periodically sampled signal (e.g. the CPU usage).
+ * The weight of a sample depends on the time elapsed since the previous one, i.e.
+ * {@code alpha = 1 - exp(-elapsed / window)}, so the smoothing doesn't change with the sample interval.</p>
+ *
+ * <p>Updated by the single sampling thread, and read by any thread.</p>
+ *
+ * @since 1.8.8
+ */
+final class SmoothedSignal {
+
+    private final long windowMs;
+
+    private volatile double value = -1;
+    private long lastSampleTime = -1;
+
+    /**
+     * @param windowMs time window of the moving average in milliseconds, 0 means no smoothing
+     */
+    SmoothedSignal(long windowMs) {
+        this.windowMs = Math.max(0, windowMs);
+    }
+
+    /**
+     * Add a new sample.
+     *
+     * @param sample the raw sample, negative if not available
+     * @param nowMs  time of the sample in milliseconds
+     * @return the smoothed value
+     */
+    double update(double sample, long nowMs) {
+        double last = value;
+        if (windowMs == 0 || lastSampleTime < 0 || last < 0 || sample < 0) {
+            // An unavailable sample isn't averaged with the available ones.
+            value = sample;
+        } else {
+            long elapsed = Math.max(0, nowMs - lastSampleTime);
+            double alpha = 1 - Math.exp(-(double) elapsed / windowMs);
+            value = last + alpha * (sample - last);
+        }
+        lastSampleTime = nowMs;
+        return value;
+    }
+
+    /**
+     * @return the smoothed value, or negative if not available
+     */
+    double get() {
+        return value;
+    }
+
+    boolean isSmoothing() {
+        return windowMs > 0;
+    }
+}
@@ -48,6 +48,25 @@ public class SystemRule extends AbstractRule {
     private double qps = -1;
     private long avgRt = -1;
     private long maxThread = -1;
+    /**
+     * ratio of throttled CFS periods of the cgroup, between [0, 1]
+     *
+     * @since 1.8.8
+     */
+    private double highestCpuThrottledRatio = -1;
+    /**
+     * memory pressure (PSI) of the cgroup, between [0, 1]
+     *
+     * @since 1.8.8
+     */
+    private double highestMemoryPressure = -1;
+    /**
+     * Whether the BBR check (when the system load exceeds {@link #highestSystemLoad}) is applied to each resource
+     * instead of the whole inbound traffic.
+     *
+     * @since 1.8.8
+     */
+    private boolean resourceScopedBbr = false;
 
     public double getQps() {
         return qps;
@@ -131,6 +150,70 @@ public class SystemRule extends AbstractRule {
         this.highestCpuUsage = highestCpuUsage;
     }
 
+    public double getHighestCpuThrottledRatio() {
+        return highestCpuThrottledRatio;
+    }
+
+    /**
+     * <p>
+     * Set the highest ratio of CFS periods in which the cgroup of the process is throttled (i.e. has used up its
+     * CPU quota), between [0, 1]. Throttling means requests are stalled even if the CPU usage of the host is low.
+     * </p>
+     * <p>
+     * Note that this parameter is only available on Linux with cgroup (v1 or v2) CPU quota.
+     * </p>
+     *
+     * @param highestCpuThrottledRatio the value to set.
+     * @since 1.8.8
+     */
+    public void setHighestCpuThrottledRatio(double highestCpuThrottledRatio) {
+        this.highestCpuThrottledRatio = highestCpuThrottledRatio;
+    }
+
+    public double getHighestMemoryPressure() {
+        return highestMemoryPressure;
+    }
+
+    /**
+     * <p>
+     * Set the highest memory pressure of the cgroup of the process, between [0, 1], which is the ratio of time
+     * in which some tasks stalled on memory (e.g. reclaiming), see the "some" line of the PSI file
+     * {@code memory.pressure}.
+     * </p>
+     * <p>
+     * Note that this parameter is only available on Linux with PSI enabled (cgroup v2 by default).
+     * </p>
+     *
+     * @param highestMemoryPressure the value to set.
+     * @since 1.8.8
+     */
+    public void setHighestMemoryPressure(double highestMemoryPressure) {
+        this.highestMemoryPressure = highestMemoryPressure;
+    }
+
+    public boolean isResourceScopedBbr() {
+        return resourceScopedBbr;
+    }
+
+    /**
+     * <p>
+     * Set whether the BBR check is scoped to resources. By default, when the system load exceeds the threshold,
+     * an inbound request is rejected if the concurrency of all inbound requests exceeds the estimated capacity
+     * (max success QPS * min RT) of all inbound requests, so that a single slow resource could cause rejections
+     * of healthy resources. If scoped to resources, the concurrency and capacity of the requested resource
+     * (i.e. its cluster node) are compared instead, so that only the resources with requests queueing are rejected.
+     * </p>
+     * <p>
+     * It takes effect if set in any rule, along with {@link #setHighestSystemLoad(double)}.
+     * </p>
+     *
+     * @param resourceScopedBbr whether the BBR check is scoped to resources
+     * @since 1.8.8
+     */
+    public void setResourceScopedBbr(boolean resourceScopedBbr) {
+        this.resourceScopedBbr = resourceScopedBbr;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -159,6 +242,15 @@ public class SystemRule extends AbstractRule {
         if (avgRt != that.avgRt) {
             return false;
         }
+        if (resourceScopedBbr != that.resourceScopedBbr) {
+            return false;
+        }
+        if (Double.compare(that.highestCpuThrottledRatio, highestCpuThrottledRatio) != 0) {
+            return false;
+        }
+        if (Double.compare(that.highestMemoryPressure, highestMemoryPressure) != 0) {
+            return false;
+        }
         return maxThread == that.maxThread;
     }
 
@@ -177,6 +269,11 @@ public class SystemRule extends AbstractRule {
 
         result = 31 * result + (int)(avgRt ^ (avgRt >>> 32));
         result = 31 * result + (int)(maxThread ^ (maxThread >>> 32));
+        result = 31 * result + (resourceScopedBbr ? 1 : 0);
+        temp = Double.doubleToLongBits(highestCpuThrottledRatio);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(highestMemoryPressure);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
         return result;
     }
 
@@ -188,6 +285,9 @@ public class SystemRule extends AbstractRule {
             ", qps=" + qps +
             ", avgRt=" + avgRt +
             ", maxThread=" + maxThread +
+            ", resourceScopedBbr=" + resourceScopedBbr +
+            ", highestCpuThrottledRatio=" + highestCpuThrottledRatio +
+            ", highestMemoryPressure=" + highestMemoryPressure +
             "}";
     }
 }
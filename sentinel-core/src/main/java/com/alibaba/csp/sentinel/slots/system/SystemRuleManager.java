@@ -25,7 +25,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
@@ -56,6 +58,20 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
  * Referring to BBR algorithm to learn more.
  * </p>
  * <p>
+ * By default the BBR check compares the inflight and capacity of all inbound traffic,
+ * so a single slow resource could cause rejections of healthy resources. With
+ * {@link SystemRule#setResourceScopedBbr(boolean)}, the same estimate is computed with
+ * the cluster node of each resource, so that only the resources with requests
+ * queueing are rejected.
+ * </p>
+ * <p>
+ * The load, CPU usage and cgroup status are sampled every second by default, which could be shortened
+ * by {@link SentinelConfig#systemStatusSampleIntervalMs()} to react to bursts sooner. With a short interval,
+ * {@link SentinelConfig#systemStatusSmoothingWindowMs()} smooths the load, CPU usage and RT by a moving
+ * average, and {@link SentinelConfig#systemStatusHysteresisRatio()} keeps a signal regarded as exceeded
+ * until it drops clearly below its threshold, so that the protection doesn't flap around the threshold.
+ * </p>
+ * <p>
  * Note that {@link SystemRule} only effect on inbound requests, outbound traffic
  * will not limit by {@link SystemRule}
  * </p>
@@ -73,6 +89,8 @@ public final class SystemRuleManager {
     private static volatile double qps = Double.MAX_VALUE;
     private static volatile long maxRt = Long.MAX_VALUE;
     private static volatile long maxThread = Long.MAX_VALUE;
+    private static volatile double highestCpuThrottledRatio = Double.MAX_VALUE;
+    private static volatile double highestMemoryPressure = Double.MAX_VALUE;
     /**
      * mark whether the threshold are set by user.
      */
@@ -81,9 +99,19 @@ public final class SystemRuleManager {
     private static volatile boolean qpsIsSet = false;
     private static volatile boolean maxRtIsSet = false;
     private static volatile boolean maxThreadIsSet = false;
+    private static volatile boolean highestCpuThrottledRatioIsSet = false;
+    private static volatile boolean highestMemoryPressureIsSet = false;
+    private static volatile boolean resourceScopedBbr = false;
 
     private static AtomicBoolean checkSystemStatus = new AtomicBoolean(false);
 
+    private static final double hysteresisRatio = SentinelConfig.systemStatusHysteresisRatio();
+    private static final HysteresisTrigger rtTrigger = new HysteresisTrigger(hysteresisRatio);
+    private static final HysteresisTrigger loadTrigger = new HysteresisTrigger(hysteresisRatio);
+    private static final HysteresisTrigger cpuUsageTrigger = new HysteresisTrigger(hysteresisRatio);
+    private static final HysteresisTrigger cpuThrottledTrigger = new HysteresisTrigger(hysteresisRatio);
+    private static final HysteresisTrigger memoryPressureTrigger = new HysteresisTrigger(hysteresisRatio);
+
     private static SystemStatusListener statusListener = null;
     private final static SystemPropertyListener listener = new SystemPropertyListener();
     private static SentinelProperty<List<SystemRule>> currentProperty = new DynamicSentinelProperty<List<SystemRule>>();
@@ -95,7 +123,8 @@ public final class SystemRuleManager {
     static {
         checkSystemStatus.set(false);
         statusListener = new SystemStatusListener();
-        scheduler.scheduleAtFixedRate(statusListener, 0, 1, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(statusListener, 0, SentinelConfig.systemStatusSampleIntervalMs(),
+            TimeUnit.MILLISECONDS);
         currentProperty.addListener(listener);
     }
 
@@ -138,6 +167,7 @@ public final class SystemRuleManager {
         if (highestSystemLoadIsSet) {
             SystemRule loadRule = new SystemRule();
             loadRule.setHighestSystemLoad(highestSystemLoad);
+            loadRule.setResourceScopedBbr(resourceScopedBbr);
             result.add(loadRule);
         }
 
@@ -165,6 +195,18 @@ public final class SystemRuleManager {
             result.add(qpsRule);
         }
 
+        if (highestCpuThrottledRatioIsSet) {
+            SystemRule throttledRule = new SystemRule();
+            throttledRule.setHighestCpuThrottledRatio(highestCpuThrottledRatio);
+            result.add(throttledRule);
+        }
+
+        if (highestMemoryPressureIsSet) {
+            SystemRule memoryPressureRule = new SystemRule();
+            memoryPressureRule.setHighestMemoryPressure(highestMemoryPressure);
+            result.add(memoryPressureRule);
+        }
+
         return result;
     }
 
@@ -199,13 +241,19 @@ public final class SystemRuleManager {
                     + "highestCpuUsage: %e, "
                     + "maxRt: %d, "
                     + "maxThread: %d, "
-                    + "maxQps: %e",
+                    + "maxQps: %e, "
+                    + "highestCpuThrottledRatio: %e, "
+                    + "highestMemoryPressure: %e, "
+                    + "resourceScopedBbr: %s",
                 checkSystemStatus.get(),
                 highestSystemLoad,
                 highestCpuUsage,
                 maxRt,
                 maxThread,
-                qps));
+                qps,
+                highestCpuThrottledRatio,
+                highestMemoryPressure,
+                resourceScopedBbr));
         }
 
         protected void restoreSetting() {
@@ -217,16 +265,35 @@ public final class SystemRuleManager {
             maxRt = Long.MAX_VALUE;
             maxThread = Long.MAX_VALUE;
             qps = Double.MAX_VALUE;
+            highestCpuThrottledRatio = Double.MAX_VALUE;
+            highestMemoryPressure = Double.MAX_VALUE;
 
             highestSystemLoadIsSet = false;
             highestCpuUsageIsSet = false;
             maxRtIsSet = false;
             maxThreadIsSet = false;
             qpsIsSet = false;
+            highestCpuThrottledRatioIsSet = false;
+            highestMemoryPressureIsSet = false;
+            resourceScopedBbr = false;
+
+            rtTrigger.reset();
+            loadTrigger.reset();
+            cpuUsageTrigger.reset();
+            cpuThrottledTrigger.reset();
+            memoryPressureTrigger.reset();
         }
 
     }
 
+    /**
+     * @return whether the BBR check is scoped to resources
+     * @since 1.8.8
+     */
+    public static boolean isResourceScopedBbr() {
+        return resourceScopedBbr;
+    }
+
     public static Boolean getCheckSystemStatus() {
         return checkSystemStatus.get();
     }
@@ -239,6 +306,14 @@ public final class SystemRuleManager {
         return highestCpuUsage;
     }
 
+    public static double getCpuThrottledRatioThreshold() {
+        return highestCpuThrottledRatio;
+    }
+
+    public static double getMemoryPressureThreshold() {
+        return highestMemoryPressure;
+    }
+
     public static void loadSystemConf(SystemRule rule) {
         boolean checkStatus = false;
         // Check if it's valid.
@@ -248,6 +323,9 @@ public final class SystemRuleManager {
             highestSystemLoadIsSet = true;
             checkStatus = true;
         }
+        if (rule.isResourceScopedBbr()) {
+            resourceScopedBbr = true;
+        }
 
         if (rule.getHighestCpuUsage() >= 0) {
             if (rule.getHighestCpuUsage() > 1) {
@@ -277,6 +355,28 @@ public final class SystemRuleManager {
             checkStatus = true;
         }
 
+        if (rule.getHighestCpuThrottledRatio() >= 0) {
+            if (rule.getHighestCpuThrottledRatio() > 1) {
+                RecordLog.warn(String.format("[SystemRuleManager] Ignoring invalid SystemRule: "
+                    + "highestCpuThrottledRatio %.3f > 1", rule.getHighestCpuThrottledRatio()));
+            } else {
+                highestCpuThrottledRatio = Math.min(highestCpuThrottledRatio, rule.getHighestCpuThrottledRatio());
+                highestCpuThrottledRatioIsSet = true;
+                checkStatus = true;
+            }
+        }
+
+        if (rule.getHighestMemoryPressure() >= 0) {
+            if (rule.getHighestMemoryPressure() > 1) {
+                RecordLog.warn(String.format("[SystemRuleManager] Ignoring invalid SystemRule: "
+                    + "highestMemoryPressure %.3f > 1", rule.getHighestMemoryPressure()));
+            } else {
+                highestMemoryPressure = Math.min(highestMemoryPressure, rule.getHighestMemoryPressure());
+                highestMemoryPressureIsSet = true;
+                checkStatus = true;
+            }
+        }
+
         checkSystemStatus.set(checkStatus);
 
     }
@@ -288,6 +388,21 @@ public final class SystemRuleManager {
      * @throws BlockException when any system rule's threshold is exceeded.
      */
     public static void checkSystem(ResourceWrapper resourceWrapper, int count) throws BlockException {
+        checkSystem(resourceWrapper, null, count);
+    }
+
+    /**
+     * Apply {@link SystemRule} to the resource. Only inbound traffic will be checked.
+     *
+     * @param resourceWrapper the resource.
+     * @param resourceNode    the cluster node of the resource for the resource-scoped BBR check
+     *                        (see {@link SystemRule#setResourceScopedBbr(boolean)}), nullable.
+     * @param count           count to acquire.
+     * @throws BlockException when any system rule's threshold is exceeded.
+     * @since 1.8.8
+     */
+    public static void checkSystem(ResourceWrapper resourceWrapper, Node resourceNode, int count)
+        throws BlockException {
         if (resourceWrapper == null) {
             return;
         }
@@ -313,27 +428,41 @@ public final class SystemRuleManager {
             throw new SystemBlockException(resourceWrapper.getName(), "thread");
         }
 
-        double rt = Constants.ENTRY_NODE.avgRt();
-        if (rt > maxRt) {
+        if (maxRtIsSet && rtTrigger.exceeds(getCurrentAvgRt(), maxRt)) {
             throw new SystemBlockException(resourceWrapper.getName(), "rt");
         }
 
         // load. BBR algorithm.
-        if (highestSystemLoadIsSet && getCurrentSystemAvgLoad() > highestSystemLoad) {
-            if (!checkBbr(currentThread)) {
+        if (highestSystemLoadIsSet && loadTrigger.exceeds(getCurrentSystemAvgLoad(), highestSystemLoad)) {
+            boolean pass = resourceScopedBbr && resourceNode != null
+                ? checkBbr(resourceNode, resourceNode.curThreadNum())
+                : checkBbr(Constants.ENTRY_NODE, currentThread);
+            if (!pass) {
                 throw new SystemBlockException(resourceWrapper.getName(), "load");
             }
         }
 
         // cpu usage
-        if (highestCpuUsageIsSet && getCurrentCpuUsage() > highestCpuUsage) {
+        if (highestCpuUsageIsSet && cpuUsageTrigger.exceeds(getCurrentCpuUsage(), highestCpuUsage)) {
             throw new SystemBlockException(resourceWrapper.getName(), "cpu");
         }
+
+        // cgroup cpu throttling
+        if (highestCpuThrottledRatioIsSet && cpuThrottledTrigger.exceeds(getCurrentCpuThrottledRatio(),
+            highestCpuThrottledRatio)) {
+            throw new SystemBlockException(resourceWrapper.getName(), "cpuThrottled");
+        }
+
+        // cgroup memory pressure
+        if (highestMemoryPressureIsSet && memoryPressureTrigger.exceeds(getCurrentMemoryPressure(),
+            highestMemoryPressure)) {
+            throw new SystemBlockException(resourceWrapper.getName(), "memoryPressure");
+        }
     }
 
-    private static boolean checkBbr(int currentThread) {
+    private static boolean checkBbr(Node node, int currentThread) {
         if (currentThread > 1 &&
-            currentThread > Constants.ENTRY_NODE.maxSuccessQps() * Constants.ENTRY_NODE.minRt() / 1000) {
+            currentThread > node.maxSuccessQps() * node.minRt() / 1000) {
             return false;
         }
         return true;
@@ -346,4 +475,46 @@ public final class SystemRuleManager {
     public static double getCurrentCpuUsage() {
         return statusListener.getCpuUsage();
     }
+
+    /**
+     * Get the average RT of the inbound traffic checked against {@link SystemRule#getAvgRt()}. It's the
+     * smoothed sample if a smoothing window is configured, otherwise the average RT in the recent second.
+     *
+     * @return the average RT of the inbound traffic
+     * @since 1.8.8
+     */
+    public static double getCurrentAvgRt() {
+        if (statusListener.isSmoothing()) {
+            double rt = statusListener.getAvgRt();
+            if (rt >= 0) {
+                return rt;
+            }
+        }
+        return Constants.ENTRY_NODE.avgRt();
+    }
+
+    /**
+     * @return the hysteresis ratio of the system status checks
+     * @see SentinelConfig#systemStatusHysteresisRatio()
+     * @since 1.8.8
+     */
+    public static double getHysteresisRatio() {
+        return hysteresisRatio;
+    }
+
+    /**
+     * @return ratio of the recent CFS periods in which the cgroup has been throttled, or -1 if not available
+     * @since 1.8.8
+     */
+    public static double getCurrentCpuThrottledRatio() {
+        return statusListener.getCpuThrottledRatio();
+    }
+
+    /**
+     * @return memory pressure (PSI) of the cgroup, or -1 if not available
+     * @since 1.8.8
+     */
+    public static double getCurrentMemoryPressure() {
+        return statusListener.getMemoryPressure();
+    }
 }
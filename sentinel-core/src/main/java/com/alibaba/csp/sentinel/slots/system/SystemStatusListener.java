@@ -20,24 +20,77 @@ import java.lang.management.RuntimeMXBean;
 import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.system.CgroupStatReader.CgroupStat;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import com.sun.management.OperatingSystemMXBean;
 
 /**
+ * <p>Samples the system status periodically. If the process runs in a cgroup (e.g. in a container),
+ * the CPU usage is calculated against the CPU quota of the cgroup, and the CPU throttling and memory
+ * pressure of the cgroup are sampled as well (see {@link CgroupStatReader}).</p>
+ *
+ * <p>If a smoothing window is configured (see {@link SentinelConfig#systemStatusSmoothingWindowMs()}),
+ * the load, CPU usage and average RT of the inbound traffic are smoothed by an exponentially weighted
+ * moving average, so that a short sample interval could be used without reacting to a single spike.</p>
+ *
  * @author jialiang.linjl
  */
 public class SystemStatusListener implements Runnable {
 
+    /**
+     * The status log is written at most once in the interval, however short the sample interval is.
+     */
+    private static final long STATUS_LOG_INTERVAL_MS = SentinelConfig.DEFAULT_SYSTEM_STATUS_SAMPLE_INTERVAL_MS;
+
     volatile double currentLoad = -1;
     volatile double currentCpuUsage = -1;
+    volatile double currentCpuThrottledRatio = -1;
+    volatile double currentMemoryPressure = -1;
+    volatile double currentMemoryUsage = -1;
+    volatile double currentAvgRt = -1;
 
     volatile String reason = StringUtil.EMPTY;
 
     volatile long processCpuTime = 0;
     volatile long processUpTime = 0;
 
+    private final CgroupStatReader cgroupReader;
+    private CgroupStat lastCgroupStat;
+    private long lastCgroupSampleNanos;
+    private long lastStatusLogTime;
+
+    private final SmoothedSignal loadSignal;
+    private final SmoothedSignal cpuUsageSignal;
+    private final SmoothedSignal avgRtSignal;
+
+    public SystemStatusListener() {
+        this(CgroupStatReader.create(SentinelConfig.systemCgroupRoot()));
+    }
+
+    /**
+     * @param cgroupReader reader of the cgroup statistics, nullable
+     * @since 1.8.8
+     */
+    public SystemStatusListener(CgroupStatReader cgroupReader) {
+        this(cgroupReader, SentinelConfig.systemStatusSmoothingWindowMs());
+    }
+
+    /**
+     * @param cgroupReader      reader of the cgroup statistics, nullable
+     * @param smoothingWindowMs time window of the moving average of the samples, 0 means no smoothing
+     * @since 1.8.8
+     */
+    public SystemStatusListener(CgroupStatReader cgroupReader, long smoothingWindowMs) {
+        this.cgroupReader = cgroupReader;
+        this.loadSignal = new SmoothedSignal(smoothingWindowMs);
+        this.cpuUsageSignal = new SmoothedSignal(smoothingWindowMs);
+        this.avgRtSignal = new SmoothedSignal(smoothingWindowMs);
+    }
+
     public double getSystemAverageLoad() {
         return currentLoad;
     }
@@ -46,11 +99,53 @@ public class SystemStatusListener implements Runnable {
         return currentCpuUsage;
     }
 
+    /**
+     * @return ratio of the recent CFS periods in which the cgroup has been throttled, or -1 if not available
+     * @since 1.8.8
+     */
+    public double getCpuThrottledRatio() {
+        return currentCpuThrottledRatio;
+    }
+
+    /**
+     * @return ratio of the recent time in which some tasks of the cgroup stalled on memory (PSI),
+     * or -1 if not available
+     * @since 1.8.8
+     */
+    public double getMemoryPressure() {
+        return currentMemoryPressure;
+    }
+
+    /**
+     * @return ratio of the memory usage to the memory limit of the cgroup, or -1 if not available
+     * @since 1.8.8
+     */
+    public double getMemoryUsage() {
+        return currentMemoryUsage;
+    }
+
+    /**
+     * @return smoothed average RT of the inbound traffic, or -1 if not sampled yet
+     * @since 1.8.8
+     */
+    public double getAvgRt() {
+        return currentAvgRt;
+    }
+
+    /**
+     * @return whether the samples are smoothed by a moving average
+     * @since 1.8.8
+     */
+    public boolean isSmoothing() {
+        return avgRtSignal.isSmoothing();
+    }
+
     @Override
     public void run() {
         try {
             OperatingSystemMXBean osBean = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
-            currentLoad = osBean.getSystemLoadAverage();
+            long now = TimeUtil.currentTimeMillis();
+            double systemLoad = osBean.getSystemLoadAverage();
 
             /*
              * Java Doc copied from {@link OperatingSystemMXBean#getSystemCpuLoad()}:</br>
@@ -74,9 +169,20 @@ public class SystemStatusListener implements Runnable {
             processCpuTime = newProcessCpuTime;
             processUpTime = newProcessUpTime;
 
-            currentCpuUsage = Math.max(processCpuUsage, systemCpuUsage);
+            if (cgroupReader != null) {
+                double cgroupCpuUsage = updateCgroupStatus(cgroupReader.read(), System.nanoTime(), cpuCores);
+                if (cgroupCpuUsage >= 0) {
+                    // More accurate than the process CPU time, when the CPU quota is less than the cores.
+                    processCpuUsage = cgroupCpuUsage;
+                }
+            }
+
+            updateStatus(systemLoad, Math.max(processCpuUsage, systemCpuUsage),
+                Constants.ENTRY_NODE.avgRt(), now);
 
-            if (currentLoad > SystemRuleManager.getSystemLoadThreshold()) {
+            if (currentLoad > SystemRuleManager.getSystemLoadThreshold()
+                && now - lastStatusLogTime >= STATUS_LOG_INTERVAL_MS) {
+                lastStatusLogTime = now;
                 writeSystemStatusLog();
             }
         } catch (Throwable e) {
@@ -84,13 +190,71 @@ public class SystemStatusListener implements Runnable {
         }
     }
 
+    /**
+     * Update the load, CPU usage and RT with new samples, which are smoothed if configured.
+     *
+     * @param load     the system load average
+     * @param cpuUsage the CPU usage
+     * @param avgRt    the average RT of the inbound traffic
+     * @param nowMs    time of the samples in milliseconds
+     */
+    void updateStatus(double load, double cpuUsage, double avgRt, long nowMs) {
+        currentLoad = loadSignal.update(load, nowMs);
+        currentCpuUsage = cpuUsageSignal.update(cpuUsage, nowMs);
+        currentAvgRt = avgRtSignal.update(avgRt, nowMs);
+    }
+
+    /**
+     * Update the cgroup status with a new sample.
+     *
+     * @param stat      statistics of the cgroup
+     * @param nowNanos  time of the sample in nanoseconds
+     * @param cpuCores  available processors, used when the CPU quota is unlimited
+     * @return CPU usage of the cgroup against its quota since the last sample, or -1 if not available
+     */
+    double updateCgroupStatus(CgroupStat stat, long nowNanos, int cpuCores) {
+        CgroupStat last = lastCgroupStat;
+        long elapsedNanos = nowNanos - lastCgroupSampleNanos;
+        lastCgroupStat = stat;
+        lastCgroupSampleNanos = nowNanos;
+
+        if (stat.getMemoryUsageBytes() >= 0 && stat.getMemoryLimitBytes() > 0) {
+            currentMemoryUsage = (double) stat.getMemoryUsageBytes() / stat.getMemoryLimitBytes();
+        }
+        if (last == null || elapsedNanos <= 0) {
+            return -1;
+        }
+        if (stat.getNrPeriods() >= 0 && last.getNrPeriods() >= 0) {
+            long periods = stat.getNrPeriods() - last.getNrPeriods();
+            long throttled = stat.getNrThrottled() - last.getNrThrottled();
+            currentCpuThrottledRatio = periods > 0 ? clamp((double) throttled / periods) : 0;
+        }
+        if (stat.getMemoryStallMicros() >= 0 && last.getMemoryStallMicros() >= 0) {
+            long stallNanos = TimeUnit.MICROSECONDS.toNanos(stat.getMemoryStallMicros() - last.getMemoryStallMicros());
+            currentMemoryPressure = clamp((double) stallNanos / elapsedNanos);
+        }
+        if (stat.getCpuUsageNanos() < 0 || last.getCpuUsageNanos() < 0) {
+            return -1;
+        }
+        double cores = stat.getCpuLimitCores() > 0 ? stat.getCpuLimitCores() : cpuCores;
+        return Math.max(0, (double) (stat.getCpuUsageNanos() - last.getCpuUsageNanos()) / elapsedNanos / cores);
+    }
+
+    private static double clamp(double ratio) {
+        return Math.max(0, Math.min(1, ratio));
+    }
+
     private void writeSystemStatusLog() {
         StringBuilder sb = new StringBuilder();
         sb.append("Load exceeds the threshold: ");
         sb.append("load:").append(String.format("%.4f", currentLoad)).append("; ");
         sb.append("cpuUsage:").append(String.format("%.4f", currentCpuUsage)).append("; ");
+        if (cgroupReader != null) {
+            sb.append("cpuThrottled:").append(String.format("%.4f", currentCpuThrottledRatio)).append("; ");
+            sb.append("memoryPressure:").append(String.format("%.4f", currentMemoryPressure)).append("; ");
+        }
         sb.append("qps:").append(String.format("%.4f", Constants.ENTRY_NODE.passQps())).append("; ");
-        sb.append("rt:").append(String.format("%.4f", Constants.ENTRY_NODE.avgRt())).append("; ");
+        sb.append("rt:").append(String.format("%.4f", currentAvgRt)).append("; ");
         sb.append("thread:").append(Constants.ENTRY_NODE.curThreadNum()).append("; ");
         sb.append("success:").append(String.format("%.4f", Constants.ENTRY_NODE.successQps())).append("; ");
         sb.append("minRt:").append(String.format("%.2f", Constants.ENTRY_NODE.minRt())).append("; ");
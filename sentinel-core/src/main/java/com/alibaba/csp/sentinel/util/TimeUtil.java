@@ -16,12 +16,16 @@
 package com.alibaba.csp.sentinel.util;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+import com.alibaba.csp.sentinel.util.clock.Clock;
 import com.alibaba.csp.sentinel.util.function.Tuple2;
 
 /**
@@ -35,12 +39,22 @@ import com.alibaba.csp.sentinel.util.function.Tuple2;
  * </pre>
  * For detail design and proposals please goto
  * <a href="https://github.com/alibaba/Sentinel/issues/1702#issuecomment-692151160">https://github.com/alibaba/Sentinel/issues/1702</a>
+ * </p>
+ * <p>
+ * Since 1.8.8, only one of every {@code READ_SAMPLE_RATE} reads is counted, so most reads won't touch
+ * the read statistics. Other {@link Clock}s could be selected via {@link SentinelConfig#CLOCK_TYPE},
+ * in which case the adaptive tick thread won't be started.
+ * </p>
  *
  * @author qinan.qn
  * @author jason
  */
 public final class TimeUtil implements Runnable {
     private static final long CHECK_INTERVAL = 3000;
+    /**
+     * Only one of every {@code READ_SAMPLE_RATE} reads is recorded (weighted by the rate). Must be a power of 2.
+     */
+    private static final int READ_SAMPLE_RATE = 16;
     private static final long HITS_LOWER_BOUNDARY = 800;
     private static final long HITS_UPPER_BOUNDARY = 1200;
 
@@ -63,7 +77,7 @@ public final class TimeUtil implements Runnable {
         }
     }
 
-    private static TimeUtil INSTANCE;
+    private static final Clock CLOCK;
 
     private volatile long currentTimeMillis;
     private volatile STATE state = STATE.IDLE;
@@ -76,7 +90,33 @@ public final class TimeUtil implements Runnable {
     private long lastCheck = 0;
 
     static {
-        INSTANCE = new TimeUtil();
+        CLOCK = resolveClock();
+    }
+
+    private static class AdaptiveHolder {
+        private static final TimeUtil INSTANCE = new TimeUtil();
+
+        private static final Clock CLOCK = new Clock() {
+            @Override
+            public long currentTimeMillis() {
+                return INSTANCE.getTime();
+            }
+        };
+    }
+
+    private static Clock resolveClock() {
+        String type = SentinelConfig.clockType();
+        if (!SentinelConfig.CLOCK_TYPE_ADAPTIVE.equals(type)) {
+            try {
+                Clock clock = SpiLoader.of(Clock.class).loadInstance(type);
+                RecordLog.info("[TimeUtil] Using clock: {}", clock.getClass().getName());
+                return clock;
+            } catch (Throwable t) {
+                RecordLog.warn("[TimeUtil] Failed to load clock of type <{}>, using the adaptive clock instead",
+                    type, t);
+            }
+        }
+        return AdaptiveHolder.CLOCK;
     }
 
     public TimeUtil() {
@@ -192,15 +232,16 @@ public final class TimeUtil implements Runnable {
 
     private long currentTime(boolean innerCall) {
         long now = this.currentTimeMillis;
-        Statistic val = this.statistics.currentWindow(now).value();
-        if (!innerCall) {
-            val.getReads().increment();
-        }
-        if (this.state == STATE.IDLE || this.state == STATE.PREPARE) {
+        boolean idle = this.state == STATE.IDLE || this.state == STATE.PREPARE;
+        if (idle) {
             now = System.currentTimeMillis();
             this.currentTimeMillis = now;
-            if (!innerCall) {
-                val.getWrites().increment();
+        }
+        if (!innerCall && (ThreadLocalRandom.current().nextInt() & (READ_SAMPLE_RATE - 1)) == 0) {
+            Statistic val = this.statistics.currentWindow(now).value();
+            val.getReads().add(READ_SAMPLE_RATE);
+            if (idle) {
+                val.getWrites().add(READ_SAMPLE_RATE);
             }
         }
         return now;
@@ -215,11 +256,26 @@ public final class TimeUtil implements Runnable {
         return this.currentTime(false);
     }
 
+    /**
+     * Get the adaptive clock, which is the default clock.
+     *
+     * @return the adaptive clock instance
+     */
     public static TimeUtil instance() {
-        return INSTANCE;
+        return AdaptiveHolder.INSTANCE;
+    }
+
+    /**
+     * Get the clock in use.
+     *
+     * @return the clock in use
+     * @since 1.8.8
+     */
+    public static Clock clock() {
+        return CLOCK;
     }
 
     public static long currentTimeMillis() {
-        return INSTANCE.getTime();
+        return CLOCK.currentTimeMillis();
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+/**
+ * <p>Source of the millisecond-level time used by Sentinel (see
+ * {@link com.alibaba.csp.sentinel.util.TimeUtil#currentTimeMillis()}).</p>
+ *
+ * <p>Clocks are loaded via SPI and selected by the alias in {@link com.alibaba.csp.sentinel.spi.Spi}
+ * through {@link com.alibaba.csp.sentinel.config.SentinelConfig#CLOCK_TYPE}. Built-in clocks are
+ * {@code system}, {@code nano} and {@code tick}. By default the adaptive clock of
+ * {@link com.alibaba.csp.sentinel.util.TimeUtil} is used.</p>
+ *
+ * @since 1.8.8
+ */
+public interface Clock {
+
+    /**
+     * Get current timestamp in milliseconds. Implementations should be cheap and thread-safe,
+     * as it's called several times for each invocation.
+     *
+     * @return current timestamp in milliseconds
+     */
+    long currentTimeMillis();
+}
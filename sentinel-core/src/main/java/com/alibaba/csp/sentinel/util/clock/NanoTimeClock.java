@@ -0,0 +1,48 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import com.alibaba.csp.sentinel.spi.Spi;
+
+/**
+ * <p>Clock based on {@link System#nanoTime()} deltas from the wall time when the clock is created.
+ * The time is monotonic, so it never goes back when the wall clock of OS is adjusted.</p>
+ *
+ * <p>The clock does not follow the adjustments of wall clock, so the timestamps may gradually
+ * differ from {@link System#currentTimeMillis()} (usually by a few milliseconds per day).</p>
+ *
+ * @since 1.8.8
+ */
+@Spi(NanoTimeClock.TYPE)
+public class NanoTimeClock implements Clock {
+
+    public static final String TYPE = "nano";
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final long baseMillis;
+    private final long baseNanos;
+
+    public NanoTimeClock() {
+        this.baseMillis = System.currentTimeMillis();
+        this.baseNanos = System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return baseMillis + (System.nanoTime() - baseNanos) / NANOS_PER_MILLI;
+    }
+}
@@ -18,12 +18,34 @@ package com.alibaba.csp.sentinel;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
-
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotEntryCallback;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.slots.statistic.StatisticSlotCallbackRegistry;
 
 /**
  * Test cases for {@link SphU}.
@@ -167,4 +189,198 @@ public class SphUTest {
         // The number of success is automatically updated based on batchCount when exit
         assertEquals(batchCount, e.getCurNode().totalSuccess());
     }
+
+    @Test
+    public void testHandleEntryRecycled() throws BlockException {
+        ResourceHandle handle = SphU.resolve("handleResource", EntryType.IN);
+        assertEquals("handleResource", handle.getName());
+
+        Entry e = SphU.entry(handle);
+        Context context = ContextUtil.getContext();
+        assertEquals(Constants.CONTEXT_DEFAULT_NAME, context.getName());
+        assertSame(e, context.getCurEntry());
+        assertEquals(EntryType.IN, e.resourceWrapper.getEntryType());
+        assertNotNull(e.getCurNode());
+        e.exit();
+        assertNull(ContextUtil.getContext());
+
+        // A duplicate exit is ignored.
+        e.exit();
+
+        // The default context is reused, while the recycled entry is not reused immediately.
+        Entry e1 = SphU.entry(handle, 2);
+        assertNotSame(e, e1);
+        assertSame(context, ContextUtil.getContext());
+        assertEquals(2, e1.count);
+        assertNull(e1.getError());
+        // A stale exit doesn't affect the current invocation.
+        e.exit();
+        assertSame(e1, context.getCurEntry());
+        e1.exit();
+        assertNull(ContextUtil.getContext());
+
+        // The entry is reused after a few invocations.
+        boolean reused = false;
+        for (int i = 0; i < 32 && !reused; i++) {
+            Entry e2 = SphU.entry(handle);
+            reused = e2 == e;
+            e2.exit();
+        }
+        assertTrue(reused);
+    }
+
+    @Test
+    public void testHandleEntryNested() throws BlockException {
+        ResourceHandle outer = SphU.resolve("handleOuter");
+        ResourceHandle inner = SphU.resolve("handleInner");
+
+        Entry e1 = SphU.entry(outer);
+        Entry e2 = SphU.entry(inner);
+        assertNotSame(e1, e2);
+        assertSame(e1, ((CtEntry)e2).parent);
+        assertSame(e1.getCurNode(), e2.getLastNode());
+        e2.exit();
+        assertSame(e1, ContextUtil.getContext().getCurEntry());
+        e1.exit();
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testHandleEntryInExplicitContext() throws BlockException {
+        ContextUtil.enter("handleContext", "originA");
+        try {
+            Entry e = SphU.entry(SphU.resolve("handleResource"));
+            assertEquals("handleContext", ContextUtil.getContext().getName());
+            assertEquals("originA", ContextUtil.getContext().getOrigin());
+            assertNotNull(e.getOriginNode());
+            e.exit();
+            assertNotNull(ContextUtil.getContext());
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
+    @Test
+    public void testHandleEntryBlocked() {
+        String resourceName = "handleBlockedResource";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(0)));
+        try {
+            SphU.entry(SphU.resolve(resourceName));
+            fail("should be blocked");
+        } catch (BlockException ex) {
+            assertNull(ContextUtil.getContext());
+        } finally {
+            FlowRuleManager.loadRules(null);
+        }
+    }
+
+    @Test
+    public void testHandleRulesUpdated() throws BlockException {
+        String resourceName = "handleRuleUpdatedResource";
+        ResourceHandle handle = SphU.resolve(resourceName);
+        assertNull(handle.getClusterNode());
+        SphU.entry(handle).exit();
+        assertNotNull(handle.getClusterNode());
+        assertEquals(1, handle.getClusterNode().totalSuccess());
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(0)));
+        try {
+            SphU.entry(handle);
+            fail("should be blocked after the rules are updated");
+        } catch (BlockException ex) {
+            assertEquals(1, handle.getClusterNode().blockRequest());
+        } finally {
+            FlowRuleManager.loadRules(null);
+        }
+        SphU.entry(handle).exit();
+        assertEquals(2, handle.getClusterNode().totalSuccess());
+    }
+
+    @Test
+    public void testAsyncEntryWithDeferredQueueing() throws Exception {
+        String resourceName = "deferredQueueingResource";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER).setMaxQueueingTimeMs(1000)));
+        try {
+            long start = System.currentTimeMillis();
+            AsyncEntry first = SphU.asyncEntryWithDeferredQueueing(resourceName, ResourceTypeConstants.COMMON,
+                EntryType.IN, 1, null);
+            AsyncEntry second = SphU.asyncEntryWithDeferredQueueing(resourceName, ResourceTypeConstants.COMMON,
+                EntryType.IN, 1, null);
+            // The queueing time is deferred to the caller, so the current thread is not blocked.
+            assertTrue(System.currentTimeMillis() - start < 80);
+            assertTrue(first.isQueueingDeferred());
+            assertEquals(0, first.getQueueingDelayNanos());
+            assertTrue(second.getQueueingDelayNanos() > 0);
+            assertTrue(first.whenQueueingDone().toCompletableFuture().isDone());
+            assertSame(second, second.whenQueueingDone().toCompletableFuture().get(1, TimeUnit.SECONDS));
+            assertNull(ContextUtil.getContext().getCurEntry());
+            first.exit();
+            second.exit();
+        } finally {
+            FlowRuleManager.loadRules(null);
+            ContextUtil.exit();
+        }
+    }
+
+    @Test
+    public void testAsyncEntryWithDeferredClusterCheck() throws Exception {
+        String resourceName = "deferredClusterCheckResource";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(10)
+            .setClusterMode(true).setClusterConfig(new ClusterFlowConfig().setFlowId(1024L))));
+        ClusterTokenClient client = Mockito.mock(ClusterTokenClient.class);
+        CompletableFuture<TokenResult> passed = new CompletableFuture<>();
+        CompletableFuture<TokenResult> blocked = new CompletableFuture<>();
+        Mockito.when(client.requestTokenAsync(1024L, 1, false)).thenReturn(passed, blocked);
+        @SuppressWarnings("unchecked")
+        ProcessorSlotEntryCallback<DefaultNode> callback = Mockito.mock(ProcessorSlotEntryCallback.class);
+        StatisticSlotCallbackRegistry.addEntryCallback(resourceName, callback);
+        try (MockedStatic<ClusterStateManager> state = Mockito.mockStatic(ClusterStateManager.class);
+             MockedStatic<TokenClientProvider> provider = Mockito.mockStatic(TokenClientProvider.class)) {
+            state.when(ClusterStateManager::isClient).thenReturn(true);
+            provider.when(TokenClientProvider::getClient).thenReturn(client);
+
+            // The entries are created before the token server responds.
+            AsyncEntry first = SphU.asyncEntryWithDeferredQueueing(resourceName, ResourceTypeConstants.COMMON,
+                EntryType.IN, 1, null);
+            AsyncEntry second = SphU.asyncEntryWithDeferredQueueing(resourceName, ResourceTypeConstants.COMMON,
+                EntryType.IN, 1, null);
+            assertTrue(first.hasDeferredChecks());
+            CompletableFuture<AsyncEntry> firstDone = first.whenQueueingDone().toCompletableFuture();
+            CompletableFuture<AsyncEntry> secondDone = second.whenQueueingDone().toCompletableFuture();
+            assertFalse(firstDone.isDone());
+            Mockito.verify(client, Mockito.never()).requestToken(Mockito.anyLong(), Mockito.anyInt(),
+                Mockito.anyBoolean());
+
+            passed.complete(new TokenResult(TokenResultStatus.SHOULD_WAIT).setWaitInMs(20));
+            blocked.complete(new TokenResult(TokenResultStatus.BLOCKED));
+            assertSame(first, firstDone.get(1, TimeUnit.SECONDS));
+            assertTrue(first.getQueueingDelayNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+            try {
+                secondDone.get(1, TimeUnit.SECONDS);
+                fail("The second entry should be blocked by the token server");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof FlowException);
+            }
+            assertNull(first.getDeferredBlockError());
+            assertTrue(second.getDeferredBlockError() instanceof FlowException);
+            first.exit();
+            second.exit();
+
+            // The request blocked after the fact is recorded as blocked, and handled as blocked on exit.
+            assertNull(first.getBlockError());
+            assertSame(second.getDeferredBlockError(), second.getBlockError());
+            Mockito.verify(callback).onBlocked(Mockito.same(second.getBlockError()), Mockito.any(),
+                Mockito.any(), Mockito.any(), Mockito.eq(1), Mockito.any());
+            ClusterNode node = ClusterBuilderSlot.getClusterNode(resourceName);
+            assertEquals(2, node.totalPass());
+            assertEquals(1, node.totalSuccess());
+            assertEquals(1, node.blockRequest());
+            assertEquals(0, node.curThreadNum());
+        } finally {
+            StatisticSlotCallbackRegistry.removeEntryCallback(resourceName);
+            FlowRuleManager.loadRules(null);
+            ContextUtil.exit();
+        }
+    }
 }
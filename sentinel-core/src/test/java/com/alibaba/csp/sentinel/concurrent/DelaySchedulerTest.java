@@ -0,0 +1,70 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link DelayScheduler}.
+ */
+public class DelaySchedulerTest {
+
+    @Test
+    public void testSleepIsResumedByScheduler() {
+        long start = System.nanoTime();
+        assertTrue(DelayScheduler.sleep(TimeUnit.MILLISECONDS.toNanos(30)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+
+        // Shorter than a tick.
+        start = System.nanoTime();
+        assertTrue(DelayScheduler.sleep(TimeUnit.MICROSECONDS.toNanos(100)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MICROSECONDS.toNanos(100));
+    }
+
+    @Test
+    public void testSleepInterrupted() throws Exception {
+        AtomicBoolean result = new AtomicBoolean(true);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread t = new Thread(() -> {
+            result.set(DelayScheduler.sleep(TimeUnit.SECONDS.toNanos(10)));
+            interrupted.set(Thread.currentThread().isInterrupted());
+            done.countDown();
+        });
+        t.start();
+        Thread.sleep(20);
+        t.interrupt();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertFalse(result.get());
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    public void testCompleteAfter() throws Exception {
+        long start = System.nanoTime();
+        assertEquals("ok", DelayScheduler.completeAfter("ok", TimeUnit.MILLISECONDS.toNanos(20))
+            .toCompletableFuture().get(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(DelayScheduler.completeAfter("now", 0).toCompletableFuture().isDone());
+    }
+}
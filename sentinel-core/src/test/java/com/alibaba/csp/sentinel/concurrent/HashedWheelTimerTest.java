@@ -0,0 +1,137 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link HashedWheelTimer}.
+ */
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setUp() {
+        timer = new HashedWheelTimer("sentinel-test-wheel", 1, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testTimeoutsRunInDeadlineOrder() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        long start = System.nanoTime();
+        long[] deadlines = new long[3];
+        deadlines[2] = scheduleAndGetDeadline(order, latch, 2, 60);
+        deadlines[0] = scheduleAndGetDeadline(order, latch, 0, 10);
+        deadlines[1] = scheduleAndGetDeadline(order, latch, 1, 30);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(60));
+        assertEquals(3, order.size());
+        // The test thread may be descheduled between the calls, so compare with the actual deadlines.
+        assertTrue(deadlines[order.get(0)] <= deadlines[order.get(1)] + timer.getTickNanos());
+        assertTrue(deadlines[order.get(1)] <= deadlines[order.get(2)] + timer.getTickNanos());
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    private long scheduleAndGetDeadline(List<Integer> order, CountDownLatch latch, int id, long delayMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        timer.newTimeout(() -> {
+            order.add(id);
+            latch.countDown();
+        }, delayMs, TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    @Test
+    public void testTimeoutLongerThanOneRound() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        // 8 buckets of 1 ms, so the timeout is several rounds away.
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        HashedWheelTimer.Timeout cancelled = timer.newTimeout(fired::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        CountDownLatch latch = new CountDownLatch(1);
+        timer.newTimeout(latch::countDown, 40, TimeUnit.MILLISECONDS);
+
+        assertTrue(cancelled.cancel());
+        assertTrue(cancelled.isCancelled());
+        assertFalse(cancelled.cancel());
+        assertEquals(1, timer.pendingTimeouts());
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(0, fired.get());
+        assertFalse(cancelled.isExpired());
+    }
+
+    @Test
+    public void testManyTimeouts() throws Exception {
+        int count = 20000;
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            timer.newTimeout(latch::countDown, i % 100, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    public void testResumeAfterIdle() throws Exception {
+        CountDownLatch first = new CountDownLatch(1);
+        timer.newTimeout(first::countDown, 1, TimeUnit.MILLISECONDS);
+        assertTrue(first.await(1, TimeUnit.SECONDS));
+
+        // The worker parks while there are no timeouts, and should wake up for new ones.
+        Thread.sleep(50);
+        CountDownLatch second = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timer.newTimeout(second::countDown, 20, TimeUnit.MILLISECONDS);
+        assertTrue(second.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNewTimeoutAfterStop() {
+        timer.newTimeout(() -> { }, 1, TimeUnit.MILLISECONDS);
+        timer.stop();
+        timer.newTimeout(() -> { }, 1, TimeUnit.MILLISECONDS);
+    }
+}
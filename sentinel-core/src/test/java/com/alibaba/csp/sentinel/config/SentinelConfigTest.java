@@ -11,6 +11,8 @@ import java.io.IOException;
 import static com.alibaba.csp.sentinel.config.SentinelConfig.*;
 import static com.alibaba.csp.sentinel.util.ConfigUtil.addSeparator;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test cases for {@link SentinelConfig}.
@@ -58,6 +60,58 @@ public class SentinelConfigTest {
         assertEquals(SentinelConfig.DEFAULT_COLD_FACTOR, SentinelConfig.coldFactor());
     }
 
+    @Test
+    public void testStatisticBucketStripes() {
+        try {
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, "3");
+            assertEquals(4, SentinelConfig.statisticBucketStripes());
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, "0");
+            assertEquals(1, SentinelConfig.statisticBucketStripes());
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES, "1024");
+            assertEquals(SentinelConfig.MAX_STATISTIC_BUCKET_STRIPES, SentinelConfig.statisticBucketStripes());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_BUCKET_STRIPES);
+        }
+    }
+
+    @Test
+    public void testStatisticBucketStripePadding() {
+        try {
+            assertTrue(SentinelConfig.statisticBucketStripes() <= SentinelConfig.DEFAULT_STATISTIC_BUCKET_STRIPES);
+            assertTrue(SentinelConfig.statisticBucketStripePadding());
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_BUCKET_STRIPE_PADDING, "false");
+            assertFalse(SentinelConfig.statisticBucketStripePadding());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_BUCKET_STRIPE_PADDING);
+        }
+    }
+
+    @Test
+    public void testStatisticBatchSize() {
+        try {
+            assertEquals(0, SentinelConfig.statisticBatchSize());
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_BATCH_SIZE, "64");
+            assertEquals(64, SentinelConfig.statisticBatchSize());
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_BATCH_SIZE, "-1");
+            assertEquals(0, SentinelConfig.statisticBatchSize());
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_BATCH_SIZE, "100000");
+            assertEquals(SentinelConfig.MAX_STATISTIC_BATCH_SIZE, SentinelConfig.statisticBatchSize());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void testClockType() {
+        try {
+            assertEquals(SentinelConfig.CLOCK_TYPE_ADAPTIVE, SentinelConfig.clockType());
+            SentinelConfig.setConfig(SentinelConfig.CLOCK_TYPE, " tick ");
+            assertEquals("tick", SentinelConfig.clockType());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.CLOCK_TYPE);
+        }
+    }
+
     @Test
     public void testColdFactoryLargerThanOne() {
         SentinelConfig.setConfig(SentinelConfig.COLD_FACTOR, "2");
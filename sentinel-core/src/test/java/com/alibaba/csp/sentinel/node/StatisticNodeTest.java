@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.node;
 
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import org.junit.Assert;
 import org.junit.Test;
@@ -174,7 +175,7 @@ public class StatisticNodeTest {
 
         @Override
         public void run() {
-            while (true) {
+            while (!Thread.currentThread().isInterrupted()) {
                 // print statistic info every 1 second
                 sleep(1000);
 
@@ -190,7 +191,8 @@ public class StatisticNodeTest {
         try {
             TimeUnit.MILLISECONDS.sleep(ms);
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            // Keep the interrupted status, so that the tick task could stop after shutdown.
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -236,6 +238,51 @@ public class StatisticNodeTest {
 
     }
 
+    @Test
+    public void testLongIntervalStatistics() {
+        StatisticNode disabled = new StatisticNode();
+        disabled.addPassRequest(1);
+        assertEquals(0, disabled.countInLastHour(MetricEvent.PASS));
+
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_LONG_INTERVAL_ENABLED, "true");
+        try {
+            StatisticNode node = new StatisticNode();
+            node.addPassRequest(2);
+            node.increaseBlockQps(1);
+            node.increaseExceptionQps(1);
+            node.addRtAndSuccess(10, 2);
+            assertEquals(2, node.countInLastHour(MetricEvent.PASS));
+            assertEquals(1, node.countInLastHour(MetricEvent.BLOCK));
+            assertEquals(1, node.countInLastDay(MetricEvent.EXCEPTION));
+            assertEquals(2, node.countInLastDay(MetricEvent.SUCCESS));
+            assertEquals(10, node.countInLastDay(MetricEvent.RT));
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_LONG_INTERVAL_ENABLED);
+        }
+    }
+
+    @Test
+    public void testRtPercentiles() {
+        StatisticNode disabled = new StatisticNode();
+        disabled.addRtAndSuccess(10, 1);
+        assertEquals(0, disabled.rtPercentile(99), 0.01);
+
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_RT_HISTOGRAM_ENABLED, "true");
+        try {
+            StatisticNode node = new StatisticNode();
+            for (int i = 0; i < 99; i++) {
+                node.addRtAndSuccess(2, 1);
+            }
+            node.addRtAndSuccess(800, 1);
+            assertEquals(2, node.rtPercentile(50), 0.01);
+            assertEquals(2, node.rtPercentile(99), 0.01);
+            double max = node.rtPercentile(100);
+            assertTrue(max >= 800 && max <= 900);
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_RT_HISTOGRAM_ENABLED);
+        }
+    }
+
     private static class StatisticLongAdderTask implements Runnable {
 
 
@@ -34,4 +34,38 @@ public class MetricNodeTest {
         assertEquals(2, node.getConcurrency());
         assertEquals(1, node.getSuccessQps());
     }
+
+    @Test
+    public void testRtPercentilesRoundTrip() {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(1564382218000L);
+        node.setResource("foo");
+        node.setPassQps(10);
+        node.setSuccessQps(10);
+        node.setRt(25);
+        node.setRtP50(7).setRtP95(47).setRtP99(95);
+
+        MetricNode thin = MetricNode.fromThinString(node.toThinString());
+        assertEquals(25, thin.getRt());
+        assertEquals(7, thin.getRtP50());
+        assertEquals(47, thin.getRtP95());
+        assertEquals(95, thin.getRtP99());
+
+        MetricNode fat = MetricNode.fromFatString(node.toFatString().trim());
+        assertEquals(10, fat.getSuccessQps());
+        assertEquals(7, fat.getRtP50());
+        assertEquals(47, fat.getRtP95());
+        assertEquals(95, fat.getRtP99());
+    }
+
+    @Test
+    public void testFormatWithoutRtPercentiles() {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(1564382218000L);
+        node.setResource("foo");
+        node.setRt(25);
+        String thin = node.toThinString();
+        assertEquals(10, thin.split("\\|").length);
+        assertEquals(0, MetricNode.fromThinString(thin).getRtP99());
+    }
 }
@@ -100,6 +100,27 @@ public class RuleManagerTest {
         assertFalse(ruleManager.hasConfig("rule3"));
     }
 
+    @Test
+    public void testGetRulesOfAbsentResourceIsModifiable() {
+        List<FlowRule> rules = ruleManager.getRules("absent");
+        assertTrue(rules.isEmpty());
+        rules.add(new FlowRule("absent"));
+        assertTrue(ruleManager.getRules("absent").isEmpty());
+    }
+
+    @Test
+    public void testVersionAndSnapshot() {
+        long version = RuleManager.currentVersion();
+        RuleSnapshot<FlowRule> snapshot = new RuleSnapshot<>("rule2", version, ruleManager.getRules("rule2"));
+        assertTrue(snapshot.isValidFor("rule2", RuleManager.currentVersion()));
+        assertFalse(snapshot.isValidFor("rule1", RuleManager.currentVersion()));
+        assertTrue(snapshot.getRules().isEmpty());
+
+        ruleManager.updateRules(generateFlowRules(false));
+        assertTrue(RuleManager.currentVersion() > version);
+        assertFalse(snapshot.isValidFor("rule2", RuleManager.currentVersion()));
+    }
+
     private Map<String, List<FlowRule>> generateFlowRules(boolean withRegex) {
         Map<String, List<FlowRule>> result = new HashMap<>(2);
         FlowRule flowRule1 = new FlowRule("rule1");
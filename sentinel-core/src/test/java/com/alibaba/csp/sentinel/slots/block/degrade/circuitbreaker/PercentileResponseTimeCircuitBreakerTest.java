@@ -0,0 +1,93 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PercentileResponseTimeCircuitBreakerTest extends AbstractTimeBasedTest {
+    @Before
+    public void setUp() {
+        DegradeRuleManager.loadRules(new ArrayList<DegradeRule>());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DegradeRuleManager.loadRules(new ArrayList<DegradeRule>());
+    }
+
+    @Test
+    public void testPercentileRtThreshold() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            String resource = "testPercentileRtThreshold";
+            DegradeRule rule = new DegradeRule(resource)
+                    .setCount(50)
+                    .setGrade(RuleConstant.DEGRADE_GRADE_RT_PERCENTILE)
+                    .setRtPercentile(90)
+                    .setMinRequestAmount(10)
+                    .setStatIntervalMs(10000)
+                    .setTimeWindow(5);
+            DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+            // A few slow requests don't affect p90.
+            for (int i = 0; i < 9; i++) {
+                assertTrue(entryAndSleepFor(mocked, resource, 10));
+            }
+            assertTrue(entryAndSleepFor(mocked, resource, 200));
+
+            // p90 exceeds the threshold from the 11th request, but it's checked only once every 10 requests.
+            for (int i = 0; i < 9; i++) {
+                assertTrue(entryAndSleepFor(mocked, resource, 200));
+            }
+            assertTrue(entryAndSleepFor(mocked, resource, 10));
+            assertFalse(entryAndSleepFor(mocked, resource, 10));
+
+            sleep(mocked, 5000);
+            // The probe is slow, so the circuit breaker opens again.
+            assertTrue(entryAndSleepFor(mocked, resource, 200));
+            assertFalse(entryAndSleepFor(mocked, resource, 10));
+
+            sleep(mocked, 5000);
+            // The probe is fast, so the circuit breaker closes.
+            assertTrue(entryAndSleepFor(mocked, resource, 10));
+            assertTrue(entryAndSleepFor(mocked, resource, 10));
+        }
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        DegradeRule rule = new DegradeRule("testInvalidPercentile")
+                .setCount(50)
+                .setGrade(RuleConstant.DEGRADE_GRADE_RT_PERCENTILE)
+                .setRtPercentile(0)
+                .setTimeWindow(5);
+        assertFalse(DegradeRuleManager.isValidRule(rule));
+        assertTrue(DegradeRuleManager.isValidRule(rule.setRtPercentile(99.9)));
+    }
+}
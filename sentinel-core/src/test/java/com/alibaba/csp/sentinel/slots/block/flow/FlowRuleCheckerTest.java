@@ -16,18 +16,28 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleSnapshot;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.MockedStatic;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -166,6 +176,179 @@ public class FlowRuleCheckerTest {
         assertTrue(checker.canPassCheck(rule, context, node, 1));
     }
 
+    @Test
+    public void testCheckFlowWithPlanReadsNodeOnce() throws Exception {
+        DefaultNode node = mock(DefaultNode.class);
+        ClusterNode cn = mock(ClusterNode.class);
+        when(node.getClusterNode()).thenReturn(cn);
+        when(cn.passQps()).thenReturn(5d);
+        Context context = mock(Context.class);
+        when(context.getOrigin()).thenReturn("appA");
+
+        String resource = "testCheckFlowWithPlanReadsNodeOnce";
+        FlowRule rule1 = newDefaultRule(resource, 20);
+        FlowRule rule2 = newDefaultRule(resource, 15);
+        FlowRule rule3 = newDefaultRule(resource, 10);
+        // Selects no node as the origin doesn't match.
+        FlowRule rule4 = newDefaultRule(resource, 1);
+        rule4.setLimitApp("appB");
+        FlowRulePlan plan = FlowRulePlan.compile(
+            new RuleSnapshot<>(resource, 1, Arrays.asList(rule1, rule2, rule4, rule3)));
+        assertEquals(2, plan.groupCount());
+
+        new FlowRuleChecker().checkFlow(plan, context, node, 1, false);
+        verify(node, times(1)).getClusterNode();
+        verify(cn, times(1)).passQps();
+    }
+
+    @Test
+    public void testCheckFlowWithPlanBlocksByFirstRuleInOrder() {
+        DefaultNode node = mock(DefaultNode.class);
+        ClusterNode cn = mock(ClusterNode.class);
+        when(node.getClusterNode()).thenReturn(cn);
+        when(cn.passQps()).thenReturn(8d);
+        when(cn.curThreadNum()).thenReturn(1);
+        Context context = mock(Context.class);
+
+        String resource = "testCheckFlowWithPlanBlocksByFirstRuleInOrder";
+        FlowRule rule1 = newDefaultRule(resource, 20);
+        FlowRule threadRule = newDefaultRule(resource, 1).setGrade(RuleConstant.FLOW_GRADE_THREAD);
+        threadRule.setRater(new DefaultController(1, RuleConstant.FLOW_GRADE_THREAD));
+        FlowRule rule2 = newDefaultRule(resource, 6);
+        FlowRule rule3 = newDefaultRule(resource, 8);
+        FlowRulePlan plan = FlowRulePlan.compile(
+            new RuleSnapshot<>(resource, 1, Arrays.asList(rule1, threadRule, rule2, rule3)));
+
+        try {
+            new FlowRuleChecker().checkFlow(plan, context, node, 1, false);
+            fail("should be blocked");
+        } catch (BlockException ex) {
+            assertSame(threadRule, ex.getRule());
+        }
+        plan = FlowRulePlan.compile(new RuleSnapshot<>(resource, 1, Arrays.asList(rule1, rule3, rule2)));
+        try {
+            new FlowRuleChecker().checkFlow(plan, context, node, 1, false);
+            fail("should be blocked");
+        } catch (BlockException ex) {
+            assertSame(rule3, ex.getRule());
+        }
+    }
+
+    @Test
+    public void testClusterCheckWithTokenLease() {
+        DefaultNode node = mock(DefaultNode.class);
+        ClusterNode cn = mock(ClusterNode.class);
+        when(node.getClusterNode()).thenReturn(cn);
+        when(cn.totalQps()).thenReturn(50d);
+        Context context = mock(Context.class);
+
+        long flowId = 2048L;
+        FlowRule rule = newDefaultRule("testClusterCheckWithTokenLease", 100).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(flowId).setLeaseIntervalMs(100))
+            .setClusterLease(new ClusterTokenLease());
+        ClusterTokenClient client = mock(ClusterTokenClient.class);
+        // 50 QPS in the lease interval of 100 ms.
+        CompletableFuture<TokenResult> granted = new CompletableFuture<>();
+        when(client.requestTokenLeaseAsync(flowId, 5))
+            .thenReturn(granted)
+            .thenReturn(CompletableFuture.completedFuture(
+                new TokenResult(TokenResultStatus.BLOCKED).setWaitInMs(60000)));
+        when(client.requestToken(flowId, 1, false)).thenReturn(new TokenResult(TokenResultStatus.OK));
+
+        try (MockedStatic<ClusterStateManager> state = mockStatic(ClusterStateManager.class);
+             MockedStatic<TokenClientProvider> provider = mockStatic(TokenClientProvider.class)) {
+            state.when(ClusterStateManager::isClient).thenReturn(true);
+            provider.when(TokenClientProvider::getClient).thenReturn(client);
+
+            FlowRuleChecker checker = new FlowRuleChecker();
+            // The requests go to the token server directly until the lease arrives.
+            assertTrue(checker.canPassCheck(rule, context, node, 1));
+            assertTrue(checker.canPassCheck(rule, context, node, 1));
+            verify(client, times(1)).requestTokenLeaseAsync(flowId, 5);
+            verify(client, times(2)).requestToken(flowId, 1, false);
+
+            granted.complete(new TokenResult(TokenResultStatus.OK).setRemaining(5).setWaitInMs(60000));
+            for (int i = 0; i < 5; i++) {
+                assertTrue(checker.canPassCheck(rule, context, node, 1));
+            }
+            verify(client, times(2)).requestToken(flowId, 1, false);
+            // The lease runs out, so it's renewed while the request goes to the token server.
+            assertTrue(checker.canPassCheck(rule, context, node, 1));
+            verify(client, times(2)).requestTokenLeaseAsync(flowId, 5);
+            verify(client, times(3)).requestToken(flowId, 1, false);
+            // The renewal is refused, so the requests are blocked locally until the refused lease expires.
+            assertFalse(checker.canPassCheck(rule, context, node, 1));
+            assertFalse(checker.canPassCheck(rule, context, node, 1));
+            verify(client, times(2)).requestTokenLeaseAsync(flowId, 5);
+            verify(client, times(3)).requestToken(flowId, 1, false);
+            verify(client, never()).requestTokenLease(anyLong(), anyInt());
+        }
+    }
+
+    @Test
+    public void testReleaseUnusedTokensOfExpiredLease() {
+        DefaultNode node = mock(DefaultNode.class);
+        Context context = mock(Context.class);
+
+        long flowId = 2050L;
+        FlowRule rule = newDefaultRule("testReleaseUnusedTokensOfExpiredLease", 100).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(flowId).setLeaseIntervalMs(100))
+            .setClusterLease(new ClusterTokenLease());
+        ClusterTokenClient client = mock(ClusterTokenClient.class);
+        when(client.requestTokenLeaseAsync(flowId, 1)).thenReturn(CompletableFuture.completedFuture(
+            new TokenResult(TokenResultStatus.OK).setRemaining(5).setWaitInMs(50)));
+        when(client.requestToken(flowId, 1, false)).thenReturn(new TokenResult(TokenResultStatus.OK));
+
+        try (MockedStatic<ClusterStateManager> state = mockStatic(ClusterStateManager.class);
+             MockedStatic<TokenClientProvider> provider = mockStatic(TokenClientProvider.class)) {
+            state.when(ClusterStateManager::isClient).thenReturn(true);
+            provider.when(TokenClientProvider::getClient).thenReturn(client);
+
+            FlowRuleChecker checker = new FlowRuleChecker();
+            assertTrue(checker.canPassCheck(rule, context, node, 1));
+            assertTrue(checker.canPassCheck(rule, context, node, 1));
+            assertTrue(checker.canPassCheck(rule, context, node, 1));
+            // 2 of the 5 leased tokens are used, and the rest are returned when the lease expires.
+            verify(client, timeout(2000)).releaseTokenLeaseAsync(flowId, 3);
+            verify(client, times(1)).releaseTokenLeaseAsync(anyLong(), anyInt());
+        }
+    }
+
+    @Test
+    public void testClusterCheckWithUnavailableTokenLease() {
+        DefaultNode node = mock(DefaultNode.class);
+        Context context = mock(Context.class);
+
+        long flowId = 2049L;
+        FlowRule rule = newDefaultRule("testClusterCheckWithUnavailableTokenLease", 100).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(flowId).setLeaseIntervalMs(60000))
+            .setClusterLease(new ClusterTokenLease());
+        ClusterTokenClient client = mock(ClusterTokenClient.class);
+        when(client.requestTokenLeaseAsync(anyLong(), anyInt()))
+            .thenReturn(CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.FAIL)));
+        when(client.requestToken(flowId, 1, false)).thenReturn(new TokenResult(TokenResultStatus.OK));
+
+        try (MockedStatic<ClusterStateManager> state = mockStatic(ClusterStateManager.class);
+             MockedStatic<TokenClientProvider> provider = mockStatic(TokenClientProvider.class)) {
+            state.when(ClusterStateManager::isClient).thenReturn(true);
+            provider.when(TokenClientProvider::getClient).thenReturn(client);
+
+            FlowRuleChecker checker = new FlowRuleChecker();
+            for (int i = 0; i < 3; i++) {
+                assertTrue(checker.canPassCheck(rule, context, node, 1));
+            }
+            // Falls back to requesting the token server per request.
+            verify(client, times(1)).requestTokenLeaseAsync(flowId, 1);
+            verify(client, times(3)).requestToken(flowId, 1, false);
+        }
+    }
+
+    private FlowRule newDefaultRule(String resource, double count) {
+        FlowRule rule = new FlowRule(resource).setCount(count);
+        rule.setRater(new DefaultController(count, RuleConstant.FLOW_GRADE_QPS));
+        return rule;
+    }
+
     @Before
     public void setUp() throws Exception {
         FlowRuleManager.loadRules(null);
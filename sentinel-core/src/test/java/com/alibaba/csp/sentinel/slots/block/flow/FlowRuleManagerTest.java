@@ -15,14 +15,19 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
+
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Weihua
@@ -76,4 +81,26 @@ public class FlowRuleManagerTest {
         }
         latchEnd.await(10, TimeUnit.SECONDS);
     }
+
+    @Test
+    public void testLoadAdaptiveConcurrencyRules() {
+        FlowRule threadRule = new FlowRule("testLoadAdaptiveConcurrencyRules")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY)
+            .setCount(50);
+        FlowRule qpsRule = new FlowRule("testLoadAdaptiveConcurrencyRules2")
+            .setGrade(RuleConstant.FLOW_GRADE_QPS)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY)
+            .setCount(50);
+        try {
+            FlowRuleManager.loadRules(Arrays.asList(threadRule, qpsRule));
+            List<FlowRule> rules = FlowRuleManager.getRules();
+            // The adaptive concurrency behavior only works with the thread count grade.
+            assertEquals(1, rules.size());
+            assertTrue(FlowRuleManager.getFlowRules("testLoadAdaptiveConcurrencyRules").get(0).getRater()
+                instanceof AdaptiveConcurrencyController);
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        }
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController.AdaptiveLimit;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveConcurrencyControllerTest extends AbstractTimeBasedTest {
+
+    private static final int WINDOW = AdaptiveConcurrencyController.SAMPLE_WINDOW;
+
+    @Test
+    public void testCanPassWithinLimit() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10);
+        Node node = mock(Node.class);
+        when(node.curThreadNum()).thenReturn(9).thenReturn(10);
+
+        assertEquals(10, controller.getLimit(node));
+        assertTrue(controller.canPass(node, 1));
+        assertFalse(controller.canPass(node, 1));
+    }
+
+    @Test
+    public void testBoundedNodeAmount() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, 500, 1);
+        Node tracked = mock(Node.class);
+        Node untracked = mock(Node.class);
+        when(untracked.curThreadNum()).thenReturn(9).thenReturn(10);
+
+        assertNotNull(controller.getAdaptiveLimit(tracked));
+        assertNull(controller.getAdaptiveLimit(untracked));
+        // The node beyond the bound is checked against the max limit.
+        assertTrue(controller.canPass(untracked, 1));
+        assertFalse(controller.canPass(untracked, 1));
+        assertEquals(10, controller.getLimit(untracked));
+    }
+
+    @Test
+    public void testShrinkWhenRtRises() {
+        AdaptiveLimit limiter = newLimit(100);
+        limiter.updateLimit(10, 80);
+        limiter.updateLimit(10, 80);
+        // Steady RT, the limit is capped by the max limit.
+        assertEquals(100, limiter.getLimit());
+        assertEquals(10, limiter.getNoLoadRt(), 0.01);
+
+        limiter.updateLimit(40, 80);
+        int limit = limiter.getLimit();
+        assertTrue(limit < 100);
+
+        // Less than half of the limit is used, so the sample says nothing about the capacity.
+        limiter.updateLimit(80, 10);
+        assertEquals(limit, limiter.getLimit());
+
+        limiter.updateLimit(80, limit);
+        assertTrue(limiter.getLimit() < limit);
+    }
+
+    @Test
+    public void testNoProbeWhenHealthy() {
+        AdaptiveLimit limiter = newLimit(100);
+        for (int i = 0; i < WINDOW * 3; i++) {
+            limiter.updateLimit(10, 60);
+            assertFalse(limiter.isProbing());
+            assertEquals(100, limiter.getLimit());
+        }
+    }
+
+    @Test
+    public void testProbeWhenSaturated() {
+        AdaptiveLimit limiter = newLimit(100);
+        for (int i = 0; i < WINDOW - 1; i++) {
+            limiter.updateLimit(10, 100);
+            assertFalse(limiter.isProbing());
+        }
+        limiter.updateLimit(10, 100);
+        assertTrue(limiter.isProbing());
+        assertEquals(50, limiter.getLimit());
+        for (int i = 1; i < AdaptiveConcurrencyController.PROBE_UPDATES; i++) {
+            limiter.updateLimit(10, 50);
+        }
+        assertTrue(limiter.isProbing());
+
+        limiter.updateLimit(10, 50);
+        assertFalse(limiter.isProbing());
+        assertEquals(100, limiter.getLimit());
+
+        // At most one probe in the sample window.
+        for (int i = AdaptiveConcurrencyController.PROBE_UPDATES + 1; i < WINDOW; i++) {
+            limiter.updateLimit(10, 100);
+            assertFalse(limiter.isProbing());
+        }
+        limiter.updateLimit(10, 100);
+        assertTrue(limiter.isProbing());
+    }
+
+    @Test
+    public void testProbeWhenRtDrifts() {
+        AdaptiveLimit limiter = newLimit(100);
+        for (int i = 0; i < WINDOW; i++) {
+            limiter.updateLimit(10, 60);
+        }
+        limiter.updateLimit(12, 60);
+        assertFalse(limiter.isProbing());
+        limiter.updateLimit(20, 60);
+        assertTrue(limiter.isProbing());
+    }
+
+    @Test
+    public void testAdaptToNewBaseline() {
+        AdaptiveLimit limiter = newLimit(100);
+        for (int i = 0; i < WINDOW; i++) {
+            limiter.updateLimit(10, 60);
+        }
+        // The latency of the resource steps up, which looks like queueing at first.
+        for (int i = 0; i < WINDOW; i++) {
+            limiter.updateLimit(40, limiter.getLimit());
+        }
+        int shrunk = limiter.getLimit();
+        assertTrue(shrunk < 50);
+        // The older samples are out of the window now, so the new latency becomes the baseline.
+        assertEquals(40, limiter.getNoLoadRt(), 0.01);
+
+        for (int i = 0; i < WINDOW * 2; i++) {
+            limiter.updateLimit(40, limiter.getLimit());
+        }
+        assertTrue(limiter.getLimit() > shrunk);
+    }
+
+    @Test
+    public void testLimitPerNode() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10000);
+            AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100, 500);
+            Node slowNode = mock(Node.class);
+            when(slowNode.avgRt()).thenReturn(10d, 10d, 40d);
+            when(slowNode.curThreadNum()).thenReturn(80);
+            Node fastNode = mock(Node.class);
+            when(fastNode.avgRt()).thenReturn(10d);
+            when(fastNode.curThreadNum()).thenReturn(80);
+
+            for (int i = 0; i < 3; i++) {
+                controller.canPass(slowNode, 1);
+                controller.canPass(fastNode, 1);
+                sleep(mocked, 500);
+            }
+            assertTrue(controller.getLimit(slowNode) < 100);
+            assertEquals(100, controller.getLimit(fastNode));
+            assertEquals(10, controller.getNoLoadRt(fastNode), 0.01);
+            assertEquals(100, controller.getLimit(mock(Node.class)));
+        }
+    }
+
+    @Test
+    public void testUpdateOncePerInterval() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10000);
+            AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100, 500);
+            Node node = mock(Node.class);
+            when(node.avgRt()).thenReturn(10d);
+            when(node.curThreadNum()).thenReturn(80);
+
+            controller.canPass(node, 1);
+            controller.canPass(node, 1);
+            verify(node, times(1)).avgRt();
+
+            sleep(mocked, 499);
+            controller.canPass(node, 1);
+            verify(node, times(1)).avgRt();
+
+            sleep(mocked, 1);
+            controller.canPass(node, 1);
+            verify(node, times(2)).avgRt();
+        }
+    }
+
+    private static AdaptiveLimit newLimit(double maxLimit) {
+        return new AdaptiveLimit(maxLimit, 500);
+    }
+}
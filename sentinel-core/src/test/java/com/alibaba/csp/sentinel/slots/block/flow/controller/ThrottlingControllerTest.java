@@ -15,7 +15,9 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.node.Node;
@@ -94,4 +96,27 @@ public class ThrottlingControllerTest {
             assertTrue(paceController.canPass(node, 0));
         }
     }
+
+    @Test
+    public void testTryReserveWithoutBlocking() throws Exception {
+        ThrottlingController paceController = new ThrottlingController(500, 10d);
+        Node node = mock(Node.class);
+
+        long start = TimeUtil.currentTimeMillis();
+        assertEquals(0, paceController.tryReserve(node, 1, false));
+        long lastWait = 0;
+        for (int i = 0; i < 4; i++) {
+            long waitNanos = paceController.tryReserve(node, 1, false);
+            assertTrue(waitNanos > lastWait);
+            lastWait = waitNanos;
+        }
+        // Reservations exceeding the max queueing time should be rejected.
+        assertTrue(paceController.tryReserve(node, 5, false) < 0);
+        assertTrue(TimeUtil.currentTimeMillis() - start < 200);
+
+        CompletionStage<Boolean> stage = paceController.canPassAsync(node, 1, false);
+        assertFalse(stage.toCompletableFuture().isDone());
+        assertTrue(stage.toCompletableFuture().get(1, TimeUnit.SECONDS));
+        assertFalse(new ThrottlingController(500, 0d).canPassAsync(node, 1, false).toCompletableFuture().get());
+    }
 }
@@ -128,4 +128,81 @@ public class TokenBucketTest extends AbstractTimeBasedTest {
         }
     }
 
+    @Test
+    public void testForLockFreeTokenBucket() throws InterruptedException {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            long unitProduceNum = 5;
+            long maxTokenNum = 10;
+            long intervalInMs = 1000;
+            final int n = 64;
+            long testStart = System.currentTimeMillis();
+            setCurrentMillis(mocked, testStart);
+
+            final AtomicLong passNum = new AtomicLong();
+            final AtomicLong passNumFullStart = new AtomicLong();
+            final CountDownLatch countDownLatch = new CountDownLatch(n);
+            final CountDownLatch countDownLatchFullStart = new CountDownLatch(n);
+            final LockFreeTokenBucket tokenBucket = new LockFreeTokenBucket(unitProduceNum, maxTokenNum, intervalInMs);
+            final LockFreeTokenBucket tokenBucketFullStart = new LockFreeTokenBucket(unitProduceNum, maxTokenNum,
+                    true, intervalInMs);
+
+            for (int i = 0; i < n; i++) {
+                threadPoolExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (tokenBucket.tryConsume(1)) {
+                            passNum.incrementAndGet();
+                        }
+                        countDownLatch.countDown();
+                    }
+                });
+                threadPoolExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (tokenBucketFullStart.tryConsume(1)) {
+                            passNumFullStart.incrementAndGet();
+                        }
+                        countDownLatchFullStart.countDown();
+                    }
+                });
+            }
+
+            countDownLatch.await();
+            countDownLatchFullStart.await();
+            assertEquals(5, passNum.longValue());
+            assertEquals(10, passNumFullStart.longValue());
+        }
+    }
+
+    @Test
+    public void testLockFreeTokenBucketRefill() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            long testStart = System.currentTimeMillis();
+            setCurrentMillis(mocked, testStart);
+
+            LockFreeTokenBucket tokenBucket = new LockFreeTokenBucket(3, 10, 1000);
+            assertTrue(tokenBucket.tryConsume(3));
+            assertFalse(tokenBucket.tryConsume(1));
+            assertTrue(tokenBucket.tryConsume(0));
+            assertFalse(tokenBucket.tryConsume(11));
+
+            // Tokens are produced once per unit no matter how many times it's refreshed.
+            sleep(mocked, 999);
+            assertEquals(0, tokenBucket.refreshTokenAndGetCurrentTokenNum());
+            sleep(mocked, 1);
+            assertEquals(3, tokenBucket.refreshTokenAndGetCurrentTokenNum());
+            assertEquals(3, tokenBucket.refreshTokenAndGetCurrentTokenNum());
+
+            // Tokens are capped by maxTokenNum after a long idle time.
+            sleep(mocked, 1000L * 3600 * 24 * 365);
+            assertEquals(10, tokenBucket.refreshTokenAndGetCurrentTokenNum());
+            assertTrue(tokenBucket.tryConsume(10));
+            assertFalse(tokenBucket.tryConsume(1));
+
+            // Time going backwards won't produce tokens.
+            setCurrentMillis(mocked, testStart - 5000);
+            assertFalse(tokenBucket.tryConsume(1));
+        }
+    }
+
 }
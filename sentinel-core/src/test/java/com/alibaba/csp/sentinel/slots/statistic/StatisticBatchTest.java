@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic;
+
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StatisticBatch}.
+ */
+public class StatisticBatchTest extends AbstractTimeBasedTest {
+
+    @After
+    public void tearDown() {
+        StatisticBatch.flush();
+    }
+
+    @Test
+    public void testFlushEveryBatch() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10_000);
+            StatisticNode node = new StatisticNode();
+            StatisticNode originNode = new StatisticNode();
+
+            StatisticBatch.addPass(node, 1, 4);
+            StatisticBatch.addPass(originNode, 1, 4);
+            StatisticBatch.addPass(node, 2, 4);
+            assertEquals(0, node.totalPass());
+
+            StatisticBatch.addRtAndSuccess(node, 20, 1, 4);
+            assertEquals(3, node.totalPass());
+            assertEquals(1, originNode.totalPass());
+            assertEquals(1, node.totalSuccess());
+            assertEquals(20, node.minRt(), 0.01);
+        }
+    }
+
+    @Test
+    public void testKeepMinRt() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10_000);
+            StatisticNode node = new StatisticNode();
+
+            StatisticBatch.addRtAndSuccess(node, 30, 1, 100);
+            StatisticBatch.addRtAndSuccess(node, 5, 2, 100);
+            StatisticBatch.addRtAndSuccess(node, 10, 1, 100);
+            StatisticBatch.flush();
+
+            assertEquals(4, node.totalSuccess());
+            assertEquals(5, node.minRt(), 0.01);
+            // Average RT is the total RT divided by success count.
+            assertEquals(45.0 / 4, node.avgRt(), 0.01);
+        }
+    }
+
+    @Test
+    public void testFlushOnNewBucket() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10_000);
+            StatisticNode node = new StatisticNode();
+
+            StatisticBatch.addPass(node, 1, 100);
+            StatisticBatch.addPass(node, 1, 100);
+            assertEquals(0, node.passQps(), 0.01);
+
+            sleep(mocked, 500);
+            StatisticBatch.addPass(node, 1, 100);
+            assertEquals(2, node.passQps(), 0.01);
+
+            // The counts of the first bucket are flushed into it rather than the current one,
+            // so they are gone once the first bucket is deprecated.
+            sleep(mocked, 600);
+            assertEquals(0, node.passQps(), 0.01);
+            StatisticBatch.flush();
+            assertEquals(1, node.passQps(), 0.01);
+            assertEquals(3, node.totalPass());
+        }
+    }
+
+    @Test
+    public void testFlushIdleBatches() throws Exception {
+        final StatisticNode node = new StatisticNode();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                StatisticBatch.addPass(node, 1, 100);
+                StatisticBatch.addRtAndSuccess(node, 10, 1, 100);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals(0, node.totalPass());
+
+        // The batch of a terminated thread is flushed at once.
+        StatisticBatch.flushIdleBatches();
+        assertEquals(1, node.totalPass());
+        assertEquals(1, node.totalSuccess());
+
+        // The batch of a live thread is flushed once it has been idle for a whole run.
+        StatisticBatch.addPass(node, 1, 100);
+        StatisticBatch.flushIdleBatches();
+        StatisticBatch.flushIdleBatches();
+        assertEquals(2, node.totalPass());
+    }
+}
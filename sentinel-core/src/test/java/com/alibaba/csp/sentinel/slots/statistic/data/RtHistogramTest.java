@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RtHistogramTest {
+
+    @Test
+    public void testBucketIndexAndHighestValue() {
+        for (long value = 0; value < 100000; value++) {
+            int index = RtHistogram.bucketIndex(value);
+            long highest = RtHistogram.highestValueOf(index);
+            assertTrue(highest >= value);
+            // The relative error is at most 12.5%.
+            assertTrue(highest - value <= value / 8);
+            if (index > 0) {
+                assertTrue(RtHistogram.highestValueOf(index - 1) < value);
+            }
+        }
+        assertEquals(82, new RtHistogram(5000).bucketCount());
+    }
+
+    @Test
+    public void testValueAtPercentile() {
+        RtHistogram histogram = new RtHistogram(5000);
+        assertEquals(0, histogram.valueAtPercentile(99));
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i, histogram.record(i));
+        }
+        assertEquals(100, histogram.totalCount());
+        assertEquals(1, histogram.valueAtPercentile(1));
+        assertEquals(RtHistogram.highestValueOf(RtHistogram.bucketIndex(50)), histogram.valueAtPercentile(50));
+        assertEquals(RtHistogram.highestValueOf(RtHistogram.bucketIndex(99)), histogram.valueAtPercentile(99));
+        assertEquals(RtHistogram.highestValueOf(RtHistogram.bucketIndex(100)), histogram.valueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.totalCount());
+        assertEquals(1, histogram.record(1));
+    }
+
+    @Test
+    public void testRecordAboveHighestTrackableValue() {
+        RtHistogram histogram = new RtHistogram(100);
+        histogram.record(100000);
+        assertEquals(1, histogram.totalCount());
+        assertEquals(RtHistogram.highestValueOf(RtHistogram.bucketIndex(100)), histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    public void testMerge() {
+        RtHistogram fast = new RtHistogram(5000);
+        RtHistogram slow = new RtHistogram(5000);
+        for (int i = 0; i < 90; i++) {
+            fast.record(5);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(1000);
+        }
+        long[] counts = new long[fast.bucketCount()];
+        fast.mergeTo(counts);
+        slow.mergeTo(counts);
+        assertEquals(5, RtHistogram.valueAtPercentile(counts, 90));
+        assertEquals(RtHistogram.highestValueOf(RtHistogram.bucketIndex(1000)),
+            RtHistogram.valueAtPercentile(counts, 91));
+    }
+}
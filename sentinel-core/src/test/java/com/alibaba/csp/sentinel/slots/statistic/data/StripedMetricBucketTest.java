@@ -0,0 +1,114 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.CountDownLatch;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StripedMetricBucket}.
+ */
+public class StripedMetricBucketTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalStripeCount() {
+        new StripedMetricBucket(3);
+    }
+
+    @Test
+    public void testAddAndReset() {
+        StripedMetricBucket bucket = new StripedMetricBucket(4);
+        bucket.addPass(2);
+        bucket.addBlock(1);
+        bucket.addSuccess(3);
+        bucket.addRT(20);
+        bucket.addRT(5);
+
+        assertEquals(2, bucket.pass());
+        assertEquals(1, bucket.block());
+        assertEquals(3, bucket.success());
+        assertEquals(25, bucket.rt());
+        assertEquals(5, bucket.minRt());
+        assertEquals(0, bucket.exception());
+
+        bucket.reset();
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(0, bucket.get(event));
+        }
+        assertEquals(SentinelConfig.statisticMaxRt(), bucket.minRt());
+    }
+
+    @Test
+    public void testPaddedStripes() {
+        StripedMetricBucket bucket = new StripedMetricBucket(2);
+        assertTrue(bucket.isPadded());
+        assertFalse(new StripedMetricBucket(1, false).isPadded());
+        bucket.addPass(3);
+        bucket.addException(2);
+        assertEquals(3, bucket.pass());
+        assertEquals(2, bucket.exception());
+        bucket.reset();
+        assertEquals(0, bucket.pass());
+    }
+
+    @Test
+    public void testSingleStripeWhenNotPadded() {
+        assertEquals(4, StripedMetricBucket.stripeCountFor(4, true));
+        assertEquals(1, StripedMetricBucket.stripeCountFor(4, false));
+    }
+
+    @Test
+    public void testResetFromOtherBucket() {
+        MetricBucket other = new MetricBucket();
+        other.addPass(5);
+        other.addOccupiedPass(2);
+
+        StripedMetricBucket bucket = new StripedMetricBucket(2);
+        bucket.addBlock(7);
+        bucket.reset(other);
+        assertEquals(5, bucket.pass());
+        assertEquals(2, bucket.occupiedPass());
+        assertEquals(0, bucket.block());
+    }
+
+    @Test
+    public void testMultiThreadAdd() throws Exception {
+        final StripedMetricBucket bucket = new StripedMetricBucket(8);
+        final int nThreads = 16;
+        final int count = 1000;
+        final CountDownLatch latch = new CountDownLatch(nThreads);
+        for (int i = 0; i < nThreads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < count; j++) {
+                        bucket.addPass(1);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertEquals(nThreads * count, bucket.pass());
+    }
+}
@@ -215,4 +215,73 @@ public class BucketLeapArrayTest {
 
         assertEquals(1, leapArray.list().size());
     }
+
+    @Test
+    public void testLockFreeRotateDeprecatedWindow() {
+        BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs, true);
+        long time = TimeUtil.currentTimeMillis();
+        long windowStart = time - time % windowLengthInMs;
+        WindowWrap<MetricBucket> oldWindow = leapArray.currentWindow(windowStart);
+        oldWindow.value().addPass(3);
+
+        long nextTime = windowStart + intervalInMs;
+        WindowWrap<MetricBucket> window = leapArray.currentWindow(nextTime);
+        assertNotSame(oldWindow, window);
+        assertEquals(nextTime, window.windowStart());
+        assertEquals(0L, window.value().pass());
+        // The deprecated bucket is replaced rather than reset in place.
+        assertEquals(3L, oldWindow.value().pass());
+        assertSame(window, leapArray.currentWindow(nextTime + windowLengthInMs / 2));
+    }
+
+    @Test
+    public void testLockFreeRotateAppliesResetOverride() {
+        // A subclass which carries some count over to the reset bucket.
+        BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs, true) {
+            @Override
+            protected WindowWrap<MetricBucket> resetWindowTo(WindowWrap<MetricBucket> w, long startTime) {
+                super.resetWindowTo(w, startTime);
+                w.value().addPass(7);
+                return w;
+            }
+        };
+        long time = TimeUtil.currentTimeMillis();
+        long windowStart = time - time % windowLengthInMs;
+        leapArray.currentWindow(windowStart).value().addPass(3);
+
+        WindowWrap<MetricBucket> window = leapArray.currentWindow(windowStart + intervalInMs);
+        assertEquals(windowStart + intervalInMs, window.windowStart());
+        assertEquals(7L, window.value().pass());
+    }
+
+    @Test
+    public void testLockFreeMultiThreadRotateWindow() throws Exception {
+        long time = TimeUtil.currentTimeMillis();
+        final long windowStart = time - time % windowLengthInMs;
+        final int nThreads = 16;
+        final BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs, true);
+        leapArray.currentWindow(windowStart).value().addPass(100);
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(nThreads);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException ignore) {
+                }
+                leapArray.currentWindow(windowStart + intervalInMs).value().addPass(1);
+                latch.countDown();
+            }
+        };
+
+        for (int i = 0; i < nThreads; i++) {
+            new Thread(task).start();
+        }
+        startLatch.countDown();
+        latch.await();
+
+        assertEquals(nThreads, leapArray.currentWindow(windowStart + intervalInMs).value().pass());
+    }
 }
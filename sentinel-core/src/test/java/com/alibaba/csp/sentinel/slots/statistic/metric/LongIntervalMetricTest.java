@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link LongIntervalMetric} and
+ * {@link com.alibaba.csp.sentinel.slots.statistic.base.CascadingWindow}.
+ */
+public class LongIntervalMetricTest extends AbstractTimeBasedTest {
+
+    private static final long MINUTE = 60 * 1000;
+    private static final long HOUR = 60 * MINUTE;
+
+    @Test
+    public void testSumInHourAndDay() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10 * HOUR);
+            LongIntervalMetric metric = new LongIntervalMetric();
+            assertEquals(2, metric.getLevelCount());
+
+            metric.add(MetricEvent.PASS, 3);
+            metric.add(MetricEvent.BLOCK, 1);
+            metric.addRtAndSuccess(20, 2);
+            // The pending minute should be visible in both levels.
+            assertEquals(3, metric.sum(LongIntervalMetric.HOUR_LEVEL, MetricEvent.PASS));
+            assertEquals(3, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.PASS));
+            assertEquals(1, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.BLOCK));
+            assertEquals(20, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.RT));
+
+            // The first minute is rolled into the hour bucket by the first write of the next minute.
+            sleep(mocked, MINUTE);
+            metric.add(MetricEvent.PASS, 2);
+            assertEquals(5, metric.sum(LongIntervalMetric.HOUR_LEVEL, MetricEvent.PASS));
+            assertEquals(5, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.PASS));
+            assertEquals(2, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.SUCCESS));
+        }
+    }
+
+    @Test
+    public void testExpiry() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10 * HOUR);
+            LongIntervalMetric metric = new LongIntervalMetric();
+            metric.add(MetricEvent.PASS, 4);
+
+            sleep(mocked, 2 * HOUR);
+            metric.add(MetricEvent.PASS, 1);
+            assertEquals(1, metric.sum(LongIntervalMetric.HOUR_LEVEL, MetricEvent.PASS));
+            assertEquals(5, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.PASS));
+
+            // Without any further writes, the pending minute should still expire.
+            sleep(mocked, HOUR + MINUTE);
+            assertEquals(0, metric.sum(LongIntervalMetric.HOUR_LEVEL, MetricEvent.PASS));
+            assertEquals(5, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.PASS));
+
+            sleep(mocked, 24 * HOUR);
+            assertEquals(0, metric.sum(LongIntervalMetric.DAY_LEVEL, MetricEvent.PASS));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link SlabMetric} and {@link MetricSlab}.
+ */
+public class SlabMetricTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testAddAndRotate() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10_000);
+            MetricSlab slab = new MetricSlab(1024);
+            SlabMetric metric = SlabMetric.create(slab, 2, 1000, false);
+            assertNotNull(metric);
+
+            metric.addPass(3);
+            metric.addBlock(1);
+            metric.addSuccess(2);
+            metric.addRT(30);
+            metric.addRT(10);
+            assertEquals(3, metric.pass());
+            assertEquals(1, metric.block());
+            assertEquals(2, metric.success());
+            assertEquals(40, metric.rt());
+            assertEquals(10, metric.minRt());
+
+            sleep(mocked, 500);
+            metric.addPass(2);
+            assertEquals(5, metric.pass());
+            assertEquals(3, metric.previousWindowPass());
+            assertEquals(1, metric.previousWindowBlock());
+            assertEquals(3, metric.getWindowPass(10_000));
+            assertEquals(2, metric.maxSuccess());
+
+            // The first bucket is deprecated, so it should be rotated in place.
+            sleep(mocked, 500);
+            metric.addPass(1);
+            assertEquals(3, metric.pass());
+            assertEquals(0, metric.block());
+            assertEquals(SentinelConfig.statisticMaxRt(), metric.minRt());
+
+            sleep(mocked, 2000);
+            assertEquals(0, metric.pass());
+            assertEquals(0, metric.details().size());
+        }
+    }
+
+    @Test
+    public void testDetailsAndWindows() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 60_000);
+            SlabMetric metric = SlabMetric.create(new MetricSlab(1024), 60, 60 * 1000, false);
+            metric.addPass(1);
+            metric.addSuccess(2);
+            metric.addRT(8);
+            sleep(mocked, 1000);
+            metric.addPass(4);
+
+            List<MetricNode> details = metric.details();
+            assertEquals(2, details.size());
+            assertEquals(60_000, details.get(0).getTimestamp());
+            assertEquals(1, details.get(0).getPassQps());
+            assertEquals(4, details.get(0).getRt());
+            assertEquals(4, details.get(1).getPassQps());
+
+            MetricBucket[] windows = metric.windows();
+            assertEquals(2, windows.length);
+            assertEquals(8, windows[0].rt());
+            assertEquals(8, windows[0].minRt());
+            assertEquals(0, windows[1].rt());
+        }
+    }
+
+    @Test
+    public void testOccupy() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10_000);
+            SlabMetric metric = SlabMetric.create(new MetricSlab(1024), 2, 1000, true);
+            metric.addPass(1);
+            metric.addWaiting(10_500, 2);
+            assertEquals(2, metric.waiting());
+
+            // The borrowed requests are counted as passed once the future window arrives.
+            sleep(mocked, 500);
+            assertEquals(0, metric.waiting());
+            metric.addPass(1);
+            assertEquals(4, metric.pass());
+        }
+    }
+
+    @Test
+    public void testSlabAllocation() {
+        int size = SlabMetric.regionSize(2, false);
+        MetricSlab slab = new MetricSlab(size * 2);
+        SlabMetric m1 = SlabMetric.create(slab, 2, 1000, false);
+        SlabMetric m2 = SlabMetric.create(slab, 2, 1000, false);
+        assertNotNull(m1);
+        assertNotNull(m2);
+        assertNull(SlabMetric.create(slab, 2, 1000, false));
+        assertEquals(size * 2, slab.used());
+    }
+
+    @Test
+    public void testClearInPlace() {
+        assertEquals(MetricEvent.values().length + 2, SlabMetric.BUCKET_SIZE);
+        MetricSlab slab = new MetricSlab(SlabMetric.regionSize(2, true));
+        SlabMetric metric = SlabMetric.create(slab, 2, 1000, true);
+        assertNotNull(metric);
+        metric.addPass(3);
+        metric.addRT(10);
+        metric.clear();
+        assertEquals(0, metric.pass());
+        assertEquals(SentinelConfig.statisticMaxRt(), metric.minRt());
+        // The region is kept by the metric.
+        assertNull(SlabMetric.create(slab, 2, 1000, true));
+    }
+}
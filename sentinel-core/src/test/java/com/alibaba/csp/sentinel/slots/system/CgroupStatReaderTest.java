@@ -0,0 +1,204 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.slots.system.CgroupStatReader.CgroupStat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class CgroupStatReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadV2() throws IOException {
+        File root = folder.getRoot();
+        write(root, "cgroup.controllers", "cpuset cpu io memory pids");
+        write(root, "cpu.stat", "usage_usec 2000\nuser_usec 1500\nsystem_usec 500\n"
+            + "nr_periods 10\nnr_throttled 3\nthrottled_usec 4000");
+        write(root, "cpu.max", "200000 100000");
+        write(root, "memory.current", "1048576");
+        write(root, "memory.max", "4194304");
+        write(root, "memory.pressure", "some avg10=1.50 avg60=0.80 avg300=0.20 total=12345\n"
+            + "full avg10=0.00 avg60=0.00 avg300=0.00 total=100");
+
+        CgroupStatReader reader = CgroupStatReader.create(root.getPath());
+        assertNotNull(reader);
+        assertTrue(reader.isV2());
+        CgroupStat stat = reader.read();
+        assertEquals(2000000, stat.getCpuUsageNanos());
+        assertEquals(10, stat.getNrPeriods());
+        assertEquals(3, stat.getNrThrottled());
+        assertEquals(2.0, stat.getCpuLimitCores(), 0.001);
+        assertEquals(1048576, stat.getMemoryUsageBytes());
+        assertEquals(4194304, stat.getMemoryLimitBytes());
+        assertEquals(12345, stat.getMemoryStallMicros());
+    }
+
+    @Test
+    public void testReadV2Unlimited() throws IOException {
+        File root = folder.getRoot();
+        write(root, "cgroup.controllers", "memory");
+        write(root, "cpu.max", "max 100000");
+        write(root, "memory.max", "max");
+
+        CgroupStat stat = CgroupStatReader.create(root.getPath()).read();
+        assertEquals(-1, stat.getCpuLimitCores(), 0.001);
+        assertEquals(-1, stat.getMemoryLimitBytes());
+        // Missing files.
+        assertEquals(-1, stat.getCpuUsageNanos());
+        assertEquals(-1, stat.getNrPeriods());
+        assertEquals(-1, stat.getMemoryStallMicros());
+    }
+
+    @Test
+    public void testReadV1() throws IOException {
+        File root = folder.getRoot();
+        File cpu = folder.newFolder("cpu");
+        File cpuacct = folder.newFolder("cpuacct");
+        File memory = folder.newFolder("memory");
+        write(cpu, "cpu.stat", "nr_periods 20\nnr_throttled 5\nthrottled_time 123456789");
+        write(cpu, "cpu.cfs_quota_us", "50000");
+        write(cpu, "cpu.cfs_period_us", "100000");
+        write(cpuacct, "cpuacct.usage", "987654321");
+        write(memory, "memory.usage_in_bytes", "2048");
+        write(memory, "memory.limit_in_bytes", "9223372036854771712");
+
+        CgroupStatReader reader = CgroupStatReader.create(root.getPath());
+        assertNotNull(reader);
+        assertFalse(reader.isV2());
+        CgroupStat stat = reader.read();
+        assertEquals(987654321, stat.getCpuUsageNanos());
+        assertEquals(20, stat.getNrPeriods());
+        assertEquals(5, stat.getNrThrottled());
+        assertEquals(0.5, stat.getCpuLimitCores(), 0.001);
+        assertEquals(2048, stat.getMemoryUsageBytes());
+        assertEquals(-1, stat.getMemoryLimitBytes());
+        assertEquals(-1, stat.getMemoryStallMicros());
+
+        write(cpu, "cpu.cfs_quota_us", "-1");
+        assertEquals(-1, reader.read().getCpuLimitCores(), 0.001);
+    }
+
+    @Test
+    public void testResolveV2CgroupOfProcess() throws IOException {
+        File root = folder.getRoot();
+        write(root, "cgroup.controllers", "cpu memory");
+        write(root, "memory.current", "1");
+        File self = folder.newFolder("kubepods.slice", "pod1");
+        write(self, "memory.current", "2048");
+        File membership = folder.newFile("cgroup");
+        write(folder.getRoot(), "cgroup", "0::/kubepods.slice/pod1");
+
+        CgroupStatReader reader = CgroupStatReader.create(root.getPath(), membership);
+        assertTrue(reader.isV2());
+        assertEquals(2048, reader.read().getMemoryUsageBytes());
+
+        // The cgroup of the process is mounted as the root, e.g. in a container without cgroup namespace.
+        write(folder.getRoot(), "cgroup", "0::/absent");
+        assertEquals(1, CgroupStatReader.create(root.getPath(), membership).read().getMemoryUsageBytes());
+        write(folder.getRoot(), "cgroup", "0::/");
+        assertEquals(1, CgroupStatReader.create(root.getPath(), membership).read().getMemoryUsageBytes());
+        assertEquals(1, CgroupStatReader.create(root.getPath(), new File(root, "absent")).read()
+            .getMemoryUsageBytes());
+    }
+
+    @Test
+    public void testResolveV1CgroupOfProcess() throws IOException {
+        File root = folder.getRoot();
+        File cpuacct = folder.newFolder("cpuacct", "docker", "abc");
+        File memory = folder.newFolder("memory", "docker", "abc");
+        folder.newFolder("cpu");
+        write(cpuacct, "cpuacct.usage", "1000");
+        write(memory, "memory.usage_in_bytes", "4096");
+        write(new File(root, "memory"), "memory.usage_in_bytes", "1");
+        File membership = folder.newFile("cgroup");
+        write(root, "cgroup", "12:pids:/docker/abc\n4:cpu,cpuacct:/docker/abc\n7:memory:/docker/abc\n"
+            + "0::/system.slice");
+
+        CgroupStatReader reader = CgroupStatReader.create(root.getPath(), membership);
+        assertFalse(reader.isV2());
+        CgroupStat stat = reader.read();
+        assertEquals(1000, stat.getCpuUsageNanos());
+        assertEquals(4096, stat.getMemoryUsageBytes());
+    }
+
+    @Test
+    public void testFindCgroupPath() {
+        List<String> lines = Arrays.asList("11:cpu,cpuacct:/a", "3:memory:/b", "1:name=systemd:/c", "0::/d", "bad");
+        assertEquals("/a", CgroupStatReader.findCgroupPath(lines, "cpu"));
+        assertEquals("/a", CgroupStatReader.findCgroupPath(lines, "cpuacct"));
+        assertEquals("/b", CgroupStatReader.findCgroupPath(lines, "memory"));
+        assertEquals("/d", CgroupStatReader.findCgroupPath(lines, null));
+        assertNull(CgroupStatReader.findCgroupPath(lines, "pids"));
+        assertNull(CgroupStatReader.findCgroupPath(Collections.<String>emptyList(), null));
+    }
+
+    @Test
+    public void testNoCgroup() throws IOException {
+        assertNull(CgroupStatReader.create(folder.getRoot().getPath()));
+        assertNull(CgroupStatReader.create(new File(folder.getRoot(), "absent").getPath()));
+    }
+
+    @Test
+    public void testSampleCgroupStatus() throws IOException {
+        File root = folder.getRoot();
+        write(root, "cgroup.controllers", "cpu memory");
+        write(root, "cpu.max", "100000 100000");
+        write(root, "memory.max", "1000");
+        writeV2Counters(root, 0, 0, 0, 0, 250);
+        CgroupStatReader reader = CgroupStatReader.create(root.getPath());
+        SystemStatusListener listener = new SystemStatusListener(reader);
+
+        long start = 1000000000L;
+        assertEquals(-1, listener.updateCgroupStatus(reader.read(), start, 4), 0.001);
+        assertEquals(0.25, listener.getMemoryUsage(), 0.001);
+        assertEquals(-1, listener.getCpuThrottledRatio(), 0.001);
+
+        // In 500ms: 400ms CPU time with quota of 1 core, 2 of 5 periods throttled, 100ms stalled on memory.
+        writeV2Counters(root, 400000, 5, 2, 100000, 500);
+        double cpuUsage = listener.updateCgroupStatus(reader.read(), start + 500000000L, 4);
+        assertEquals(0.8, cpuUsage, 0.001);
+        assertEquals(0.4, listener.getCpuThrottledRatio(), 0.001);
+        assertEquals(0.2, listener.getMemoryPressure(), 0.001);
+        assertEquals(0.5, listener.getMemoryUsage(), 0.001);
+    }
+
+    private static void writeV2Counters(File root, long usageMicros, long periods, long throttled, long stallMicros,
+                                        long memory) throws IOException {
+        write(root, "cpu.stat", "usage_usec " + usageMicros + "\nnr_periods " + periods
+            + "\nnr_throttled " + throttled);
+        write(root, "memory.pressure", "some avg10=0.00 avg60=0.00 avg300=0.00 total=" + stallMicros);
+        write(root, "memory.current", String.valueOf(memory));
+    }
+
+    private static void write(File dir, String name, String content) throws IOException {
+        Files.write(new File(dir, name).toPath(), (content + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -21,14 +21,20 @@ import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.MockedStatic;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Eric Zhao
@@ -100,6 +106,107 @@ public class SystemRuleManagerTest {
         assertTrue("The entry should be blocked under SystemRule maxCpuUsage=0", blocked);
     }
 
+    @Test
+    public void testLoadResourceScopedBbrRule() {
+        SystemRule rule = new SystemRule();
+        rule.setHighestSystemLoad(1.2d);
+        rule.setResourceScopedBbr(true);
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+
+        assertTrue(SystemRuleManager.isResourceScopedBbr());
+        List<SystemRule> rules = SystemRuleManager.getRules();
+        assertEquals(1, rules.size());
+        assertTrue(rules.get(0).isResourceScopedBbr());
+
+        SystemRuleManager.loadRules(new ArrayList<SystemRule>());
+        assertFalse(SystemRuleManager.isResourceScopedBbr());
+    }
+
+    @Test
+    public void testCheckResourceScopedBbr() throws Exception {
+        SystemRule rule = new SystemRule();
+        rule.setHighestSystemLoad(1.0d);
+        rule.setResourceScopedBbr(true);
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+
+        // Capacity is 100 QPS * 0.1s = 10 in-flight requests, while 50 are in flight.
+        Node slowNode = mock(Node.class);
+        when(slowNode.curThreadNum()).thenReturn(50);
+        when(slowNode.maxSuccessQps()).thenReturn(100d);
+        when(slowNode.minRt()).thenReturn(100d);
+        // Capacity is 1000 QPS * 0.01s = 10 in-flight requests, while 5 are in flight.
+        Node healthyNode = mock(Node.class);
+        when(healthyNode.curThreadNum()).thenReturn(5);
+        when(healthyNode.maxSuccessQps()).thenReturn(1000d);
+        when(healthyNode.minRt()).thenReturn(10d);
+
+        try (MockedStatic<SystemRuleManager> mocked = mockStatic(SystemRuleManager.class, CALLS_REAL_METHODS)) {
+            mocked.when(SystemRuleManager::getCurrentSystemAvgLoad).thenReturn(2.0d);
+
+            SystemRuleManager.checkSystem(new StringResourceWrapper("testCheckResourceScopedBbrHealthy",
+                EntryType.IN), healthyNode, 1);
+            try {
+                SystemRuleManager.checkSystem(new StringResourceWrapper("testCheckResourceScopedBbrSlow",
+                    EntryType.IN), slowNode, 1);
+                fail("The slow resource should be blocked when the system load exceeds the threshold");
+            } catch (SystemBlockException ex) {
+                assertEquals("load", ex.getLimitType());
+            }
+
+            mocked.when(SystemRuleManager::getCurrentSystemAvgLoad).thenReturn(0.5d);
+            SystemRuleManager.checkSystem(new StringResourceWrapper("testCheckResourceScopedBbrSlow",
+                EntryType.IN), slowNode, 1);
+        }
+    }
+
+    @Test
+    public void testLoadCgroupRules() {
+        SystemRule rule1 = new SystemRule();
+        rule1.setHighestCpuThrottledRatio(0.3d);
+        SystemRule rule2 = new SystemRule();
+        rule2.setHighestMemoryPressure(0.1d);
+        SystemRule invalidRule = new SystemRule();
+        invalidRule.setHighestMemoryPressure(10d);
+        SystemRuleManager.loadRules(Arrays.asList(invalidRule, rule1, rule2));
+
+        assertEquals(0.3d, SystemRuleManager.getCpuThrottledRatioThreshold(), 0.01);
+        assertEquals(0.1d, SystemRuleManager.getMemoryPressureThreshold(), 0.01);
+        assertEquals(2, SystemRuleManager.getRules().size());
+    }
+
+    @Test
+    public void testCheckCgroupStatus() throws Exception {
+        SystemRule rule1 = new SystemRule();
+        rule1.setHighestCpuThrottledRatio(0.3d);
+        SystemRule rule2 = new SystemRule();
+        rule2.setHighestMemoryPressure(0.1d);
+        SystemRuleManager.loadRules(Arrays.asList(rule1, rule2));
+
+        StringResourceWrapper resourceWrapper = new StringResourceWrapper("testCheckCgroupStatus", EntryType.IN);
+        try (MockedStatic<SystemRuleManager> mocked = mockStatic(SystemRuleManager.class, CALLS_REAL_METHODS)) {
+            mocked.when(SystemRuleManager::getCurrentCpuThrottledRatio).thenReturn(0.2d);
+            mocked.when(SystemRuleManager::getCurrentMemoryPressure).thenReturn(-1d);
+            SystemRuleManager.checkSystem(resourceWrapper, 1);
+
+            mocked.when(SystemRuleManager::getCurrentCpuThrottledRatio).thenReturn(0.5d);
+            try {
+                SystemRuleManager.checkSystem(resourceWrapper, 1);
+                fail("The entry should be blocked when the cgroup is throttled");
+            } catch (SystemBlockException ex) {
+                assertEquals("cpuThrottled", ex.getLimitType());
+            }
+
+            mocked.when(SystemRuleManager::getCurrentCpuThrottledRatio).thenReturn(0d);
+            mocked.when(SystemRuleManager::getCurrentMemoryPressure).thenReturn(0.15d);
+            try {
+                SystemRuleManager.checkSystem(resourceWrapper, 1);
+                fail("The entry should be blocked under memory pressure");
+            } catch (SystemBlockException ex) {
+                assertEquals("memoryPressure", ex.getLimitType());
+            }
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         SystemRuleManager.loadRules(new ArrayList<SystemRule>());
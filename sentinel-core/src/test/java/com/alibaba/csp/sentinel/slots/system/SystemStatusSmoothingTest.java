@@ -0,0 +1,211 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SystemStatusSmoothingTest {
+
+    private static final double CPU_THRESHOLD = 0.8;
+
+    @Test
+    public void testSmoothedSignal() {
+        SmoothedSignal raw = new SmoothedSignal(0);
+        assertFalse(raw.isSmoothing());
+        raw.update(0.2, 0);
+        assertEquals(0.9, raw.update(0.9, 100), 1e-9);
+
+        SmoothedSignal signal = new SmoothedSignal(200);
+        assertTrue(signal.isSmoothing());
+        assertEquals(-1, signal.get(), 1e-9);
+        assertEquals(0, signal.update(0, 0), 1e-9);
+        // A step is reflected by 1 - 1/e after one window, whatever the sample interval is.
+        assertEquals(1 - Math.exp(-1), signal.update(1, 200), 1e-9);
+
+        SmoothedSignal fineSignal = new SmoothedSignal(200);
+        fineSignal.update(0, 0);
+        for (int t = 50; t <= 200; t += 50) {
+            fineSignal.update(1, t);
+        }
+        assertEquals(1 - Math.exp(-1), fineSignal.get(), 1e-9);
+
+        // Unavailable samples are not averaged.
+        assertEquals(-1, signal.update(-1, 300), 1e-9);
+        assertEquals(0.5, signal.update(0.5, 400), 1e-9);
+    }
+
+    @Test
+    public void testHysteresisTrigger() {
+        HysteresisTrigger trigger = new HysteresisTrigger(0.1);
+        assertFalse(trigger.exceeds(0.8, CPU_THRESHOLD));
+        assertTrue(trigger.exceeds(0.81, CPU_THRESHOLD));
+        // Still exceeded until dropping below 0.8 * 0.9.
+        assertTrue(trigger.exceeds(0.75, CPU_THRESHOLD));
+        assertTrue(trigger.isTriggered());
+        assertFalse(trigger.exceeds(0.71, CPU_THRESHOLD));
+        assertFalse(trigger.exceeds(0.79, CPU_THRESHOLD));
+
+        assertTrue(trigger.exceeds(0.9, CPU_THRESHOLD));
+        trigger.reset();
+        assertFalse(trigger.exceeds(0.75, CPU_THRESHOLD));
+
+        HysteresisTrigger plain = new HysteresisTrigger(0);
+        assertTrue(plain.exceeds(0.81, CPU_THRESHOLD));
+        assertFalse(plain.exceeds(0.79, CPU_THRESHOLD));
+    }
+
+    @Test
+    public void testListenerSmoothing() {
+        SystemStatusListener listener = new SystemStatusListener(null, 200);
+        assertTrue(listener.isSmoothing());
+        listener.updateStatus(1, 0.2, 10, 0);
+        listener.updateStatus(1, 1, 10, 100);
+        assertEquals(0.2 + 0.8 * (1 - Math.exp(-0.5)), listener.getCpuUsage(), 1e-9);
+        assertEquals(10, listener.getAvgRt(), 1e-9);
+        assertEquals(1, listener.getSystemAverageLoad(), 1e-9);
+
+        SystemStatusListener rawListener = new SystemStatusListener(null, 0);
+        assertFalse(rawListener.isSmoothing());
+        rawListener.updateStatus(1, 0.2, 10, 0);
+        rawListener.updateStatus(2, 1, 20, 100);
+        assertEquals(1, rawListener.getCpuUsage(), 1e-9);
+        assertEquals(20, rawListener.getAvgRt(), 1e-9);
+        assertEquals(2, rawListener.getSystemAverageLoad(), 1e-9);
+    }
+
+    /**
+     * Simulates a burst which saturates the CPU within 200 ms, and measures how long it takes for the CPU
+     * usage check to trigger with the default 1 s raw sampling, and with 100 ms sampling smoothed by
+     * a 200 ms moving average.
+     */
+    @Test
+    public void testReactionTimeToBurst() {
+        long totalDefault = 0, totalFast = 0;
+        long maxFast = 0, minDefault = Long.MAX_VALUE;
+        int runs = 0;
+        // Different phases of the burst relative to the sampling ticks.
+        for (long burstStart = 3000; burstStart < 4000; burstStart += 37) {
+            long defaultReaction = reactionTime(new BurstCpu(burstStart), 1000, 0, 0);
+            long fastReaction = reactionTime(new BurstCpu(burstStart), 100, 200, 0.1);
+            totalDefault += defaultReaction;
+            totalFast += fastReaction;
+            maxFast = Math.max(maxFast, fastReaction);
+            minDefault = Math.min(minDefault, defaultReaction);
+            runs++;
+        }
+        long avgDefault = totalDefault / runs;
+        long avgFast = totalFast / runs;
+
+        // The raw 1 s sampling reacts after the burst has lasted more than a second on average.
+        assertTrue("avg reaction with raw sampling: " + avgDefault, avgDefault > 1000);
+        // The smoothed fast sampling is always quicker, and reacts before the burst lasts half a second.
+        assertTrue(maxFast < minDefault);
+        assertTrue("max reaction with smoothed sampling: " + maxFast, maxFast <= 500);
+        assertTrue(avgFast * 3 < avgDefault);
+    }
+
+    /**
+     * Simulates the CPU usage hovering around the threshold, and counts how many times the check flips
+     * between passing and blocking.
+     */
+    @Test
+    public void testHysteresisAvoidsFlapping() {
+        int rawFlips = flips(new NoisyCpu(7), 100, 0, 0);
+        int smoothedFlips = flips(new NoisyCpu(7), 100, 200, 0.1);
+        assertTrue("flips with raw sampling: " + rawFlips, rawFlips >= 10);
+        assertTrue("flips with smoothing and hysteresis: " + smoothedFlips, smoothedFlips <= 2);
+        assertTrue(smoothedFlips * 5 <= rawFlips);
+    }
+
+    private static long reactionTime(BurstCpu cpu, long intervalMs, long windowMs, double hysteresisRatio) {
+        SmoothedSignal signal = new SmoothedSignal(windowMs);
+        HysteresisTrigger trigger = new HysteresisTrigger(hysteresisRatio);
+        for (long t = intervalMs; t < 10000; t += intervalMs) {
+            double usage = signal.update(cpu.averageUsage(t - intervalMs, t), t);
+            if (trigger.exceeds(usage, CPU_THRESHOLD)) {
+                return t - cpu.burstStart;
+            }
+        }
+        throw new AssertionError("CPU check never triggered");
+    }
+
+    private static int flips(CpuProfile cpu, long intervalMs, long windowMs, double hysteresisRatio) {
+        SmoothedSignal signal = new SmoothedSignal(windowMs);
+        HysteresisTrigger trigger = new HysteresisTrigger(hysteresisRatio);
+        boolean blocking = false;
+        int flips = 0;
+        for (long t = intervalMs; t <= 10000; t += intervalMs) {
+            double usage = signal.update(cpu.averageUsage(t - intervalMs, t), t);
+            boolean exceeded = trigger.exceeds(usage, CPU_THRESHOLD);
+            if (exceeded != blocking) {
+                flips++;
+                blocking = exceeded;
+            }
+        }
+        return flips;
+    }
+
+    private interface CpuProfile {
+        double usageAt(long t);
+
+        /**
+         * The CPU usage observed by a sample is the average since the previous sample.
+         */
+        default double averageUsage(long from, long to) {
+            double sum = 0;
+            for (long t = from; t < to; t++) {
+                sum += usageAt(t);
+            }
+            return sum / (to - from);
+        }
+    }
+
+    private static class BurstCpu implements CpuProfile {
+        private final long burstStart;
+
+        BurstCpu(long burstStart) {
+            this.burstStart = burstStart;
+        }
+
+        @Override
+        public double usageAt(long t) {
+            if (t < burstStart) {
+                return 0.3;
+            }
+            return Math.min(1, 0.3 + 0.7 * (t - burstStart) / 200);
+        }
+    }
+
+    private static class NoisyCpu implements CpuProfile {
+        private final double[] segments = new double[10000 / 50];
+
+        NoisyCpu(long seed) {
+            Random random = new Random(seed);
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = 0.79 + (random.nextDouble() - 0.5) * 0.2;
+            }
+        }
+
+        @Override
+        public double usageAt(long t) {
+            return segments[(int)Math.min(t / 50, segments.length - 1)];
+        }
+    }
+}
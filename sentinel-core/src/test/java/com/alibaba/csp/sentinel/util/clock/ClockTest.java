@@ -0,0 +1,57 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for built-in {@link Clock}s.
+ */
+public class ClockTest {
+
+    @Test
+    public void testLoadByAlias() {
+        assertTrue(SpiLoader.of(Clock.class).loadInstance(SystemClock.TYPE) instanceof SystemClock);
+        assertTrue(SpiLoader.of(Clock.class).loadInstance(NanoTimeClock.TYPE) instanceof NanoTimeClock);
+        assertTrue(SpiLoader.of(Clock.class).loadInstance(TickClock.TYPE) instanceof TickClock);
+    }
+
+    @Test
+    public void testNanoTimeClock() throws InterruptedException {
+        Clock clock = new NanoTimeClock();
+        long t1 = clock.currentTimeMillis();
+        assertEquals(System.currentTimeMillis(), t1, 50);
+        Thread.sleep(20);
+        long t2 = clock.currentTimeMillis();
+        assertTrue(t2 - t1 >= 19);
+        assertEquals(System.currentTimeMillis(), t2, 50);
+    }
+
+    @Test
+    public void testTickClock() throws InterruptedException {
+        Clock clock = new TickClock();
+        long t1 = clock.currentTimeMillis();
+        assertEquals(System.currentTimeMillis(), t1, 50);
+        Thread.sleep(50);
+        long t2 = clock.currentTimeMillis();
+        assertTrue(t2 > t1);
+        assertEquals(System.currentTimeMillis(), t2, 50);
+    }
+}
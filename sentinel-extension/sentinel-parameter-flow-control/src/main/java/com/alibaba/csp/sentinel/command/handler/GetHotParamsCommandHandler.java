@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+import com.alibaba.csp.sentinel.slots.statistic.sketch.SpaceSavingTopK;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.fastjson.JSON;
+
+/**
+ * @since 1.8.8
+ */
+@CommandMapping(name = "getHotParams", desc = "Get the most frequent parameter values of the parameter flow rules "
+    + "in sketch mode of given resource; example: getHotParams?resource=someResource")
+public class GetHotParamsCommandHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        String resource = request.getParam("resource");
+        if (StringUtil.isBlank(resource)) {
+            return CommandResponse.ofFailure(new IllegalArgumentException("Bad resource"));
+        }
+        ParameterMetric metric = ParameterMetricStorage.getParamMetricForResource(resource);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ParamFlowRule rule : ParamFlowRuleManager.getRulesOfResource(resource)) {
+            if (!rule.isSketchMode()) {
+                continue;
+            }
+            List<Map<String, Object>> hotParams = new ArrayList<>();
+            if (metric != null) {
+                for (SpaceSavingTopK.Entry<Object> entry : metric.getHotParams(rule)) {
+                    Map<String, Object> hotParam = new LinkedHashMap<>();
+                    hotParam.put("value", entry.getKey());
+                    hotParam.put("count", entry.getCount());
+                    hotParam.put("error", entry.getError());
+                    hotParams.add(hotParam);
+                }
+            }
+            Map<String, Object> ruleHotParams = new LinkedHashMap<>();
+            ruleHotParams.put("paramIdx", rule.getParamIdx());
+            ruleHotParams.put("durationInSec", rule.getDurationInSec());
+            ruleHotParams.put("hotParams", hotParams);
+            result.add(ruleHotParams);
+        }
+        return CommandResponse.ofSuccess(JSON.toJSONString(result));
+    }
+}
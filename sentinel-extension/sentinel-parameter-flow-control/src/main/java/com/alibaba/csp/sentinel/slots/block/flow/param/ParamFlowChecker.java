@@ -15,12 +15,17 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.param;
 
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
 import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
 import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServerProvider;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
@@ -74,10 +79,15 @@ public final class ParamFlowChecker {
 
     private static boolean passLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
                                           Object value) {
+        return passLocalCheck(resourceWrapper, rule, count, value, null);
+    }
+
+    private static boolean passLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
+                                          Object value, AsyncEntry deferredEntry) {
         try {
             if (Collection.class.isAssignableFrom(value.getClass())) {
                 for (Object param : ((Collection) value)) {
-                    if (!passSingleValueCheck(resourceWrapper, rule, count, param)) {
+                    if (!passSingleValueCheck(resourceWrapper, rule, count, param, deferredEntry)) {
                         return false;
                     }
                 }
@@ -85,12 +95,12 @@ public final class ParamFlowChecker {
                 int length = Array.getLength(value);
                 for (int i = 0; i < length; i++) {
                     Object param = Array.get(value, i);
-                    if (!passSingleValueCheck(resourceWrapper, rule, count, param)) {
+                    if (!passSingleValueCheck(resourceWrapper, rule, count, param, deferredEntry)) {
                         return false;
                     }
                 }
             } else {
-                return passSingleValueCheck(resourceWrapper, rule, count, value);
+                return passSingleValueCheck(resourceWrapper, rule, count, value, deferredEntry);
             }
         } catch (Throwable e) {
             RecordLog.warn("[ParamFlowChecker] Unexpected error", e);
@@ -101,17 +111,21 @@ public final class ParamFlowChecker {
 
     static boolean passSingleValueCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                         Object value) {
+        return passSingleValueCheck(resourceWrapper, rule, acquireCount, value, null);
+    }
+
+    private static boolean passSingleValueCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule,
+                                                int acquireCount, Object value, AsyncEntry deferredEntry) {
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
             if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
-                return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value);
+                return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value, deferredEntry);
             } else {
                 return passDefaultLocalCheck(resourceWrapper, rule, acquireCount, value);
             }
         } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD) {
-            Set<Object> exclusionItems = rule.getParsedHotItems().keySet();
             long threadCount = getParameterMetric(resourceWrapper).getThreadCount(rule.getParamIdx(), value);
-            if (exclusionItems.contains(value)) {
-                int itemThreshold = rule.getParsedHotItems().get(value);
+            Integer itemThreshold = getItemThreshold(rule, value);
+            if (itemThreshold != null) {
                 return ++threadCount <= itemThreshold;
             }
             long threshold = (long) rule.getCount();
@@ -125,18 +139,17 @@ public final class ParamFlowChecker {
                                          Object value) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
         CacheMap<Object, AtomicReference<TokenUpdateStatus>> tokenCounters = metric == null ? null : metric.getRuleStampedTokenCounter(rule);
+        ParamTokenTable tokenTable = metric == null ? null : metric.getRuleTokenTable(rule);
+        ParamSketchCounter sketchCounter = metric == null ? null : metric.getRuleSketchCounter(rule);
 
         DateTimeFormatter dtf = DateTimeFormatter.ISO_DATE_TIME;
-        if (tokenCounters == null) {
+        if (tokenCounters == null && tokenTable == null && sketchCounter == null) {
             return true;
         }
 
         // Calculate max token count (threshold)
-        Set<Object> exclusionItems = rule.getParsedHotItems().keySet();
-        long tokenCount = (long) rule.getCount();
-        if (exclusionItems.contains(value)) {
-            tokenCount = rule.getParsedHotItems().get(value);
-        }
+        Integer itemThreshold = getItemThreshold(rule, value);
+        long tokenCount = itemThreshold != null ? itemThreshold : (long) rule.getCount();
 
         if (tokenCount == 0) {
             return false;
@@ -147,6 +160,14 @@ public final class ParamFlowChecker {
             return false;
         }
 
+        if (sketchCounter != null) {
+            return sketchCounter.tryAcquire(value, maxCount, acquireCount, TimeUtil.currentTimeMillis());
+        }
+        if (tokenTable != null) {
+            return tokenTable.tryAcquire(ParamHashing.hash(value), tokenCount, maxCount,
+                rule.getDurationInSec() * 1000, acquireCount, TimeUtil.currentTimeMillis());
+        }
+
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
 
@@ -195,6 +216,15 @@ public final class ParamFlowChecker {
 
     static boolean passThrottleLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                           Object value) {
+        return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value, null);
+    }
+
+    /**
+     * Check the rate limiter. If the entry whose queueing is deferred is given, the waiting time is reserved
+     * on the entry rather than slept by the current thread.
+     */
+    private static boolean passThrottleLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule,
+                                                  int acquireCount, Object value, AsyncEntry deferredEntry) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
         CacheMap<Object, AtomicLong> timeRecorderMap = metric == null ? null : metric.getRuleTimeCounter(rule);
         if (timeRecorderMap == null) {
@@ -202,11 +232,8 @@ public final class ParamFlowChecker {
         }
 
         // Calculate max token count (threshold)
-        Set<Object> exclusionItems = rule.getParsedHotItems().keySet();
-        long tokenCount = (long) rule.getCount();
-        if (exclusionItems.contains(value)) {
-            tokenCount = rule.getParsedHotItems().get(value);
-        }
+        Integer itemThreshold = getItemThreshold(rule, value);
+        long tokenCount = itemThreshold != null ? itemThreshold : (long) rule.getCount();
 
         if (tokenCount == 0) {
             return false;
@@ -229,6 +256,10 @@ public final class ParamFlowChecker {
                     long waitTime = expectedTime - currentTime;
                     if (waitTime > 0) {
                         lastPastTimeRef.set(expectedTime);
+                        if (deferredEntry != null) {
+                            deferredEntry.addQueueingDelay(TimeUnit.MILLISECONDS.toNanos(waitTime));
+                            return true;
+                        }
                         try {
                             TimeUnit.MILLISECONDS.sleep(waitTime);
                         } catch (InterruptedException e) {
@@ -245,6 +276,21 @@ public final class ParamFlowChecker {
         }
     }
 
+    /**
+     * Get the threshold of the parameter exception item with a single lookup. A {@link ParamFlowKey} is matched
+     * with its raw value.
+     */
+    private static Integer getItemThreshold(ParamFlowRule rule, Object value) {
+        Map<Object, Integer> hotItems = rule.getParsedHotItems();
+        if (hotItems == null || hotItems.isEmpty()) {
+            return null;
+        }
+        if (value instanceof ParamFlowKey) {
+            value = ((ParamFlowKey) value).getValue();
+        }
+        return value == null ? null : hotItems.get(value);
+    }
+
     private static ParameterMetric getParameterMetric(ResourceWrapper resourceWrapper) {
         // Should not be null.
         return ParameterMetricStorage.getParamMetric(resourceWrapper);
@@ -267,10 +313,42 @@ public final class ParamFlowChecker {
         }
     }
 
+    /**
+     * Get the parameters sent to the token server, with the {@link ParamFlowKey} unwrapped to the raw value,
+     * which the server indexes with the same hash.
+     *
+     * @return the parameters, or null if any key is created from a hash, whose raw value is unknown
+     */
+    private static Collection<Object> toClusterParams(Object value) {
+        Collection<Object> params = toCollection(value);
+        boolean hasKey = false;
+        for (Object param : params) {
+            if (param instanceof ParamFlowKey) {
+                if (((ParamFlowKey) param).getValue() == null) {
+                    return null;
+                }
+                hasKey = true;
+            }
+        }
+        if (!hasKey) {
+            return params;
+        }
+        List<Object> unwrapped = new ArrayList<Object>(params.size());
+        for (Object param : params) {
+            unwrapped.add(param instanceof ParamFlowKey ? ((ParamFlowKey) param).getValue() : param);
+        }
+        return unwrapped;
+    }
+
     private static boolean passClusterCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
                                             Object value) {
         try {
-            Collection<Object> params = toCollection(value);
+            AsyncEntry deferredEntry = getQueueingDeferredEntry();
+            Collection<Object> params = toClusterParams(value);
+            if (params == null) {
+                // The token server can't check the keys without the raw value.
+                return passLocalCheck(resourceWrapper, rule, count, value, deferredEntry);
+            }
 
             TokenService clusterService = pickClusterService();
             if (clusterService == null) {
@@ -278,6 +356,12 @@ public final class ParamFlowChecker {
                 // pass in need.
                 return fallbackToLocalOrPass(resourceWrapper, rule, count, params);
             }
+            if (deferredEntry != null && clusterService instanceof ClusterTokenClient) {
+                // Don't wait for the remote server, the caller will wait for the result with the entry.
+                deferClusterCheck((ClusterTokenClient) clusterService, deferredEntry, resourceWrapper, rule, count,
+                    value, params);
+                return true;
+            }
 
             TokenResult result = clusterService.requestParamToken(rule.getClusterConfig().getFlowId(), count, params);
             switch (result.getStatus()) {
@@ -294,10 +378,46 @@ public final class ParamFlowChecker {
         }
     }
 
+    private static void deferClusterCheck(ClusterTokenClient client, AsyncEntry deferredEntry,
+                                          ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
+                                          Object value, Collection<Object> params) {
+        // The result is handled on the executor of deferred checks, where the local fallback reserves
+        // its queueing time on the entry instead of sleeping.
+        deferredEntry.addDeferredCheck(client.requestParamTokenAsync(rule.getClusterConfig().getFlowId(), count,
+            params), (result, ex) -> {
+                boolean pass;
+                if (ex != null || result == null) {
+                    RecordLog.warn("[ParamFlowChecker] Request cluster token for parameter unexpected failed", ex);
+                    pass = fallbackToLocalOrPass(resourceWrapper, rule, count, params, deferredEntry);
+                } else if (result.getStatus() == TokenResultStatus.OK) {
+                    pass = true;
+                } else if (result.getStatus() == TokenResultStatus.BLOCKED) {
+                    pass = false;
+                } else {
+                    pass = fallbackToLocalOrPass(resourceWrapper, rule, count, params, deferredEntry);
+                }
+                return pass ? null : new ParamFlowException(resourceWrapper.getName(), String.valueOf(value), rule);
+            });
+    }
+
+    private static AsyncEntry getQueueingDeferredEntry() {
+        Context context = ContextUtil.getContext();
+        Entry curEntry = context == null ? null : context.getCurEntry();
+        if (curEntry instanceof AsyncEntry && ((AsyncEntry) curEntry).isQueueingDeferred()) {
+            return (AsyncEntry) curEntry;
+        }
+        return null;
+    }
+
     private static boolean fallbackToLocalOrPass(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
                                                  Object value) {
+        return fallbackToLocalOrPass(resourceWrapper, rule, count, value, null);
+    }
+
+    private static boolean fallbackToLocalOrPass(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
+                                                 Object value, AsyncEntry deferredEntry) {
         if (rule.getClusterConfig().isFallbackToLocalWhenFail()) {
-            return passLocalCheck(resourceWrapper, rule, count, value);
+            return passLocalCheck(resourceWrapper, rule, count, value, deferredEntry);
         } else {
             // The rule won't be activated, just pass.
             return true;
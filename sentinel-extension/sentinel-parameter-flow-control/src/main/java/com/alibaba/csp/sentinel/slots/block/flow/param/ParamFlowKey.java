@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+/**
+ * <p>A parameter value with its 64-bit hash computed in advance, which could be passed as a parameter
+ * (or returned by {@link ParamFlowArgument#paramFlowKey()}) instead of the raw value.</p>
+ *
+ * <p>With the sharded token store (see {@link ParameterMetric#SHARDED_TOKEN_STORE}) or the sketch mode
+ * (see {@link ParamFlowRule#setSketchMode(boolean)}), the counters are indexed by the hash directly, so a key
+ * created once (e.g. when a user logs in) and reused with a reused argument array saves the boxing of
+ * primitive values, the hashing of strings and the allocations for each invocation:</p>
+ *
+ * <pre>
+ * ParamFlowKey key = ParamFlowKey.of(userId);
+ * Object[] args = new Object[] {key};
+ * // For each request:
+ * try (Entry entry = SphU.entry(resourceName, EntryType.IN, 1, args)) {
+ *     // ...
+ * }
+ * </pre>
+ *
+ * <p>In these stores, the counters of a key are shared with the raw value it's created from. Keys are equal if their hashes
+ * are equal. Parameter exception items are matched with the raw value, which is unknown for the keys created
+ * by {@link #ofHash(long)}.</p>
+ *
+ * <p>In cluster mode, the raw value of the key is sent to the token server, which indexes it with the same hash.
+ * The keys created by {@link #ofHash(long)} are checked locally instead.</p>
+ *
+ * @since 1.8.8
+ */
+public final class ParamFlowKey {
+
+    private final long hash;
+    private final Object value;
+
+    private ParamFlowKey(long hash, Object value) {
+        this.hash = hash;
+        this.value = value;
+    }
+
+    /**
+     * @param value the parameter value, e.g. a user ID
+     * @return key of the value
+     */
+    public static ParamFlowKey of(long value) {
+        Long boxed = value;
+        return new ParamFlowKey(ParamHashing.hash(boxed), boxed);
+    }
+
+    /**
+     * @param value the parameter value, not null
+     * @return key of the value
+     */
+    public static ParamFlowKey of(String value) {
+        return new ParamFlowKey(ParamHashing.hash(value), value);
+    }
+
+    /**
+     * Create a key from a hash computed by the caller, e.g. from a request ID of a protocol.
+     * The hash should be well distributed over all of its bits.
+     *
+     * @param hash 64-bit hash of the parameter value
+     * @return key of the hash
+     */
+    public static ParamFlowKey ofHash(long hash) {
+        return new ParamFlowKey(ParamHashing.nonEmpty(hash), null);
+    }
+
+    /**
+     * Compute the 64-bit hash of a parameter value in the same way as the keys, e.g. to index the
+     * parameter statistics of the cluster token server.
+     *
+     * @param value the parameter value, not null
+     * @return non-zero 64-bit hash of the value
+     */
+    public static long hashOf(Object value) {
+        return ParamHashing.hash(value);
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the raw parameter value, or null if created by {@link #ofHash(long)}
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParamFlowKey)) {
+            return false;
+        }
+        return hash == ((ParamFlowKey) o).hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return value != null ? String.valueOf(value) : Long.toHexString(hash);
+    }
+}
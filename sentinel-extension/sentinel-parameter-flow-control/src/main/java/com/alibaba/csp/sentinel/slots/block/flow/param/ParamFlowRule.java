@@ -82,6 +82,12 @@ public class ParamFlowRule extends AbstractRule {
      */
     private ParamFlowClusterConfig clusterConfig;
 
+    /**
+     * Whether to count the parameter values approximately in bounded memory (since 1.8.8).
+     * Only available for QPS grade with default control behavior.
+     */
+    private boolean sketchMode = false;
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -188,6 +194,26 @@ public class ParamFlowRule extends AbstractRule {
         return this;
     }
 
+    public boolean isSketchMode() {
+        return sketchMode;
+    }
+
+    /**
+     * Set whether to count the parameter values with a Count-Min Sketch in the sliding window of
+     * {@code durationInSec}, instead of a token bucket per value kept in an LRU cache. The memory is bounded
+     * whatever the amount of distinct values is, so counters of hot values won't be lost by eviction, at the cost
+     * of infrequent values being blocked early occasionally. The most frequent values could be retrieved by
+     * {@link ParameterMetric#getHotParams(ParamFlowRule)}.
+     *
+     * @param sketchMode whether to enable the sketch mode
+     * @return this rule
+     * @since 1.8.8
+     */
+    public ParamFlowRule setSketchMode(boolean sketchMode) {
+        this.sketchMode = sketchMode;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -203,6 +229,7 @@ public class ParamFlowRule extends AbstractRule {
         if (burstCount != that.burstCount) { return false; }
         if (durationInSec != that.durationInSec) { return false; }
         if (clusterMode != that.clusterMode) { return false; }
+        if (sketchMode != that.sketchMode) { return false; }
         if (!Objects.equals(paramIdx, that.paramIdx)) { return false; }
         if (!Objects.equals(paramFlowItemList, that.paramFlowItemList)) { return false; }
         return Objects.equals(clusterConfig, that.clusterConfig);
@@ -223,6 +250,7 @@ public class ParamFlowRule extends AbstractRule {
         result = 31 * result + (paramFlowItemList != null ? paramFlowItemList.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
+        result = 31 * result + (sketchMode ? 1 : 0);
         return result;
     }
 
@@ -239,6 +267,7 @@ public class ParamFlowRule extends AbstractRule {
             ", paramFlowItemList=" + paramFlowItemList +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
+            ", sketchMode=" + sketchMode +
             '}';
     }
 }
@@ -49,7 +49,12 @@ public final class ParamFlowRuleUtil {
             && rule.getGrade() >= 0 && rule.getParamIdx() != null
             && rule.getBurstCount() >= 0 && rule.getControlBehavior() >= 0
             && rule.getDurationInSec() > 0 && rule.getMaxQueueingTimeMs() >= 0
-            && checkCluster(rule) & checkRegexField(rule);
+            && checkCluster(rule) & checkRegexField(rule) && checkSketchMode(rule);
+    }
+
+    private static boolean checkSketchMode(/*@PreChecked*/ ParamFlowRule rule) {
+        return !rule.isSketchMode() || (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_DEFAULT);
     }
 
     private static boolean checkCluster(/*@PreChecked*/ ParamFlowRule rule) {
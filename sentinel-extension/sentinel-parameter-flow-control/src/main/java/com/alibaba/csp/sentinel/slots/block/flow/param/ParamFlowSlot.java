@@ -20,6 +20,8 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleManager;
+import com.alibaba.csp.sentinel.slots.block.RuleSnapshot;
 import com.alibaba.csp.sentinel.spi.Spi;
 
 import java.util.List;
@@ -34,10 +36,15 @@ import java.util.List;
 @Spi(order = -3000)
 public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
+    /**
+     * Snapshot of the rules of the resource, reused until rules are updated.
+     */
+    private volatile RuleSnapshot<ParamFlowRule> ruleSnapshot;
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
-        if (!ParamFlowRuleManager.hasRules(resourceWrapper.getName())) {
+        if (getRules(resourceWrapper.getName()).isEmpty()) {
             fireEntry(context, resourceWrapper, node, count, prioritized, args);
             return;
         }
@@ -67,10 +74,10 @@ public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         if (args == null) {
             return;
         }
-        if (!ParamFlowRuleManager.hasRules(resourceWrapper.getName())) {
+        List<ParamFlowRule> rules = getRules(resourceWrapper.getName());
+        if (rules.isEmpty()) {
             return;
         }
-        List<ParamFlowRule> rules = ParamFlowRuleManager.getRulesOfResource(resourceWrapper.getName());
 
         for (ParamFlowRule rule : rules) {
             applyRealParamIdx(rule, args.length);
@@ -92,4 +99,14 @@ public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             }
         }
     }
+
+    private List<ParamFlowRule> getRules(String resource) {
+        long version = RuleManager.currentVersion();
+        RuleSnapshot<ParamFlowRule> snapshot = ruleSnapshot;
+        if (snapshot == null || !snapshot.isValidFor(resource, version)) {
+            snapshot = new RuleSnapshot<>(resource, version, ParamFlowRuleManager.getRulesOfResource(resource));
+            ruleSnapshot = snapshot;
+        }
+        return snapshot.getRules();
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+/**
+ * <p>64-bit hashing of parameter values, used as the keys of the primitive parameter metric stores.</p>
+ *
+ * <p>Integral values are hashed from their exact value and strings from all of their characters,
+ * so that distinct values practically never share a counter. Other values are hashed from
+ * {@link Object#hashCode()}, which is only 32-bit. The hash of a {@link ParamFlowKey} is computed in advance.</p>
+ *
+ * @since 1.8.8
+ */
+final class ParamHashing {
+
+    /**
+     * Hash reserved for empty slots.
+     */
+    static final long EMPTY = 0L;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final long STRING_SEED = 0x9e3779b97f4a7c15L;
+    private static final long INTEGRAL_SEED = 0xc2b2ae3d27d4eb4fL;
+    private static final long DOUBLE_SEED = 0x165667b19e3779f9L;
+
+    /**
+     * @param value parameter value, not null
+     * @return non-zero 64-bit hash of the value
+     */
+    static long hash(Object value) {
+        if (value instanceof ParamFlowKey) {
+            return ((ParamFlowKey) value).getHash();
+        }
+        long h;
+        if (value instanceof String) {
+            h = hashString((String) value) ^ STRING_SEED;
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+            || value instanceof Byte) {
+            h = ((Number) value).longValue() ^ INTEGRAL_SEED;
+        } else if (value instanceof Character) {
+            h = (Character) value ^ INTEGRAL_SEED;
+        } else if (value instanceof Double || value instanceof Float) {
+            h = Double.doubleToLongBits(((Number) value).doubleValue()) ^ DOUBLE_SEED;
+        } else {
+            h = ((long) value.getClass().hashCode() << 32) ^ value.hashCode();
+        }
+        return nonEmpty(mix(h));
+    }
+
+    static long hashString(String s) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreading every input bit over the hash.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static long nonEmpty(long h) {
+        return h == EMPTY ? STRING_SEED : h;
+    }
+
+    private ParamHashing() {}
+}
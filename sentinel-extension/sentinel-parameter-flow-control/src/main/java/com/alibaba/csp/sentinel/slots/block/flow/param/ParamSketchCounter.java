@@ -0,0 +1,140 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.slots.statistic.sketch.CountMinSketch;
+import com.alibaba.csp.sentinel.slots.statistic.sketch.SpaceSavingTopK;
+
+/**
+ * <p>Approximate counter of a parameter flow rule in sketch mode (see {@link ParamFlowRule#isSketchMode()}),
+ * which takes bounded memory whatever the amount of distinct parameter values is.</p>
+ *
+ * <p>The passed count of the values is kept in a {@link CountMinSketch} per statistic window. The count in
+ * the sliding window is estimated as the count in the current window, plus the count in the previous
+ * window weighted by the part of the previous window still in the sliding window. As the sketch never
+ * under-counts, the threshold is never exceeded (except for concurrent requests racing over the threshold),
+ * while infrequent values may be blocked early by at most {@code e / width} of the total passed count.</p>
+ *
+ * <p>The most frequent values of the window are tracked by a {@link SpaceSavingTopK}, and the ones of the
+ * last complete window are reported as the hot parameters.</p>
+ *
+ * @since 1.8.8
+ */
+final class ParamSketchCounter {
+
+    static final int DEFAULT_DEPTH = 4;
+    static final int DEFAULT_WIDTH = 1 << 14;
+    static final int DEFAULT_TOP_K = 20;
+
+    private final long windowMs;
+    private final SpaceSavingTopK<Object> topK;
+
+    private volatile Window window;
+    private volatile List<SpaceSavingTopK.Entry<Object>> lastTopK = Collections.emptyList();
+
+    ParamSketchCounter(long windowMs, long currentTime) {
+        this(windowMs, DEFAULT_DEPTH, DEFAULT_WIDTH, DEFAULT_TOP_K, currentTime);
+    }
+
+    ParamSketchCounter(long windowMs, int depth, int width, int topK, long currentTime) {
+        this.windowMs = windowMs;
+        this.topK = new SpaceSavingTopK<>(topK);
+        this.window = new Window(currentTime, new CountMinSketch(depth, width), new CountMinSketch(depth, width));
+    }
+
+    /**
+     * @param value        the parameter value
+     * @param maxCount     max count of the value in the sliding window
+     * @param acquireCount count to acquire
+     * @param currentTime  current time in milliseconds
+     * @return whether the count is acquired
+     */
+    boolean tryAcquire(Object value, long maxCount, int acquireCount, long currentTime) {
+        Window w = currentWindow(currentTime);
+        long hash = ParamHashing.hash(value);
+        long currentCount = w.current.estimate(hash);
+        double previousWeight = 1 - (double) Math.max(currentTime - w.start, 0) / windowMs;
+        long previousCount = (long) Math.ceil(w.previous.estimate(hash) * previousWeight);
+        if (currentCount + previousCount + acquireCount > maxCount) {
+            // The blocked count isn't in the sketch, so there's no upper bound of the total count.
+            topK.offer(value, acquireCount);
+            return false;
+        }
+        topK.offer(value, acquireCount, w.current.add(hash, acquireCount));
+        return true;
+    }
+
+    /**
+     * @param value       the parameter value
+     * @param currentTime current time in milliseconds
+     * @return estimated count of the value in the current window
+     */
+    long estimate(Object value, long currentTime) {
+        return currentWindow(currentTime).current.estimate(ParamHashing.hash(value));
+    }
+
+    /**
+     * @param currentTime current time in milliseconds
+     * @return most frequent values of the last complete window, including the blocked requests
+     */
+    List<SpaceSavingTopK.Entry<Object>> getHotParams(long currentTime) {
+        currentWindow(currentTime);
+        return lastTopK;
+    }
+
+    private Window currentWindow(long currentTime) {
+        Window w = window;
+        if (currentTime - w.start < windowMs) {
+            return w;
+        }
+        synchronized (this) {
+            w = window;
+            if (currentTime - w.start < windowMs) {
+                return w;
+            }
+            long start = currentTime - (currentTime - w.start) % windowMs;
+            // Reuse the sketch of the window before the previous one.
+            CountMinSketch current = w.previous;
+            current.reset();
+            if (start - w.start == windowMs) {
+                lastTopK = topK.topK();
+            } else {
+                // No request in the last complete window.
+                w.current.reset();
+                lastTopK = Collections.emptyList();
+            }
+            topK.clear();
+            Window next = new Window(start, current, w.current);
+            window = next;
+            return next;
+        }
+    }
+
+    private static final class Window {
+        private final long start;
+        private final CountMinSketch current;
+        private final CountMinSketch previous;
+
+        Window(long start, CountMinSketch current, CountMinSketch previous) {
+            this.start = start;
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+}
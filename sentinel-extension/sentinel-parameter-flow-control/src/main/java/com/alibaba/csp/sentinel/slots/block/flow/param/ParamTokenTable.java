@@ -0,0 +1,273 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Primitive store of the token buckets of a parameter flow rule, as an alternative to the map of
+ * {@code AtomicReference<TokenUpdateStatus>}, which allocates a new status on every update.</p>
+ *
+ * <p>The buckets are kept in open-addressing hash tables keyed by the 64-bit hash of the parameter values
+ * (see {@link ParamHashing}). Each slot takes two adjacent longs of an {@link AtomicLongArray}: the key, and
+ * the state packing the last time tokens were added and the rest tokens, which is updated by a single CAS.
+ * The tables are split into shards allocated on first use, so that a rule with few distinct values
+ * takes little memory.</p>
+ *
+ * <p>When the probed slots of a value are all taken, the bucket least recently refilled among them is
+ * replaced, similar to the LRU eviction of the map. The state of the slot is locked (by a CAS to
+ * {@link #LOCKED}) before the key is replaced, and then reset to a "never added" state tagged with the
+ * new key. Updates of the old value read its state before re-checking the key, so they either see the
+ * new key and look up their slot again, or fail their CAS as the state has been changed.</p>
+ *
+ * @since 1.8.8
+ */
+final class ParamTokenTable {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    /**
+     * Max relative time, which leaves the state of all bits set (i.e. {@link #LOCKED}) unused.
+     */
+    private static final long MAX_RELATIVE_TIME = (1L << (64 - TOKEN_BITS)) - 3;
+
+    /**
+     * State of a slot whose key is being replaced.
+     */
+    private static final long LOCKED = -1L;
+
+    /**
+     * Max token count (threshold and burst) of the buckets that can be packed in the state.
+     */
+    static final long MAX_TOKEN_COUNT = TOKEN_MASK;
+
+    private static final int PROBE_LIMIT = 8;
+    private static final int MAX_SHARD_COUNT = 64;
+    private static final int MIN_SLOTS_PER_SHARD = 64;
+
+    /**
+     * Time stamps are stored relative to the base time plus one, so that relative time 0 means tokens never added.
+     */
+    private final long baseTime;
+
+    private final int shardMask;
+    private final int slotMask;
+    private final AtomicReferenceArray<AtomicLongArray> shards;
+
+    /**
+     * @param capacity expected max amount of distinct values
+     * @param baseTime current time in milliseconds
+     */
+    ParamTokenTable(int capacity, long baseTime) {
+        this.baseTime = baseTime;
+        int slotCount = tableSizeFor(Math.max(capacity, 1) * 2L);
+        int shardCount = Math.max(1, Math.min(MAX_SHARD_COUNT, slotCount / MIN_SLOTS_PER_SHARD));
+        this.shardMask = shardCount - 1;
+        this.slotMask = slotCount / shardCount - 1;
+        this.shards = new AtomicReferenceArray<>(shardCount);
+    }
+
+    /**
+     * Acquire tokens for the given value, with the simplified token bucket algorithm of
+     * {@link ParamFlowChecker#passDefaultLocalCheck}, which replenishes the tokens only when the
+     * statistic window has passed.
+     *
+     * @param key          hash of the value
+     * @param tokenCount   threshold of the value
+     * @param maxCount     threshold plus burst count, at most {@link #MAX_TOKEN_COUNT}
+     * @param durationMs   statistic window in milliseconds
+     * @param acquireCount tokens to acquire
+     * @param currentTime  current time in milliseconds
+     * @return whether the tokens are acquired
+     */
+    boolean tryAcquire(long key, long tokenCount, long maxCount, long durationMs, int acquireCount,
+                       long currentTime) {
+        AtomicLongArray shard = shardFor(key);
+        int keyIndex = slotFor(shard, key);
+        while (true) {
+            long state = shard.get(keyIndex + 1);
+            // The key is re-checked after the state is read, as the slot may be taken by another value.
+            if (state == LOCKED || shard.get(keyIndex) != key) {
+                keyIndex = slotFor(shard, key);
+                continue;
+            }
+            if (isNeverAdded(state)) {
+                // Token never added, just replenish the tokens and consume {@code acquireCount} immediately.
+                if (shard.compareAndSet(keyIndex + 1, state, pack(currentTime, maxCount - acquireCount))) {
+                    return true;
+                }
+                continue;
+            }
+
+            long lastAddTokenTime = lastAddTokenTime(state);
+            long restQps = restTokens(state);
+            long passTime = currentTime - lastAddTokenTime;
+            long newState;
+            if (passTime > durationMs) {
+                long toAddCount = (passTime * tokenCount) / durationMs;
+                long newQps = toAddCount + restQps > maxCount ? (maxCount - acquireCount)
+                    : (restQps + toAddCount - acquireCount);
+                if (newQps < 0) {
+                    return false;
+                }
+                newState = pack(currentTime, newQps);
+            } else {
+                long newQps = restQps - acquireCount;
+                if (newQps < 0) {
+                    return false;
+                }
+                newState = (state & ~TOKEN_MASK) | newQps;
+            }
+            if (shard.compareAndSet(keyIndex + 1, state, newState)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param key hash of the value
+     * @return rest tokens of the value, or -1 if tokens never added
+     */
+    long getRestTokens(long key) {
+        AtomicLongArray shard = shards.get(shardIndex(key));
+        if (shard == null) {
+            return -1;
+        }
+        int start = (int) key & slotMask;
+        for (int i = 0; i < PROBE_LIMIT; i++) {
+            int index = ((start + i) & slotMask) << 1;
+            long k = shard.get(index);
+            if (k == key) {
+                long state = shard.get(index + 1);
+                return state == LOCKED || isNeverAdded(state) ? -1 : restTokens(state);
+            }
+            if (k == ParamHashing.EMPTY) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return amount of values having a bucket
+     */
+    int size() {
+        int size = 0;
+        for (int s = 0; s < shards.length(); s++) {
+            AtomicLongArray shard = shards.get(s);
+            if (shard == null) {
+                continue;
+            }
+            for (int i = 0; i < shard.length(); i += 2) {
+                if (shard.get(i) != ParamHashing.EMPTY) {
+                    size++;
+                }
+            }
+        }
+        return size;
+    }
+
+    private AtomicLongArray shardFor(long key) {
+        int index = shardIndex(key);
+        AtomicLongArray shard = shards.get(index);
+        if (shard == null) {
+            shards.compareAndSet(index, null, new AtomicLongArray((slotMask + 1) * 2));
+            shard = shards.get(index);
+        }
+        return shard;
+    }
+
+    private int shardIndex(long key) {
+        // The high bits select the shard, and the low bits select the slot.
+        return (int) (key >>> 32) & shardMask;
+    }
+
+    /**
+     * @return index of the key of the slot for the value
+     */
+    private int slotFor(AtomicLongArray shard, long key) {
+        int start = (int) key & slotMask;
+        while (true) {
+            int victim = -1;
+            long victimState = 0;
+            long victimTime = Long.MAX_VALUE;
+            for (int i = 0; i < PROBE_LIMIT; i++) {
+                int index = ((start + i) & slotMask) << 1;
+                long k = shard.get(index);
+                if (k == key) {
+                    return index;
+                }
+                if (k == ParamHashing.EMPTY) {
+                    if (shard.compareAndSet(index, ParamHashing.EMPTY, key) || shard.get(index) == key) {
+                        return index;
+                    }
+                    continue;
+                }
+                long state = shard.get(index + 1);
+                if (state == LOCKED) {
+                    continue;
+                }
+                // Relative time of the state, 0 for tokens never added.
+                long time = state >>> TOKEN_BITS;
+                if (time < victimTime) {
+                    victim = index;
+                    victimState = state;
+                    victimTime = time;
+                }
+            }
+            if (victim < 0) {
+                continue;
+            }
+            // Lock the state so that the old value can't update it any more, then hand the slot over.
+            if (shard.compareAndSet(victim + 1, victimState, LOCKED)) {
+                shard.set(victim, key);
+                shard.set(victim + 1, neverAddedState(key));
+                return victim;
+            }
+        }
+    }
+
+    /**
+     * The state of tokens never added is tagged with the high bits of the key (not used to locate the slot),
+     * so that it differs from the reset state of the previous value of the slot.
+     */
+    private static long neverAddedState(long key) {
+        return (key >>> (64 - TOKEN_BITS)) & TOKEN_MASK;
+    }
+
+    private static boolean isNeverAdded(long state) {
+        return (state >>> TOKEN_BITS) == 0;
+    }
+
+    private long pack(long time, long restTokens) {
+        long relativeTime = Math.min(Math.max(time - baseTime, 0), MAX_RELATIVE_TIME) + 1;
+        return (relativeTime << TOKEN_BITS) | restTokens;
+    }
+
+    private long lastAddTokenTime(long state) {
+        return (state >>> TOKEN_BITS) - 1 + baseTime;
+    }
+
+    private static long restTokens(long state) {
+        return state & TOKEN_MASK;
+    }
+
+    private static int tableSizeFor(long n) {
+        long size = Long.highestOneBit(Math.max(n - 1, 1)) << 1;
+        return (int) Math.min(size, 1 << 30);
+    }
+}
@@ -17,24 +17,40 @@ package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import java.lang.reflect.Array;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.slots.statistic.cache.ConcurrentLinkedHashMapWrapper;
+import com.alibaba.csp.sentinel.slots.statistic.sketch.SpaceSavingTopK;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
- * Metrics for frequent ("hot spot") parameters.
+ * <p>Metrics for frequent ("hot spot") parameters.</p>
+ *
+ * <p>If {@link #SHARDED_TOKEN_STORE} is enabled, the token buckets of the rules with default control
+ * behavior are kept in a sharded primitive store (see {@link ParamTokenTable}) instead of a map of
+ * {@code AtomicReference<TokenUpdateStatus>}, which doesn't allocate on updates.</p>
  *
  * @author Eric Zhao
  * @since 0.2.0
  */
 public class ParameterMetric {
 
+    /**
+     * Whether to keep the token buckets in the sharded primitive store, false by default.
+     *
+     * @since 1.8.8
+     */
+    public static final String SHARDED_TOKEN_STORE = "csp.sentinel.param.flow.sharded.token.store";
+
     private static final int THREAD_COUNT_MAX_CAPACITY = 4000;
     private static final int BASE_PARAM_MAX_CAPACITY = 4000;
     private static final int TOTAL_MAX_CAPACITY = 20_0000;
@@ -57,6 +73,34 @@ public class ParameterMetric {
 
     private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new HashMap<>();
 
+    /**
+     * Format: (rule, tokenTable)
+     *
+     * @since 1.8.8
+     */
+    private final Map<ParamFlowRule, ParamTokenTable> ruleTokenTables = new HashMap<>();
+
+    /**
+     * Format: (rule, sketchCounter)
+     *
+     * @since 1.8.8
+     */
+    private final Map<ParamFlowRule, ParamSketchCounter> ruleSketchCounters = new HashMap<>();
+
+    private final boolean shardedTokenStore;
+
+    public ParameterMetric() {
+        this(Boolean.parseBoolean(SentinelConfig.getConfig(SHARDED_TOKEN_STORE)));
+    }
+
+    /**
+     * @param shardedTokenStore whether to keep the token buckets in the sharded primitive store
+     * @since 1.8.8
+     */
+    ParameterMetric(boolean shardedTokenStore) {
+        this.shardedTokenStore = shardedTokenStore;
+    }
+
     /**
      * Get the token counter for given parameter rule.
      *
@@ -68,10 +112,51 @@ public class ParameterMetric {
         return ruleTokenCounter.get(rule);
     }
 
+    /**
+     * Get the primitive token store for given parameter rule.
+     *
+     * @param rule valid parameter rule
+     * @return the associated token store, or null if the buckets of the rule are kept in the token counter
+     * @since 1.8.8
+     */
+    ParamTokenTable getRuleTokenTable(ParamFlowRule rule) {
+        return ruleTokenTables.get(rule);
+    }
+
+    /**
+     * Get the approximate counter for given parameter rule in sketch mode.
+     *
+     * @param rule valid parameter rule
+     * @return the associated sketch counter, or null if the rule isn't in sketch mode
+     * @since 1.8.8
+     */
+    ParamSketchCounter getRuleSketchCounter(ParamFlowRule rule) {
+        return ruleSketchCounters.get(rule);
+    }
+
+    /**
+     * Get the most frequent parameter values of given rule in sketch mode, in the last complete
+     * statistic window.
+     *
+     * @param rule valid parameter rule
+     * @return the hot parameter values sorted by count in descending order, or empty list if the rule
+     * isn't in sketch mode
+     * @since 1.8.8
+     */
+    public List<SpaceSavingTopK.Entry<Object>> getHotParams(ParamFlowRule rule) {
+        ParamSketchCounter counter = ruleSketchCounters.get(rule);
+        if (counter == null) {
+            return Collections.emptyList();
+        }
+        return counter.getHotParams(TimeUtil.currentTimeMillis());
+    }
+
     public void clear() {
         synchronized (lock) {
             ruleTimeCounters.clear();
             ruleTokenCounter.clear();
+            ruleTokenTables.clear();
+            ruleSketchCounters.clear();
             threadCountMap.clear();
         }
     }
@@ -91,6 +176,8 @@ public class ParameterMetric {
         synchronized (lock) {
             ruleTimeCounters.remove(rule);
             ruleTokenCounter.remove(rule);
+            ruleTokenTables.remove(rule);
+            ruleSketchCounters.remove(rule);
             threadCountMap.remove(rule.getParamIdx());
         }
     }
@@ -105,7 +192,26 @@ public class ParameterMetric {
             }
         }
 
-        if (!ruleTokenCounter.containsKey(rule)) {
+        if (rule.isSketchMode()) {
+            if (!ruleSketchCounters.containsKey(rule)) {
+                synchronized (lock) {
+                    if (ruleSketchCounters.get(rule) == null) {
+                        ruleSketchCounters.put(rule, new ParamSketchCounter(rule.getDurationInSec() * 1000,
+                            TimeUtil.currentTimeMillis()));
+                    }
+                }
+            }
+        } else if (shardedTokenStore && fitsTokenTable(rule)) {
+            if (!ruleTokenTables.containsKey(rule)) {
+                synchronized (lock) {
+                    if (ruleTokenTables.get(rule) == null) {
+                        int size = (int) Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(),
+                            TOTAL_MAX_CAPACITY);
+                        ruleTokenTables.put(rule, new ParamTokenTable(size, TimeUtil.currentTimeMillis()));
+                    }
+                }
+            }
+        } else if (!ruleTokenCounter.containsKey(rule)) {
             synchronized (lock) {
                 if (ruleTokenCounter.get(rule) == null) {
                     long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
@@ -124,6 +230,16 @@ public class ParameterMetric {
         }
     }
 
+    private static boolean fitsTokenTable(ParamFlowRule rule) {
+        long maxThreshold = (long) rule.getCount();
+        if (rule.getParsedHotItems() != null) {
+            for (Integer itemThreshold : rule.getParsedHotItems().values()) {
+                maxThreshold = Math.max(maxThreshold, itemThreshold);
+            }
+        }
+        return maxThreshold + rule.getBurstCount() <= ParamTokenTable.MAX_TOKEN_COUNT;
+    }
+
     @SuppressWarnings("rawtypes")
     public void decreaseThreadCount(Object... args) {
         if (args == null) {
@@ -144,37 +260,16 @@ public class ParameterMetric {
                 if (Collection.class.isAssignableFrom(arg.getClass())) {
 
                     for (Object value : ((Collection)arg)) {
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            int currentValue = oldValue.decrementAndGet();
-                            if (currentValue <= 0) {
-                                threadCount.remove(value);
-                            }
-                        }
-
+                        decreaseThreadCount(threadCount, value);
                     }
                 } else if (arg.getClass().isArray()) {
                     int length = Array.getLength(arg);
                     for (int i = 0; i < length; i++) {
                         Object value = Array.get(arg, i);
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            int currentValue = oldValue.decrementAndGet();
-                            if (currentValue <= 0) {
-                                threadCount.remove(value);
-                            }
-                        }
-
+                        decreaseThreadCount(threadCount, value);
                     }
                 } else {
-                    AtomicInteger oldValue = threadCount.putIfAbsent(arg, new AtomicInteger());
-                    if (oldValue != null) {
-                        int currentValue = oldValue.decrementAndGet();
-                        if (currentValue <= 0) {
-                            threadCount.remove(arg);
-                        }
-                    }
-
+                    decreaseThreadCount(threadCount, arg);
                 }
 
             }
@@ -204,34 +299,16 @@ public class ParameterMetric {
 
                 if (Collection.class.isAssignableFrom(arg.getClass())) {
                     for (Object value : ((Collection)arg)) {
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            oldValue.incrementAndGet();
-                        } else {
-                            threadCount.put(value, new AtomicInteger(1));
-                        }
-
+                        addThreadCount(threadCount, value);
                     }
                 } else if (arg.getClass().isArray()) {
                     int length = Array.getLength(arg);
                     for (int i = 0; i < length; i++) {
                         Object value = Array.get(arg, i);
-                        AtomicInteger oldValue = threadCount.putIfAbsent(value, new AtomicInteger());
-                        if (oldValue != null) {
-                            oldValue.incrementAndGet();
-                        } else {
-                            threadCount.put(value, new AtomicInteger(1));
-                        }
-
+                        addThreadCount(threadCount, value);
                     }
                 } else {
-                    AtomicInteger oldValue = threadCount.putIfAbsent(arg, new AtomicInteger());
-                    if (oldValue != null) {
-                        oldValue.incrementAndGet();
-                    } else {
-                        threadCount.put(arg, new AtomicInteger(1));
-                    }
-
+                    addThreadCount(threadCount, arg);
                 }
 
             }
@@ -241,6 +318,25 @@ public class ParameterMetric {
         }
     }
 
+    private static void addThreadCount(CacheMap<Object, AtomicInteger> threadCount, Object value) {
+        // Look up first so that the counter is only allocated for a new value.
+        AtomicInteger counter = threadCount.get(value);
+        if (counter == null) {
+            counter = threadCount.putIfAbsent(value, new AtomicInteger(1));
+            if (counter == null) {
+                return;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    private static void decreaseThreadCount(CacheMap<Object, AtomicInteger> threadCount, Object value) {
+        AtomicInteger counter = threadCount.get(value);
+        if (counter != null && counter.decrementAndGet() <= 0) {
+            threadCount.remove(value);
+        }
+    }
+
     public long getThreadCount(int index, Object value) {
         CacheMap<Object, AtomicInteger> cacheMap = threadCountMap.get(index);
         if (cacheMap == null) {
@@ -267,4 +363,12 @@ public class ParameterMetric {
     Map<ParamFlowRule, CacheMap<Object, AtomicLong>> getRuleTimeCounterMap() {
         return ruleTimeCounters;
     }
+
+    Map<ParamFlowRule, ParamTokenTable> getRuleTokenTableMap() {
+        return ruleTokenTables;
+    }
+
+    Map<ParamFlowRule, ParamSketchCounter> getRuleSketchCounterMap() {
+        return ruleSketchCounters;
+    }
 }
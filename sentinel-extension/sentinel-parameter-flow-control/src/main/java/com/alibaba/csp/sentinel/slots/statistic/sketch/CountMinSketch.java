@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.sketch;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A <a href="https://en.wikipedia.org/wiki/Count%E2%80%93min_sketch">Count-Min Sketch</a> counting
+ * the frequencies of keys (given by their 64-bit hashes) in bounded memory, whatever the amount of
+ * distinct keys is.</p>
+ *
+ * <p>The estimate of a key never under-counts. With a width of {@code w} and a depth of {@code d}, it
+ * over-counts by at most {@code e / w} of the total count with a probability of {@code 1 - exp(-d)}.
+ * Counters are updated by atomic additions, so concurrent updates are never lost.</p>
+ *
+ * @since 1.8.8
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param depth amount of hash rows
+     * @param width counters per row, rounded up to a power of 2
+     */
+    public CountMinSketch(int depth, int width) {
+        AssertUtil.isTrue(depth > 0, "depth should be positive");
+        AssertUtil.isTrue(width > 0 && width <= 1 << 28, "width should be in (0, 2^28]");
+        this.depth = depth;
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.mask = this.width - 1;
+        this.counters = new AtomicIntegerArray(depth * this.width);
+    }
+
+    /**
+     * Create a sketch whose estimates over-count by at most {@code epsilon} of the total count
+     * with a probability of {@code 1 - delta}.
+     *
+     * @param epsilon relative error, in (0, 1)
+     * @param delta   probability of exceeding the error, in (0, 1)
+     * @return new sketch
+     */
+    public static CountMinSketch withErrorBounds(double epsilon, double delta) {
+        AssertUtil.isTrue(epsilon > 0 && epsilon < 1, "epsilon should be in (0, 1)");
+        AssertUtil.isTrue(delta > 0 && delta < 1, "delta should be in (0, 1)");
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        return new CountMinSketch(depth, width);
+    }
+
+    /**
+     * Add count of the key.
+     *
+     * @param hash  64-bit hash of the key
+     * @param count count to add
+     * @return estimate of the key after adding
+     */
+    public long add(long hash, int count) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.addAndGet(index(hash, row), count));
+        }
+        return min;
+    }
+
+    /**
+     * @param hash 64-bit hash of the key
+     * @return estimate of the count of the key
+     */
+    public long estimate(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(hash, row)));
+        }
+        return min;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    private int index(long hash, int row) {
+        // Double hashing with the two halves of the hash, see Kirsch and Mitzenmacher.
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & mask);
+    }
+}
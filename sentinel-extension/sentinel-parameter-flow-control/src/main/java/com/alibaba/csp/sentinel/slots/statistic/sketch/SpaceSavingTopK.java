@@ -0,0 +1,185 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.sketch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Tracks the most frequent keys (heavy hitters) with the
+ * <a href="https://www.cs.ucsb.edu/sites/default/files/documents/2005-23.pdf">Space-Saving</a> algorithm
+ * in a fixed amount of counters. When all counters are taken, a new key replaces the key with the
+ * minimum count and inherits its count as the error, so that a key whose count exceeds the minimum
+ * count is always tracked, and its count is over-estimated by at most its error.</p>
+ *
+ * <p>Counts of tracked keys are added without locking. Replacing keys is synchronized, and could be
+ * skipped for the keys which are unlikely heavy hitters by providing an upper bound of their counts
+ * (e.g. estimated by a {@link CountMinSketch}), which avoids contention on the long tail of keys.</p>
+ *
+ * @param <K> type of the keys
+ * @since 1.8.8
+ */
+public class SpaceSavingTopK<K> {
+
+    private final int capacity;
+    private final Map<K, Counter> counters;
+
+    /**
+     * Lower bound of the minimum count of the tracked keys, 0 when not all counters are taken.
+     */
+    private volatile long minCount = 0;
+
+    /**
+     * @param capacity amount of keys to track
+     */
+    public SpaceSavingTopK(int capacity) {
+        AssertUtil.isTrue(capacity > 0, "capacity should be positive");
+        this.capacity = capacity;
+        this.counters = new ConcurrentHashMap<>(capacity * 2);
+    }
+
+    /**
+     * Add count of the key.
+     *
+     * @param key   the key
+     * @param count count to add
+     */
+    public void offer(K key, long count) {
+        offer(key, count, Long.MAX_VALUE);
+    }
+
+    /**
+     * Add count of the key. If the key isn't tracked and its upper bound doesn't exceed the minimum count,
+     * it's skipped since it can't be a heavy hitter.
+     *
+     * @param key        the key
+     * @param count      count to add
+     * @param upperBound upper bound of the total count of the key, including {@code count}
+     */
+    public void offer(K key, long count, long upperBound) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count.addAndGet(count);
+            return;
+        }
+        if (upperBound <= minCount) {
+            return;
+        }
+        synchronized (this) {
+            counter = counters.get(key);
+            if (counter != null) {
+                counter.count.addAndGet(count);
+                return;
+            }
+            if (counters.size() < capacity) {
+                counters.put(key, new Counter(count, 0));
+                return;
+            }
+            K minKey = null;
+            long min = Long.MAX_VALUE;
+            for (Map.Entry<K, Counter> e : counters.entrySet()) {
+                long c = e.getValue().count.get();
+                if (c < min) {
+                    min = c;
+                    minKey = e.getKey();
+                }
+            }
+            counters.remove(minKey);
+            counters.put(key, new Counter(min + count, min));
+            minCount = min;
+        }
+    }
+
+    /**
+     * @return tracked keys sorted by count in descending order
+     */
+    public List<Entry<K>> topK() {
+        List<Entry<K>> entries = new ArrayList<>(counters.size());
+        for (Map.Entry<K, Counter> e : counters.entrySet()) {
+            Counter counter = e.getValue();
+            entries.add(new Entry<>(e.getKey(), counter.count.get(), counter.error));
+        }
+        Collections.sort(entries, new Comparator<Entry<K>>() {
+            @Override
+            public int compare(Entry<K> o1, Entry<K> o2) {
+                return Long.compare(o2.count, o1.count);
+            }
+        });
+        return entries;
+    }
+
+    public synchronized void clear() {
+        counters.clear();
+        minCount = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static final class Counter {
+        private final AtomicLong count;
+        private final long error;
+
+        Counter(long count, long error) {
+            this.count = new AtomicLong(count);
+            this.error = error;
+        }
+    }
+
+    /**
+     * A tracked key, whose actual count is in {@code [count - error, count]}.
+     */
+    public static final class Entry<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                "key=" + key +
+                ", count=" + count +
+                ", error=" + error +
+                '}';
+        }
+    }
+}
@@ -16,6 +16,11 @@
 package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
@@ -24,8 +29,10 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.MockedStatic;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,7 +42,12 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -222,6 +234,40 @@ public class ParamFlowCheckerTest {
         assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, args));
     }
 
+    @Test
+    public void testPassClusterCheckWithParamFlowKey() {
+        final String resourceName = "testPassClusterCheckWithParamFlowKey";
+        final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        ParamFlowRule rule = new ParamFlowRule(resourceName).setParamIdx(0).setCount(1)
+            .setClusterMode(true).setClusterConfig(new ParamFlowClusterConfig().setFlowId(100L));
+        ParameterMetric metric = new ParameterMetric();
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        metric.getRuleTimeCounterMap().put(rule, new ConcurrentLinkedHashMapWrapper<Object, AtomicLong>(4000));
+        metric.getRuleTokenCounterMap().put(rule, new ConcurrentLinkedHashMapWrapper<>(4000));
+
+        ClusterTokenClient client = mock(ClusterTokenClient.class);
+        when(client.requestParamToken(eq(100L), eq(1), anyCollection()))
+            .thenReturn(new TokenResult(TokenResultStatus.BLOCKED));
+        try (MockedStatic<ClusterStateManager> state = mockStatic(ClusterStateManager.class);
+             MockedStatic<TokenClientProvider> provider = mockStatic(TokenClientProvider.class)) {
+            state.when(ClusterStateManager::isClient).thenReturn(true);
+            provider.when(TokenClientProvider::getClient).thenReturn(client);
+
+            // The raw value is sent to the token server.
+            assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, ParamFlowKey.of("user-1")));
+            verify(client).requestParamToken(100L, 1, Collections.<Object>singletonList("user-1"));
+            assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1,
+                (Object) new Object[] {ParamFlowKey.of(42L), "b"}));
+            verify(client).requestParamToken(100L, 1, Arrays.<Object>asList(42L, "b"));
+
+            // The keys created from a hash are checked locally.
+            ParamFlowKey hashKey = ParamFlowKey.ofHash(0x1234L);
+            assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, hashKey));
+            assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, hashKey));
+            verify(client, times(2)).requestParamToken(eq(100L), eq(1), anyCollection());
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         ParameterMetricStorage.getMetricsMap().clear();
@@ -17,8 +17,10 @@ package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -246,6 +248,82 @@ public class ParamFlowDefaultCheckerTest extends AbstractTimeBasedTest {
         }
     }
 
+    @Test
+    public void testParamFlowDefaultCheckWithShardedTokenStore() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            final String resourceName = "testParamFlowDefaultCheckWithShardedTokenStore";
+            final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+            int paramIdx = 0;
+
+            long threshold = 5L;
+
+            ParamFlowRule rule = new ParamFlowRule(resourceName)
+                .setCount(threshold)
+                .setParamIdx(paramIdx)
+                .setBurstCount(2);
+
+            String valueA = "valueA";
+            long valueB = 42L;
+            setCurrentMillis(mocked, System.currentTimeMillis());
+            ParameterMetric metric = new ParameterMetric(true);
+            ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+            metric.initialize(rule);
+            assertNull(metric.getRuleStampedTokenCounter(rule));
+
+            for (int i = 0; i < threshold + 2; i++) {
+                assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+            }
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 7, valueB));
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueB));
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 8, valueA));
+
+            sleep(mocked, 1001);
+            for (int i = 0; i < threshold; i++) {
+                assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+            }
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        }
+    }
+
+    @Test
+    public void testParamFlowDefaultCheckWithParamFlowKey() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            final String resourceName = "testParamFlowDefaultCheckWithParamFlowKey";
+            final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+            int paramIdx = 0;
+
+            long threshold = 5L;
+
+            String valueA = "valueA";
+            long valueB = 42L;
+            ParamFlowRule rule = new ParamFlowRule(resourceName)
+                .setCount(threshold)
+                .setParamIdx(paramIdx);
+            rule.setParsedHotItems(Collections.<Object, Integer>singletonMap(valueB, 2));
+
+            setCurrentMillis(mocked, System.currentTimeMillis());
+            ParameterMetric metric = new ParameterMetric(true);
+            ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+            metric.initialize(rule);
+
+            ParamFlowKey keyA = ParamFlowKey.of(valueA);
+            for (int i = 0; i < threshold - 1; i++) {
+                assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, keyA));
+            }
+            // The key shares the tokens with the raw value.
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, keyA));
+
+            // The hot item threshold is matched with the raw value of the key.
+            ParamFlowKey keyB = ParamFlowKey.of(valueB);
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 2, keyB));
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueB));
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1,
+                ParamFlowKey.ofHash(keyB.getHash())));
+        }
+    }
+
     @Test
     public void testParamFlowDefaultCheckSingleValueCheckQpsMultipleThreads() throws Exception {
         final String resourceName = "testParamFlowDefaultCheckSingleValueCheckQpsMultipleThreads";
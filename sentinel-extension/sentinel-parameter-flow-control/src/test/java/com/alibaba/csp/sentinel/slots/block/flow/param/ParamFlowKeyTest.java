@@ -0,0 +1,53 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class ParamFlowKeyTest {
+
+    @Test
+    public void testKeyOfValue() {
+        ParamFlowKey key = ParamFlowKey.of("user-1");
+        assertEquals("user-1", key.getValue());
+        assertEquals(ParamHashing.hash("user-1"), key.getHash());
+        assertEquals(ParamFlowKey.of("user-1"), key);
+        assertEquals(ParamFlowKey.of("user-1").hashCode(), key.hashCode());
+        assertNotEquals(ParamFlowKey.of("user-2"), key);
+
+        ParamFlowKey longKey = ParamFlowKey.of(42L);
+        assertEquals(42L, longKey.getValue());
+        assertEquals(ParamHashing.hash(42L), longKey.getHash());
+        assertEquals(ParamHashing.hash(42), longKey.getHash());
+        assertEquals("42", longKey.toString());
+    }
+
+    @Test
+    public void testKeyOfHash() {
+        ParamFlowKey key = ParamFlowKey.ofHash(ParamHashing.EMPTY);
+        assertNull(key.getValue());
+        assertNotEquals(ParamHashing.EMPTY, key.getHash());
+        assertEquals(key.getHash(), ParamHashing.hash(key));
+
+        ParamFlowKey longKey = ParamFlowKey.of(7L);
+        assertEquals(longKey, ParamFlowKey.ofHash(longKey.getHash()));
+        assertEquals(Long.toHexString(0x1234L), ParamFlowKey.ofHash(0x1234L).toString());
+    }
+}
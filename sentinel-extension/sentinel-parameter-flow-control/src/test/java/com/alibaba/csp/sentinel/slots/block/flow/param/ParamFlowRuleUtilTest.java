@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -43,6 +45,22 @@ public class ParamFlowRuleUtilTest {
         assertTrue(ParamFlowRuleUtil.isValidRule(goodRule));
     }
 
+    @Test
+    public void testCheckValidSketchModeRule() {
+        ParamFlowRule rule = new ParamFlowRule("abc")
+            .setCount(10)
+            .setParamIdx(1)
+            .setSketchMode(true);
+        assertTrue(ParamFlowRuleUtil.isValidRule(rule));
+
+        // Sketch mode only works with QPS grade and default control behavior.
+        rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER);
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+        rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_DEFAULT)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD);
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule));
+    }
+
     @Test
     public void testParseHotParamExceptionItemsFailure() {
         String valueB = "Sentinel";
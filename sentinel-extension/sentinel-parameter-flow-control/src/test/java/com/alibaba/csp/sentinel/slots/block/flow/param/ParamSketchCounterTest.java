@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.block.flow.param.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.statistic.sketch.SpaceSavingTopK;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamSketchCounter}.
+ */
+public class ParamSketchCounterTest extends AbstractTimeBasedTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    public void testAcquireInSlidingWindow() {
+        ParamSketchCounter counter = new ParamSketchCounter(1000, START);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(counter.tryAcquire("a", 10, 1, START + i));
+        }
+        assertFalse(counter.tryAcquire("a", 10, 1, START + 500));
+        assertTrue(counter.tryAcquire("b", 10, 10, START + 500));
+        assertEquals(10, counter.estimate("a", START + 500));
+
+        // 3/4 of the previous window is still in the sliding window.
+        assertTrue(counter.tryAcquire("a", 10, 2, START + 1250));
+        assertFalse(counter.tryAcquire("a", 10, 1, START + 1250));
+        // 1/4 of the previous window is still in the sliding window.
+        assertTrue(counter.tryAcquire("a", 10, 5, START + 1750));
+        assertFalse(counter.tryAcquire("a", 10, 1, START + 1750));
+
+        // No request in the last window.
+        assertTrue(counter.tryAcquire("a", 10, 10, START + 3100));
+        assertFalse(counter.tryAcquire("a", 10, 1, START + 3100));
+    }
+
+    @Test
+    public void testLimitHotValuesAmongManyValues() {
+        ParamSketchCounter counter = new ParamSketchCounter(1000, START);
+        int passed = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            long now = START + i / 2000;
+            // Each value of the long tail is requested once, and the hot value is requested every 10 requests.
+            if (i % 10 == 0) {
+                if (counter.tryAcquire("hot", 1000, 1, now)) {
+                    passed++;
+                }
+            } else {
+                assertTrue(counter.tryAcquire("user-" + i, 1000, 1, now));
+            }
+        }
+        // 100k requests of the hot value in 500 ms: the counter isn't lost in spite of 900k other values.
+        assertEquals(1000, passed);
+    }
+
+    @Test
+    public void testHotParams() {
+        ParamSketchCounter counter = new ParamSketchCounter(1000, 4, 1024, 3, START);
+        for (int i = 0; i < 100; i++) {
+            counter.tryAcquire("a", 50, 1, START + i);
+            if (i % 2 == 0) {
+                counter.tryAcquire("b", 50, 1, START + i);
+            }
+            if (i % 4 == 0) {
+                counter.tryAcquire("c", 50, 1, START + i);
+            }
+            counter.tryAcquire("user-" + i, 50, 1, START + i);
+        }
+        // Hot params are reported after the window completes.
+        assertTrue(counter.getHotParams(START + 999).isEmpty());
+        List<SpaceSavingTopK.Entry<Object>> hotParams = counter.getHotParams(START + 1000);
+        assertEquals(3, hotParams.size());
+        assertEquals("a", hotParams.get(0).getKey());
+        // The blocked requests are counted as well.
+        assertTrue(hotParams.get(0).getCount() >= 100);
+        assertEquals("b", hotParams.get(1).getKey());
+        assertTrue(hotParams.get(1).getCount() >= 50);
+
+        assertTrue(counter.getHotParams(START + 2000).isEmpty());
+    }
+
+    @Test
+    public void testSketchModeCheck() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            final String resourceName = "testSketchModeCheck";
+            final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+            ParamFlowRule rule = new ParamFlowRule(resourceName)
+                .setCount(5)
+                .setParamIdx(0)
+                .setSketchMode(true);
+            ParamFlowRuleUtil.fillExceptionFlowItems(rule.setParamFlowItemList(
+                Collections.singletonList(ParamFlowItem.newItem("vip", 8))));
+
+            setCurrentMillis(mocked, START);
+            ParameterMetric metric = new ParameterMetric();
+            ParameterMetricStorage.getMetricsMap().put(resourceName, metric);
+            metric.initialize(rule);
+            assertNotNull(metric.getRuleSketchCounter(rule));
+            assertNull(metric.getRuleStampedTokenCounter(rule));
+
+            for (int i = 0; i < 5; i++) {
+                assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "a"));
+            }
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "a"));
+            for (int i = 0; i < 8; i++) {
+                assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "vip"));
+            }
+            assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "vip"));
+
+            sleep(mocked, 2000);
+            List<SpaceSavingTopK.Entry<Object>> hotParams = metric.getHotParams(rule);
+            assertTrue(hotParams.isEmpty());
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "a"));
+            sleep(mocked, 1000);
+            hotParams = metric.getHotParams(rule);
+            assertEquals(1, hotParams.size());
+            assertEquals("a", hotParams.get(0).getKey());
+
+            ParameterMetricStorage.getMetricsMap().remove(resourceName);
+        }
+    }
+}
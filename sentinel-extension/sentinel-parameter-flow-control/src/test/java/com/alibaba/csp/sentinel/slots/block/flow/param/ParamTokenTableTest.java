@@ -0,0 +1,169 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamTokenTable}.
+ */
+public class ParamTokenTableTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    public void testAcquireAndRefill() {
+        ParamTokenTable table = new ParamTokenTable(4000, START);
+        long key = ParamHashing.hash("valueA");
+        assertEquals(-1, table.getRestTokens(key));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(table.tryAcquire(key, 5, 5, 1000, 1, START + 10));
+        }
+        assertEquals(0, table.getRestTokens(key));
+        assertFalse(table.tryAcquire(key, 5, 5, 1000, 1, START + 500));
+        // Tokens are only replenished after the statistic window has passed.
+        assertFalse(table.tryAcquire(key, 5, 5, 1000, 1, START + 1010));
+        assertTrue(table.tryAcquire(key, 5, 5, 1000, 1, START + 1011));
+        assertEquals(4, table.getRestTokens(key));
+
+        long keyB = ParamHashing.hash("valueB");
+        assertTrue(table.tryAcquire(keyB, 5, 5, 1000, 5, START + 1011));
+        assertFalse(table.tryAcquire(keyB, 5, 5, 1000, 1, START + 1011));
+        assertEquals(4, table.getRestTokens(key));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void testAcquireWithBurst() {
+        ParamTokenTable table = new ParamTokenTable(4000, START);
+        long key = ParamHashing.hash(42L);
+        // Threshold 4 and burst 2.
+        assertTrue(table.tryAcquire(key, 4, 6, 1000, 6, START));
+        assertFalse(table.tryAcquire(key, 4, 6, 1000, 1, START + 100));
+        // Tokens of 1.5 windows are added, up to the threshold plus burst.
+        assertTrue(table.tryAcquire(key, 4, 6, 1000, 6, START + 1500));
+        assertFalse(table.tryAcquire(key, 4, 6, 1000, 1, START + 1600));
+        assertTrue(table.tryAcquire(key, 4, 6, 1000, 2, START + 3000));
+        assertEquals(4, table.getRestTokens(key));
+    }
+
+    @Test
+    public void testAcquireWithLongIntervalAndHighThreshold() {
+        ParamTokenTable table = new ParamTokenTable(4000, START);
+        long key = ParamHashing.hash("valueA");
+        long threshold = 25000L;
+        assertTrue(table.tryAcquire(key, threshold, threshold, 1000, 1, START));
+        long now = START + TimeUnit.HOURS.toMillis(72);
+        assertTrue(table.tryAcquire(key, threshold, threshold, 1000, 1, now));
+        assertEquals(threshold - 1, table.getRestTokens(key));
+
+        // Time before the base time (e.g. mocked) is regarded as the base time.
+        ParamTokenTable earlyTable = new ParamTokenTable(4000, START);
+        assertTrue(earlyTable.tryAcquire(key, 1, 1, 1000, 1, START - 5000));
+        assertFalse(earlyTable.tryAcquire(key, 1, 1, 1000, 1, START - 4000));
+        assertTrue(earlyTable.tryAcquire(key, 1, 1, 1000, 1, START + 1001));
+    }
+
+    @Test
+    public void testReplaceLeastRecentlyRefilledWhenFull() {
+        ParamTokenTable table = new ParamTokenTable(16, START);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(table.tryAcquire(ParamHashing.hash("key-" + i), 1, 1, 1000, 1, START + i));
+        }
+        assertTrue(table.size() <= 32);
+        // The latest value is kept.
+        assertEquals(0, table.getRestTokens(ParamHashing.hash("key-999")));
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws Exception {
+        final ParamTokenTable table = new ParamTokenTable(4000, START);
+        final long threshold = 10000;
+        final int threadCount = 8;
+        final String[] values = {"a", "b", "c"};
+        final AtomicInteger[] passed = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 5000; i++) {
+                        int v = i % values.length;
+                        if (table.tryAcquire(ParamHashing.hash(values[v]), threshold, threshold, 1000, 1, START)) {
+                            passed[v].incrementAndGet();
+                        }
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+        for (AtomicInteger count : passed) {
+            assertEquals(threshold, count.get());
+        }
+    }
+
+    @Test
+    public void testConcurrentAcquireWithReplacement() throws Exception {
+        final ParamTokenTable table = new ParamTokenTable(4, START);
+        final int threadCount = 8;
+        final int keyCount = 64;
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        table.tryAcquire(ParamHashing.hash("key-" + (i % keyCount)), 3, 3, 1000, 1, START + i / 100);
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+        assertTrue(table.size() <= 8);
+        for (int i = 0; i < keyCount; i++) {
+            long rest = table.getRestTokens(ParamHashing.hash("key-" + i));
+            assertTrue(rest >= -1 && rest <= 3);
+        }
+    }
+
+    @Test
+    public void testHashDistinctValues() {
+        Set<Long> hashes = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(hashes.add(ParamHashing.hash("user-" + i)));
+            assertTrue(hashes.add(ParamHashing.hash((long) i)));
+        }
+        assertEquals(ParamHashing.hash("abc"), ParamHashing.hash(new String("abc")));
+        assertNotEquals(ParamHashing.EMPTY, ParamHashing.hash(0L));
+    }
+}
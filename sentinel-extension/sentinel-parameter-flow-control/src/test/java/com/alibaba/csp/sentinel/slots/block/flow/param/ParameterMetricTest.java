@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.block.flow.param;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -76,6 +77,35 @@ public class ParameterMetricTest {
         assertEquals(0, metric.getRuleTokenCounterMap().size());
     }
 
+    @Test
+    public void testInitShardedTokenStore() {
+        ParameterMetric metric = new ParameterMetric(true);
+
+        ParamFlowRule rule = new ParamFlowRule("abc")
+            .setParamIdx(1)
+            .setCount(100);
+        metric.initialize(rule);
+        ParamTokenTable tokenTable = metric.getRuleTokenTable(rule);
+        assertNotNull(tokenTable);
+        assertNull(metric.getRuleStampedTokenCounter(rule));
+        metric.initialize(rule);
+        assertSame(tokenTable, metric.getRuleTokenTable(rule));
+
+        // Thresholds which can't be packed in the primitive store fall back to the token counter.
+        ParamFlowRule largeRule = new ParamFlowRule("abc")
+            .setParamIdx(1)
+            .setCount(1e9);
+        metric.initialize(largeRule);
+        assertNull(metric.getRuleTokenTable(largeRule));
+        assertNotNull(metric.getRuleStampedTokenCounter(largeRule));
+
+        metric.clearForRule(rule);
+        assertNull(metric.getRuleTokenTable(rule));
+        metric.initialize(rule);
+        metric.clear();
+        assertEquals(0, metric.getRuleTokenTableMap().size());
+    }
+
     @Test
     public void testAddAndDecreaseThreadCountCommon() {
         testAddAndDecreaseThreadCount(PARAM_TYPE_NORMAL);
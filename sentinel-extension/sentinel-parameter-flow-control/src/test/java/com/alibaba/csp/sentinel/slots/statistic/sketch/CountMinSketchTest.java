@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.sketch;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void testErrorBounds() {
+        CountMinSketch sketch = CountMinSketch.withErrorBounds(0.001, 0.01);
+        assertEquals(4096, sketch.getWidth());
+        assertEquals(5, sketch.getDepth());
+
+        int keyCount = 100000;
+        int[] counts = new int[keyCount];
+        Random random = new Random(1);
+        long total = 0;
+        for (int i = 0; i < 500000; i++) {
+            // Skewed keys: a few hot keys and a long tail.
+            int key = random.nextInt(10) < 3 ? random.nextInt(10) : random.nextInt(keyCount);
+            counts[key]++;
+            sketch.add(hash(key), 1);
+            total++;
+        }
+        int exceeded = 0;
+        for (int key = 0; key < keyCount; key++) {
+            long estimate = sketch.estimate(hash(key));
+            assertTrue(estimate >= counts[key]);
+            if (estimate - counts[key] > 0.001 * total) {
+                exceeded++;
+            }
+        }
+        assertTrue("exceeded: " + exceeded, exceeded <= 0.01 * keyCount);
+
+        sketch.reset();
+        assertEquals(0, sketch.estimate(hash(1)));
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final CountMinSketch sketch = new CountMinSketch(4, 1024);
+        int threadCount = 8;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        sketch.add(hash(i % 10), 1);
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+        for (int key = 0; key < 10; key++) {
+            assertEquals(8000, sketch.estimate(hash(key)));
+        }
+    }
+
+    private static long hash(long key) {
+        // MurmurHash3 finalizer.
+        long h = key * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.sketch;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpaceSavingTopKTest {
+
+    @Test
+    public void testTrackHeavyHitters() {
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(20);
+        Map<String, Long> counts = new HashMap<>();
+        Random random = new Random(1);
+        int total = 200000;
+        for (int i = 0; i < total; i++) {
+            // 5 heavy hitters take half of the requests.
+            String key = random.nextBoolean() ? "hot-" + random.nextInt(5) : "user-" + random.nextInt(1000000);
+            Long c = counts.get(key);
+            counts.put(key, c == null ? 1 : c + 1);
+            topK.offer(key, 1);
+        }
+
+        List<SpaceSavingTopK.Entry<String>> entries = topK.topK();
+        assertEquals(20, entries.size());
+        for (int i = 0; i < 5; i++) {
+            SpaceSavingTopK.Entry<String> entry = entries.get(i);
+            assertTrue(entry.getKey().startsWith("hot-"));
+            long actual = counts.get(entry.getKey());
+            assertTrue(entry.getCount() >= actual);
+            assertTrue(entry.getCount() - entry.getError() <= actual);
+        }
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i - 1).getCount() >= entries.get(i).getCount());
+        }
+
+        topK.clear();
+        assertTrue(topK.topK().isEmpty());
+    }
+
+    @Test
+    public void testSkipUnlikelyHeavyHitters() {
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(2);
+        topK.offer("a", 10, 10);
+        topK.offer("b", 5, 5);
+        // All counters are taken, so "c" replaces the key with the minimum count.
+        topK.offer("c", 1, 1);
+        assertEquals(2, topK.topK().size());
+        assertEquals("a", topK.topK().get(0).getKey());
+        assertEquals("c", topK.topK().get(1).getKey());
+        assertEquals(6, topK.topK().get(1).getCount());
+        assertEquals(5, topK.topK().get(1).getError());
+
+        // Skipped, as the upper bound of "d" doesn't exceed the minimum count.
+        topK.offer("d", 1, 5);
+        assertEquals("c", topK.topK().get(1).getKey());
+        topK.offer("d", 1, 6);
+        assertEquals("d", topK.topK().get(1).getKey());
+        assertEquals(7, topK.topK().get(1).getCount());
+
+        // Tracked keys are always counted.
+        topK.offer("a", 1, 0);
+        assertEquals(11, topK.topK().get(0).getCount());
+    }
+}
@@ -46,6 +46,17 @@ public final class MetricConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    /**
+     * Percentiles of response time, which are present only if the response time histogram is enabled.
+     *
+     * @since 1.8.8
+     */
+    public static final String RT_P50 = "rtP50";
+
+    public static final String RT_P95 = "rtP95";
+
+    public static final String RT_P99 = "rtP99";
+
     private MetricConstants() {
     }
 }
@@ -122,6 +122,15 @@ public class SentinelCollector extends Collector {
         if(MetricConstants.CONCURRENCY.equals(type)){
             return node.getConcurrency();
         }
+        if(MetricConstants.RT_P50.equals(type)){
+            return node.getRtP50();
+        }
+        if(MetricConstants.RT_P95.equals(type)){
+            return node.getRtP95();
+        }
+        if(MetricConstants.RT_P99.equals(type)){
+            return node.getRtP99();
+        }
         return -1.0;
     }
 }
@@ -14,4 +14,15 @@ public class SentinelCollectorTest {
         double val = collector.getTypeVal(node,"passQps");
         Assert.assertEquals(val, 10,1e-4);
     }
+
+    @Test
+    public void testRtPercentiles(){
+        SentinelCollector collector = new SentinelCollector();
+
+        MetricNode node = new MetricNode();
+        node.setRtP50(3).setRtP95(20).setRtP99(45);
+        Assert.assertEquals(3, collector.getTypeVal(node,"rtP50"), 1e-4);
+        Assert.assertEquals(20, collector.getTypeVal(node,"rtP95"), 1e-4);
+        Assert.assertEquals(45, collector.getTypeVal(node,"rtP99"), 1e-4);
+    }
 }